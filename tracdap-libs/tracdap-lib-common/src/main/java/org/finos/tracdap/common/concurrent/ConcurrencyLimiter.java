@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.concurrent;
+
+import org.finos.tracdap.common.exception.EServiceOverload;
+import org.finos.tracdap.common.exception.ETracInternal;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Executor that limits the number of tasks running at once on an underlying executor.
+ *
+ * <p>Tasks over the limit wait in a queue, which only holds the task objects and does not
+ * tie up any threads. When the queue is full, new tasks are rejected with EServiceOverload.
+ * The limiter keeps metrics for the queue depth and wait times, it can be registered as an
+ * MBean to publish them over JMX.</p>
+ */
+public class ConcurrencyLimiter implements Executor, ConcurrencyLimiterMXBean {
+
+    private final Executor delegate;
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final ConcurrentLinkedQueue<QueuedTask> queue;
+    private final AtomicInteger queueDepth;
+    private final AtomicInteger activeCount;
+
+    private final AtomicInteger peakQueueDepth;
+    private final AtomicLong completedCount;
+    private final AtomicLong rejectedCount;
+    private final AtomicLong dispatchedCount;
+    private final AtomicLong totalWaitNanos;
+
+    public ConcurrencyLimiter(Executor delegate, int maxConcurrent, int maxQueued) {
+
+        if (maxConcurrent <= 0 || maxQueued < 0)
+            throw new ETracInternal("Concurrency limit must be positive and queue size must not be negative");
+
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.queueDepth = new AtomicInteger(0);
+        this.activeCount = new AtomicInteger(0);
+
+        this.peakQueueDepth = new AtomicInteger(0);
+        this.completedCount = new AtomicLong(0);
+        this.rejectedCount = new AtomicLong(0);
+        this.dispatchedCount = new AtomicLong(0);
+        this.totalWaitNanos = new AtomicLong(0);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+
+        // Reserve a place in the queue before adding the task
+        // Tasks are only rejected if every slot is busy and the queue is already full
+
+        var depth = queueDepth.incrementAndGet();
+
+        if (depth > maxQueued && activeCount.get() >= maxConcurrent) {
+
+            queueDepth.decrementAndGet();
+            rejectedCount.incrementAndGet();
+
+            var message = String.format(
+                    "Too many requests are waiting (%d running, %d queued), please try again later",
+                    maxConcurrent, maxQueued);
+
+            throw new EServiceOverload(message);
+        }
+
+        peakQueueDepth.accumulateAndGet(depth, Math::max);
+        queue.add(new QueuedTask(task, System.nanoTime()));
+
+        dispatch();
+    }
+
+    private void dispatch() {
+
+        while (true) {
+
+            var active = activeCount.get();
+
+            if (active >= maxConcurrent)
+                return;
+
+            if (!activeCount.compareAndSet(active, active + 1))
+                continue;
+
+            var next = queue.poll();
+
+            if (next == null) {
+
+                activeCount.decrementAndGet();
+
+                // Another thread may have queued a task after the poll, while this thread held the slot
+                if (queue.isEmpty())
+                    return;
+
+                continue;
+            }
+
+            queueDepth.decrementAndGet();
+            dispatchedCount.incrementAndGet();
+            totalWaitNanos.addAndGet(System.nanoTime() - next.queuedTime);
+
+            try {
+                delegate.execute(() -> runTask(next.task));
+            }
+            catch (RuntimeException e) {
+
+                // The underlying executor is not accepting tasks, e.g. during shutdown
+                activeCount.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private void runTask(Runnable task) {
+
+        try {
+            task.run();
+        }
+        finally {
+            activeCount.decrementAndGet();
+            completedCount.incrementAndGet();
+            dispatch();
+        }
+    }
+
+    @Override
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public double getMeanWaitMillis() {
+
+        var dispatched = dispatchedCount.get();
+
+        if (dispatched == 0)
+            return 0.0;
+
+        return (double) totalWaitNanos.get() / dispatched / 1000000.0;
+    }
+
+    private static class QueuedTask {
+
+        final Runnable task;
+        final long queuedTime;
+
+        QueuedTask(Runnable task, long queuedTime) {
+            this.task = task;
+            this.queuedTime = queuedTime;
+        }
+    }
+}
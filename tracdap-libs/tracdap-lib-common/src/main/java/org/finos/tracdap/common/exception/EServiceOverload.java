@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.exception;
+
+/**
+ * The service has too many requests waiting and cannot accept any more, the client may retry later
+ */
+public class EServiceOverload extends ETracPublic {
+
+    public EServiceOverload(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public EServiceOverload(String message) {
+        super(message);
+    }
+}
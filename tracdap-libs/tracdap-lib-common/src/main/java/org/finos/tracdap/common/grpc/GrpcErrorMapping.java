@@ -144,5 +144,7 @@ public class GrpcErrorMapping {
 
             Map.entry(EData.class, Status.Code.DATA_LOSS),
 
-            Map.entry(EPluginNotAvailable.class, Status.Code.UNIMPLEMENTED));
+            Map.entry(EPluginNotAvailable.class, Status.Code.UNIMPLEMENTED),
+
+            Map.entry(EServiceOverload.class, Status.Code.RESOURCE_EXHAUSTED));
 }
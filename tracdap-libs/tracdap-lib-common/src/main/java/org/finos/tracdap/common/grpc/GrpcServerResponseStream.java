@@ -17,6 +17,7 @@
 package org.finos.tracdap.common.grpc;
 
 import org.finos.tracdap.common.exception.ETracInternal;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import java.util.concurrent.Flow;
@@ -25,28 +26,52 @@ import java.util.concurrent.Flow;
 public class GrpcServerResponseStream<TResponse> implements Flow.Subscriber<TResponse> {
 
     private final StreamObserver<TResponse> grpcObserver;
+    private final ServerCallStreamObserver<TResponse> serverObserver;
 
     private Flow.Subscription subscription;
+    private boolean cancelled;
+    private boolean waitingForReady;
 
     public GrpcServerResponseStream(StreamObserver<TResponse> grpcObserver) {
 
         this.grpcObserver = grpcObserver;
+
+        // Cancel the source if the client goes away, e.g. for long-lived streams that do not complete on their own
+        // Items are only requested while the transport is ready, so a slow client does not cause buffering
+        // Both handlers can only be set during the initial call, so they are set up here in the constructor
+
+        if (grpcObserver instanceof ServerCallStreamObserver) {
+            serverObserver = (ServerCallStreamObserver<TResponse>) grpcObserver;
+            serverObserver.setOnCancelHandler(this::onCancel);
+            serverObserver.setOnReadyHandler(this::onReady);
+        }
+        else
+            serverObserver = null;
     }
 
     @Override
     public void onSubscribe(Flow.Subscription subscription) {
 
-        if (this.subscription != null)
-            throw new ETracInternal("Multiple subscriptions on gRPC observer wrapper");
+        synchronized (this) {
 
-        this.subscription = subscription;
-        subscription.request(1);
+            if (this.subscription != null)
+                throw new ETracInternal("Multiple subscriptions on gRPC observer wrapper");
+
+            this.subscription = subscription;
+
+            if (cancelled) {
+                subscription.cancel();
+                return;
+            }
+        }
+
+        requestNext();
     }
 
     @Override
     public void onNext(TResponse item) {
         grpcObserver.onNext(item);
-        subscription.request(1);
+        requestNext();
     }
 
     @Override
@@ -63,4 +88,53 @@ public class GrpcServerResponseStream<TResponse> implements Flow.Subscriber<TRes
 
         grpcObserver.onCompleted();
     }
+
+    private void requestNext() {
+
+        Flow.Subscription subscription;
+
+        synchronized (this) {
+
+            if (cancelled)
+                return;
+
+            if (serverObserver != null && !serverObserver.isReady()) {
+                waitingForReady = true;
+                return;
+            }
+
+            subscription = this.subscription;
+        }
+
+        subscription.request(1);
+    }
+
+    private void onReady() {
+
+        Flow.Subscription subscription;
+
+        synchronized (this) {
+
+            if (!waitingForReady || cancelled)
+                return;
+
+            waitingForReady = false;
+            subscription = this.subscription;
+        }
+
+        subscription.request(1);
+    }
+
+    private void onCancel() {
+
+        Flow.Subscription subscription;
+
+        synchronized (this) {
+            cancelled = true;
+            subscription = this.subscription;
+        }
+
+        if (subscription != null)
+            subscription.cancel();
+    }
 }
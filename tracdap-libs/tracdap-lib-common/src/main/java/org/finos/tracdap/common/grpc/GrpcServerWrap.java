@@ -17,22 +17,52 @@
 package org.finos.tracdap.common.grpc;
 
 import org.finos.tracdap.common.concurrent.Flows;
+import io.grpc.Context;
 import io.grpc.stub.StreamObserver;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
 import java.util.function.Function;
 
 
 public class GrpcServerWrap {
+
+    // If an executor is supplied, blocking method implementations are handed off to it
+    // This frees up the gRPC thread, it does not have to wait while the method is running
+
+    private final Executor methodExecutor;
+
+    public GrpcServerWrap() {
+        this(null);
+    }
+
+    public GrpcServerWrap(Executor methodExecutor) {
+        this.methodExecutor = methodExecutor;
+    }
+
     public <TRequest, TResponse>
     void unaryCall(
             TRequest request, StreamObserver<TResponse> responseObserver,
             Function<TRequest, TResponse> methodImpl) {
 
         try {
-            var result = methodImpl.apply(request);
-            handleResult(responseObserver, result, null);
+
+            if (methodExecutor != null) {
+
+                // The gRPC context holds the auth details for the call, so it must go with the method
+
+                var executor = Context.current().fixedContextExecutor(methodExecutor);
+
+                CompletableFuture.supplyAsync(() -> methodImpl.apply(request), executor)
+                        .handle((result, error) -> handleResult(responseObserver, result, error));
+            }
+            else {
+
+                var result = methodImpl.apply(request);
+                handleResult(responseObserver, result, null);
+            }
         }
         catch (Exception error) {
             handleResult(responseObserver, null, error);
@@ -58,10 +88,26 @@ public class GrpcServerWrap {
             TRequest request, StreamObserver<TResponse> responseObserver,
             Function<TRequest, Flow.Publisher<TResponse>> methodImpl) {
 
+        // Response stream is created before any hand-off, it has to register with gRPC during the initial call
+        var resultSubscriber = new GrpcServerResponseStream<>(responseObserver);
+
+        Runnable subscribe = () -> {
+
+            try {
+                var resultPublisher = methodImpl.apply(request);
+                resultPublisher.subscribe(resultSubscriber);
+            }
+            catch (Exception error) {
+                handleResult(responseObserver, null, error);
+            }
+        };
+
         try {
-            var resultPublisher = methodImpl.apply(request);
-            var resultSubscriber = new GrpcServerResponseStream<>(responseObserver);
-            resultPublisher.subscribe(resultSubscriber);
+
+            if (methodExecutor != null)
+                Context.current().fixedContextExecutor(methodExecutor).execute(subscribe);
+            else
+                subscribe.run();
         }
         catch (Exception error) {
             handleResult(responseObserver, null, error);
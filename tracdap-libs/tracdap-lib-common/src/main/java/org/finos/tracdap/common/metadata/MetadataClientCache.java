@@ -0,0 +1,397 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata;
+
+import org.finos.tracdap.api.MetadataBatchRequest;
+import org.finos.tracdap.api.MetadataBatchResponse;
+import org.finos.tracdap.api.MetadataReadRequest;
+import org.finos.tracdap.api.TrustedMetadataApiGrpc;
+import org.finos.tracdap.config.MetadataClientCacheConfig;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.metadata.TagSelector;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.*;
+import io.grpc.stub.ClientCalls;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Client side cache for reads from the trusted metadata API.
+ *
+ * <p>The cache is a gRPC client interceptor, so it can be applied to any stub for the
+ * trusted metadata API (future, blocking or async) and works alongside per-call credentials.
+ * Only readObject() and readBatch() are intercepted, all other calls pass straight through.</p>
+ *
+ * <p>Object versions and tag versions are immutable once written, so a response for a selector
+ * with an explicit object version and tag version can be cached. A batch is answered from the cache
+ * only if every selector in the batch is explicit and cached. Identical explicit requests that are
+ * in flight at the same time share a single call to the metadata service. Other requests, e.g. for
+ * latest versions, are always sent to the metadata service.</p>
+ *
+ * <p>A shared call is made with the credentials and deadline of the first request,
+ * if that call fails the error is reported to every request that shared it.
+ * Errors are never cached.</p>
+ */
+public class MetadataClientCache implements ClientInterceptor {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final int DEFAULT_EXPIRY = 3600;
+
+    private static final String READ_OBJECT_METHOD = TrustedMetadataApiGrpc.getReadObjectMethod().getFullMethodName();
+    private static final String READ_BATCH_METHOD = TrustedMetadataApiGrpc.getReadBatchMethod().getFullMethodName();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Cache<MetadataReadRequest, Tag> cache;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong coalesced;
+
+    public MetadataClientCache(MetadataClientCacheConfig config) {
+
+        var maxEntries = config.getMaxEntries() > 0 ? config.getMaxEntries() : DEFAULT_MAX_ENTRIES;
+        var expiry = Duration.ofSeconds(config.getExpiry() > 0 ? config.getExpiry() : DEFAULT_EXPIRY);
+
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(expiry)
+                .build();
+
+        this.inFlight = new ConcurrentHashMap<>();
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.coalesced = new AtomicLong();
+
+        log.info("Metadata client cache enabled: max entries = {}, expiry = {}", maxEntries, expiry);
+    }
+
+    public static boolean isExplicit(TagSelector selector) {
+
+        return selector.hasObjectVersion() && selector.hasTagVersion();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public void logStatistics() {
+
+        log.info("Metadata client cache: {} entries, {} hits, {} misses, {} coalesced requests",
+                size(), hitCount(), missCount(), coalescedCount());
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method,
+            CallOptions callOptions,
+            Channel next) {
+
+        var methodName = method.getFullMethodName();
+
+        if (READ_OBJECT_METHOD.equals(methodName) || READ_BATCH_METHOD.equals(methodName))
+            return new CachingCall<>(method, callOptions, next);
+
+        return next.newCall(method, callOptions);
+    }
+
+    private boolean isCacheable(Object request) {
+
+        if (request instanceof MetadataReadRequest)
+            return isExplicit(((MetadataReadRequest) request).getSelector());
+
+        if (request instanceof MetadataBatchRequest) {
+
+            var batchRequest = (MetadataBatchRequest) request;
+
+            return batchRequest.getSelectorCount() > 0 &&
+                    batchRequest.getSelectorList().stream().allMatch(MetadataClientCache::isExplicit);
+        }
+
+        return false;
+    }
+
+    private Object cachedResponse(Object request) {
+
+        if (request instanceof MetadataReadRequest)
+            return cache.getIfPresent(request);
+
+        var batchRequest = (MetadataBatchRequest) request;
+        var batchResponse = MetadataBatchResponse.newBuilder();
+
+        for (var selector : batchRequest.getSelectorList()) {
+
+            var tag = cache.getIfPresent(readRequest(batchRequest.getTenant(), selector));
+
+            if (tag == null)
+                return null;
+
+            batchResponse.addTag(tag);
+        }
+
+        return batchResponse.build();
+    }
+
+    private void cacheResponse(Object request, Object response) {
+
+        if (request instanceof MetadataReadRequest) {
+            cache.put((MetadataReadRequest) request, (Tag) response);
+            return;
+        }
+
+        var batchRequest = (MetadataBatchRequest) request;
+        var batchResponse = (MetadataBatchResponse) response;
+
+        if (batchResponse.getTagCount() != batchRequest.getSelectorCount())
+            return;
+
+        for (var i = 0; i < batchRequest.getSelectorCount(); i++) {
+
+            var key = readRequest(batchRequest.getTenant(), batchRequest.getSelector(i));
+            cache.put(key, batchResponse.getTag(i));
+        }
+    }
+
+    private MetadataReadRequest readRequest(String tenant, TagSelector selector) {
+
+        return MetadataReadRequest.newBuilder()
+                .setTenant(tenant)
+                .setSelector(selector)
+                .build();
+    }
+
+    private CompletableFuture<Object> sharedCall(
+            MethodDescriptor<Object, Object> method, CallOptions callOptions,
+            Channel next, Object request) {
+
+        var result = new CompletableFuture<>();
+        var existing = inFlight.putIfAbsent(request, result);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        // Responses for the shared call are handled directly on the transport thread
+        // The executor of the first request might be a blocking executor tied to that request's thread,
+        // if that request is cancelled the executor is never drained and other requests would hang
+
+        var sharedCallOptions = callOptions.withExecutor(MoreExecutors.directExecutor());
+        var call = next.newCall(method, sharedCallOptions);
+        var response = ClientCalls.futureUnaryCall(call, request);
+
+        response.addListener(() -> {
+
+            inFlight.remove(request, result);
+
+            try {
+                var value = response.get();
+                cacheResponse(request, value);
+                result.complete(value);
+            }
+            catch (Exception e) {
+                var cause = e.getCause() != null ? e.getCause() : e;
+                result.completeExceptionally(cause);
+            }
+
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    private class CachingCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+        private final Executor executor;
+
+        private final AtomicBoolean closed;
+
+        private Listener<RespT> listener;
+        private Metadata headers;
+        private int requested;
+        private ReqT request;
+
+        private ClientCall<ReqT, RespT> delegate;
+
+        CachingCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+
+            this.executor = callOptions.getExecutor() != null
+                    ? callOptions.getExecutor()
+                    : MoreExecutors.directExecutor();
+
+            this.closed = new AtomicBoolean(false);
+        }
+
+        @Override
+        public void start(Listener<RespT> listener, Metadata headers) {
+            this.listener = listener;
+            this.headers = headers;
+        }
+
+        @Override
+        public void request(int numMessages) {
+
+            if (delegate != null)
+                delegate.request(numMessages);
+            else
+                requested += numMessages;
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+
+            if (delegate != null)
+                delegate.sendMessage(message);
+            else
+                request = message;
+        }
+
+        @Override
+        public void halfClose() {
+
+            if (delegate != null) {
+                delegate.halfClose();
+                return;
+            }
+
+            if (closed.get())
+                return;
+
+            if (request == null || !isCacheable(request)) {
+                passThrough();
+                return;
+            }
+
+            var cached = cachedResponse(request);
+
+            if (cached != null) {
+                hits.incrementAndGet();
+                deliverResponse(cached);
+                return;
+            }
+
+            misses.incrementAndGet();
+
+            @SuppressWarnings("unchecked")
+            var untypedMethod = (MethodDescriptor<Object, Object>) (MethodDescriptor<?, ?>) method;
+
+            sharedCall(untypedMethod, callOptions, next, request).whenComplete((response, error) -> {
+
+                if (error == null)
+                    deliverResponse(response);
+                else
+                    deliverClose(Status.fromThrowable(error), Status.trailersFromThrowable(error));
+            });
+        }
+
+        @Override
+        public void cancel(@Nullable String message, @Nullable Throwable cause) {
+
+            // A shared call is not cancelled, other requests may be waiting for it
+
+            if (delegate != null) {
+                delegate.cancel(message, cause);
+                return;
+            }
+
+            if (listener == null)
+                return;
+
+            var status = Status.CANCELLED.withDescription(message).withCause(cause);
+            deliverClose(status, null);
+        }
+
+        @Override
+        public boolean isReady() {
+
+            return delegate == null || delegate.isReady();
+        }
+
+        private void passThrough() {
+
+            delegate = next.newCall(method, callOptions);
+            delegate.start(listener, headers);
+
+            if (requested > 0)
+                delegate.request(requested);
+
+            delegate.sendMessage(request);
+            delegate.halfClose();
+        }
+
+        private void deliverResponse(Object response) {
+
+            @SuppressWarnings("unchecked")
+            var typedResponse = (RespT) response;
+
+            executor.execute(() -> {
+
+                if (!closed.compareAndSet(false, true))
+                    return;
+
+                listener.onHeaders(new Metadata());
+                listener.onMessage(typedResponse);
+                listener.onClose(Status.OK, new Metadata());
+            });
+        }
+
+        private void deliverClose(Status status, Metadata trailers) {
+
+            executor.execute(() -> {
+
+                if (!closed.compareAndSet(false, true))
+                    return;
+
+                listener.onClose(status, trailers != null ? trailers : new Metadata());
+            });
+        }
+    }
+}
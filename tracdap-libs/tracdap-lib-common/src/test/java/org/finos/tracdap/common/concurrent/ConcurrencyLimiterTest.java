@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.concurrent;
+
+import org.finos.tracdap.common.exception.EServiceOverload;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ConcurrencyLimiterTest {
+
+    private ExecutorService workers;
+
+    @BeforeEach
+    void setup() {
+        workers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void cleanup() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void limitsConcurrentTasks() throws Exception {
+
+        var limiter = new ConcurrencyLimiter(workers, 2, 100);
+
+        var release = new CountDownLatch(1);
+        var done = new CountDownLatch(10);
+        var running = new AtomicInteger(0);
+        var maxRunning = new AtomicInteger(0);
+
+        for (var i = 0; i < 10; i++) {
+            limiter.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                awaitQuietly(release);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertEquals(2, limiter.getActiveCount());
+        assertEquals(8, limiter.getQueueDepth());
+        assertEquals(8, limiter.getPeakQueueDepth());
+
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(10, limiter.getCompletedCount());
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    void rejectsWhenQueueFull() throws Exception {
+
+        var limiter = new ConcurrencyLimiter(workers, 1, 2);
+
+        var release = new CountDownLatch(1);
+        var done = new CountDownLatch(3);
+
+        for (var i = 0; i < 3; i++) {
+            limiter.execute(() -> {
+                awaitQuietly(release);
+                done.countDown();
+            });
+        }
+
+        assertThrows(EServiceOverload.class, () -> limiter.execute(() -> {}));
+        assertEquals(1, limiter.getRejectedCount());
+
+        release.countDown();
+
+        // Once the queue drains, new tasks are accepted again
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        var accepted = new CountDownLatch(1);
+        limiter.execute(accepted::countDown);
+
+        assertTrue(accepted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedTaskReleasesSlot() throws Exception {
+
+        var limiter = new ConcurrencyLimiter(workers, 1, 10);
+
+        limiter.execute(() -> { throw new RuntimeException("Task failed"); });
+
+        var next = new CountDownLatch(1);
+        limiter.execute(next::countDown);
+
+        assertTrue(next.await(10, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata;
+
+import org.finos.tracdap.api.MetadataBatchRequest;
+import org.finos.tracdap.api.MetadataBatchResponse;
+import org.finos.tracdap.api.MetadataReadRequest;
+import org.finos.tracdap.api.TrustedMetadataApiGrpc;
+import org.finos.tracdap.config.MetadataClientCacheConfig;
+import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.metadata.TagHeader;
+import org.finos.tracdap.metadata.TagSelector;
+
+import io.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class MetadataClientCacheTest {
+
+    private static final String TEST_TENANT = "ACME_CORP";
+
+    @Test
+    void readObject_explicitCached() {
+
+        var channel = new FakeMetadataChannel(false);
+        var cache = new MetadataClientCache(MetadataClientCacheConfig.getDefaultInstance());
+        var client = TrustedMetadataApiGrpc.newBlockingStub(channel).withInterceptors(cache);
+
+        var request = readRequest(explicitSelector(UUID.randomUUID()));
+
+        var tag1 = client.readObject(request);
+        var tag2 = client.readObject(request);
+
+        assertEquals(tag1, tag2);
+        assertEquals(1, channel.callCount);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void readObject_latestNotCached() {
+
+        var channel = new FakeMetadataChannel(false);
+        var cache = new MetadataClientCache(MetadataClientCacheConfig.getDefaultInstance());
+        var client = TrustedMetadataApiGrpc.newBlockingStub(channel).withInterceptors(cache);
+
+        var selector = explicitSelector(UUID.randomUUID()).toBuilder().setLatestTag(true).build();
+        var request = readRequest(selector);
+
+        client.readObject(request);
+        client.readObject(request);
+
+        assertEquals(2, channel.callCount);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void readBatch_populatesSingleReads() {
+
+        var channel = new FakeMetadataChannel(false);
+        var cache = new MetadataClientCache(MetadataClientCacheConfig.getDefaultInstance());
+        var client = TrustedMetadataApiGrpc.newBlockingStub(channel).withInterceptors(cache);
+
+        var selector1 = explicitSelector(UUID.randomUUID());
+        var selector2 = explicitSelector(UUID.randomUUID());
+
+        var batchRequest = MetadataBatchRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .addSelector(selector1)
+                .addSelector(selector2)
+                .build();
+
+        var batchResponse = client.readBatch(batchRequest);
+        var batchResponse2 = client.readBatch(batchRequest);
+        var tag2 = client.readObject(readRequest(selector2));
+
+        assertEquals(batchResponse, batchResponse2);
+        assertEquals(batchResponse.getTag(1), tag2);
+        assertEquals(1, channel.callCount);
+    }
+
+    @Test
+    void readObject_concurrentCoalesced() throws Exception {
+
+        var channel = new FakeMetadataChannel(true);
+        var cache = new MetadataClientCache(MetadataClientCacheConfig.getDefaultInstance());
+        var client = TrustedMetadataApiGrpc.newFutureStub(channel).withInterceptors(cache);
+
+        var request = readRequest(explicitSelector(UUID.randomUUID()));
+
+        var future1 = client.readObject(request);
+        var future2 = client.readObject(request);
+
+        assertEquals(1, channel.callCount);
+        assertFalse(future1.isDone());
+        assertFalse(future2.isDone());
+
+        channel.completePending();
+
+        assertEquals(future1.get(1, TimeUnit.SECONDS), future2.get(1, TimeUnit.SECONDS));
+        assertEquals(1, cache.coalescedCount());
+    }
+
+    @Test
+    void readObject_errorNotCached() {
+
+        var channel = new FakeMetadataChannel(false);
+        channel.failWith = Status.NOT_FOUND;
+
+        var cache = new MetadataClientCache(MetadataClientCacheConfig.getDefaultInstance());
+        var client = TrustedMetadataApiGrpc.newBlockingStub(channel).withInterceptors(cache);
+
+        var request = readRequest(explicitSelector(UUID.randomUUID()));
+
+        var error1 = assertThrows(StatusRuntimeException.class, () -> client.readObject(request));
+        var error2 = assertThrows(StatusRuntimeException.class, () -> client.readObject(request));
+
+        assertEquals(Status.Code.NOT_FOUND, error1.getStatus().getCode());
+        assertEquals(Status.Code.NOT_FOUND, error2.getStatus().getCode());
+        assertEquals(2, channel.callCount);
+    }
+
+    private MetadataReadRequest readRequest(TagSelector selector) {
+
+        return MetadataReadRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .setSelector(selector)
+                .build();
+    }
+
+    private TagSelector explicitSelector(UUID objectId) {
+
+        return TagSelector.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setObjectId(objectId.toString())
+                .setObjectVersion(1)
+                .setTagVersion(1)
+                .build();
+    }
+
+    private static Tag tagForSelector(TagSelector selector) {
+
+        var header = TagHeader.newBuilder()
+                .setObjectType(selector.getObjectType())
+                .setObjectId(selector.getObjectId())
+                .setObjectVersion(selector.hasObjectVersion() ? selector.getObjectVersion() : 1)
+                .setTagVersion(selector.hasTagVersion() ? selector.getTagVersion() : 1);
+
+        return Tag.newBuilder().setHeader(header).build();
+    }
+
+    // Stand-in for a channel to the metadata service, answers read requests and counts the calls made
+
+    private static class FakeMetadataChannel extends Channel {
+
+        private final boolean holdResponses;
+        private final List<Runnable> pending = new ArrayList<>();
+
+        int callCount;
+        Status failWith;
+
+        FakeMetadataChannel(boolean holdResponses) {
+            this.holdResponses = holdResponses;
+        }
+
+        void completePending() {
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+
+            callCount++;
+
+            return new ClientCall<>() {
+
+                private Listener<RespT> listener;
+                private ReqT request;
+
+                @Override
+                public void start(Listener<RespT> listener, Metadata headers) {
+                    this.listener = listener;
+                }
+
+                @Override
+                public void request(int numMessages) {}
+
+                @Override
+                public void cancel(String message, Throwable cause) {}
+
+                @Override
+                public void sendMessage(ReqT message) {
+                    request = message;
+                }
+
+                @Override
+                public void halfClose() {
+
+                    Runnable respond = () -> respond(listener, request, callOptions);
+
+                    if (holdResponses)
+                        pending.add(respond);
+                    else
+                        respond.run();
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <ReqT, RespT> void respond(ClientCall.Listener<RespT> listener, ReqT request, CallOptions callOptions) {
+
+            Object response;
+
+            if (request instanceof MetadataReadRequest) {
+                response = tagForSelector(((MetadataReadRequest) request).getSelector());
+            }
+            else {
+                var batchResponse = MetadataBatchResponse.newBuilder();
+                ((MetadataBatchRequest) request).getSelectorList().forEach(s -> batchResponse.addTag(tagForSelector(s)));
+                response = batchResponse.build();
+            }
+
+            Runnable callback = () -> {
+
+                if (failWith != null) {
+                    listener.onClose(failWith, new Metadata());
+                    return;
+                }
+
+                listener.onHeaders(new Metadata());
+                listener.onMessage((RespT) response);
+                listener.onClose(Status.OK, new Metadata());
+            };
+
+            if (callOptions.getExecutor() != null)
+                callOptions.getExecutor().execute(callback);
+            else
+                callback.run();
+        }
+
+        @Override
+        public String authority() {
+            return "metadata.test";
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.arrow;
+
+import org.finos.tracdap.common.concurrent.Flows;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.data.pipeline.BaseDataSource;
+import org.finos.tracdap.common.exception.*;
+import org.finos.tracdap.common.storage.IFileStorage;
+import org.finos.tracdap.common.util.ByteSeekableChannel;
+
+import org.apache.arrow.flatbuf.Footer;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.TypeLayout;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowMagic;
+import org.apache.arrow.vector.ipc.InvalidArrowFileException;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowFooter;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Source stage that reads an Arrow file directly from file storage, using ranged reads.
+ *
+ * <p>The Arrow file format keeps an index of record batches in the footer.
+ * This source reads the footer first, then fetches record batches one at a time
+ * as the consumer requests them. Memory usage is bounded by the size of a single batch,
+ * instead of the whole file as is the case for {@link ArrowFileDecoder}.</p>
+ *
+ * <p>If a required schema is supplied, only the fields in the required schema are loaded.
+ * Buffers for other fields are released as soon as each batch is read, without being loaded into vectors.</p>
+ *
+ * <p>Dictionary-encoded files are not supported, TRAC does not produce them.</p>
+ */
+public class ArrowFileSource extends BaseDataSource<DataPipeline.ArrowApi> {
+
+    // https://arrow.apache.org/docs/format/Columnar.html#ipc-file-format
+
+    // File header is the magic number, padded to 8 bytes
+    // File trailer is the footer size (int32) followed by the magic number
+
+    private static final int HEADER_LENGTH = 8;
+    private static final int FOOTER_SIZE_LENGTH = 4;
+    private static final int TRAILER_LENGTH = FOOTER_SIZE_LENGTH + ArrowMagic.MAGIC_LENGTH;
+
+    // Read a decent chunk from the end of the file, to get the footer in one read most of the time
+    private static final long DEFAULT_TAIL_READ_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IFileStorage fileStorage;
+    private final String storagePath;
+    private final IDataContext dataContext;
+    private final BufferAllocator arrowAllocator;
+    private final Schema requiredSchema;
+
+    private long fileSize;
+    private List<ArrowBlock> batches;
+    private int nextBatch;
+    private boolean readInProgress;
+
+    // Projection is a list of [node start, node count, buffer start, buffer count] for each field loaded
+    private List<int[]> projection;
+
+    private VectorSchemaRoot root;
+    private VectorLoader loader;
+
+    public ArrowFileSource(IFileStorage fileStorage, String storagePath, IDataContext dataContext) {
+
+        this(fileStorage, storagePath, dataContext, null);
+    }
+
+    public ArrowFileSource(IFileStorage fileStorage, String storagePath, IDataContext dataContext, Schema requiredSchema) {
+
+        super(DataPipeline.ArrowApi.class);
+
+        this.fileStorage = fileStorage;
+        this.storagePath = storagePath;
+        this.dataContext = dataContext;
+        this.arrowAllocator = dataContext.arrowAllocator();
+        this.requiredSchema = requiredSchema;
+    }
+
+    @Override
+    public void connect() {
+
+        if (log.isTraceEnabled())
+            log.trace("ARROW FILE SOURCE: connect()");
+
+        fileStorage.size(storagePath, dataContext)
+                .thenComposeAsync(this::readTail, dataContext.eventLoopExecutor())
+                .whenCompleteAsync(this::footerLoaded, dataContext.eventLoopExecutor());
+    }
+
+    @Override
+    public void pump() {
+
+        // Don't try to pump if the footer hasn't arrived yet, or the stage is already finished
+        if (root == null || isDone())
+            return;
+
+        if (consumerReady())
+            handleErrors(this::readNextBatch);
+    }
+
+    @Override
+    public boolean isReady() {
+        return consumerReady();
+    }
+
+    @Override
+    public void cancel() {
+
+        markAsDone();
+        close();
+    }
+
+    @Override
+    public void close() {
+
+        loader = null;
+
+        if (root != null) {
+            root.close();
+            root = null;
+        }
+    }
+
+    private CompletionStage<ByteBuf> readTail(long fileSize) {
+
+        if (fileSize == 0)
+            throw new EDataCorruption("Arrow data file is empty");
+
+        if (fileSize < HEADER_LENGTH + TRAILER_LENGTH)
+            throw new EDataCorruption("Arrow decoding failed, file is invalid: File is too small");
+
+        this.fileSize = fileSize;
+
+        var tailSize = Math.min(fileSize, DEFAULT_TAIL_READ_SIZE);
+
+        return readRange(fileSize - tailSize, tailSize)
+                .thenComposeAsync(this::readFooter, dataContext.eventLoopExecutor());
+    }
+
+    private CompletionStage<ByteBuf> readFooter(ByteBuf tail) {
+
+        try {
+
+            var tailEnd = tail.writerIndex();
+            var magic = new byte[ArrowMagic.MAGIC_LENGTH];
+            tail.getBytes(tailEnd - ArrowMagic.MAGIC_LENGTH, magic);
+
+            if (!ArrowMagic.validateMagic(magic))
+                throw new EDataCorruption("Arrow decoding failed, file is invalid: Missing magic number at end of file");
+
+            var footerSize = tail.getIntLE(tailEnd - TRAILER_LENGTH);
+
+            if (footerSize <= 0 || footerSize + TRAILER_LENGTH + HEADER_LENGTH > fileSize)
+                throw new EDataCorruption("Arrow decoding failed, file is invalid: Footer size is not valid");
+
+            // Most of the time the whole footer will be in the tail that was already read
+            // If not, go back and read the whole footer
+
+            if (footerSize + TRAILER_LENGTH <= tail.readableBytes()) {
+                var footerStart = tailEnd - TRAILER_LENGTH - footerSize;
+                return CompletableFuture.completedFuture(tail.retainedSlice(footerStart, footerSize));
+            }
+            else {
+                var footerOffset = fileSize - TRAILER_LENGTH - footerSize;
+                return readRange(footerOffset, footerSize);
+            }
+        }
+        finally {
+            tail.release();
+        }
+    }
+
+    private void footerLoaded(ByteBuf footerBuffer, Throwable error) {
+
+        if (log.isTraceEnabled())
+            log.trace("ARROW FILE SOURCE: footerLoaded()");
+
+        if (isDone()) {
+            if (footerBuffer != null)
+                footerBuffer.release();
+            return;
+        }
+
+        if (error != null) {
+            reportError(error);
+            return;
+        }
+
+        handleErrors(() -> {
+
+            try {
+
+                var footerFb = Footer.getRootAsFooter(footerBuffer.nioBuffer());
+                var footer = new ArrowFooter(footerFb);
+
+                if (!footer.getDictionaries().isEmpty())
+                    throw new EDataTypeNotSupported("Arrow decoding failed, dictionary encoding is not supported");
+
+                for (var block : footer.getRecordBatches()) {
+                    if (block.getOffset() < HEADER_LENGTH ||
+                        block.getOffset() + block.getMetadataLength() + block.getBodyLength() > fileSize)
+                        throw new EDataCorruption("Arrow decoding failed, file is invalid: Record batch is out of range");
+                }
+
+                batches = footer.getRecordBatches();
+                nextBatch = 0;
+
+                var fileSchema = footer.getSchema();
+                var loadSchema = fileSchema;
+
+                if (requiredSchema != null) {
+                    projection = buildProjection(fileSchema, requiredSchema);
+                    loadSchema = projectSchema(fileSchema, requiredSchema);
+                }
+
+                root = VectorSchemaRoot.create(loadSchema, arrowAllocator);
+                loader = new VectorLoader(root);
+
+                consumer().onStart(root);
+
+                if (consumerReady())
+                    readNextBatch();
+            }
+            finally {
+                footerBuffer.release();
+            }
+        });
+    }
+
+    private void readNextBatch() {
+
+        if (readInProgress || isDone())
+            return;
+
+        if (nextBatch == batches.size()) {
+
+            markAsDone();
+            consumer().onComplete();
+            close();
+
+            return;
+        }
+
+        var block = batches.get(nextBatch++);
+        var blockLength = block.getMetadataLength() + block.getBodyLength();
+
+        readInProgress = true;
+
+        readRange(block.getOffset(), blockLength)
+                .whenCompleteAsync((buffer, error) -> batchLoaded(block, buffer, error), dataContext.eventLoopExecutor());
+    }
+
+    private void batchLoaded(ArrowBlock block, ByteBuf buffer, Throwable error) {
+
+        if (log.isTraceEnabled())
+            log.trace("ARROW FILE SOURCE: batchLoaded()");
+
+        readInProgress = false;
+
+        if (isDone()) {
+            if (buffer != null)
+                buffer.release();
+            return;
+        }
+
+        if (error != null) {
+            reportError(error);
+            return;
+        }
+
+        handleErrors(() -> {
+
+            try (var channel = new ReadChannel(new ByteSeekableChannel(buffer));
+                 var batch = MessageSerializer.deserializeRecordBatch(channel, block, arrowAllocator)) {
+
+                if (projection != null) {
+                    try (var projectedBatch = projectBatch(batch)) {
+                        loader.load(projectedBatch);
+                    }
+                }
+                else
+                    loader.load(batch);
+            }
+            finally {
+                buffer.release();
+            }
+
+            consumer().onNext();
+
+            if (consumerReady())
+                readNextBatch();
+        });
+    }
+
+    private List<int[]> buildProjection(Schema fileSchema, Schema requiredSchema) {
+
+        // Record batches hold field nodes and buffers as flat lists, in depth-first order of the schema
+        // Work out which slice of each list belongs to each top-level field
+
+        var fieldLayouts = new TreeMap<String, int[]>(String.CASE_INSENSITIVE_ORDER);
+        var nodeStart = 0;
+        var bufferStart = 0;
+
+        for (var field : fileSchema.getFields()) {
+
+            var nodeCount = fieldNodeCount(field);
+            var bufferCount = fieldBufferCount(field);
+
+            fieldLayouts.put(field.getName(), new int[] {nodeStart, nodeCount, bufferStart, bufferCount});
+
+            nodeStart += nodeCount;
+            bufferStart += bufferCount;
+        }
+
+        var projection = new ArrayList<int[]>(requiredSchema.getFields().size());
+
+        for (var field : requiredSchema.getFields()) {
+
+            var layout = fieldLayouts.get(field.getName());
+
+            if (layout == null) {
+                var message = String.format("Arrow decoding failed, required field [%s] is missing", field.getName());
+                throw new EDataCorruption(message);
+            }
+
+            projection.add(layout);
+        }
+
+        return projection;
+    }
+
+    private Schema projectSchema(Schema fileSchema, Schema requiredSchema) {
+
+        var fileFields = new TreeMap<String, Field>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var field : fileSchema.getFields())
+            fileFields.put(field.getName(), field);
+
+        var projectedFields = new ArrayList<Field>(requiredSchema.getFields().size());
+
+        for (var field : requiredSchema.getFields())
+            projectedFields.add(fileFields.get(field.getName()));
+
+        return new Schema(projectedFields, fileSchema.getCustomMetadata());
+    }
+
+    private ArrowRecordBatch projectBatch(ArrowRecordBatch batch) {
+
+        var nodes = batch.getNodes();
+        var buffers = batch.getBuffers();
+
+        var projectedNodes = new ArrayList<ArrowFieldNode>();
+        var projectedBuffers = new ArrayList<ArrowBuf>();
+
+        for (var layout : projection) {
+            projectedNodes.addAll(nodes.subList(layout[0], layout[0] + layout[1]));
+            projectedBuffers.addAll(buffers.subList(layout[2], layout[2] + layout[3]));
+        }
+
+        // The new batch takes its own reference to the buffers it uses
+        // Closing the original batch releases everything that was not selected
+
+        return new ArrowRecordBatch(batch.getLength(), projectedNodes, projectedBuffers, batch.getBodyCompression());
+    }
+
+    private static int fieldNodeCount(Field field) {
+
+        var count = 1;
+
+        for (var child : field.getChildren())
+            count += fieldNodeCount(child);
+
+        return count;
+    }
+
+    private static int fieldBufferCount(Field field) {
+
+        var count = TypeLayout.getTypeLayout(field.getType()).getBufferLayouts().size();
+
+        for (var child : field.getChildren())
+            count += fieldBufferCount(child);
+
+        return count;
+    }
+
+    private CompletionStage<ByteBuf> readRange(long offset, long length) {
+
+        var reader = fileStorage.reader(storagePath, offset, length, dataContext);
+        var buffer = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+
+        return Flows.fold(reader, (CompositeByteBuf acc, ByteBuf chunk) -> acc.addComponent(true, chunk), buffer)
+                .<ByteBuf>handle((result, error) -> {
+
+                    if (error != null) {
+                        buffer.release();
+                        throw error instanceof CompletionException
+                                ? (CompletionException) error
+                                : new CompletionException(error);
+                    }
+
+                    if (result.readableBytes() != length) {
+                        buffer.release();
+                        throw new EDataCorruption("Arrow decoding failed, file is invalid: Unexpected end of file");
+                    }
+
+                    return result;
+                });
+    }
+
+    private void handleErrors(ThrowingRunnable lambda) {
+
+        try {
+            lambda.run();
+        }
+        catch (Throwable e) {
+            reportError(e);
+        }
+    }
+
+    private void reportError(Throwable error) {
+
+        if (error instanceof CompletionException && error.getCause() != null)
+            error = error.getCause();
+
+        var mappedError = mapError(error);
+
+        markAsDone();
+
+        if (mappedError instanceof ETracPublic)
+            reportRegularError(mappedError);
+        else
+            reportUnhandledError(mappedError);
+    }
+
+    private Throwable mapError(Throwable error) {
+
+        if (error instanceof ETrac) {
+
+            // Error has already been handled, propagate as-is
+
+            log.error("Arrow decoding failed: " + error.getMessage(), error);
+            return error;
+        }
+
+        if (error instanceof InvalidArrowFileException) {
+
+            // A nice clean validation failure from the Arrow framework
+
+            var errorMessage = "Arrow decoding failed, file is invalid: " + error.getMessage();
+
+            log.error(errorMessage, error);
+            return new EDataCorruption(errorMessage, error);
+        }
+
+        if (error instanceof IllegalArgumentException ||
+            error instanceof IndexOutOfBoundsException ||
+            error instanceof IOException) {
+
+            // These errors occur if the data stream contains bad values for vector sizes, offsets etc.
+            // This may be as a result of a corrupt data stream, or a maliciously crafted message
+
+            var errorMessage = "Arrow decoding failed, content is garbled";
+
+            log.error(errorMessage, error);
+            return new EDataCorruption(errorMessage, error);
+        }
+
+        // Ensure unexpected errors are still reported to the pipeline
+
+        log.error("Unexpected error in Arrow decoding", error);
+        return new EUnexpected(error);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
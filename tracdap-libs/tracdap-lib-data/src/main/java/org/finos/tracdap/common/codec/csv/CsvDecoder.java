@@ -16,9 +16,7 @@
 
 package org.finos.tracdap.common.codec.csv;
 
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-import org.apache.arrow.vector.VectorSchemaRoot;
-import org.finos.tracdap.common.codec.BufferDecoder;
+import org.finos.tracdap.common.codec.StreamingDecoder;
 import org.finos.tracdap.common.data.ArrowSchema;
 import org.finos.tracdap.common.codec.json.JacksonValues;
 import org.finos.tracdap.common.exception.EDataCorruption;
@@ -27,6 +25,7 @@ import org.finos.tracdap.common.exception.ETracInternal;
 import org.finos.tracdap.common.exception.EUnexpected;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.arrow.vector.types.Types;
 
@@ -35,18 +34,22 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.csv.CsvFactory;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvReadException;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.Callable;
 
 
-public class CsvDecoder extends BufferDecoder {
+public class CsvDecoder extends StreamingDecoder {
 
     private static final int BATCH_SIZE = 1024;
 
@@ -57,10 +60,26 @@ public class CsvDecoder extends BufferDecoder {
     private final BufferAllocator arrowAllocator;
     private final Schema arrowSchema;
 
-    private ByteBuf buffer;
+    private final CsvFactory csvFactory;
+    private final CsvSchema csvSchema;
+    private final CsvRecordScanner scanner;
+
+    // Data that has arrived but not yet been parsed
+    private final Queue<ByteBuf> buffer;
+    private long bufferOffset;
+
+    // Parser for the current segment, a segment contains only complete records
+    private ByteBuf segment;
     private CsvParser csvParser;
-    private CsvSchema csvSchema;
+    private long segmentLineOffset;
+    private long linesParsed;
+    private boolean firstSegment;
+
     private VectorSchemaRoot root;
+    private int row;
+    private int col;
+
+    private boolean upstreamComplete;
 
     public CsvDecoder(BufferAllocator arrowAllocator, Schema arrowSchema) {
 
@@ -68,71 +87,97 @@ public class CsvDecoder extends BufferDecoder {
 
         // Schema cannot be inferred from CSV, so it must always be set from a TRAC schema
         this.arrowSchema = arrowSchema;
+
+        this.csvFactory = new CsvFactory()
+                // Require strict adherence to the schema
+                .enable(CsvParser.Feature.FAIL_ON_MISSING_COLUMNS)
+                // Always allow nulls during parsing (they will be rejected later for non-nullable fields)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                // Permissive handling of extra space (strings with leading/trailing spaces must be quoted anyway)
+                .enable(CsvParser.Feature.TRIM_SPACES);
+
+        this.csvSchema = CsvSchemaMapping
+                .arrowToCsv(this.arrowSchema)
+                .build();
+
+        this.scanner = new CsvRecordScanner();
+        this.buffer = new ArrayDeque<>();
+        this.firstSegment = true;
     }
 
     @Override
-    public void onBuffer(ByteBuf buffer) {
+    public void onStart() {
 
         if (log.isTraceEnabled())
-            log.trace("CSV DECODER: onBuffer()");
+            log.trace("CSV DECODER: onStart()");
+
+        // Allocate memory once, and reuse it for every batch
+        // This memory is released in close(), which calls root.close()
+
+        root = ArrowSchema.createRoot(arrowSchema, arrowAllocator, BATCH_SIZE);
+
+        consumer().onStart(root);
+    }
+
+    @Override
+    public void onNext(ByteBuf chunk) {
+
+        if (log.isTraceEnabled())
+            log.trace("CSV DECODER: onNext()");
 
         // Sanity check, should never happen
-        if (isDone() || this.buffer != null) {
-            var error = new ETracInternal("CSV data parsed twice (this is a bug)");
+        if (isDone() || root == null) {
+            chunk.release();
+            var error = new ETracInternal("CSV data received out of sequence (this is a bug)");
             log.error(error.getMessage(), error);
             throw error;
         }
 
-        // Empty file can and does happen, treat it as data corruption
-        if (buffer.readableBytes() == 0) {
-            var error = new EDataCorruption("CSV data is empty");
-            log.error(error.getMessage(), error);
-            throw error;
+        if (chunk.readableBytes() == 0) {
+            chunk.release();
+            return;
         }
 
-        handleErrors(() -> {
-
-            // Set up all the resources needed for parsing
-
-            this.buffer = buffer;
-
-            var csvFactory = new CsvFactory()
-                    // Require strict adherence to the schema
-                    .enable(CsvParser.Feature.FAIL_ON_MISSING_COLUMNS)
-                    // Always allow nulls during parsing (they will be rejected later for non-nullable fields)
-                    .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
-                    // Permissive handling of extra space (strings with leading/trailing spaces must be quoted anyway)
-                    .enable(CsvParser.Feature.TRIM_SPACES);
+        // Look for record boundaries in the new chunk, then hold it until it can be parsed
+        // The buffer only holds data that has not been parsed, so memory is bounded by the flow of data
+        // The upstream source will not request more data while the consumer is not ready
 
-            var stream = new ByteBufInputStream(buffer);
+        chunk.forEachByte(scanner);
 
-            csvParser = csvFactory.createParser((InputStream) stream);
-            csvSchema = CsvSchemaMapping
-                    .arrowToCsv(this.arrowSchema)
-                    //.setNullValue("")
-                    .build();
-            csvSchema = DEFAULT_HEADER_FLAG
-                    ? csvSchema.withHeader()
-                    : csvSchema.withoutHeader();
-            csvParser.setSchema(csvSchema);
+        buffer.add(chunk);
 
+        handleErrors(() -> {
+            parseAvailable();
+            return null;
+        });
+    }
 
-            root = ArrowSchema.createRoot(arrowSchema, arrowAllocator, BATCH_SIZE);
-            consumer().onStart(root);
-
-            // Call the parsing function - this may result in a partial parse
+    @Override
+    public void onComplete() {
 
-            var isComplete = doParse(csvParser, csvSchema, root);
+        if (log.isTraceEnabled())
+            log.trace("CSV DECODER: onComplete()");
 
-            // If the parse is done, emit the EOS signal and clean up resources
-            // Otherwise, wait until a callback on pump()
+        // Empty file can and does happen, treat it as data corruption
+        if (scanner.streamOffset() == 0) {
 
-            if (isComplete) {
+            try {
+                var error = new EDataCorruption("CSV data is empty");
+                log.error(error.getMessage(), error);
                 markAsDone();
-                consumer().onComplete();
+                consumer().onError(error);
+            }
+            finally {
                 close();
             }
 
+            return;
+        }
+
+        upstreamComplete = true;
+
+        handleErrors(() -> {
+            parseAvailable();
             return null;
         });
     }
@@ -157,37 +202,123 @@ public class CsvDecoder extends BufferDecoder {
     public void pump() {
 
         // Don't try to pump if the data hasn't arrived yet, or if it has already gone
-        if (csvParser == null || root == null)
+        if (isDone() || root == null)
             return;
 
         handleErrors(() -> {
+            parseAvailable();
+            return null;
+        });
+    }
 
-            var isComplete = doParse(csvParser, csvSchema, root);
+    private void parseAvailable() throws Exception {
 
-            // If the parse is done, emit the EOS signal and clean up resources
-            // Otherwise, wait until a callback on pump()
+        // Parse segments of complete records as they become available
+        // If the consumer stops accepting data, leave the current segment part way through
+        // Parsing resumes on the next call to pump(), once the consumer is ready again
 
-            if (isComplete) {
-                markAsDone();
-                consumer().onComplete();
-                close();
+        while (consumerReady()) {
+
+            if (csvParser == null && !nextSegment())
+                break;
+
+            var segmentComplete = doParse(csvParser, csvSchema, root);
+
+            if (!segmentComplete)
+                return;
+
+            closeSegment();
+        }
+
+        // If the whole stream has been parsed, emit the EOS signal and clean up resources
+
+        if (upstreamComplete && csvParser == null && buffer.isEmpty()) {
+
+            // Check if there is a final batch that needs dispatching
+
+            if (row > 0 || col > 0) {
+                root.setRowCount(row);
+                consumer().onNext();
             }
 
-            return null;
-        });
+            markAsDone();
+            consumer().onComplete();
+            close();
+        }
     }
 
-    boolean doParse(CsvParser parser, CsvSchema csvSchema, VectorSchemaRoot root) throws Exception {
+    private boolean nextSegment() throws IOException {
+
+        // Once the upstream is complete, the final record may not have a line ending
+        // In that case, everything that remains is the final segment
+
+        var segmentEnd = upstreamComplete
+                ? scanner.streamOffset()
+                : scanner.boundaryOffset();
+
+        var segmentSize = (int) (segmentEnd - bufferOffset);
+
+        if (segmentSize <= 0)
+            return false;
+
+        // Slices of the original chunks are used, to avoid copying the data
+
+        var segmentBuffer = Unpooled.compositeBuffer(buffer.size());
+        var remaining = segmentSize;
+
+        while (remaining > 0) {
+
+            var chunk = buffer.element();
+            var sliceSize = Math.min(remaining, chunk.readableBytes());
+
+            segmentBuffer.addComponent(true, chunk.readRetainedSlice(sliceSize));
+            remaining -= sliceSize;
+
+            if (!chunk.isReadable())
+                buffer.remove().release();
+        }
+
+        segment = segmentBuffer;
+        bufferOffset = segmentEnd;
+
+        segmentLineOffset = linesParsed;
+        linesParsed = scanner.boundaryLineCount();
+
+        // The header line only appears in the first segment
+
+        var segmentSchema = firstSegment && DEFAULT_HEADER_FLAG
+                ? csvSchema.withHeader()
+                : csvSchema.withoutHeader();
 
-        // CSV codec uses buffering so all the data arrives at once
-        // Still, it is probably not helpful to send it all out as fast as the CPU will run!
+        var stream = new ByteBufInputStream(segment);
+
+        csvParser = csvFactory.createParser((InputStream) stream);
+        csvParser.setSchema(segmentSchema);
+
+        firstSegment = false;
+
+        return true;
+    }
+
+    private void closeSegment() throws IOException {
+
+        if (csvParser != null) {
+            csvParser.close();
+            csvParser = null;
+        }
+
+        if (segment != null) {
+            segment.release();
+            segment = null;
+        }
+    }
+
+    boolean doParse(CsvParser parser, CsvSchema csvSchema, VectorSchemaRoot root) throws Exception {
 
         // This function checks consumerReady() after each batch is sent
         // If the consumer is not ready, leave the parse and come back to it on the next call to pump()
-        // The parser are VSR are left with their state intact, row and col will be zero anyway for a new batch
-
-        var row = 0;
-        var col = 0;
+        // The parser and VSR are left with their state intact, row and col are held between calls
+        // Rows can also be carried over between segments, batches are only dispatched when they are full
 
         JsonToken token;
 
@@ -258,10 +389,10 @@ public class CsvDecoder extends BufferDecoder {
                         root.setRowCount(row);
                         consumer().onNext();
 
+                        row = 0;
+
                         if (!consumerReady())
                             return false;
-
-                        row = 0;
                     }
 
                     break;
@@ -273,14 +404,6 @@ public class CsvDecoder extends BufferDecoder {
             }
         }
 
-        // Check if there is a final batch that needs dispatching
-
-        if (row > 0 || col > 0) {
-
-            root.setRowCount(row);
-            consumer().onNext();
-        }
-
         return true;
     }
 
@@ -301,9 +424,10 @@ public class CsvDecoder extends BufferDecoder {
         catch (JacksonException e) {
 
             // This exception is a "well-behaved" parse failure, parse location and message should be meaningful
+            // Line numbers reported by the parser are relative to the current segment
 
             var errorMessage = String.format("CSV decoding failed on line %d: %s",
-                    e.getLocation().getLineNr(),
+                    e.getLocation().getLineNr() + segmentLineOffset,
                     e.getOriginalMessage());
 
             log.error(errorMessage, e);
@@ -344,9 +468,14 @@ public class CsvDecoder extends BufferDecoder {
                 csvParser = null;
             }
 
-            if (buffer != null) {
-                buffer.release();
-                buffer = null;
+            if (segment != null) {
+                segment.release();
+                segment = null;
+            }
+
+            while (!buffer.isEmpty()) {
+                var chunk = buffer.remove();
+                chunk.release();
             }
         }
         catch (IOException e) {
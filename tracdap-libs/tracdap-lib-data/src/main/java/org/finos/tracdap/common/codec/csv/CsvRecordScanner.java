@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.csv;
+
+import io.netty.util.ByteProcessor;
+
+
+/**
+ * Find record boundaries in a stream of CSV data, without parsing the content.
+ *
+ * <p>Jackson CSV does not offer a non-blocking parser, so the streaming CSV decoder
+ * cuts the incoming stream into segments that contain only complete records.
+ * Each segment can then be handed to a regular (blocking) parser, which will never
+ * run out of data part way through a record.</p>
+ *
+ * <p>The scanner keeps its state between chunks, so a quoted value can be split
+ * across any number of chunks. Quotes only open a quoted value at the start of a field,
+ * which matches the behavior of the Jackson CSV parser.</p>
+ */
+class CsvRecordScanner implements ByteProcessor {
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte LINE_FEED = '\n';
+    private static final byte SPACE = ' ';
+    private static final byte TAB = '\t';
+
+    private enum ScanState {
+        FIELD_START,
+        UNQUOTED,
+        QUOTED,
+        QUOTE_IN_QUOTED
+    }
+
+    private ScanState state;
+
+    private long streamOffset;
+    private long lineCount;
+
+    private long boundaryOffset;
+    private long boundaryLineCount;
+
+    CsvRecordScanner() {
+
+        this.state = ScanState.FIELD_START;
+    }
+
+    /**
+     * Offset in the stream immediately following the last complete record
+     */
+    long boundaryOffset() {
+        return boundaryOffset;
+    }
+
+    /**
+     * Number of lines in the stream before the last record boundary
+     */
+    long boundaryLineCount() {
+        return boundaryLineCount;
+    }
+
+    /**
+     * Total number of bytes scanned so far
+     */
+    long streamOffset() {
+        return streamOffset;
+    }
+
+    @Override
+    public boolean process(byte value) {
+
+        streamOffset++;
+
+        if (value == LINE_FEED)
+            lineCount++;
+
+        switch (state) {
+
+            case QUOTED:
+
+                if (value == QUOTE)
+                    state = ScanState.QUOTE_IN_QUOTED;
+
+                break;
+
+            case QUOTE_IN_QUOTED:
+
+                // Double quote inside a quoted value is an escaped quote char
+                if (value == QUOTE) {
+                    state = ScanState.QUOTED;
+                    break;
+                }
+
+                // Otherwise the quoted value has ended, treat this char the same as an unquoted one
+
+            case UNQUOTED:
+
+                if (value == SEPARATOR)
+                    state = ScanState.FIELD_START;
+
+                else if (value == LINE_FEED)
+                    markBoundary();
+
+                else
+                    state = ScanState.UNQUOTED;
+
+                break;
+
+            case FIELD_START:
+
+                if (value == QUOTE)
+                    state = ScanState.QUOTED;
+
+                else if (value == LINE_FEED)
+                    markBoundary();
+
+                // Leading space is trimmed by the parser, so it does not end the start of the field
+                else if (value != SEPARATOR && value != SPACE && value != TAB)
+                    state = ScanState.UNQUOTED;
+
+                break;
+        }
+
+        // Always scan the whole chunk
+        return true;
+    }
+
+    private void markBoundary() {
+
+        state = ScanState.FIELD_START;
+
+        boundaryOffset = streamOffset;
+        boundaryLineCount = lineCount;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.data.pipeline;
+
+import org.finos.tracdap.common.data.DataPipeline;
+
+
+public abstract class BaseDataSource <API_T extends DataPipeline.DataInterface<API_T>>
+    extends
+        BaseDataProducer<API_T>
+    implements
+        DataPipeline.SourceStage {
+
+    protected BaseDataSource(Class<API_T> consumerType) {
+        super(consumerType);
+    }
+
+    protected final void pumpData() {
+        pipeline().pumpData();
+    }
+
+    protected final void reportRegularError(Throwable error) {
+        pipeline().reportRegularError(error);
+    }
+
+    protected final void reportUnhandledError(Throwable error) {
+        pipeline().reportUnhandledError(error);
+    }
+}
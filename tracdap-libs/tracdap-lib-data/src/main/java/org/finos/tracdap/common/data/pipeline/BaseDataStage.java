@@ -17,6 +17,8 @@
 package org.finos.tracdap.common.data.pipeline;
 
 import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.EUnexpected;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,8 +27,31 @@ public abstract class BaseDataStage implements DataPipeline.DataStage {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    // Stages are created before the pipeline, the pipeline is bound when the stage is added
+
+    private DataPipelineImpl pipeline;
     private boolean isDone = false;
 
+    final void bindPipeline(DataPipelineImpl pipeline) {
+
+        if (this.pipeline != null)
+            throw new EUnexpected();
+
+        this.pipeline = pipeline;
+    }
+
+    final DataPipelineImpl pipeline() {
+
+        if (pipeline == null)
+            throw new EUnexpected();
+
+        return pipeline;
+    }
+
+    protected final void cancelSource() {
+        pipeline().cancelSource();
+    }
+
     protected final void markAsDone() {
         log.info("DONE STAGE [{}]", getClass().getSimpleName());
         isDone = true;
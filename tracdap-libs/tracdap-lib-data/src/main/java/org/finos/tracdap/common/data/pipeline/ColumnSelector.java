@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.data.pipeline;
+
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.EDataCorruption;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+
+/**
+ * Pipeline stage that passes on a subset of the columns in a dataset.
+ *
+ * <p>The output root shares vectors with the input root, so no data is copied.
+ * Columns are passed on in the order of the required schema and are matched by name,
+ * ignoring case. Columns that are not required are never seen by later stages,
+ * so encoders do not spend any time on them.</p>
+ */
+public class ColumnSelector
+    extends
+        BaseDataProducer<DataPipeline.ArrowApi>
+    implements
+        DataPipeline.DataConsumer<DataPipeline.ArrowApi>,
+        DataPipeline.ArrowApi {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Schema requiredSchema;
+
+    private VectorSchemaRoot inputRoot;
+    private VectorSchemaRoot outputRoot;
+
+    public ColumnSelector(Schema requiredSchema) {
+
+        super(DataPipeline.ArrowApi.class);
+
+        this.requiredSchema = requiredSchema;
+    }
+
+    @Override
+    public DataPipeline.ArrowApi dataInterface() {
+        return this;
+    }
+
+    @Override
+    public boolean isReady() {
+        return consumerReady();
+    }
+
+    @Override
+    public void pump() {
+        // No-op, batches are passed on as soon as they arrive
+    }
+
+    @Override
+    public void onStart(VectorSchemaRoot root) {
+
+        if (log.isTraceEnabled())
+            log.trace("COLUMN SELECTOR: onStart()");
+
+        var inputVectors = new TreeMap<String, FieldVector>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var vector : root.getFieldVectors())
+            inputVectors.put(vector.getName(), vector);
+
+        var outputVectors = new ArrayList<FieldVector>(requiredSchema.getFields().size());
+
+        for (var field : requiredSchema.getFields()) {
+
+            var vector = inputVectors.get(field.getName());
+
+            if (vector == null) {
+                var message = String.format("Required field [%s] is missing from the data", field.getName());
+                throw new EDataCorruption(message);
+            }
+
+            outputVectors.add(vector);
+        }
+
+        inputRoot = root;
+        outputRoot = new VectorSchemaRoot(outputVectors);
+
+        consumer().onStart(outputRoot);
+    }
+
+    @Override
+    public void onNext() {
+
+        if (log.isTraceEnabled())
+            log.trace("COLUMN SELECTOR: onNext()");
+
+        // Vectors are shared, only the row count of the output root needs updating
+        outputRoot.setRowCount(inputRoot.getRowCount());
+
+        consumer().onNext();
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (log.isTraceEnabled())
+            log.trace("COLUMN SELECTOR: onComplete()");
+
+        try {
+            markAsDone();
+            consumer().onComplete();
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        if (log.isTraceEnabled())
+            log.trace("COLUMN SELECTOR: onError()");
+
+        try {
+            markAsDone();
+            consumer().onError(error);
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        // Do not close either root, the vectors are owned by the input root
+
+        inputRoot = null;
+        outputRoot = null;
+    }
+}
@@ -150,6 +150,17 @@ public class DataPipelineImpl implements DataPipeline {
         closeAllStages();
     }
 
+    void cancelSource() {
+
+        // A stage can stop the source early if it does not need any more data (e.g. a row limit is reached)
+        // The rest of the pipeline keeps running, so data already in flight is still delivered
+
+        if (!sourceStage.isDone()) {
+            log.info("Stopping data source, no more data is required");
+            sourceStage.cancel();
+        }
+    }
+
     void reportComplete() {
 
         // Expect all the stages have gone down cleanly
@@ -229,6 +240,9 @@ public class DataPipelineImpl implements DataPipeline {
 
         var pipeline = new DataPipelineImpl(ctx);
 
+        if (source instanceof BaseDataStage)
+            ((BaseDataStage) source).bindPipeline(pipeline);
+
         pipeline.stages.add(source);
         pipeline.sourceStage = source;
 
@@ -321,6 +335,9 @@ public class DataPipelineImpl implements DataPipeline {
 
         concreteProducer.bind(consumer);
 
+        if (consumer instanceof BaseDataStage)
+            ((BaseDataStage) consumer).bindPipeline(this);
+
         stages.add(consumer);
     }
 }
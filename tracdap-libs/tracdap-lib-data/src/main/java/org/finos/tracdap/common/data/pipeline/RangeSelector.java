@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.data.pipeline;
+
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.util.TransferPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Pipeline stage that passes on a range of rows, defined by an offset and a limit.
+ *
+ * <p>Batches that lie entirely before the offset are dropped without being passed on.
+ * Batches that straddle the start or end of the range are sliced. Once the limit is reached,
+ * the source of the pipeline is cancelled so no more data is read from storage.</p>
+ */
+public class RangeSelector
+    extends
+        BaseDataProducer<DataPipeline.ArrowApi>
+    implements
+        DataPipeline.DataConsumer<DataPipeline.ArrowApi>,
+        DataPipeline.ArrowApi {
+
+    public static final long NO_LIMIT = 0;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final BufferAllocator arrowAllocator;
+    private final long offset;
+    private final long limit;
+
+    private VectorSchemaRoot inputRoot;
+    private VectorSchemaRoot outputRoot;
+    private List<TransferPair> transfers;
+    private long rowsReceived;
+    private long rowsSent;
+
+    public RangeSelector(BufferAllocator arrowAllocator, long offset, long limit) {
+
+        super(DataPipeline.ArrowApi.class);
+
+        if (offset < 0 || limit < 0)
+            throw new EUnexpected();
+
+        this.arrowAllocator = arrowAllocator;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    @Override
+    public DataPipeline.ArrowApi dataInterface() {
+        return this;
+    }
+
+    @Override
+    public boolean isReady() {
+        return !isDone() && consumerReady();
+    }
+
+    @Override
+    public void pump() {
+        // No-op, batches are passed on as soon as they arrive
+    }
+
+    @Override
+    public void onStart(VectorSchemaRoot root) {
+
+        if (log.isTraceEnabled())
+            log.trace("RANGE SELECTOR: onStart()");
+
+        outputRoot = VectorSchemaRoot.create(root.getSchema(), arrowAllocator);
+        transfers = new ArrayList<>(root.getFieldVectors().size());
+
+        for (var i = 0; i < root.getFieldVectors().size(); i++) {
+            var inputVector = root.getVector(i);
+            var outputVector = outputRoot.getVector(i);
+            transfers.add(inputVector.makeTransferPair(outputVector));
+        }
+
+        inputRoot = root;
+
+        consumer().onStart(outputRoot);
+    }
+
+    @Override
+    public void onNext() {
+
+        if (log.isTraceEnabled())
+            log.trace("RANGE SELECTOR: onNext()");
+
+        // Upstream stages may send one more batch while the source is shutting down
+        if (isDone())
+            return;
+
+        var batchRows = (long) inputRoot.getRowCount();
+        var batchStart = rowsReceived;
+        var batchEnd = rowsReceived + batchRows;
+
+        rowsReceived = batchEnd;
+
+        var rangeStart = Math.max(offset, batchStart);
+        var rangeEnd = limit != NO_LIMIT ? Math.min(offset + limit, batchEnd) : batchEnd;
+
+        // Whole batch is before the start of the range, drop it
+        if (rangeEnd <= rangeStart)
+            return;
+
+        var sliceStart = (int) (rangeStart - batchStart);
+        var sliceLength = (int) (rangeEnd - rangeStart);
+
+        // Split and transfer shares buffers where possible, the input root is left intact
+
+        for (var transfer : transfers)
+            transfer.splitAndTransfer(sliceStart, sliceLength);
+
+        outputRoot.setRowCount(sliceLength);
+        rowsSent += sliceLength;
+
+        consumer().onNext();
+
+        if (limit != NO_LIMIT && rowsSent >= limit)
+            finishEarly();
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (log.isTraceEnabled())
+            log.trace("RANGE SELECTOR: onComplete()");
+
+        if (isDone())
+            return;
+
+        try {
+            markAsDone();
+            consumer().onComplete();
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        if (log.isTraceEnabled())
+            log.trace("RANGE SELECTOR: onError()");
+
+        if (isDone())
+            return;
+
+        try {
+            markAsDone();
+            consumer().onError(error);
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        transfers = null;
+
+        if (inputRoot != null) {
+            // Do not close input root, we do not own it
+            inputRoot = null;
+        }
+
+        if (outputRoot != null) {
+            outputRoot.close();
+            outputRoot = null;
+        }
+    }
+
+    private void finishEarly() {
+
+        log.info("Range selection complete after {} rows, stopping the data source", rowsSent);
+
+        // Stop the source before completing downstream
+        // Otherwise the pipeline would see the source still running when the sink completes
+
+        markAsDone();
+        cancelSource();
+
+        try {
+            consumer().onComplete();
+        }
+        finally {
+            close();
+        }
+    }
+}
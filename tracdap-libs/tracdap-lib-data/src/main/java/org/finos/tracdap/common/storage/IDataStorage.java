@@ -35,10 +35,23 @@ public interface IDataStorage extends AutoCloseable {
     @Override
     default void close() { stop(); }
 
+    default DataPipeline pipelineReader(
+            StorageCopy storageCopy,
+            Schema requiredSchema,
+            IDataContext execContext) {
+
+        return pipelineReader(storageCopy, requiredSchema, requiredSchema, execContext, 0, 0);
+    }
+
+    // Storage schema describes the data as it was saved, required schema can be a subset of the fields
+    // Offset and limit select a range of rows, a limit of zero means no limit
+
     DataPipeline pipelineReader(
             StorageCopy storageCopy,
+            Schema storageSchema,
             Schema requiredSchema,
-            IDataContext execContext);
+            IDataContext execContext,
+            long offset, long limit);
 
     DataPipeline pipelineWriter(
             StorageCopy storageCopy,
@@ -64,6 +64,11 @@ public interface IFileStorage extends AutoCloseable {
             String storagePath,
             IDataContext dataContext);
 
+    Flow.Publisher<ByteBuf> reader(
+            String storagePath,
+            long offset, long length,
+            IDataContext dataContext);
+
     Flow.Subscriber<ByteBuf> writer(
             String storagePath,
             CompletableFuture<Long> signal,
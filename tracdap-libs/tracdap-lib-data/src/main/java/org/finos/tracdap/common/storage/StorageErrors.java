@@ -45,6 +45,7 @@ public abstract class StorageErrors {
         SIZE_OF_DIR,
         STAT_NOT_FILE_OR_DIR,
         RM_DIR_NOT_RECURSIVE,
+        READ_RANGE_INVALID,
 
         // Exceptions
         NO_SUCH_FILE_EXCEPTION,
@@ -54,6 +55,7 @@ public abstract class StorageErrors {
         ACCESS_DENIED_EXCEPTION,
         SECURITY_EXCEPTION,
         IO_EXCEPTION,
+        OBJECT_CHANGED_EXCEPTION,
 
         // Errors in stream (Flow pub/sub) implementation
         DUPLICATE_SUBSCRIPTION,
@@ -75,6 +77,7 @@ public abstract class StorageErrors {
             Map.entry(SIZE_OF_DIR, "Size operation is not available for directories: %s %s [%s]"),
             Map.entry(STAT_NOT_FILE_OR_DIR, "Object is not a file or directory: %s %s [%s]"),
             Map.entry(RM_DIR_NOT_RECURSIVE, "Regular delete operation not available for directories (use recursive delete): %s %s [%s]"),
+            Map.entry(READ_RANGE_INVALID, "Requested read range is invalid: %s %s [%s]"),
 
             Map.entry(NO_SUCH_FILE_EXCEPTION, "File not found in storage layer: %s %s [%s]"),
             Map.entry(FILE_ALREADY_EXISTS_EXCEPTION, "File already exists in storage layer: %s %s [%s]"),
@@ -83,6 +86,7 @@ public abstract class StorageErrors {
             Map.entry(ACCESS_DENIED_EXCEPTION, "Access denied in storage layer: %s %s [%s]"),
             Map.entry(SECURITY_EXCEPTION, "Access denied in storage layer: %s %s [%s]"),
             Map.entry(IO_EXCEPTION, "An IO error occurred in the storage layer: %s %s [%s]"),
+            Map.entry(OBJECT_CHANGED_EXCEPTION, "Object was modified while it was being read in storage layer: %s %s [%s]"),
 
             Map.entry(DUPLICATE_SUBSCRIPTION, "Duplicate subscription detected in the storage layer: %s %s [%s]"),
 
@@ -100,6 +104,7 @@ public abstract class StorageErrors {
             Map.entry(SIZE_OF_DIR, EStorageRequest.class),
             Map.entry(RM_DIR_NOT_RECURSIVE, EStorageRequest.class),
             Map.entry(STAT_NOT_FILE_OR_DIR, EStorageRequest.class),
+            Map.entry(READ_RANGE_INVALID, EStorageRequest.class),
 
             Map.entry(NO_SUCH_FILE_EXCEPTION, EStorageRequest.class),
             Map.entry(FILE_ALREADY_EXISTS_EXCEPTION, EStorageRequest.class),
@@ -108,6 +113,7 @@ public abstract class StorageErrors {
             Map.entry(ACCESS_DENIED_EXCEPTION, EStorageAccess.class),
             Map.entry(SECURITY_EXCEPTION, EStorageAccess.class),
             Map.entry(IO_EXCEPTION, EStorage.class),
+            Map.entry(OBJECT_CHANGED_EXCEPTION, EStorage.class),
 
             Map.entry(DUPLICATE_SUBSCRIPTION, ETracInternal.class),
 
@@ -19,9 +19,13 @@ package org.finos.tracdap.common.storage.flat;
 import io.netty.channel.EventLoopGroup;
 import org.finos.tracdap.common.codec.ICodec;
 import org.finos.tracdap.common.codec.ICodecManager;
+import org.finos.tracdap.common.codec.arrow.ArrowFileCodec;
+import org.finos.tracdap.common.codec.arrow.ArrowFileSource;
 import org.finos.tracdap.common.concurrent.Flows;
 import org.finos.tracdap.common.data.DataPipeline;
 import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.data.pipeline.ColumnSelector;
+import org.finos.tracdap.common.data.pipeline.RangeSelector;
 import org.finos.tracdap.common.storage.IDataStorage;
 import org.finos.tracdap.common.storage.IFileStorage;
 import org.finos.tracdap.metadata.StorageCopy;
@@ -57,19 +61,52 @@ public class FlatDataStorage implements IDataStorage {
     }
 
     @Override
-    public DataPipeline pipelineReader(StorageCopy storageCopy, Schema requiredSchema, IDataContext dataContext) {
+    public DataPipeline pipelineReader(
+            StorageCopy storageCopy,
+            Schema storageSchema, Schema requiredSchema,
+            IDataContext dataContext,
+            long offset, long limit) {
 
         var codec = formats.getCodec(storageCopy.getStorageFormat());
 
         var chunkPath = chunkPath(storageCopy, codec);
-        var load = fileStorage.reader(chunkPath, dataContext);
+        var projected = !requiredSchema.equals(storageSchema);
 
-        var pipeline = DataPipeline.forSource(load, dataContext);
+        DataPipeline pipeline;
 
-        var options = Map.<String, String>of();
-        var decoder = codec.getDecoder(dataContext.arrowAllocator(), requiredSchema, options);
+        // Arrow files support random access, so they can be read directly from storage one batch at a time
+        // This avoids buffering the whole file, which is required to use the regular Arrow file decoder
+
+        // Unrequested fields are skipped by the Arrow file source, their buffers are never loaded
+
+        if (codec instanceof ArrowFileCodec) {
+            var source = new ArrowFileSource(fileStorage, chunkPath, dataContext, projected ? requiredSchema : null);
+            pipeline = DataPipeline.forSource(source, dataContext);
+        }
+        else {
+
+            var load = fileStorage.reader(chunkPath, dataContext);
+
+            // Other formats have to be decoded in full, then unrequested fields are dropped
+
+            var options = Map.<String, String>of();
+            var decoder = codec.getDecoder(dataContext.arrowAllocator(), storageSchema, options);
+
+            pipeline = DataPipeline.forSource(load, dataContext);
+            pipeline.addStage(decoder);
+
+            if (projected)
+                pipeline.addStage(new ColumnSelector(requiredSchema));
+        }
+
+        // Range selection stops the source once the limit is reached, so only the rows needed are read
+
+        if (offset > 0 || limit > 0) {
+            var range = new RangeSelector(dataContext.arrowAllocator(), offset, limit);
+            pipeline.addStage(range);
+        }
 
-        return pipeline.addStage(decoder);
+        return pipeline;
     }
 
     @Override
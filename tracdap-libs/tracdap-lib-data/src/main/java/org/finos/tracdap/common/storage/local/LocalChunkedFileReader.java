@@ -0,0 +1,406 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage.local;
+
+import org.finos.tracdap.common.storage.StorageErrors;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.OrderedEventExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
+import static org.finos.tracdap.common.storage.local.LocalFileStorage.READ_OPERATION;
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Read a local file in large chunks, with several chunk reads outstanding at once.
+ *
+ * <p>The file is divided into chunks of a fixed size. Up to the configured number of chunks
+ * are read ahead of the subscriber, limited also by the demand the subscriber has signalled.
+ * Reads can complete in any order, chunks are held until all the chunks before them have been
+ * published, so the subscriber always sees the content in order.</p>
+ *
+ * <p>The file channel runs its reads on a dedicated IO executor, so outstanding reads really do
+ * run in parallel and never block the event loop. Completed reads are passed back to the event loop,
+ * all the reader state is only touched from there.</p>
+ */
+public class LocalChunkedFileReader implements Flow.Publisher<ByteBuf> {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final StorageErrors errors;
+    private final String storagePath;
+
+    private final Path absolutePath;
+    private final long offset;
+    private final long limit;
+    private final int chunkSize;
+    private final int readAhead;
+    private final ByteBufAllocator allocator;
+    private final OrderedEventExecutor executor;
+    private final ExecutorService readExecutor;
+
+    private final AtomicBoolean subscriberSet;
+    private Flow.Subscriber<? super ByteBuf> subscriber;
+
+    private AsynchronousFileChannel channel;
+    private ChunkReadHandler readHandler;
+
+    private final TreeMap<Long, ByteBuf> readyChunks;
+    private long readStart;
+    private long readEnd;
+    private long chunkCount;
+    private long nextChunkToRead;
+    private long nextChunkToDeliver;
+    private long demand;
+
+    private boolean started;
+    private boolean done;
+
+    LocalChunkedFileReader(
+            String storageKey, String storagePath,
+            Path absolutePath, long offset, long limit,
+            int chunkSize, int readAhead,
+            ByteBufAllocator allocator, OrderedEventExecutor executor,
+            ExecutorService readExecutor) {
+
+        this.errors = new LocalStorageErrors(storageKey, log);
+        this.storagePath = storagePath;
+
+        this.absolutePath = absolutePath;
+        this.offset = offset;
+        this.limit = limit;
+        this.chunkSize = chunkSize;
+        this.readAhead = readAhead;
+        this.allocator = allocator;
+        this.executor = executor;
+        this.readExecutor = readExecutor;
+
+        this.subscriberSet = new AtomicBoolean(false);
+        this.subscriber = null;
+
+        this.readyChunks = new TreeMap<>();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuf> subscriber) {
+
+        var subscribeOk = subscriberSet.compareAndSet(false, true);
+
+        if (!subscribeOk) {
+
+            var eStorage = errors.explicitError(DUPLICATE_SUBSCRIPTION, storagePath, READ_OPERATION);
+            var eFlowState = new IllegalStateException(eStorage.getMessage(), eStorage);
+            subscriber.onError(eFlowState);
+            return;
+        }
+
+        this.subscriber = subscriber;
+
+        // Same pattern as the regular reader, doStart goes into the event loop before any requests
+
+        executor.submit(this::doStart);
+
+        subscriber.onSubscribe(new ReadSubscription());
+    }
+
+    private class ReadSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+
+            executor.submit(() -> doRequest(n));
+        }
+
+        @Override
+        public void cancel() {
+
+            executor.submit(LocalChunkedFileReader.this::doCancel);
+        }
+    }
+
+    private void doStart() {
+
+        if (done)
+            return;
+
+        try {
+
+            channel = AsynchronousFileChannel.open(absolutePath, Set.of(READ), readExecutor);
+            readHandler = new ChunkReadHandler();
+
+            // Do not read past the end of the file, or the end of the requested range
+
+            var fileSize = channel.size();
+
+            readStart = Math.min(offset, fileSize);
+            readEnd = limit >= fileSize - readStart ? fileSize : readStart + limit;
+            chunkCount = (readEnd - readStart + chunkSize - 1) / chunkSize;
+            started = true;
+
+            log.info("File channel open for reading: {} bytes in {} chunks, read ahead = {} [{}]",
+                    readEnd - readStart, chunkCount, readAhead, absolutePath);
+
+            deliverChunks();
+        }
+        catch (Exception e) {
+
+            readFailed(e);
+        }
+    }
+
+    private void doRequest(long n) {
+
+        if (done)
+            return;
+
+        // Avoid overflow if the subscriber requests Long.MAX_VALUE
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+
+        if (started)
+            deliverChunks();
+    }
+
+    private void doCancel() {
+
+        if (done)
+            return;
+
+        done = true;
+
+        log.info("Read operation cancelled: [{}]", absolutePath);
+
+        // Reads still in progress will fail with an async close error and release their buffers
+        releaseChunks();
+        closeChannel();
+    }
+
+    private void readChunks() {
+
+        // Chunks read but not yet delivered are limited by both read ahead and subscriber demand
+
+        while (!done && nextChunkToRead < chunkCount) {
+
+            var chunksAhead = nextChunkToRead - nextChunkToDeliver;
+
+            if (chunksAhead >= readAhead || chunksAhead >= demand)
+                break;
+
+            readChunk(nextChunkToRead++);
+        }
+    }
+
+    private void readChunk(long chunkIndex) {
+
+        var chunkStart = readStart + chunkIndex * chunkSize;
+        var chunkLength = (int) Math.min(chunkSize, readEnd - chunkStart);
+
+        var chunk = new ChunkRead(chunkIndex, chunkStart, chunkLength, allocator.directBuffer(chunkLength));
+
+        if (log.isTraceEnabled())
+            log.trace("Reading chunk {}: {} bytes at {} [{}]", chunkIndex, chunkLength, chunkStart, absolutePath);
+
+        try {
+            continueRead(chunk);
+        }
+        catch (Exception e) {
+            chunk.buffer.release();
+            throw e;
+        }
+    }
+
+    private void continueRead(ChunkRead chunk) {
+
+        var buffer = chunk.buffer;
+        var nioBuffer = buffer.nioBuffer(buffer.writerIndex(), chunk.length - buffer.writerIndex());
+
+        channel.read(nioBuffer, chunk.start + buffer.writerIndex(), chunk, readHandler);
+    }
+
+    private void chunkReadComplete(Integer nBytes, ChunkRead chunk) {
+
+        if (done) {
+            chunk.buffer.release();
+            return;
+        }
+
+        // A short read can happen before the end of the chunk, in which case read the rest
+        // A negative count means EOF, the file was truncated while it was being read
+
+        if (nBytes > 0)
+            chunk.buffer.writerIndex(chunk.buffer.writerIndex() + nBytes);
+
+        if (nBytes >= 0 && chunk.buffer.writerIndex() < chunk.length) {
+
+            try {
+                continueRead(chunk);
+            }
+            catch (Exception e) {
+                chunk.buffer.release();
+                readFailed(e);
+            }
+
+            return;
+        }
+
+        readyChunks.put(chunk.index, chunk.buffer);
+
+        deliverChunks();
+    }
+
+    private void chunkReadFailed(Throwable error, ChunkRead chunk) {
+
+        chunk.buffer.release();
+
+        // Async close errors are expected for reads in progress when the operation is cancelled
+        if (done && error instanceof AsynchronousCloseException)
+            return;
+
+        readFailed(error);
+    }
+
+    private void deliverChunks() {
+
+        try {
+
+            while (!done && demand > 0 && readyChunks.containsKey(nextChunkToDeliver)) {
+
+                var chunk = readyChunks.remove(nextChunkToDeliver);
+
+                nextChunkToDeliver++;
+                demand--;
+
+                subscriber.onNext(chunk);
+            }
+
+            if (!done && nextChunkToDeliver == chunkCount) {
+
+                done = true;
+
+                log.info("Read operation complete: {} bytes read [{}]", readEnd - readStart, absolutePath);
+
+                closeChannel();
+
+                subscriber.onComplete();
+
+                return;
+            }
+
+            readChunks();
+        }
+        catch (Exception e) {
+
+            readFailed(e);
+        }
+    }
+
+    private void readFailed(Throwable error) {
+
+        if (done) {
+            log.warn("Read operation is terminated but further errors occurred: [{}]", absolutePath, error);
+            return;
+        }
+
+        done = true;
+
+        log.error("Read operation failed: {} [{}]", error.getMessage(), absolutePath, error);
+
+        releaseChunks();
+        closeChannel();
+
+        var eStorage = errors.handleException(error, storagePath, READ_OPERATION);
+        subscriber.onError(eStorage);
+    }
+
+    private void releaseChunks() {
+
+        readyChunks.values().forEach(ByteBuf::release);
+        readyChunks.clear();
+    }
+
+    private void closeChannel() {
+
+        if (channel == null)
+            return;
+
+        try {
+            channel.close();
+            channel = null;
+
+            log.info("File channel closed: [{}]", absolutePath);
+        }
+        catch (Exception e) {
+
+            log.error("File channel was not closed cleanly: {} [{}]", e.getMessage(), absolutePath, e);
+        }
+    }
+
+    private static class ChunkRead {
+
+        final long index;
+        final long start;
+        final int length;
+        final ByteBuf buffer;
+
+        ChunkRead(long index, long start, int length, ByteBuf buffer) {
+            this.index = index;
+            this.start = start;
+            this.length = length;
+            this.buffer = buffer;
+        }
+    }
+
+    private class ChunkReadHandler implements CompletionHandler<Integer, ChunkRead> {
+
+        // Handlers are called on the IO executor, pass the result back to the event loop
+
+        @Override
+        public void completed(Integer nBytes, ChunkRead chunk) {
+
+            try {
+                executor.execute(() -> chunkReadComplete(nBytes, chunk));
+            }
+            catch (RejectedExecutionException e) {
+                chunk.buffer.release();
+            }
+        }
+
+        @Override
+        public void failed(Throwable error, ChunkRead chunk) {
+
+            try {
+                executor.execute(() -> chunkReadFailed(error, chunk));
+            }
+            catch (RejectedExecutionException e) {
+                chunk.buffer.release();
+            }
+        }
+    }
+}
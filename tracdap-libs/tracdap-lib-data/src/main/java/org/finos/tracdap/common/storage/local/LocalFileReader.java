@@ -47,6 +47,8 @@ public class LocalFileReader implements Flow.Publisher<ByteBuf> {
     private final String storagePath;
 
     private final Path absolutePath;
+    private final long offset;
+    private final long limit;
     private final ByteBufAllocator allocator;
     private final OrderedEventExecutor executor;
 
@@ -68,10 +70,20 @@ public class LocalFileReader implements Flow.Publisher<ByteBuf> {
             Path absolutePath, ByteBufAllocator allocator,
             OrderedEventExecutor executor) {
 
+        this(storageKey, storagePath, absolutePath, 0, Long.MAX_VALUE, allocator, executor);
+    }
+
+    LocalFileReader(
+            String storageKey, String storagePath,
+            Path absolutePath, long offset, long limit,
+            ByteBufAllocator allocator, OrderedEventExecutor executor) {
+
         this.errors = new LocalStorageErrors(storageKey, log);
         this.storagePath = storagePath;
 
         this.absolutePath = absolutePath;
+        this.offset = offset;
+        this.limit = limit;
         this.allocator = allocator;
         this.executor = executor;
 
@@ -244,14 +256,17 @@ public class LocalFileReader implements Flow.Publisher<ByteBuf> {
             if (chunkInProgress)
                 throw new EUnexpected();
 
-            var chunk = allocator.ioBuffer(DEFAULT_CHUNK_SIZE);
+            // For ranged reads, do not read past the end of the requested range
+
+            var chunkSize = (int) Math.min(DEFAULT_CHUNK_SIZE, limit - bytesRead);
+            var chunk = allocator.ioBuffer(chunkSize);
 
             if (chunk.nioBufferCount() != 1)
                 throw new EUnexpected();
 
-            var nioChunk = chunk.nioBuffer(0, DEFAULT_CHUNK_SIZE);
+            var nioChunk = chunk.nioBuffer(0, chunkSize);
 
-            channel.read(nioChunk, bytesRead, chunk, readHandler);
+            channel.read(nioChunk, offset + bytesRead, chunk, readHandler);
 
             chunkInProgress = true;
         }
@@ -345,7 +360,9 @@ public class LocalFileReader implements Flow.Publisher<ByteBuf> {
             // Trigger the next read operation immediately
             // Possibly the subscriber is going to do processing in onNext
 
-            if (chunksPending > 0)
+            var rangeComplete = bytesRead >= limit;
+
+            if (chunksPending > 0 && !rangeComplete)
                 readChunk();
 
             // The channel wrote into the underlying nio ByteBuffer
@@ -356,6 +373,14 @@ public class LocalFileReader implements Flow.Publisher<ByteBuf> {
             // Signal the subscriber
 
             subscriber.onNext(chunk);
+
+            // For ranged reads, the read is complete once the end of the range is reached
+            // There is no need to wait for EOF from the channel
+
+            if (rangeComplete && !(gotComplete || gotCancel || gotError)) {
+                gotComplete = true;
+                doComplete();
+            }
         }
         catch (Exception e) {
 
@@ -24,6 +24,7 @@ import org.finos.tracdap.common.storage.*;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +34,8 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
@@ -42,6 +45,20 @@ import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.*;
 public class LocalFileStorage implements IFileStorage {
 
     public static final String CONFIG_ROOT_PATH = "rootPath";
+    public static final String CONFIG_READ_MODE = "readMode";
+    public static final String CONFIG_READ_CHUNK_SIZE = "readChunkSize";
+    public static final String CONFIG_READ_AHEAD = "readAhead";
+    public static final String CONFIG_READ_THREADS = "readThreads";
+
+    public static final int DEFAULT_READ_CHUNK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_READ_AHEAD = 4;
+    public static final int DEFAULT_READ_THREADS = 4;
+
+    public enum ReadMode {
+        STANDARD,
+        CHUNKED,
+        MAPPED
+    }
 
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final StorageErrors errors;
@@ -49,6 +66,11 @@ public class LocalFileStorage implements IFileStorage {
     private final String storageKey;
     private final Path rootPath;
 
+    private final ReadMode readMode;
+    private final int readChunkSize;
+    private final int readAhead;
+    private final ExecutorService readExecutor;
+
     public LocalFileStorage(Properties config) {
 
         this.storageKey = config.getProperty(IStorageManager.PROP_STORAGE_KEY);
@@ -61,6 +83,68 @@ public class LocalFileStorage implements IFileStorage {
         this.rootPath = Paths.get(rootDirProp)
                 .toAbsolutePath()
                 .normalize();
+
+        this.readMode = readModeProperty(config);
+        this.readChunkSize = intProperty(config, CONFIG_READ_CHUNK_SIZE, DEFAULT_READ_CHUNK_SIZE);
+        this.readAhead = intProperty(config, CONFIG_READ_AHEAD, DEFAULT_READ_AHEAD);
+
+        if (readChunkSize < 1 || readAhead < 1) {
+            var message = String.format("Invalid value for [%s] or [%s]: must be at least 1", CONFIG_READ_CHUNK_SIZE, CONFIG_READ_AHEAD);
+            log.error(message);
+            throw new EStartup(message);
+        }
+
+        // Chunked reads need their own IO threads, reads issued on the event loop would run one at a time
+
+        if (readMode == ReadMode.CHUNKED) {
+
+            var readThreads = intProperty(config, CONFIG_READ_THREADS, DEFAULT_READ_THREADS);
+
+            if (readThreads < 1) {
+                var message = String.format("Invalid value for [%s]: must be at least 1", CONFIG_READ_THREADS);
+                log.error(message);
+                throw new EStartup(message);
+            }
+
+            this.readExecutor = Executors.newFixedThreadPool(readThreads, new DefaultThreadFactory("local-read", true));
+        }
+        else {
+            this.readExecutor = null;
+        }
+    }
+
+    private ReadMode readModeProperty(Properties config) {
+
+        var propertyValue = config.getProperty(CONFIG_READ_MODE);
+
+        if (propertyValue == null || propertyValue.isBlank())
+            return ReadMode.STANDARD;
+
+        try {
+            return ReadMode.valueOf(propertyValue.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            var message = String.format("Invalid value for [%s]: unknown read mode [%s]", CONFIG_READ_MODE, propertyValue);
+            log.error(message);
+            throw new EStartup(message);
+        }
+    }
+
+    private int intProperty(Properties config, String propertyName, int defaultValue) {
+
+        var propertyValue = config.getProperty(propertyName);
+
+        if (propertyValue == null || propertyValue.isBlank())
+            return defaultValue;
+
+        try {
+            return Integer.parseInt(propertyValue.trim());
+        }
+        catch (NumberFormatException e) {
+            var message = String.format("Invalid value for [%s]: expected an integer, got [%s]", propertyName, propertyValue);
+            log.error(message);
+            throw new EStartup(message);
+        }
     }
 
     @Override
@@ -96,7 +180,8 @@ public class LocalFileStorage implements IFileStorage {
     @Override
     public void stop() {
 
-        // No-op
+        if (readExecutor != null)
+            readExecutor.shutdown();
     }
 
     private void logFsInfo() {
@@ -354,10 +439,63 @@ public class LocalFileStorage implements IFileStorage {
 
         var absolutePath = resolvePath(storagePath, false, READ_OPERATION);
 
-        return new LocalFileReader(
-                storageKey, storagePath,
-                absolutePath, ByteBufAllocator.DEFAULT,
-                dataContext.eventLoopExecutor());
+        return newReader(storagePath, absolutePath, 0, Long.MAX_VALUE, dataContext);
+    }
+
+    @Override
+    public Flow.Publisher<ByteBuf> reader(String storagePath, long offset, long length, IDataContext dataContext) {
+
+        log.info("STORAGE OPERATION: {} {} [{}], offset = {}, length = {}",
+                storageKey, READ_OPERATION, storagePath, offset, length);
+
+        var absolutePath = resolvePath(storagePath, false, READ_OPERATION);
+
+        if (offset < 0 || length <= 0)
+            throw errors.explicitError(READ_RANGE_INVALID, storagePath, READ_OPERATION);
+
+        return newReader(storagePath, absolutePath, offset, length, dataContext);
+    }
+
+    public Path localPath(String storagePath) {
+
+        // Allow components that run on the same host to access files directly, e.g. for zero-copy transfer
+        // Paths are resolved with the same checks as a regular read
+
+        return resolvePath(storagePath, false, READ_OPERATION);
+    }
+
+    private Flow.Publisher<ByteBuf> newReader(
+            String storagePath, Path absolutePath,
+            long offset, long length, IDataContext dataContext) {
+
+        switch (readMode) {
+
+            case CHUNKED:
+
+                return new LocalChunkedFileReader(
+                        storageKey, storagePath,
+                        absolutePath, offset, length,
+                        readChunkSize, readAhead,
+                        ByteBufAllocator.DEFAULT,
+                        dataContext.eventLoopExecutor(),
+                        readExecutor);
+
+            case MAPPED:
+
+                return new LocalMappedFileReader(
+                        storageKey, storagePath,
+                        absolutePath, offset, length, readChunkSize,
+                        dataContext.eventLoopExecutor());
+
+            case STANDARD:
+            default:
+
+                return new LocalFileReader(
+                        storageKey, storagePath,
+                        absolutePath, offset, length,
+                        ByteBufAllocator.DEFAULT,
+                        dataContext.eventLoopExecutor());
+        }
     }
 
     @Override
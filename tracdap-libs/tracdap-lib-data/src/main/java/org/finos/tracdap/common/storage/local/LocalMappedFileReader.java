@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage.local;
+
+import org.finos.tracdap.common.storage.StorageErrors;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.OrderedEventExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
+import static org.finos.tracdap.common.storage.local.LocalFileStorage.READ_OPERATION;
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Read a local file by mapping it into memory, one region at a time.
+ *
+ * <p>Each region is published as a single chunk that wraps the mapped buffer, so no data is
+ * copied by the reader. Pages are loaded by the OS when the subscriber reads them,
+ * this work happens on whichever thread is consuming the chunks.</p>
+ *
+ * <p>Mapped regions are unmapped by the JVM when the buffers are garbage collected,
+ * releasing the chunk does not unmap them. On platforms that lock mapped files
+ * (i.e. Windows) the file cannot be deleted until that has happened.</p>
+ */
+public class LocalMappedFileReader implements Flow.Publisher<ByteBuf> {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final StorageErrors errors;
+    private final String storagePath;
+
+    private final Path absolutePath;
+    private final long offset;
+    private final long limit;
+    private final int regionSize;
+    private final OrderedEventExecutor executor;
+
+    private final AtomicBoolean subscriberSet;
+    private Flow.Subscriber<? super ByteBuf> subscriber;
+
+    private FileChannel channel;
+    private long readStart;
+    private long position;
+    private long readEnd;
+    private long demand;
+
+    private boolean started;
+    private boolean done;
+
+    LocalMappedFileReader(
+            String storageKey, String storagePath,
+            Path absolutePath, long offset, long limit, int regionSize,
+            OrderedEventExecutor executor) {
+
+        this.errors = new LocalStorageErrors(storageKey, log);
+        this.storagePath = storagePath;
+
+        this.absolutePath = absolutePath;
+        this.offset = offset;
+        this.limit = limit;
+        this.regionSize = regionSize;
+        this.executor = executor;
+
+        this.subscriberSet = new AtomicBoolean(false);
+        this.subscriber = null;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuf> subscriber) {
+
+        var subscribeOk = subscriberSet.compareAndSet(false, true);
+
+        if (!subscribeOk) {
+
+            var eStorage = errors.explicitError(DUPLICATE_SUBSCRIPTION, storagePath, READ_OPERATION);
+            var eFlowState = new IllegalStateException(eStorage.getMessage(), eStorage);
+            subscriber.onError(eFlowState);
+            return;
+        }
+
+        this.subscriber = subscriber;
+
+        // Same pattern as the regular reader, doStart goes into the event loop before any requests
+
+        executor.submit(this::doStart);
+
+        subscriber.onSubscribe(new ReadSubscription());
+    }
+
+    private class ReadSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+
+            executor.submit(() -> doRequest(n));
+        }
+
+        @Override
+        public void cancel() {
+
+            executor.submit(LocalMappedFileReader.this::doCancel);
+        }
+    }
+
+    private void doStart() {
+
+        if (done)
+            return;
+
+        try {
+
+            channel = FileChannel.open(absolutePath, READ);
+
+            // Do not map past the end of the file, or the end of the requested range
+
+            var fileSize = channel.size();
+
+            readStart = Math.min(offset, fileSize);
+            readEnd = limit >= fileSize - readStart ? fileSize : readStart + limit;
+            position = readStart;
+            started = true;
+
+            log.info("File channel open for mapped reading: {} bytes to read [{}]", readEnd - readStart, absolutePath);
+
+            deliverRegions();
+        }
+        catch (Exception e) {
+
+            readFailed(e);
+        }
+    }
+
+    private void doRequest(long n) {
+
+        if (done)
+            return;
+
+        // Avoid overflow if the subscriber requests Long.MAX_VALUE
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+
+        if (started)
+            deliverRegions();
+    }
+
+    private void doCancel() {
+
+        if (done)
+            return;
+
+        done = true;
+
+        log.info("Read operation cancelled: [{}]", absolutePath);
+
+        closeChannel();
+    }
+
+    private void deliverRegions() {
+
+        try {
+
+            while (!done && demand > 0 && position < readEnd) {
+
+                var mapSize = Math.min(regionSize, readEnd - position);
+                var region = channel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+
+                position += mapSize;
+                demand--;
+
+                subscriber.onNext(Unpooled.wrappedBuffer(region));
+            }
+
+            if (!done && position >= readEnd) {
+
+                done = true;
+
+                log.info("Read operation complete: {} bytes read [{}]", readEnd - readStart, absolutePath);
+
+                // Mapped regions stay valid after the channel is closed
+                closeChannel();
+
+                subscriber.onComplete();
+            }
+        }
+        catch (Exception e) {
+
+            readFailed(e);
+        }
+    }
+
+    private void readFailed(Exception error) {
+
+        if (done) {
+            log.warn("Read operation is terminated but further errors occurred: [{}]", absolutePath, error);
+            return;
+        }
+
+        done = true;
+
+        log.error("Read operation failed: {} [{}]", error.getMessage(), absolutePath, error);
+
+        closeChannel();
+
+        var eStorage = errors.handleException(error, storagePath, READ_OPERATION);
+        subscriber.onError(eStorage);
+    }
+
+    private void closeChannel() {
+
+        if (channel == null)
+            return;
+
+        try {
+            channel.close();
+            channel = null;
+
+            log.info("File channel closed: [{}]", absolutePath);
+        }
+        catch (Exception e) {
+
+            log.error("File channel was not closed cleanly: {} [{}]", e.getMessage(), absolutePath, e);
+        }
+    }
+}
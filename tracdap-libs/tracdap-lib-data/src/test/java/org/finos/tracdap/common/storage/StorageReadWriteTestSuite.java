@@ -37,6 +37,7 @@ import static org.mockito.Mockito.*;
 import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
@@ -105,6 +106,27 @@ public abstract class StorageReadWriteTestSuite {
                 storage, dataContext);
     }
 
+    @Test
+    void roundTrip_largeManyChunks() throws Exception {
+
+        var storagePath = "test_file.dat";
+
+        // 25 M in 1 M chunks, large enough to need several parts for object stores that use multipart upload
+
+        var random = new Random();
+        var bytes = new ArrayList<byte[]>();
+
+        for (var i = 0; i < 25; i++) {
+            var chunk = new byte[1024 * 1024];
+            random.nextBytes(chunk);
+            bytes.add(chunk);
+        }
+
+        StorageReadWriteTestSuite.roundTripTest(
+                storagePath, bytes,
+                storage, dataContext);
+    }
+
     @Test
     void roundTrip_heterogeneous() throws Exception {
 
@@ -137,6 +159,47 @@ public abstract class StorageReadWriteTestSuite {
                 storage, dataContext);
     }
 
+    @Test
+    void rangedRead_basic() throws Exception {
+
+        var storagePath = "test_file.dat";
+
+        var bytes = new byte[10000];
+        var random = new Random();
+        random.nextBytes(bytes);
+
+        var content = ByteBufAllocator.DEFAULT.directBuffer(bytes.length).writeBytes(bytes);
+
+        var writeSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writeSignal, dataContext);
+        Flows.publish(List.of(content)).subscribe(writer);
+
+        waitFor(TEST_TIMEOUT, writeSignal);
+        Assertions.assertDoesNotThrow(() -> resultOf(writeSignal));
+
+        // Range spans several read chunks, and does not start or end on a chunk boundary
+
+        var offset = 1234;
+        var length = 5000;
+
+        var reader = storage.reader(storagePath, offset, length, dataContext);
+        var readResult = Flows.fold(
+                reader, (composite, buf) -> composite.addComponent(true, buf),
+                ByteBufAllocator.DEFAULT.compositeBuffer());
+
+        waitFor(TEST_TIMEOUT, readResult);
+
+        var rangeBuffer = resultOf(readResult);
+        var rangeContent = copyBytes(rangeBuffer);
+
+        var expectedContent = new byte[length];
+        System.arraycopy(bytes, offset, expectedContent, 0, length);
+
+        Assertions.assertArrayEquals(expectedContent, rangeContent);
+
+        rangeBuffer.release();
+    }
+
     static void roundTripTest(
             String storagePath, List<byte[]> originalBytes,
             IFileStorage storage, IDataContext dataContext) throws Exception {
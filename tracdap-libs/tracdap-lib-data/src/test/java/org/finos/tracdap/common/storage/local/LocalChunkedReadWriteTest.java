@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage.local;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.arrow.memory.RootAllocator;
+import org.finos.tracdap.common.concurrent.ExecutionContext;
+import org.finos.tracdap.common.concurrent.Flows;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.storage.StorageReadWriteTestSuite;
+import org.finos.tracdap.common.storage.IStorageManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.resultOf;
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.waitFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class LocalChunkedReadWriteTest extends StorageReadWriteTestSuite {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int READ_AHEAD = 4;
+
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setupStorage() {
+
+        // Use a small chunk size so that reads in the test suite span many chunks
+
+        var storageProps = new Properties();
+        storageProps.put(IStorageManager.PROP_STORAGE_KEY, "TEST_STORAGE");
+        storageProps.put(LocalFileStorage.CONFIG_ROOT_PATH, storageDir.toString());
+        storageProps.put(LocalFileStorage.CONFIG_READ_MODE, LocalFileStorage.ReadMode.CHUNKED.name());
+        storageProps.put(LocalFileStorage.CONFIG_READ_CHUNK_SIZE, String.valueOf(CHUNK_SIZE));
+        storageProps.put(LocalFileStorage.CONFIG_READ_AHEAD, String.valueOf(READ_AHEAD));
+        storage = new LocalFileStorage(storageProps);
+
+        execContext = new ExecutionContext(new DefaultEventExecutor(new DefaultThreadFactory("t-events")));
+        dataContext = new DataContext(execContext.eventLoopExecutor(), new RootAllocator());
+    }
+
+    @Test
+    void chunkedRead_readsOverlap() throws Exception {
+
+        // Read ahead only helps if the outstanding reads run at the same time
+        // Each IO task waits for a second task to start, which can only happen if reads overlap
+
+        var content = new byte[CHUNK_SIZE * READ_AHEAD * 2];
+        new Random().nextBytes(content);
+
+        var testFile = storageDir.resolve("read_overlap.dat");
+        Files.write(testFile, content);
+
+        var tasksStarted = new CountDownLatch(2);
+        var overlapped = new AtomicBoolean(false);
+
+        var readExecutor = new ThreadPoolExecutor(READ_AHEAD, READ_AHEAD, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+
+                tasksStarted.countDown();
+
+                try {
+                    if (tasksStarted.await(5, TimeUnit.SECONDS))
+                        overlapped.set(true);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+
+            var reader = new LocalChunkedFileReader(
+                    "TEST_STORAGE", "read_overlap.dat",
+                    testFile, 0, content.length,
+                    CHUNK_SIZE, READ_AHEAD,
+                    ByteBufAllocator.DEFAULT,
+                    dataContext.eventLoopExecutor(),
+                    readExecutor);
+
+            var received = new byte[content.length];
+
+            var readResult = Flows.fold(reader, (Integer pos, ByteBuf chunk) -> {
+
+                try {
+                    var nBytes = chunk.readableBytes();
+                    chunk.readBytes(received, pos, nBytes);
+                    return pos + nBytes;
+                }
+                finally {
+                    chunk.release();
+                }
+
+            }, 0);
+
+            waitFor(Duration.ofSeconds(30), readResult);
+
+            assertEquals(content.length, resultOf(readResult));
+            assertArrayEquals(content, received);
+            assertTrue(overlapped.get());
+        }
+        finally {
+            readExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage.local;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.arrow.memory.RootAllocator;
+import org.finos.tracdap.common.concurrent.ExecutionContext;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.storage.StorageReadWriteTestSuite;
+import org.finos.tracdap.common.storage.IStorageManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Properties;
+
+
+// Mapped files cannot be deleted on Windows until the mapping is garbage collected
+@DisabledOnOs(OS.WINDOWS)
+public class LocalMappedReadWriteTest extends StorageReadWriteTestSuite {
+
+    @TempDir
+    Path storageDir;
+
+    @BeforeEach
+    void setupStorage() {
+
+        // Use a small chunk size so that reads in the test suite span many chunks
+
+        var storageProps = new Properties();
+        storageProps.put(IStorageManager.PROP_STORAGE_KEY, "TEST_STORAGE");
+        storageProps.put(LocalFileStorage.CONFIG_ROOT_PATH, storageDir.toString());
+        storageProps.put(LocalFileStorage.CONFIG_READ_MODE, LocalFileStorage.ReadMode.MAPPED.name());
+        storageProps.put(LocalFileStorage.CONFIG_READ_CHUNK_SIZE, String.valueOf(64 * 1024));
+        storage = new LocalFileStorage(storageProps);
+
+        execContext = new ExecutionContext(new DefaultEventExecutor(new DefaultThreadFactory("t-events")));
+        dataContext = new DataContext(execContext.eventLoopExecutor(), new RootAllocator());
+    }
+}
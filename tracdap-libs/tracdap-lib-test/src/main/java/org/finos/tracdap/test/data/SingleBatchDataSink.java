@@ -22,6 +22,9 @@ import org.finos.tracdap.common.data.pipeline.BaseDataSink;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 public class SingleBatchDataSink
         extends BaseDataSink <DataPipeline.ArrowApi>
@@ -31,6 +34,7 @@ public class SingleBatchDataSink
 
     private Schema schema;
     private long rowCount;
+    private final List<List<Object>> columnValues = new ArrayList<>();
 
     public SingleBatchDataSink(DataPipeline pipeline) {
 
@@ -48,6 +52,8 @@ public class SingleBatchDataSink
 
     public long getRowCount() { return rowCount; }
 
+    public List<List<Object>> getColumnValues() { return columnValues; }
+
     @Override
     public void connect() {
         // no-op
@@ -73,10 +79,25 @@ public class SingleBatchDataSink
     public void onStart(VectorSchemaRoot root) {
         this.root = root;
         this.schema = root.getSchema();
+
+        for (var i = 0; i < root.getFieldVectors().size(); i++)
+            columnValues.add(new ArrayList<>());
     }
 
     @Override
     public void onNext() {
+
+        // Keep values as Java objects, the root is cleaned up when the pipeline completes
+
+        for (var j = 0; j < root.getFieldVectors().size(); j++) {
+
+            var vector = root.getVector(j);
+            var values = columnValues.get(j);
+
+            for (var i = 0; i < root.getRowCount(); i++)
+                values.add(vector.getObject(i));
+        }
+
         this.rowCount += root.getRowCount();
     }
 
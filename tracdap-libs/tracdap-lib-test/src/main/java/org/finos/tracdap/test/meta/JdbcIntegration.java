@@ -72,7 +72,7 @@ public class JdbcIntegration implements BeforeAllCallback, BeforeEachCallback, A
         var dialect = JdbcSetup.getSqlDialect(metaDbConfig);
         var source = JdbcSetup.createDatasource(configManager, metaDbConfig);
 
-        dal = new JdbcMetadataDal(dialect, source);
+        dal = new JdbcMetadataDal(dialect, source, true, JdbcMetadataDal.defaultHotAttrs(), bulkInsert());
         dal.start();
 
         var dalWithLogging = InterfaceLogging.wrap(dal, IMetadataDal.class);
@@ -81,9 +81,16 @@ public class JdbcIntegration implements BeforeAllCallback, BeforeEachCallback, A
         if (testInstance.isPresent()) {
             var testCase = (IDalTestable) testInstance.get();
             testCase.setDal(dalWithLogging);
+
+            if (testCase instanceof IJdbcDalTestable)
+                ((IJdbcDalTestable) testCase).setJdbcDal(dal);
         }
     }
 
+    protected boolean bulkInsert() {
+        return true;
+    }
+
     @Override
     public void afterEach(ExtensionContext context) {
 
@@ -92,4 +99,13 @@ public class JdbcIntegration implements BeforeAllCallback, BeforeEachCallback, A
             dal = null;
         }
     }
+
+    // Run DAL tests using JDBC batches for all inserts, instead of multi-row inserts
+    public static class RowByRowInsert extends JdbcIntegration {
+
+        @Override
+        protected boolean bulkInsert() {
+            return false;
+        }
+    }
 }
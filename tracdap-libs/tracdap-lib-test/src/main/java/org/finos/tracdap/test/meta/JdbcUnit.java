@@ -110,7 +110,7 @@ public class JdbcUnit implements BeforeAllCallback, BeforeEachCallback, AfterEac
             Assertions.fail("JUnit extension for DAL testing requires the test class to implement IDalTestable");
 
         source = JdbcSetup.createDatasource(properties);
-        dal = new JdbcMetadataDal(JdbcDialect.H2, source);
+        dal = new JdbcMetadataDal(JdbcDialect.H2, source, inlineKeys(), JdbcMetadataDal.defaultHotAttrs(), bulkInsert());
         dal.start();
 
         var dalWithLogging = InterfaceLogging.wrap(dal, IMetadataDal.class);
@@ -119,9 +119,20 @@ public class JdbcUnit implements BeforeAllCallback, BeforeEachCallback, AfterEac
         if (testInstance.isPresent()) {
             var testCase = (IDalTestable) testInstance.get();
             testCase.setDal(dalWithLogging);
+
+            if (testCase instanceof IJdbcDalTestable)
+                ((IJdbcDalTestable) testCase).setJdbcDal(dal);
         }
     }
 
+    protected boolean inlineKeys() {
+        return true;
+    }
+
+    protected boolean bulkInsert() {
+        return true;
+    }
+
     @Override
     public void afterEach(ExtensionContext context) {
 
@@ -131,4 +142,22 @@ public class JdbcUnit implements BeforeAllCallback, BeforeEachCallback, AfterEac
             source = null;
         }
     }
+
+    // Run DAL tests using the key mapping table for all batch lookups
+    public static class KeyMappingTable extends JdbcUnit {
+
+        @Override
+        protected boolean inlineKeys() {
+            return false;
+        }
+    }
+
+    // Run DAL tests using JDBC batches for all inserts, instead of multi-row inserts
+    public static class RowByRowInsert extends JdbcUnit {
+
+        @Override
+        protected boolean bulkInsert() {
+            return false;
+        }
+    }
 }
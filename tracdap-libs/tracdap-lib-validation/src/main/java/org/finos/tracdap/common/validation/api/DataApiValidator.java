@@ -22,10 +22,12 @@ import org.finos.tracdap.common.validation.core.ValidationType;
 import org.finos.tracdap.common.validation.core.Validator;
 import org.finos.tracdap.common.validation.core.ValidatorUtils;
 import org.finos.tracdap.common.validation.static_.CommonValidators;
+import org.finos.tracdap.common.validation.static_.DataValidator;
 import org.finos.tracdap.common.validation.static_.ObjectIdValidator;
 import org.finos.tracdap.common.validation.static_.SchemaValidator;
 import org.finos.tracdap.common.validation.static_.TagUpdateValidator;
 import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.metadata.PartKey;
 import org.finos.tracdap.metadata.SchemaDefinition;
 import org.finos.tracdap.metadata.TagSelector;
 import org.finos.tracdap.metadata.TagUpdate;
@@ -50,6 +52,10 @@ public class DataApiValidator {
     private static final Descriptors.FieldDescriptor DRR_TENANT;
     private static final Descriptors.FieldDescriptor DRR_SELECTOR;
     private static final Descriptors.FieldDescriptor DRR_FORMAT;
+    private static final Descriptors.FieldDescriptor DRR_PART;
+    private static final Descriptors.FieldDescriptor DRR_OFFSET;
+    private static final Descriptors.FieldDescriptor DRR_LIMIT;
+    private static final Descriptors.FieldDescriptor DRR_FIELDS;
 
     private static final Descriptors.Descriptor FILE_WRITE_REQUEST;
     private static final Descriptors.FieldDescriptor FWR_TENANT;
@@ -80,6 +86,10 @@ public class DataApiValidator {
         DRR_TENANT = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.TENANT_FIELD_NUMBER);
         DRR_SELECTOR = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.SELECTOR_FIELD_NUMBER);
         DRR_FORMAT = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.FORMAT_FIELD_NUMBER);
+        DRR_PART = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.PART_FIELD_NUMBER);
+        DRR_OFFSET = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.OFFSET_FIELD_NUMBER);
+        DRR_LIMIT = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.LIMIT_FIELD_NUMBER);
+        DRR_FIELDS = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.FIELDS_FIELD_NUMBER);
 
         FILE_WRITE_REQUEST = FileWriteRequest.getDescriptor();
         FWR_TENANT = ValidatorUtils.field(FILE_WRITE_REQUEST, FileWriteRequest.TENANT_FIELD_NUMBER);
@@ -194,6 +204,26 @@ public class DataApiValidator {
                 .apply(CommonValidators::mimeType)
                 .pop();
 
+        ctx = ctx.push(DRR_PART)
+                .apply(CommonValidators::optional)
+                .apply(DataValidator::partKey, PartKey.class)
+                .pop();
+
+        ctx = ctx.push(DRR_OFFSET)
+                .apply(CommonValidators::optional)
+                .apply(CommonValidators::notNegative, Long.class)
+                .pop();
+
+        ctx = ctx.push(DRR_LIMIT)
+                .apply(CommonValidators::optional)
+                .apply(CommonValidators::positive, Integer.class)
+                .pop();
+
+        ctx = ctx.pushRepeated(DRR_FIELDS)
+                .applyRepeated(CommonValidators::identifier, String.class)
+                .apply(CommonValidators::caseInsensitiveDuplicates)
+                .pop();
+
         return ctx;
     }
 
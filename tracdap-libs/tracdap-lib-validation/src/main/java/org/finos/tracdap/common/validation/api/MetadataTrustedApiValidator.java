@@ -99,6 +99,11 @@ public class MetadataTrustedApiValidator {
         return MetadataApiValidator.search(msg, ctx);
     }
 
+    @Validator(method = "searchStream")
+    public static ValidationContext searchStream(MetadataSearchRequest msg, ValidationContext ctx) {
+        return MetadataApiValidator.searchStream(msg, ctx);
+    }
+
     @Validator(method = "readBatch")
     public static ValidationContext readBatch(MetadataBatchRequest msg, ValidationContext ctx) {
         return MetadataApiValidator.readBatch(msg, ctx);
@@ -101,4 +101,10 @@ public class OrchestratorApiValidator {
 
         return ctx;
     }
+
+    @Validator(method = "followJob")
+    public static ValidationContext followJob(JobStatusRequest msg, ValidationContext ctx) {
+
+        return checkJob(msg, ctx);
+    }
 }
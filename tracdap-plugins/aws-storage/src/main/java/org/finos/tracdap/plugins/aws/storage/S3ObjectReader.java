@@ -44,12 +44,16 @@ import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLI
 
 public class S3ObjectReader implements Flow.Publisher<ByteBuf> {
 
+    private static final String RANGE_HEADER_FORMAT = "bytes=%d-%d";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final String storageKey;
     private final String storagePath;
     private final String bucket;
     private final String absolutePath;
+    private final long offset;
+    private final long length;
 
     private final S3AsyncClient client;
     private final OrderedEventExecutor executor;
@@ -68,10 +72,21 @@ public class S3ObjectReader implements Flow.Publisher<ByteBuf> {
             S3AsyncClient client, OrderedEventExecutor executor,
             StorageErrors errors) {
 
+        this(storageKey, storagePath, bucket, absolutePath, 0, -1, client, executor, errors);
+    }
+
+    public S3ObjectReader(
+            String storageKey, String storagePath, String bucket, String absolutePath,
+            long offset, long length,
+            S3AsyncClient client, OrderedEventExecutor executor,
+            StorageErrors errors) {
+
         this.storageKey = storageKey;
         this.storagePath = storagePath;
         this.bucket = bucket;
         this.absolutePath = absolutePath;
+        this.offset = offset;
+        this.length = length;
 
         this.client = client;
         this.executor = executor;
@@ -115,10 +130,15 @@ public class S3ObjectReader implements Flow.Publisher<ByteBuf> {
 
     private void doStart() {
 
-        var request = GetObjectRequest.builder()
+        var requestBuilder = GetObjectRequest.builder()
                 .bucket(bucket)
-                .key(absolutePath)
-                .build();
+                .key(absolutePath);
+
+        // Ranged reads use the HTTP range header, byte ranges in the header are inclusive
+        if (length > 0)
+            requestBuilder.range(String.format(RANGE_HEADER_FORMAT, offset, offset + length - 1));
+
+        var request = requestBuilder.build();
 
         var handler = new ResponseHandler();
 
@@ -32,6 +32,7 @@ import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
 
 import io.netty.buffer.ByteBuf;
@@ -65,6 +66,20 @@ public class S3ObjectStorage implements IFileStorage {
     public static final String ACCESS_KEY_ID_PROPERTY = "accessKeyId";
     public static final String SECRET_ACCESS_KEY_PROPERTY = "secretAccessKey";
 
+    public static final String PATH_STYLE_ACCESS_PROPERTY = "pathStyleAccess";
+
+    public static final String READ_RANGE_SIZE_PROPERTY = "readRangeSize";
+    public static final String READ_PARALLELISM_PROPERTY = "readParallelism";
+    public static final String WRITE_PART_SIZE_PROPERTY = "writePartSize";
+    public static final String WRITE_MAX_PARTS_IN_FLIGHT_PROPERTY = "writeMaxPartsInFlight";
+
+    // S3 requires every part except the last to be at least 5 MiB
+    public static final long MIN_WRITE_PART_SIZE = 5 * 1024 * 1024;
+    public static final long DEFAULT_READ_RANGE_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_READ_PARALLELISM = 1;
+    public static final long DEFAULT_WRITE_PART_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_WRITE_MAX_PARTS_IN_FLIGHT = 4;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final String storageKey;
@@ -73,6 +88,11 @@ public class S3ObjectStorage implements IFileStorage {
     private final StoragePath prefix;
     private final Region region;
     private final URI endpoint;
+    private final boolean pathStyleAccess;
+    private final long readRangeSize;
+    private final int readParallelism;
+    private final long writePartSize;
+    private final int writeMaxPartsInFlight;
 
     private final StorageErrors errors;
 
@@ -92,12 +112,53 @@ public class S3ObjectStorage implements IFileStorage {
         this.prefix = prefix != null && !prefix.isBlank() ? StoragePath.forPath(prefix) : StoragePath.root();
         this.region = region != null && !region.isBlank() ? Region.of(region) : null;
         this.endpoint = endpoint != null && !endpoint.isBlank() ? URI.create(endpoint) : null;
+        this.pathStyleAccess = Boolean.parseBoolean(properties.getProperty(PATH_STYLE_ACCESS_PROPERTY, "false"));
 
         this.credentials = setupCredentials(properties);
 
+        this.readRangeSize = readLongProperty(properties, READ_RANGE_SIZE_PROPERTY, DEFAULT_READ_RANGE_SIZE);
+        this.readParallelism = (int) readLongProperty(properties, READ_PARALLELISM_PROPERTY, DEFAULT_READ_PARALLELISM);
+        this.writePartSize = readLongProperty(properties, WRITE_PART_SIZE_PROPERTY, DEFAULT_WRITE_PART_SIZE);
+        this.writeMaxPartsInFlight = (int) readLongProperty(properties, WRITE_MAX_PARTS_IN_FLIGHT_PROPERTY, DEFAULT_WRITE_MAX_PARTS_IN_FLIGHT);
+
+        if (readRangeSize < 1 || readParallelism < 1) {
+            var message = String.format("Invalid value for [%s] or [%s]: must be at least 1", READ_RANGE_SIZE_PROPERTY, READ_PARALLELISM_PROPERTY);
+            log.error(message);
+            throw new EStartup(message);
+        }
+
+        if (writePartSize < MIN_WRITE_PART_SIZE) {
+            var message = String.format("Invalid value for [%s]: minimum part size is %d bytes", WRITE_PART_SIZE_PROPERTY, MIN_WRITE_PART_SIZE);
+            log.error(message);
+            throw new EStartup(message);
+        }
+
+        if (writeMaxPartsInFlight < 1) {
+            var message = String.format("Invalid value for [%s]: must be at least 1", WRITE_MAX_PARTS_IN_FLIGHT_PROPERTY);
+            log.error(message);
+            throw new EStartup(message);
+        }
+
         this.errors = new S3StorageErrors(storageKey, log);
     }
 
+    private long readLongProperty(Properties properties, String propertyName, long defaultValue) {
+
+        var propertyValue = properties.getProperty(propertyName);
+
+        if (propertyValue == null || propertyValue.isBlank())
+            return defaultValue;
+
+        try {
+            return Long.parseLong(propertyValue.trim());
+        }
+        catch (NumberFormatException e) {
+            var message = String.format("Invalid value for [%s]: expected an integer, got [%s]", propertyName, propertyValue);
+            log.error(message);
+            throw new EStartup(message);
+        }
+    }
+
     private AwsCredentialsProvider setupCredentials(Properties properties) {
 
         var mechanism = properties.containsKey(CREDENTIALS_PROPERTY)
@@ -167,6 +228,10 @@ public class S3ObjectStorage implements IFileStorage {
         if (endpoint != null)
             clientBuilder.endpointOverride(endpoint);
 
+        // Path style access is needed for some S3-compatible stores, e.g. a local stand-in for testing
+        if (pathStyleAccess)
+            clientBuilder.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+
         this.client = clientBuilder.build();
 
         log.info("Created S3 storage, bucket = [{}], prefix = [{}]", bucket, prefix);
@@ -446,8 +511,37 @@ public class S3ObjectStorage implements IFileStorage {
 
         var objectKey = resolvePath(storagePath, false, READ_OPERATION);
 
+        if (readParallelism > 1)
+            return new S3ParallelObjectReader(
+                    storageKey, storagePath, bucket, objectKey,
+                    0, -1, readRangeSize, readParallelism,
+                    client, dataContext.eventLoopExecutor(), errors);
+
+        return new S3ObjectReader(
+                storageKey, storagePath, bucket, objectKey,
+                client, dataContext.eventLoopExecutor(), errors);
+    }
+
+    @Override
+    public Flow.Publisher<ByteBuf> reader(String storagePath, long offset, long length, IDataContext dataContext) {
+
+        log.info("STORAGE OPERATION: {} {} [{}], offset = {}, length = {}",
+                storageKey, READ_OPERATION, storagePath, offset, length);
+
+        var objectKey = resolvePath(storagePath, false, READ_OPERATION);
+
+        if (offset < 0 || length <= 0)
+            throw errors.explicitError(READ_RANGE_INVALID, storagePath, READ_OPERATION);
+
+        if (readParallelism > 1 && length > readRangeSize)
+            return new S3ParallelObjectReader(
+                    storageKey, storagePath, bucket, objectKey,
+                    offset, length, readRangeSize, readParallelism,
+                    client, dataContext.eventLoopExecutor(), errors);
+
         return new S3ObjectReader(
                 storageKey, storagePath, bucket, objectKey,
+                offset, length,
                 client, dataContext.eventLoopExecutor(), errors);
     }
 
@@ -460,6 +554,7 @@ public class S3ObjectStorage implements IFileStorage {
 
         return new S3ObjectWriter(
                 storageKey, storagePath, bucket, objectKey,
+                writePartSize, writeMaxPartsInFlight,
                 client, signal, dataContext.eventLoopExecutor(), errors);
     }
 
@@ -25,12 +25,14 @@ import io.netty.util.concurrent.OrderedEventExecutor;
 
 import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
-import software.amazon.awssdk.services.s3.model.ObjectLockMode;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -39,6 +41,18 @@ import static org.finos.tracdap.common.storage.IFileStorage.WRITE_OPERATION;
 import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
 
 
+/**
+ * Write an object to S3, using multipart upload for anything larger than a single part.
+ *
+ * <p>Incoming chunks are collected into parts of at least the configured part size.
+ * Each part is uploaded as soon as it is full, with a limited number of parts in flight at once.
+ * More data is only requested from upstream while there is room to buffer it,
+ * so memory usage is bounded by roughly (max parts in flight + 1) x part size.</p>
+ *
+ * <p>Objects smaller than one part are sent with a single PUT request.
+ * If anything goes wrong after a multipart upload is started, the upload is aborted
+ * so that S3 does not keep the orphaned parts.</p>
+ */
 public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -47,6 +61,8 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
     private final String storagePath;
     private final String bucket;
     private final String absolutePath;
+    private final long partSize;
+    private final int maxPartsInFlight;
 
     private final S3AsyncClient client;
     private final CompletableFuture<Long> signal;
@@ -56,10 +72,20 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
     private final AtomicBoolean subscriptionSet;
     private Flow.Subscription subscription;
 
-    private CompositeByteBuf buffer = Unpooled.compositeBuffer();
+    private CompositeByteBuf buffer;
+    private CompletableFuture<String> uploadId;
+    private final List<CompletedPart> completedParts;
+    private int nextPartNumber;
+    private int partsInFlight;
+    private long bytesWritten;
+
+    private boolean gotComplete;
+    private boolean gotError;
+    private boolean uploadAborted;
 
     public S3ObjectWriter(
             String storageKey, String storagePath, String bucket, String absolutePath,
+            long partSize, int maxPartsInFlight,
             S3AsyncClient client, CompletableFuture<Long> signal, OrderedEventExecutor executor,
             StorageErrors errors) {
 
@@ -67,6 +93,8 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
         this.storagePath = storagePath;
         this.bucket = bucket;
         this.absolutePath = absolutePath;
+        this.partSize = partSize;
+        this.maxPartsInFlight = maxPartsInFlight;
 
         this.client = client;
         this.signal = signal;
@@ -75,6 +103,11 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
 
         this.subscriptionSet = new AtomicBoolean();
         this.subscription = null;
+
+        this.buffer = Unpooled.compositeBuffer();
+        this.uploadId = null;
+        this.completedParts = new ArrayList<>();
+        this.nextPartNumber = 1;
     }
 
     @Override
@@ -90,26 +123,65 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
 
         this.subscription = subscription;
 
-        executor.submit(() -> this.subscription.request(128));
+        executor.submit(() -> this.subscription.request(1));
     }
 
     @Override
     public void onNext(ByteBuf item) {
 
+        if (gotError) {
+            item.release();
+            return;
+        }
+
         buffer.addComponent(true, item);
-        this.subscription.request(1);
+
+        if (buffer.readableBytes() >= partSize && partsInFlight < maxPartsInFlight)
+            sendPart();
+
+        // Only ask for more data if there is space in the current part
+        // Otherwise, wait for an upload to finish and make space
+
+        if (buffer.readableBytes() < partSize)
+            subscription.request(1);
     }
 
     @Override
     public void onError(Throwable throwable) {
 
-        buffer.release();
+        log.error("Write operation failed: {} [{}]", throwable.getMessage(), absolutePath, throwable);
+
+        gotError = true;
+
+        releaseBuffer();
+        abortUpload();
+
         signal.completeExceptionally(throwable);
     }
 
     @Override
     public void onComplete() {
 
+        if (gotError)
+            return;
+
+        gotComplete = true;
+
+        // Small objects do not need multipart upload, send them in one go
+
+        if (uploadId == null) {
+            putObject();
+            return;
+        }
+
+        if (buffer.readableBytes() > 0 && partsInFlight < maxPartsInFlight)
+            sendPart();
+
+        checkUploadComplete();
+    }
+
+    private void putObject() {
+
         var content = AsyncRequestBody.fromByteBuffer(buffer.nioBuffer());
         var contentLength = (long) buffer.readableBytes();
 
@@ -140,9 +212,194 @@ public class S3ObjectWriter implements Flow.Subscriber<ByteBuf> {
                 return null;
             }
             finally {
-                buffer.release();
+                releaseBuffer();
+            }
+
+        }, executor);
+    }
+
+    private void sendPart() {
+
+        if (uploadId == null)
+            startUpload();
+
+        var partBuffer = buffer;
+        var partNumber = nextPartNumber++;
+        var partLength = (long) partBuffer.readableBytes();
+
+        buffer = Unpooled.compositeBuffer();
+        partsInFlight++;
+
+        if (log.isTraceEnabled())
+            log.trace("Sending part {}: {} bytes [{}]", partNumber, partLength, absolutePath);
+
+        uploadId.thenCompose(id -> {
+
+            var request = UploadPartRequest.builder()
+                    .bucket(bucket)
+                    .key(absolutePath)
+                    .uploadId(id)
+                    .partNumber(partNumber)
+                    .contentLength(partLength)
+                    .build();
+
+            var content = AsyncRequestBody.fromByteBuffer(partBuffer.nioBuffer());
+
+            return client.uploadPart(request, content);
+
+        }).handleAsync((response, error) -> {
+
+            try {
+                partSent(partNumber, partLength, response, error);
+                return null;
+            }
+            finally {
+                partBuffer.release();
+            }
+
+        }, executor);
+    }
+
+    private void partSent(int partNumber, long partLength, UploadPartResponse response, Throwable error) {
+
+        partsInFlight--;
+
+        if (gotError)
+            return;
+
+        if (error != null) {
+            uploadFailed(error);
+            return;
+        }
+
+        var part = CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(response.eTag())
+                .build();
+
+        completedParts.add(part);
+        bytesWritten += partLength;
+
+        // A full part may be waiting for a free slot, send it now and ask for more data
+
+        if (gotComplete) {
+
+            if (buffer.readableBytes() > 0)
+                sendPart();
+
+            checkUploadComplete();
+        }
+        else if (buffer.readableBytes() >= partSize) {
+
+            sendPart();
+            subscription.request(1);
+        }
+    }
+
+    private void startUpload() {
+
+        log.info("Starting multipart upload [{}]", absolutePath);
+
+        var request = CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(absolutePath)
+                .build();
+
+        uploadId = client.createMultipartUpload(request)
+                .thenApply(CreateMultipartUploadResponse::uploadId);
+    }
+
+    private void checkUploadComplete() {
+
+        if (partsInFlight > 0 || buffer.readableBytes() > 0)
+            return;
+
+        completedParts.sort(Comparator.comparing(CompletedPart::partNumber));
+
+        var multipartUpload = CompletedMultipartUpload.builder()
+                .parts(completedParts)
+                .build();
+
+        uploadId.thenCompose(id -> {
+
+            var request = CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(absolutePath)
+                    .uploadId(id)
+                    .multipartUpload(multipartUpload)
+                    .build();
+
+            return client.completeMultipartUpload(request);
+
+        }).handleAsync((response, error) -> {
+
+            if (error != null) {
+                uploadFailed(error);
             }
+            else {
+
+                log.info("Write operation complete: {} bytes written in {} parts [{}]",
+                        bytesWritten, completedParts.size(), absolutePath);
+
+                signal.complete(bytesWritten);
+            }
+
+            return null;
 
         }, executor);
     }
+
+    private void uploadFailed(Throwable error) {
+
+        log.error("Write operation failed: {} [{}]", error.getMessage(), absolutePath, error);
+
+        gotError = true;
+
+        if (!gotComplete)
+            subscription.cancel();
+
+        releaseBuffer();
+        abortUpload();
+
+        var mappedError = errors.handleException(error, storagePath, WRITE_OPERATION);
+        signal.completeExceptionally(mappedError);
+    }
+
+    private void abortUpload() {
+
+        // Upload can fail more than once, e.g. a failed part followed by onError() from upstream after cancel
+        // Only send the abort request once
+
+        if (uploadId == null || uploadAborted)
+            return;
+
+        uploadAborted = true;
+
+        uploadId.thenCompose(id -> {
+
+            log.info("Aborting multipart upload [{}]", absolutePath);
+
+            var request = AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(absolutePath)
+                    .uploadId(id)
+                    .build();
+
+            return client.abortMultipartUpload(request);
+
+        }).whenComplete((response, error) -> {
+
+            // Nothing more can be done if the abort fails, S3 lifecycle rules can clean up incomplete uploads
+            if (error != null)
+                log.warn("Failed to abort multipart upload: {} [{}]", error.getMessage(), absolutePath);
+        });
+    }
+
+    private void releaseBuffer() {
+
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.aws.storage;
+
+import org.finos.tracdap.common.storage.StorageErrors;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.OrderedEventExecutor;
+
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.TreeMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.finos.tracdap.common.storage.IFileStorage.READ_OPERATION;
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
+
+
+/**
+ * Read an object from S3 by fetching several byte ranges concurrently.
+ *
+ * <p>The object is split into ranges of a fixed size, each range is fetched with its own
+ * ranged GET request. Ranges can arrive in any order, they are held until all the ranges
+ * before them have been published, so the subscriber always sees the content in order.
+ * Each range is published as a single chunk.</p>
+ *
+ * <p>The number of ranges fetched ahead is limited by both the configured parallelism and
+ * the demand signalled by the subscriber, so a slow consumer will not cause the whole
+ * object to be buffered in memory.</p>
+ *
+ * <p>Every ranged GET is tied to the ETag returned by the initial HEAD request. If the object
+ * is replaced while it is being read, the read fails instead of mixing content from two versions.</p>
+ */
+public class S3ParallelObjectReader implements Flow.Publisher<ByteBuf> {
+
+    private static final String RANGE_HEADER_FORMAT = "bytes=%d-%d";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String storageKey;
+    private final String storagePath;
+    private final String bucket;
+    private final String absolutePath;
+    private final long offset;
+    private final long length;
+    private final long rangeSize;
+    private final int parallelism;
+
+    private final S3AsyncClient client;
+    private final OrderedEventExecutor executor;
+    private final StorageErrors errors;
+
+    private final AtomicBoolean subscriberSet;
+    private Flow.Subscriber<? super ByteBuf> subscriber;
+
+    private final TreeMap<Integer, ByteBuf> readyRanges;
+    private String eTag;
+    private long readEnd;
+    private int rangeCount;
+    private int nextRangeToFetch;
+    private int nextRangeToDeliver;
+    private long demand;
+
+    private boolean sizeKnown;
+    private boolean done;
+
+    public S3ParallelObjectReader(
+            String storageKey, String storagePath, String bucket, String absolutePath,
+            long offset, long length, long rangeSize, int parallelism,
+            S3AsyncClient client, OrderedEventExecutor executor,
+            StorageErrors errors) {
+
+        this.storageKey = storageKey;
+        this.storagePath = storagePath;
+        this.bucket = bucket;
+        this.absolutePath = absolutePath;
+        this.offset = offset;
+        this.length = length;
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+
+        this.client = client;
+        this.executor = executor;
+        this.errors = errors;
+
+        this.subscriberSet = new AtomicBoolean();
+        this.subscriber = null;
+
+        this.readyRanges = new TreeMap<>();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuf> subscriber) {
+
+        var subscribeOk = subscriberSet.compareAndSet(false, true);
+
+        if (!subscribeOk) {
+
+            var eStorage = errors.explicitError(DUPLICATE_SUBSCRIPTION, storagePath, READ_OPERATION);
+            var eFlowState = new IllegalStateException(eStorage.getMessage(), eStorage);
+            subscriber.onError(eFlowState);
+            return;
+        }
+
+        this.subscriber = subscriber;
+
+        // Same pattern as the regular reader, doStart goes into the event loop before any requests
+
+        executor.submit(this::doStart);
+
+        subscriber.onSubscribe(new ClientSubscription());
+    }
+
+    private void doStart() {
+
+        // Always send a HEAD request, to get the object version even if the size is already known
+        // For a ranged read the end of the range is known, otherwise use the object size
+
+        var request = HeadObjectRequest.builder()
+                .bucket(bucket)
+                .key(absolutePath)
+                .build();
+
+        client.headObject(request).handleAsync((response, error) -> {
+
+            if (done)
+                return null;
+
+            if (error != null)
+                readFailed(error);
+            else
+                rangesKnown(response.eTag(), length > 0 ? offset + length : response.contentLength());
+
+            return null;
+
+        }, executor);
+    }
+
+    private void rangesKnown(String eTag, long readEnd) {
+
+        this.eTag = eTag;
+        this.readEnd = readEnd;
+        this.rangeCount = (int) ((readEnd - offset + rangeSize - 1) / rangeSize);
+        this.sizeKnown = true;
+
+        log.info("Parallel read: {} bytes in {} ranges, parallelism = {} [{}]",
+                readEnd - offset, rangeCount, parallelism, absolutePath);
+
+        deliverRanges();
+    }
+
+    private void fetchRanges() {
+
+        // Ranges fetched but not yet delivered are limited by both parallelism and subscriber demand
+
+        while (!done && nextRangeToFetch < rangeCount) {
+
+            var rangesAhead = nextRangeToFetch - nextRangeToDeliver;
+
+            if (rangesAhead >= parallelism || rangesAhead >= demand)
+                break;
+
+            fetchRange(nextRangeToFetch++);
+        }
+    }
+
+    private void fetchRange(int rangeIndex) {
+
+        var rangeStart = offset + rangeIndex * rangeSize;
+        var rangeEnd = Math.min(rangeStart + rangeSize, readEnd);
+
+        // Byte ranges in the HTTP range header are inclusive
+        // If-Match makes S3 reject the request with 412 if the object has changed since the HEAD request
+        var request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(absolutePath)
+                .range(String.format(RANGE_HEADER_FORMAT, rangeStart, rangeEnd - 1))
+                .ifMatch(eTag)
+                .build();
+
+        if (log.isTraceEnabled())
+            log.trace("Fetching range {}: bytes {} - {} [{}]", rangeIndex, rangeStart, rangeEnd - 1, absolutePath);
+
+        client.getObject(request, AsyncResponseTransformer.toBytes())
+                .handleAsync((response, error) -> {
+                    rangeLoaded(rangeIndex, response, error);
+                    return null;
+                }, executor);
+    }
+
+    private void rangeLoaded(int rangeIndex, ResponseBytes<GetObjectResponse> response, Throwable error) {
+
+        if (done)
+            return;
+
+        if (error != null) {
+            readFailed(error);
+            return;
+        }
+
+        var chunk = Unpooled.wrappedBuffer(response.asByteArrayUnsafe());
+        readyRanges.put(rangeIndex, chunk);
+
+        deliverRanges();
+    }
+
+    private void deliverRanges() {
+
+        if (!sizeKnown)
+            return;
+
+        while (!done && demand > 0 && readyRanges.containsKey(nextRangeToDeliver)) {
+
+            var chunk = readyRanges.remove(nextRangeToDeliver);
+
+            nextRangeToDeliver++;
+            demand--;
+
+            subscriber.onNext(chunk);
+        }
+
+        if (!done && nextRangeToDeliver == rangeCount) {
+
+            done = true;
+
+            log.info("Parallel read complete [{}]", absolutePath);
+            subscriber.onComplete();
+
+            return;
+        }
+
+        fetchRanges();
+    }
+
+    private void readFailed(Throwable error) {
+
+        done = true;
+        releaseRanges();
+
+        log.error("Read operation failed: {} [{}]", error.getMessage(), absolutePath, error);
+
+        var tracError = errors.handleException(error, storagePath, READ_OPERATION);
+        subscriber.onError(tracError);
+    }
+
+    private void releaseRanges() {
+
+        readyRanges.values().forEach(ByteBuf::release);
+        readyRanges.clear();
+    }
+
+    private class ClientSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+
+            executor.execute(() -> {
+
+                // Avoid overflow if the subscriber requests Long.MAX_VALUE
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+
+                deliverRanges();
+            });
+        }
+
+        @Override
+        public void cancel() {
+
+            executor.execute(() -> {
+
+                // Ranges still in flight will be discarded when they arrive
+                done = true;
+                releaseRanges();
+            });
+        }
+    }
+}
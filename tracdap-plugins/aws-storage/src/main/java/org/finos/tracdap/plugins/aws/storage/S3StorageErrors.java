@@ -32,9 +32,13 @@ import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.*;
 
 public class S3StorageErrors extends StorageErrors {
 
+    // Returned when an If-Match condition fails, i.e. the object has changed
+    private static final int HTTP_PRECONDITION_FAILED = 412;
+
     private static final List<Map.Entry<Integer, ExplicitError>> HTTP_ERROR_CODE_MAP = List.of(
             Map.entry(HttpStatusCode.NOT_FOUND, NO_SUCH_FILE_EXCEPTION),
-            Map.entry(HttpStatusCode.FORBIDDEN, ACCESS_DENIED_EXCEPTION));
+            Map.entry(HttpStatusCode.FORBIDDEN, ACCESS_DENIED_EXCEPTION),
+            Map.entry(HTTP_PRECONDITION_FAILED, OBJECT_CHANGED_EXCEPTION));
 
 //            Map.entry(DirectoryNotEmptyException.class, DIRECTORY_NOT_FOUND_EXCEPTION),
 //            Map.entry(NotDirectoryException.class, NOT_DIRECTORY_EXCEPTION),
@@ -27,12 +27,16 @@ public class StorageEnvProps {
     public static final String TRAC_AWS_ACCESS_KEY_ID = "TRAC_AWS_ACCESS_KEY_ID";
     public static final String TRAC_AWS_SECRET_ACCESS_KEY = "TRAC_AWS_SECRET_ACCESS_KEY";
 
+    // Optional, set this to test against a local S3 stand-in instead of AWS
+    public static final String TRAC_AWS_ENDPOINT = "TRAC_AWS_ENDPOINT";
+
     public static Properties readStorageEnvProps() {
 
         var region = System.getenv(TRAC_AWS_REGION);
         var bucket = System.getenv(TRAC_AWS_BUCKET);
         var accessKeyId = System.getenv(TRAC_AWS_ACCESS_KEY_ID);
         var secretAccessKey = System.getenv(TRAC_AWS_SECRET_ACCESS_KEY);
+        var endpoint = System.getenv(TRAC_AWS_ENDPOINT);
 
         var storageProps = new Properties();
         storageProps.put(IStorageManager.PROP_STORAGE_KEY, "TEST_STORAGE");
@@ -41,6 +45,11 @@ public class StorageEnvProps {
         storageProps.put(S3ObjectStorage.ACCESS_KEY_ID_PROPERTY, accessKeyId);
         storageProps.put(S3ObjectStorage.SECRET_ACCESS_KEY_PROPERTY, secretAccessKey);
 
+        if (endpoint != null && !endpoint.isBlank()) {
+            storageProps.put(S3ObjectStorage.ENDPOINT_PROPERTY, endpoint);
+            storageProps.put(S3ObjectStorage.PATH_STYLE_ACCESS_PROPERTY, "true");
+        }
+
         return storageProps;
     }
 }
@@ -76,6 +76,10 @@ public class SshExecutor implements IBatchExecutor<SshBatchState> {
     private static final String DESTROY_BATCH_PROCESS_COMMAND = "if ps -p %d; then kill -s KILL %d; fi";
     private static final String DESTROY_BATCH_DIR_COMMAND = "rm -r \"%s\"";
     private static final String CREATE_VOLUME_COMMAND = "mkdir -m %s \"%s\"";
+    private static final String POLL_MULTI_BATCH_COMMAND = "echo \"trac_poll_batch: %d\"; \"%s\" 2>/dev/null; ";
+    private static final String POLL_MULTI_BATCH_END = "echo \"trac_poll_batch: end\"";
+    private static final String POLL_MULTI_BATCH_MARKER = "trac_poll_batch";
+    private static final int POLL_MULTI_BATCH_LIMIT = 100;
 
     private static final List<PosixFilePermission> DEFAULT_FILE_PERMISSIONS = List.of(
             PosixFilePermission.OWNER_READ,
@@ -112,6 +116,11 @@ public class SshExecutor implements IBatchExecutor<SshBatchState> {
 
     public SshExecutor(Properties properties, ConfigManager configManager) {
 
+        this(properties, loadSshKeys(properties, configManager));
+    }
+
+    SshExecutor(Properties properties, List<KeyPair> sshKeyPairs) {
+
         this.properties = properties;
         this.client = SshClient.setUpDefaultClient();
         this.sessionMap = new ConcurrentHashMap<>();
@@ -121,14 +130,14 @@ public class SshExecutor implements IBatchExecutor<SshBatchState> {
         batchPersist = properties.containsKey(CONFIG_BATCH_PERSIST) &&
                 Boolean.parseBoolean(requiredProperty(CONFIG_BATCH_PERSIST));
 
-        sshKeyPairs = loadSshKeys(configManager);
+        this.sshKeyPairs = sshKeyPairs;
     }
 
-    private List<KeyPair> loadSshKeys(ConfigManager configManager) {
+    private static List<KeyPair> loadSshKeys(Properties properties, ConfigManager configManager) {
 
         try {
 
-            var keyFile = requiredProperty(KEY_FILE_KEY);
+            var keyFile = requiredProperty(properties, KEY_FILE_KEY);
             var keyData = configManager.loadTextConfig(keyFile);
 
             var keyLoader = SecurityUtils.getKeyPairResourceParser();
@@ -454,76 +463,196 @@ public class SshExecutor implements IBatchExecutor<SshBatchState> {
             var pollOutput = session.executeRemoteCommand(pollScript);
             var pollResponse = new HashMap<String, String>();
 
-            for (var line : pollOutput.split("\n")) {
-                var sep = line.indexOf(":");
-                var key = line.substring(0, sep);
-                var value = line.substring(sep + 1).trim();
-                pollResponse.put(key, value);
-            }
+            for (var line : pollOutput.split("\n"))
+                parsePollLine(line, pollResponse);
 
-            var ok = pollResponse.get("trac_poll_ok");
-            var pid = tryParseLong(pollResponse.get("pid"), "Invalid poll response for [pid");
-            var running = tryParseLong(pollResponse.get("running"), "Invalid poll response for [running]");
+            return pollResult(batchKey, batchState, pollResponse);
+        }
+        catch (IOException e) {
 
-            if (ok == null || !ok.equals("ok") || pid != batchState.getPid()) {
-                throw new EExecutorFailure("Invalid poll response");
-            }
+            var cause = e.getCause() instanceof ServerException ? e.getCause() : e;
+            var message = String.format("Failed polling executor batch [%s]: %s", batchKey, cause.getMessage());
+
+            log.error(message, cause);
+            throw new EExecutorFailure(message, cause);
+        }
+    }
 
-            if (running == 0)
-                return new ExecutorJobInfo(ExecutorJobStatus.RUNNING);
+    @Override
+    public List<ExecutorJobInfo> pollBatches(List<Map.Entry<String, SshBatchState>> priorStates) {
 
-            var exitCode = (int)(long) tryParseLong(pollResponse.get("exit_code"), "Invalid poll response for [exit_code]");
+        // Batches on the same host are polled together, using one remote command to run all their poll scripts
 
-            if (exitCode == 0)
-                return new ExecutorJobInfo(ExecutorJobStatus.SUCCEEDED);
+        var results = new ExecutorJobInfo[priorStates.size()];
+        var hostBatches = new LinkedHashMap<String, List<Integer>>();
 
-            try {
+        for (var i = 0; i < priorStates.size(); i++) {
+
+            var batchState = priorStates.get(i).getValue();
+            var hostKey = String.format("%s:%d:%s", batchState.getRemoteHost(), batchState.getRemotePort(), batchState.getBatchUser());
+
+            hostBatches.computeIfAbsent(hostKey, key -> new ArrayList<>()).add(i);
+        }
+
+        for (var host : hostBatches.entrySet()) {
+
+            var batchIndices = host.getValue();
 
-                var errorBytes = readFile(batchKey, batchState, "log", "trac_rt_stderr.txt");
-                var errorDetail = new String(errorBytes, StandardCharsets.UTF_8);
-                var statusMessage = extractErrorMessage(errorDetail, exitCode);
+            for (var offset = 0; offset < batchIndices.size(); offset += POLL_MULTI_BATCH_LIMIT) {
 
-                return new ExecutorJobInfo(ExecutorJobStatus.FAILED, statusMessage, errorDetail);
+                var chunk = batchIndices.subList(offset, Math.min(offset + POLL_MULTI_BATCH_LIMIT, batchIndices.size()));
+                pollHostBatches(host.getKey(), priorStates, chunk, results);
             }
-            catch (EExecutorFailure e) {
+        }
+
+        return Arrays.asList(results);
+    }
 
-                var statusMessage = String.format(FALLBACK_ERROR_MESSAGE, exitCode);
+    private void pollHostBatches(
+            String hostKey, List<Map.Entry<String, SshBatchState>> batches,
+            List<Integer> batchIndices, ExecutorJobInfo[] results) {
+
+        Map<Integer, Map<String, String>> pollResponses;
+
+        try {
 
-                return new ExecutorJobInfo(ExecutorJobStatus.FAILED, statusMessage, FALLBACK_ERROR_DETAIL);
+            if (log.isTraceEnabled())
+                log.trace("SSH EXECUTOR pollBatches() [{}, {} batches]", hostKey, batchIndices.size());
+
+            var command = new StringBuilder();
+
+            // Each poll script output is preceded by a marker line, scripts that fail to run have no poll response
+
+            for (var index : batchIndices) {
+                var pollScript = buildRemotePath(batches.get(index).getValue(), "trac_admin", POLL_SCRIPT_NAME);
+                command.append(String.format(POLL_MULTI_BATCH_COMMAND, index, pollScript));
             }
+
+            command.append(POLL_MULTI_BATCH_END);
+
+            var pollOutput = executePollCommand(batches.get(batchIndices.get(0)).getValue(), command.toString());
+            pollResponses = parseMultiPollOutput(pollOutput);
         }
-        catch (IOException e) {
+        catch (IOException | RuntimeException e) {
 
             var cause = e.getCause() instanceof ServerException ? e.getCause() : e;
-            var message = String.format("Failed polling executor batch [%s]: %s", batchKey, cause.getMessage());
+            log.warn("Failed to poll batches on host [{}]: {}", hostKey, cause.getMessage(), cause);
 
-            log.error(message, cause);
-            throw new EExecutorFailure(message, cause);
+            for (var index : batchIndices)
+                results[index] = new ExecutorJobInfo(ExecutorJobStatus.STATUS_UNKNOWN);
+
+            return;
+        }
+
+        for (var index : batchIndices) {
+
+            var batchKey = batches.get(index).getKey();
+            var batchState = batches.get(index).getValue();
+
+            try {
+
+                var pollResponse = pollResponses.getOrDefault(index, Map.of());
+                results[index] = pollResult(batchKey, batchState, pollResponse);
+            }
+            catch (Exception e) {
+
+                log.warn("Failed to poll job: [{}] {}", batchKey, e.getMessage(), e);
+                results[index] = new ExecutorJobInfo(ExecutorJobStatus.STATUS_UNKNOWN);
+            }
         }
     }
 
-    @Override
-    public List<ExecutorJobInfo> pollBatches(List<Map.Entry<String, SshBatchState>> priorStates) {
+    String executePollCommand(SshBatchState batchState, String command) throws IOException {
 
-        var results = new ArrayList<ExecutorJobInfo>();
+        // All batches in one poll command are on the same host, so any of them can supply the session
 
-        for (var job : priorStates) {
+        var session = getSession(batchState);
 
-            try {
+        return session.executeRemoteCommand(command);
+    }
+
+    static Map<Integer, Map<String, String>> parseMultiPollOutput(String pollOutput) {
+
+        var pollResponses = new HashMap<Integer, Map<String, String>>();
 
-                var priorState = job.getValue();
-                var pollResult = pollBatch(job.getKey(), priorState);
+        Map<String, String> pollResponse = null;
+        Integer lastIndex = null;
+        var endMarker = false;
 
-                results.add(pollResult);
+        for (var line : pollOutput.split("\n")) {
+
+            if (line.startsWith(POLL_MULTI_BATCH_MARKER + ":")) {
+
+                var marker = line.substring(POLL_MULTI_BATCH_MARKER.length() + 1).trim();
+
+                if (marker.equals("end")) {
+                    endMarker = true;
+                    break;
+                }
+
+                lastIndex = Integer.parseInt(marker);
+                pollResponse = new HashMap<>();
+                pollResponses.put(lastIndex, pollResponse);
             }
-            catch (Exception e) {
+            else if (pollResponse != null) {
 
-                log.warn("Failed to poll job: [{}] {}", job.getKey(), e.getMessage(), e);
-                results.add(new ExecutorJobInfo(ExecutorJobStatus.STATUS_UNKNOWN));
+                parsePollLine(line, pollResponse);
             }
         }
 
-        return results;
+        // Without the end marker the output was cut short, so the last section may be incomplete
+        // Batches in that section or after it have no poll response
+
+        if (!endMarker && lastIndex != null)
+            pollResponses.remove(lastIndex);
+
+        return pollResponses;
+    }
+
+    private static void parsePollLine(String line, Map<String, String> pollResponse) {
+
+        var sep = line.indexOf(":");
+
+        if (sep < 0)
+            return;
+
+        var key = line.substring(0, sep);
+        var value = line.substring(sep + 1).trim();
+        pollResponse.put(key, value);
+    }
+
+    private ExecutorJobInfo pollResult(String batchKey, SshBatchState batchState, Map<String, String> pollResponse) {
+
+        var ok = pollResponse.get("trac_poll_ok");
+        var pid = tryParseLong(pollResponse.get("pid"), "Invalid poll response for [pid");
+        var running = tryParseLong(pollResponse.get("running"), "Invalid poll response for [running]");
+
+        if (ok == null || !ok.equals("ok") || pid != batchState.getPid()) {
+            throw new EExecutorFailure("Invalid poll response");
+        }
+
+        if (running == 0)
+            return new ExecutorJobInfo(ExecutorJobStatus.RUNNING);
+
+        var exitCode = (int)(long) tryParseLong(pollResponse.get("exit_code"), "Invalid poll response for [exit_code]");
+
+        if (exitCode == 0)
+            return new ExecutorJobInfo(ExecutorJobStatus.SUCCEEDED);
+
+        try {
+
+            var errorBytes = readFile(batchKey, batchState, "log", "trac_rt_stderr.txt");
+            var errorDetail = new String(errorBytes, StandardCharsets.UTF_8);
+            var statusMessage = extractErrorMessage(errorDetail, exitCode);
+
+            return new ExecutorJobInfo(ExecutorJobStatus.FAILED, statusMessage, errorDetail);
+        }
+        catch (EExecutorFailure e) {
+
+            var statusMessage = String.format(FALLBACK_ERROR_MESSAGE, exitCode);
+
+            return new ExecutorJobInfo(ExecutorJobStatus.FAILED, statusMessage, FALLBACK_ERROR_DETAIL);
+        }
     }
 
 
@@ -733,6 +862,11 @@ public class SshExecutor implements IBatchExecutor<SshBatchState> {
 
     private String requiredProperty(String propertyName) {
 
+        return requiredProperty(properties, propertyName);
+    }
+
+    private static String requiredProperty(Properties properties, String propertyName) {
+
         var propertyValue = properties.getProperty(propertyName);
 
         if (propertyValue == null || propertyValue.trim().equals("")) {
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.exec.ssh;
+
+import org.finos.tracdap.common.exec.ExecutorJobInfo;
+import org.finos.tracdap.common.exec.ExecutorJobStatus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SshExecutorPollTest {
+
+    private static final Pattern POLL_MARKER = Pattern.compile("echo \"trac_poll_batch: (\\d+)\"");
+    private static final String END_MARKER = "trac_poll_batch: end";
+
+    @Test
+    void pollBatches_allSections() {
+
+        var batches = batches("host1", 3);
+        var executor = new CannedPollExecutor(index -> index == 1 ? succeeded(index) : running(index));
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(1, executor.commands.size());
+        assertEquals(List.of(ExecutorJobStatus.RUNNING, ExecutorJobStatus.SUCCEEDED, ExecutorJobStatus.RUNNING), statuses(results));
+    }
+
+    @Test
+    void pollBatches_missingSection() {
+
+        // No marker for batch 1, e.g. the remote shell skipped it, only that batch is unknown
+
+        var batches = batches("host1", 3);
+        var executor = new CannedPollExecutor(this::running);
+        executor.skipSections = List.of(1);
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(List.of(ExecutorJobStatus.RUNNING, ExecutorJobStatus.STATUS_UNKNOWN, ExecutorJobStatus.RUNNING), statuses(results));
+    }
+
+    @Test
+    void pollBatches_failedScript() {
+
+        // Poll script for batch 1 fails to run (no output), batch 2 cannot read its pid file
+
+        var batches = batches("host1", 4);
+
+        var executor = new CannedPollExecutor(index -> {
+            if (index == 1) return "";
+            if (index == 2) return "pid: \nrunning: 1\nexit_code: 1\ntrac_poll_ok: ok";
+            return succeeded(index);
+        });
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(List.of(
+                ExecutorJobStatus.SUCCEEDED,
+                ExecutorJobStatus.STATUS_UNKNOWN,
+                ExecutorJobStatus.STATUS_UNKNOWN,
+                ExecutorJobStatus.SUCCEEDED),
+                statuses(results));
+    }
+
+    @Test
+    void pollBatches_truncatedOutput() {
+
+        var batches = batches("host1", 3);
+        var executor = new CannedPollExecutor(this::running);
+
+        // Output is cut off part way through the section for batch 1
+
+        executor.truncateAfter = output -> output.substring(0, output.indexOf("running", output.indexOf("trac_poll_batch: 1")));
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(List.of(ExecutorJobStatus.RUNNING, ExecutorJobStatus.STATUS_UNKNOWN, ExecutorJobStatus.STATUS_UNKNOWN), statuses(results));
+    }
+
+    @Test
+    void pollBatches_noEndMarker() {
+
+        // Without the end marker there is no way to know the last section is complete, so it is not used
+
+        var batches = batches("host1", 3);
+        var executor = new CannedPollExecutor(this::running);
+        executor.truncateAfter = output -> output.substring(0, output.indexOf(END_MARKER));
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(List.of(ExecutorJobStatus.RUNNING, ExecutorJobStatus.RUNNING, ExecutorJobStatus.STATUS_UNKNOWN), statuses(results));
+    }
+
+    @Test
+    void pollBatches_splitAcrossCommands() {
+
+        var batches = batches("host1", 250);
+        var executor = new CannedPollExecutor(this::succeeded);
+
+        var results = executor.pollBatches(batches);
+
+        // Up to 100 batches per command, every batch gets its own result in the original order
+
+        var batchesPerCommand = executor.commands.stream()
+                .map(command -> sectionIndices(command).size())
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(100, 100, 50), batchesPerCommand);
+        assertEquals(250, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == ExecutorJobStatus.SUCCEEDED));
+
+        var allIndices = executor.commands.stream()
+                .flatMap(command -> sectionIndices(command).stream())
+                .collect(Collectors.toList());
+
+        assertEquals(IntStream.range(0, 250).boxed().collect(Collectors.toList()), allIndices);
+    }
+
+    @Test
+    void pollBatches_separateHosts() {
+
+        var batches = new ArrayList<Map.Entry<String, SshBatchState>>();
+        batches.add(batch("host1", 0));
+        batches.add(batch("host2", 1));
+        batches.add(batch("host1", 2));
+
+        var executor = new CannedPollExecutor(this::running);
+
+        var results = executor.pollBatches(batches);
+
+        assertEquals(2, executor.commands.size());
+        assertEquals(List.of(0, 2), sectionIndices(executor.commands.get(0)));
+        assertEquals(List.of(1), sectionIndices(executor.commands.get(1)));
+        assertEquals(List.of(ExecutorJobStatus.RUNNING, ExecutorJobStatus.RUNNING, ExecutorJobStatus.RUNNING), statuses(results));
+    }
+
+    private String running(int index) {
+
+        return String.format("pid: %d\nrunning: 0\ntrac_poll_ok: ok", pid(index));
+    }
+
+    private String succeeded(int index) {
+
+        return String.format("pid: %d\nrunning: 1\nexit_code: 0\ntrac_poll_ok: ok", pid(index));
+    }
+
+    private static long pid(int index) {
+
+        return 1000 + index;
+    }
+
+    private static List<Map.Entry<String, SshBatchState>> batches(String host, int nBatches) {
+
+        return IntStream.range(0, nBatches)
+                .mapToObj(index -> batch(host, index))
+                .collect(Collectors.toList());
+    }
+
+    private static Map.Entry<String, SshBatchState> batch(String host, int index) {
+
+        var batchState = SshBatchState.newBuilder()
+                .setRemoteHost(host)
+                .setRemotePort(22)
+                .setBatchUser("trac_batch")
+                .setBatchDir("/tmp/trac/batch_" + index)
+                .addVolumes("trac_admin")
+                .setPid(pid(index))
+                .build();
+
+        return Map.entry("batch_" + index, batchState);
+    }
+
+    private static List<ExecutorJobStatus> statuses(List<ExecutorJobInfo> results) {
+
+        return results.stream().map(ExecutorJobInfo::getStatus).collect(Collectors.toList());
+    }
+
+    private static List<Integer> sectionIndices(String command) {
+
+        var indices = new ArrayList<Integer>();
+        var match = POLL_MARKER.matcher(command);
+
+        while (match.find())
+            indices.add(Integer.parseInt(match.group(1)));
+
+        return indices;
+    }
+
+    private static class CannedPollExecutor extends SshExecutor {
+
+        final List<String> commands = new ArrayList<>();
+        final Function<Integer, String> scriptOutput;
+
+        List<Integer> skipSections = List.of();
+        Function<String, String> truncateAfter = Function.identity();
+
+        CannedPollExecutor(Function<Integer, String> scriptOutput) {
+            super(executorProperties(), List.of());
+            this.scriptOutput = scriptOutput;
+        }
+
+        @Override
+        String executePollCommand(SshBatchState batchState, String command) {
+
+            // Build the output the remote shell would send back for the poll scripts in the command
+
+            commands.add(command);
+
+            var output = new StringBuilder();
+
+            for (var index : sectionIndices(command)) {
+
+                if (skipSections.contains(index))
+                    continue;
+
+                output.append("trac_poll_batch: ").append(index).append("\n");
+
+                var pollOutput = scriptOutput.apply(index);
+
+                if (!pollOutput.isEmpty())
+                    output.append(pollOutput).append("\n");
+            }
+
+            output.append(END_MARKER).append("\n");
+
+            return truncateAfter.apply(output.toString());
+        }
+
+        private static Properties executorProperties() {
+
+            var properties = new Properties();
+            properties.setProperty(SshExecutor.CONFIG_VENV_PATH, "/opt/trac/venv");
+            properties.setProperty(SshExecutor.CONFIG_BATCH_DIR, "/tmp/trac");
+
+            return properties;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.finos.tracdap.config.GatewayConfig;
 import org.finos.tracdap.gateway.config.helpers.ConfigTranslator;
 import org.finos.tracdap.gateway.exec.Route;
 import org.finos.tracdap.gateway.exec.RouteBuilder;
+import org.finos.tracdap.gateway.proxy.grpc.GrpcChannelPool;
 import org.finos.tracdap.gateway.routing.Http1Router;
 import org.finos.tracdap.gateway.routing.Http2Router;
 import org.finos.tracdap.gateway.routing.WebSocketsRouter;
@@ -71,6 +72,7 @@ public class TracPlatformGateway extends CommonServiceBase {
 
     private EventLoopGroup bossGroup = null;
     private EventLoopGroup workerGroup = null;
+    private GrpcChannelPool channelPool = null;
 
 
     public TracPlatformGateway(PluginManager pluginManager, ConfigManager configManager) {
@@ -113,8 +115,11 @@ public class TracPlatformGateway extends CommonServiceBase {
             // JWT processor is responsible for signing and validating auth tokens
             var jwtProcessor = setupJwtAuth(configManager);
 
+            // Upstream gRPC channels are shared between client connections on the same event loop
+            channelPool = new GrpcChannelPool(gatewayConfig.getConnectionPool());
+
             // Handlers for all support protocols
-            var http1Handler = ProtocolSetup.setup(connId -> new Http1Router(routes, connId));
+            var http1Handler = ProtocolSetup.setup(connId -> new Http1Router(routes, connId, channelPool));
             var http2Handler = ProtocolSetup.setup(connId -> new Http2Router(gatewayConfig.getRoutesList()));
 
             var webSocketOptions = WebSocketServerProtocolConfig.newBuilder()
@@ -209,6 +214,10 @@ public class TracPlatformGateway extends CommonServiceBase {
         var shutdownElapsedTime = Duration.between(shutdownStartTime, Instant.now());
         var shutdownTimeRemaining = shutdownTimeout.minus(shutdownElapsedTime);
 
+        // Shared upstream channels let calls already in flight complete
+        if (channelPool != null)
+            channelPool.shutdown();
+
         var workerShutdown = workerGroup.shutdownGracefully();
         workerShutdown.await(shutdownTimeRemaining.getSeconds(), TimeUnit.SECONDS);
 
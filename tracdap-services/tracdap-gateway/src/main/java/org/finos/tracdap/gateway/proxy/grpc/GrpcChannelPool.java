@@ -0,0 +1,272 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.gateway.proxy.grpc;
+
+import org.finos.tracdap.common.exception.EUnexpected;
+import org.finos.tracdap.config.GwConnectionPool;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.netty.util.concurrent.EventExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Pool of gRPC channels to backend services, shared between client connections.
+ *
+ * <p>Channels are pooled per target and per event loop, each channel runs its callbacks
+ * on the event loop it belongs to. A gRPC channel multiplexes calls over a single HTTP/2
+ * connection, so many client connections can share one upstream connection. Extra channels
+ * are only opened when every existing channel is in use, up to the configured limit.</p>
+ *
+ * <p>Channels that have not been leased for the idle timeout are shut down.
+ * The pool for each target is only ever touched on its own event loop.</p>
+ */
+public class GrpcChannelPool {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_TARGET = 1;
+    public static final int DEFAULT_IDLE_TIMEOUT = 300;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final int maxConnectionsPerTarget;
+    private final Duration idleTimeout;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<PoolKey, TargetPool> pools;
+
+    public GrpcChannelPool(GwConnectionPool config) {
+        this(config, System::nanoTime);
+    }
+
+    GrpcChannelPool(GwConnectionPool config, LongSupplier nanoClock) {
+
+        this.maxConnectionsPerTarget = config.getMaxConnectionsPerTarget() > 0
+                ? config.getMaxConnectionsPerTarget()
+                : DEFAULT_MAX_CONNECTIONS_PER_TARGET;
+
+        this.idleTimeout = Duration.ofSeconds(config.getIdleTimeout() > 0
+                ? config.getIdleTimeout()
+                : DEFAULT_IDLE_TIMEOUT);
+
+        this.nanoClock = nanoClock;
+        this.pools = new ConcurrentHashMap<>();
+    }
+
+    public Lease acquire(String host, int port, EventExecutor executor) {
+
+        if (!executor.inEventLoop())
+            throw new EUnexpected();
+
+        var key = new PoolKey(host, port, executor);
+        var pool = pools.computeIfAbsent(key, TargetPool::new);
+
+        return pool.acquire();
+    }
+
+    public void shutdown() {
+
+        for (var pool : pools.values())
+            pool.executor().execute(pool::shutdown);
+    }
+
+    public final class Lease {
+
+        private final TargetPool pool;
+        private final PooledChannel pooledChannel;
+        private boolean released;
+
+        private Lease(TargetPool pool, PooledChannel pooledChannel) {
+            this.pool = pool;
+            this.pooledChannel = pooledChannel;
+        }
+
+        public ManagedChannel channel() {
+            return pooledChannel.channel;
+        }
+
+        public void release() {
+
+            if (pool.executor().inEventLoop())
+                releaseOnEventLoop();
+            else
+                pool.executor().execute(this::releaseOnEventLoop);
+        }
+
+        private void releaseOnEventLoop() {
+
+            if (released)
+                return;
+
+            released = true;
+            pool.release(pooledChannel);
+        }
+    }
+
+    private final class TargetPool {
+
+        private final PoolKey key;
+        private final List<PooledChannel> channels;
+
+        TargetPool(PoolKey key) {
+            this.key = key;
+            this.channels = new ArrayList<>();
+        }
+
+        EventExecutor executor() {
+            return key.executor;
+        }
+
+        Lease acquire() {
+
+            evictChannels();
+
+            // Share the least used channel, unless all are busy and there is room for another
+
+            PooledChannel leastUsed = null;
+
+            for (var pooledChannel : channels)
+                if (leastUsed == null || pooledChannel.leases < leastUsed.leases)
+                    leastUsed = pooledChannel;
+
+            if (leastUsed == null || (leastUsed.leases > 0 && channels.size() < maxConnectionsPerTarget)) {
+                leastUsed = openChannel();
+                channels.add(leastUsed);
+            }
+
+            leastUsed.leases++;
+
+            return new Lease(this, leastUsed);
+        }
+
+        void release(PooledChannel pooledChannel) {
+
+            pooledChannel.leases--;
+
+            if (pooledChannel.leases == 0) {
+
+                pooledChannel.idleSince = nanoClock.getAsLong();
+
+                // Check again once the idle timeout has passed, in case the channel is not used again
+                key.executor.schedule(this::evictChannels, idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void shutdown() {
+
+            for (var pooledChannel : channels)
+                pooledChannel.channel.shutdown();
+
+            channels.clear();
+        }
+
+        private PooledChannel openChannel() {
+
+            log.info("Opening shared gRPC channel to {}:{}, pool size = {}", key.host, key.port, channels.size() + 1);
+
+            // Let gRPC drop the HTTP/2 connection when idle as well, the channel will reconnect when needed
+
+            var channel = ManagedChannelBuilder.forAddress(key.host, key.port)
+                    .userAgent("TRAC/Gateway")
+                    .usePlaintext()
+                    .disableRetry()
+                    .executor(key.executor)
+                    .idleTimeout(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+
+            return new PooledChannel(channel);
+        }
+
+        private void evictChannels() {
+
+            var now = nanoClock.getAsLong();
+            var iterator = channels.iterator();
+
+            while (iterator.hasNext()) {
+
+                var pooledChannel = iterator.next();
+                var channelState = pooledChannel.channel.getState(false);
+
+                var shutdown = channelState == ConnectivityState.SHUTDOWN;
+                var idle = pooledChannel.leases == 0 && now - pooledChannel.idleSince >= idleTimeout.toNanos();
+
+                if (shutdown || idle) {
+
+                    log.info("Closing shared gRPC channel to {}:{} ({})", key.host, key.port, shutdown ? "shutdown" : "idle");
+
+                    pooledChannel.channel.shutdown();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private final class PooledChannel {
+
+        final ManagedChannel channel;
+        int leases;
+        long idleSince;
+
+        PooledChannel(ManagedChannel channel) {
+            this.channel = channel;
+            this.idleSince = nanoClock.getAsLong();
+        }
+    }
+
+    private static final class PoolKey {
+
+        final String host;
+        final int port;
+        final EventExecutor executor;
+
+        PoolKey(String host, int port, EventExecutor executor) {
+            this.host = host;
+            this.port = port;
+            this.executor = executor;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (PoolKey) other;
+
+            return port == otherKey.port &&
+                    host.equals(otherKey.host) &&
+                    executor == otherKey.executor;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, System.identityHashCode(executor));
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.finos.tracdap.common.auth.external.AuthLogic;
 import org.finos.tracdap.common.auth.external.Http2AuthHeaders;
 import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.common.exception.EUnexpected;
+import org.finos.tracdap.gateway.proxy.grpc.GrpcChannelPool;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -29,7 +30,6 @@ import com.google.protobuf.Message;
 import com.google.protobuf.util.JsonFormat;
 import io.grpc.CallOptions;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.ClientCalls;
 
@@ -59,18 +59,23 @@ public class RestApiProxy extends Http2ChannelDuplexHandler {
     private final List<RestApiMethod<?, ?, ?>> methods;
 
     private final EventExecutor executor;
+    private final GrpcChannelPool channelPool;
+    private GrpcChannelPool.Lease channelLease;
     private ManagedChannel serviceChannel;
 
     private final Map<Http2FrameStream, RestApiCallState> callStateMap;
 
 
-    public RestApiProxy(String grpcHost, short grpcPort, List<RestApiMethod<?, ?, ?>> methods, EventExecutor executor) {
+    public RestApiProxy(
+            String grpcHost, short grpcPort, List<RestApiMethod<?, ?, ?>> methods,
+            EventExecutor executor, GrpcChannelPool channelPool) {
 
         this.grpcHost = grpcHost;
         this.grpcPort = grpcPort;
         this.methods = methods;
 
         this.executor = executor;
+        this.channelPool = channelPool;
 
         this.callStateMap = new HashMap<>();
     }
@@ -78,18 +83,19 @@ public class RestApiProxy extends Http2ChannelDuplexHandler {
     @Override
     protected void handlerAdded0(ChannelHandlerContext ctx) {
 
-        serviceChannel = ManagedChannelBuilder.forAddress(grpcHost, grpcPort)
-                .userAgent("TRAC/Gateway")
-                .usePlaintext()
-                .disableRetry()
-                .executor(executor)
-                .build();
+        // Channels to the backend service are shared, calls from many proxies are multiplexed over them
+
+        channelLease = channelPool.acquire(grpcHost, grpcPort, executor);
+        serviceChannel = channelLease.channel();
     }
 
     @Override
     protected void handlerRemoved0(ChannelHandlerContext ctx) {
 
-        serviceChannel.shutdown();
+        // Do not shut down the channel, it goes back to the pool
+        // Calls already in flight will still complete on the shared channel
+
+        channelLease.release();
     }
 
     @Override
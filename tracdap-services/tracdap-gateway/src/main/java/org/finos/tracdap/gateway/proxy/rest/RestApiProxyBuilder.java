@@ -19,6 +19,7 @@ package org.finos.tracdap.gateway.proxy.rest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.finos.tracdap.common.exception.ENetworkHttp;
 import org.finos.tracdap.gateway.exec.Route;
+import org.finos.tracdap.gateway.proxy.grpc.GrpcChannelPool;
 import org.finos.tracdap.gateway.proxy.http.Http1to2Proxy;
 
 import io.netty.channel.*;
@@ -43,19 +44,22 @@ public class RestApiProxyBuilder extends ChannelInitializer<Channel> {
     private final EventExecutor executor;
     private final int connId;
     private final HttpProtocol httpProtocol;
+    private final GrpcChannelPool channelPool;
 
     public RestApiProxyBuilder(
             Route routeConfig,
             CoreRouterLink routerLink,
             EventExecutor executor,
             int connId,
-            HttpProtocol httpProtocol) {
+            HttpProtocol httpProtocol,
+            GrpcChannelPool channelPool) {
 
         this.routeConfig = routeConfig;
         this.routerLink = routerLink;
         this.executor = executor;
         this.connId = connId;
         this.httpProtocol = httpProtocol;
+        this.channelPool = channelPool;
     }
 
     @Override
@@ -86,7 +90,7 @@ public class RestApiProxyBuilder extends ChannelInitializer<Channel> {
 
         var grpcHost = routeConfig.getConfig().getTarget().getHost();
         var grpcPort = (short) routeConfig.getConfig().getTarget().getPort();
-        var restApiProxy = new RestApiProxy(grpcHost, grpcPort, restApiConfig, executor);
+        var restApiProxy = new RestApiProxy(grpcHost, grpcPort, restApiConfig, executor, channelPool);
         pipeline.addLast(restApiProxy);
 
         // Router link
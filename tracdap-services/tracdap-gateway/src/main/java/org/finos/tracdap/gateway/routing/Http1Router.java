@@ -18,6 +18,7 @@ package org.finos.tracdap.gateway.routing;
 
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.gateway.exec.Route;
+import org.finos.tracdap.gateway.proxy.grpc.GrpcChannelPool;
 import org.finos.tracdap.gateway.proxy.grpc.GrpcProtocol;
 import org.finos.tracdap.gateway.proxy.http.Http1ProxyBuilder;
 import org.finos.tracdap.gateway.proxy.grpc.GrpcProxyBuilder;
@@ -51,15 +52,18 @@ public class Http1Router extends CoreRouter {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final GrpcChannelPool channelPool;
     private final Map<Long, RequestState> requests;
 
     private long currentInboundRequest;
     private long currentOutboundRequest;
 
-    public Http1Router(List<Route> routes, int connId) {
+    public Http1Router(List<Route> routes, int connId, GrpcChannelPool channelPool) {
 
         super(routes, connId, "HTTP/1");
 
+        this.channelPool = channelPool;
+
         this.requests = new HashMap<>();
 
         this.currentInboundRequest = -1;
@@ -288,7 +292,7 @@ public class Http1Router extends CoreRouter {
 
                 return new RestApiProxyBuilder(
                         routeConfig, link, ctx.executor(), connId,
-                        HttpProtocol.HTTP_1_1);
+                        HttpProtocol.HTTP_1_1, channelPool);
 
             default:
                 throw new EUnexpected();
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.gateway.proxy.grpc;
+
+import org.finos.tracdap.common.exception.EUnexpected;
+import org.finos.tracdap.config.GwConnectionPool;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class GrpcChannelPoolTest {
+
+    private static final String TEST_HOST = "localhost";
+    private static final int TEST_PORT = 8081;
+    private static final int IDLE_TIMEOUT = 60;
+
+    private EventExecutor executor;
+    private AtomicLong clock;
+    private GrpcChannelPool pool;
+
+    @BeforeEach
+    void setup() {
+
+        executor = new DefaultEventLoop();
+        clock = new AtomicLong(0);
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+
+        if (pool != null)
+            pool.shutdown();
+
+        executor.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    void leaseAndRelease_channelShared() throws Exception {
+
+        pool = createPool(1);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(lease1.channel(), lease2.channel());
+
+        // Releasing the same lease twice only counts once, the channel is still leased by lease2
+
+        onLoop(() -> { lease1.release(); lease1.release(); return null; });
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT + 1));
+
+        var lease3 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(lease1.channel(), lease3.channel());
+        assertFalse(lease1.channel().isShutdown());
+
+        // Once all leases are released, the channel goes idle and is evicted
+
+        onLoop(() -> { lease2.release(); lease3.release(); return null; });
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT + 1));
+
+        var lease4 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertNotSame(lease1.channel(), lease4.channel());
+        assertTrue(lease1.channel().isShutdown());
+        assertFalse(lease4.channel().isShutdown());
+    }
+
+    @Test
+    void leaseAndRelease_offEventLoop() throws Exception {
+
+        pool = createPool(1);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        // Release from outside the event loop is passed back to the event loop
+
+        lease1.release();
+        onLoop(() -> null);
+
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT + 1));
+
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertNotSame(lease1.channel(), lease2.channel());
+        assertTrue(lease1.channel().isShutdown());
+    }
+
+    @Test
+    void acquireOffEventLoop_fails() {
+
+        pool = createPool(1);
+
+        assertThrows(EUnexpected.class, () -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+    }
+
+    @Test
+    void leastUsedChannel() throws Exception {
+
+        pool = createPool(2);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        // First channel is busy and there is room in the pool, so a second channel is opened
+
+        var channel1 = lease1.channel();
+        var channel2 = lease2.channel();
+
+        assertNotSame(channel1, channel2);
+
+        // Pool is full, leases are shared out to the least used channel
+
+        var lease3 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease4 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(channel1, lease3.channel());
+        assertSame(channel2, lease4.channel());
+
+        onLoop(() -> { lease1.release(); lease3.release(); return null; });
+
+        var lease5 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease6 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(channel1, lease5.channel());
+        assertSame(channel1, lease6.channel());
+    }
+
+    @Test
+    void separateTargets() throws Exception {
+
+        pool = createPool(1);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT + 1, executor));
+
+        assertNotSame(lease1.channel(), lease2.channel());
+        assertEquals(TEST_HOST + ":" + TEST_PORT, lease1.channel().authority());
+        assertEquals(TEST_HOST + ":" + (TEST_PORT + 1), lease2.channel().authority());
+    }
+
+    @Test
+    void idleEviction() throws Exception {
+
+        pool = createPool(1);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        onLoop(() -> { lease1.release(); return null; });
+
+        // Not idle for long enough, channel is reused
+
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT - 1));
+
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(lease1.channel(), lease2.channel());
+        assertFalse(lease1.channel().isShutdown());
+
+        // Idle time is counted from the last release
+
+        onLoop(() -> { lease2.release(); return null; });
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT - 1));
+
+        var lease3 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertSame(lease1.channel(), lease3.channel());
+
+        onLoop(() -> { lease3.release(); return null; });
+        advanceClock(Duration.ofSeconds(IDLE_TIMEOUT));
+
+        var lease4 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+
+        assertNotSame(lease1.channel(), lease4.channel());
+        assertTrue(lease1.channel().isShutdown());
+    }
+
+    @Test
+    void shutdownWithOpenLeases() throws Exception {
+
+        pool = createPool(2);
+
+        var lease1 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease2 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT, executor));
+        var lease3 = onLoop(() -> pool.acquire(TEST_HOST, TEST_PORT + 1, executor));
+
+        pool.shutdown();
+        onLoop(() -> null);
+
+        assertTrue(lease1.channel().isShutdown());
+        assertTrue(lease2.channel().isShutdown());
+        assertTrue(lease3.channel().isShutdown());
+
+        // Leases released after shutdown must not fail
+
+        assertDoesNotThrow(() -> onLoop(() -> { lease1.release(); lease2.release(); return null; }));
+        assertDoesNotThrow(lease3::release);
+        onLoop(() -> null);
+    }
+
+    private GrpcChannelPool createPool(int maxConnectionsPerTarget) {
+
+        var config = GwConnectionPool.newBuilder()
+                .setMaxConnectionsPerTarget(maxConnectionsPerTarget)
+                .setIdleTimeout(IDLE_TIMEOUT)
+                .build();
+
+        return new GrpcChannelPool(config, clock::get);
+    }
+
+    private void advanceClock(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private <T> T onLoop(Callable<T> task) throws Exception {
+        return executor.submit(task).get();
+    }
+}
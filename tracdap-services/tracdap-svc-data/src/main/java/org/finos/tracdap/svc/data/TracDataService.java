@@ -21,6 +21,7 @@ import org.finos.tracdap.common.auth.AuthSetup;
 import org.finos.tracdap.common.auth.GrpcServerAuth;
 import org.finos.tracdap.common.grpc.ErrorMappingInterceptor;
 import org.finos.tracdap.common.grpc.LoggingServerInterceptor;
+import org.finos.tracdap.common.metadata.MetadataClientCache;
 import org.finos.tracdap.config.ServiceConfig;
 import org.finos.tracdap.config.PlatformConfig;
 
@@ -70,6 +71,7 @@ public class TracDataService extends CommonServiceBase {
     private EventLoopGroup bossGroup;
     private EventLoopGroup serviceGroup;
     private ManagedChannel clientChannel;
+    private MetadataClientCache metadataCache;
     private StorageManager storage;
     private Server server;
 
@@ -243,7 +245,15 @@ public class TracDataService extends CommonServiceBase {
 
         clientChannel = EventLoopChannel.wrapChannel(clientChannelBuilder, serviceGroup);
 
-        return TrustedMetadataApiGrpc.newFutureStub(clientChannel);
+        var metaClient = TrustedMetadataApiGrpc.newFutureStub(clientChannel);
+
+        // Immutable metadata versions can be cached on the client side, if the cache is configured
+        if (platformConfig.getMetadata().hasClientCache()) {
+            metadataCache = new MetadataClientCache(platformConfig.getMetadata().getClientCache());
+            return metaClient.withInterceptors(metadataCache);
+        }
+
+        return metaClient;
     }
 
     @Override
@@ -263,6 +273,9 @@ public class TracDataService extends CommonServiceBase {
             return clientChannel.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
+        if (metadataCache != null)
+            metadataCache.logStatistics();
+
         var storageDown = shutdownResource("Storage service", deadline, remaining -> {
 
             storage.close();
@@ -21,7 +21,9 @@ import org.finos.tracdap.common.auth.GrpcClientAuth;
 import org.finos.tracdap.common.concurrent.Futures;
 import org.finos.tracdap.common.data.ArrowSchema;
 import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.common.exception.EMetadataDuplicate;
+import org.finos.tracdap.common.exception.EMetadataNotFound;
 import org.finos.tracdap.config.StorageConfig;
 import org.finos.tracdap.config.TenantConfig;
 import org.finos.tracdap.metadata.*;
@@ -48,6 +50,7 @@ import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
@@ -211,25 +214,32 @@ public class DataService {
         var codec = codecManager.getCodec(request.getFormat());
         var codecOptions = Map.<String, String>of();
 
+        var offset = request.hasOffset() ? request.getOffset() : 0;
+        var limit = request.hasLimit() ? request.getLimit() : 0;
+
         CompletableFuture.completedFuture(null)
 
                 // Load metadata for the dataset (DATA, STORAGE, SCHEMA if external)
                 .thenCompose(x -> loadMetadata(request.getTenant(), request.getSelector(), state))
 
                 // Select which copy of the data will be read
-                .thenAccept(x -> selectCopy(state))
+                .thenAccept(x -> selectCopy(request, state))
+
+                // Narrow the schema if only some of the fields are requested
+                .thenAccept(x -> selectFields(request, state))
 
                 // Report the resolved schema back to the caller
                 // This will be used to construct the first message in the response stream
-                .thenAccept(x -> schema.complete(state.schema))
+                .thenAccept(x -> schema.complete(state.requiredSchema))
 
                 // Load data from storage and encode it for transmission
                 // This is where the main data processing streams are executed
                 // When this future completes, the data processing stream has completed (or failed)
                 .thenAccept(x -> loadAndEncode(
-                        state.schema, contentStream,
+                        state.schema, state.requiredSchema, contentStream,
                         codec, codecOptions,
-                        state.copy, dataCtx))
+                        state.copy, offset, limit,
+                        dataCtx))
 
                 .exceptionally(error -> Helpers.reportError(error, schema, contentStream));
     }
@@ -304,9 +314,22 @@ public class DataService {
         throw new EUnexpected();
     }
 
-    private void selectCopy(RequestState state) {
+    private void selectCopy(DataReadRequest request, RequestState state) {
+
+        var partKey = request.hasPart() ? request.getPart() : PartKeys.ROOT;
+
+        // Only root parts are created at present, other part types cannot be in the dataset
+        if (partKey.getPartType() != PartType.PART_ROOT) {
+            var message = String.format("Part [%s] not found in dataset", partKey.getPartType());
+            throw new EMetadataNotFound(message);
+        }
 
-        var opaqueKey = PartKeys.opaqueKey(PartKeys.ROOT);
+        var opaqueKey = PartKeys.opaqueKey(partKey);
+
+        if (!state.data.containsParts(opaqueKey)) {
+            var message = String.format("Part [%s] not found in dataset", opaqueKey);
+            throw new EMetadataNotFound(message);
+        }
 
         // Snap index is not needed, since DataDefinition.Part only holds the current snap
 
@@ -330,6 +353,39 @@ public class DataService {
                 .getCopies(copyIndex);
     }
 
+    private void selectFields(DataReadRequest request, RequestState state) {
+
+        if (request.getFieldsCount() == 0) {
+            state.requiredSchema = state.schema;
+            return;
+        }
+
+        var schemaFields = new TreeMap<String, FieldSchema>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var field : state.schema.getTable().getFieldsList())
+            schemaFields.put(field.getFieldName(), field);
+
+        var requiredTable = TableSchema.newBuilder();
+
+        for (var fieldName : request.getFieldsList()) {
+
+            var field = schemaFields.get(fieldName);
+
+            if (field == null) {
+                var message = String.format("Field [%s] is not in the schema for this dataset", fieldName);
+                throw new EInputValidation(message);
+            }
+
+            // Fields are returned in the order they are requested
+            var fieldOrder = requiredTable.getFieldsCount();
+            requiredTable.addFields(field.toBuilder().setFieldOrder(fieldOrder));
+        }
+
+        state.requiredSchema = state.schema.toBuilder()
+                .setTable(requiredTable)
+                .build();
+    }
+
     private CompletionStage<Void> preallocateIds(DataWriteRequest request, RequestState state) {
 
         var client = GrpcClientAuth.applyIfAvailable(metaClient, state.authToken);
@@ -644,18 +700,20 @@ public class DataService {
     }
 
     private void loadAndEncode(
-            SchemaDefinition schema, Flow.Subscriber<ByteBuf> contentStream,
+            SchemaDefinition schema, SchemaDefinition fieldSchema,
+            Flow.Subscriber<ByteBuf> contentStream,
             ICodec codec, Map<String, String> codecOptions,
-            StorageCopy copy,
+            StorageCopy copy, long offset, long limit,
             IDataContext dataCtx) {
 
-        var requiredSchema = ArrowSchema.tracToArrow(schema);
+        var storageSchema = ArrowSchema.tracToArrow(schema);
+        var requiredSchema = ArrowSchema.tracToArrow(fieldSchema);
 
         var storageKey = copy.getStorageKey();
         var storage = storageManager.getDataStorage(storageKey);
         var encoder = codec.getEncoder(arrowAllocator, requiredSchema, codecOptions);
 
-        var pipeline = storage.pipelineReader(copy, requiredSchema, dataCtx);
+        var pipeline = storage.pipelineReader(copy, storageSchema, requiredSchema, dataCtx, offset, limit);
         pipeline.addStage(encoder);
         pipeline.addSink(contentStream);
 
@@ -38,6 +38,7 @@ class RequestState {
 
     DataDefinition data;
     SchemaDefinition schema;
+    SchemaDefinition requiredSchema;
     FileDefinition file;
     StorageDefinition storage;
 
@@ -38,6 +38,7 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.Vector;
@@ -1722,6 +1723,139 @@ abstract class DataOperationsTest {
         assertDataEqual(originalData, responseData);
     }
 
+    @Test
+    void readDataset_ok_offsetLimit() throws Exception {
+
+        // Create an object to read
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        var offset = 3;
+        var limit = 4;
+
+        var request = readRequest(dataId).toBuilder()
+                .setOffset(offset)
+                .setLimit(limit)
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreaming(dataClient::readDataset, request, execContext);
+        waitFor(TEST_TIMEOUT, readDataset);
+        var responseList = resultOf(readDataset);
+
+        var response0 = responseList.get(0);
+        Assertions.assertEquals(ByteString.EMPTY, response0.getContent());
+
+        var content = responseList.stream().skip(1)
+                .map(DataReadResponse::getContent)
+                .reduce(ByteString.EMPTY, ByteString::concat);
+
+        var originalData = DataApiTestHelpers.decodeCsv(BASIC_SCHEMA, List.of(BASIC_CSV_CONTENT));
+        var responseData = DataApiTestHelpers.decodeCsv(response0.getSchema(), List.of(content));
+
+        var expectedData = new ArrayList<Vector<Object>>();
+
+        for (var originalCol : originalData)
+            expectedData.add(new Vector<>(originalCol.subList(offset, offset + limit)));
+
+        assertDataEqual(expectedData, responseData);
+    }
+
+    @Test
+    void readDataset_ok_rootPartWithoutOpaqueKey() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        // Clients can ask for the root part by type, without knowing its opaque key
+
+        var request = readRequest(dataId).toBuilder()
+                .setPart(PartKey.newBuilder().setPartType(PartType.PART_ROOT))
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreaming(dataClient::readDataset, request, execContext);
+        waitFor(TEST_TIMEOUT, readDataset);
+        var responseList = resultOf(readDataset);
+
+        var response0 = responseList.get(0);
+
+        var content = responseList.stream().skip(1)
+                .map(DataReadResponse::getContent)
+                .reduce(ByteString.EMPTY, ByteString::concat);
+
+        var originalData = DataApiTestHelpers.decodeCsv(BASIC_SCHEMA, List.of(BASIC_CSV_CONTENT));
+        var responseData = DataApiTestHelpers.decodeCsv(response0.getSchema(), List.of(content));
+
+        assertDataEqual(originalData, responseData);
+    }
+
+    @Test
+    void readDataset_ok_offsetPastEnd() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        var request = readRequest(dataId).toBuilder()
+                .setOffset(1000)
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreaming(dataClient::readDataset, request, execContext);
+        waitFor(TEST_TIMEOUT, readDataset);
+        var responseList = resultOf(readDataset);
+
+        var response0 = responseList.get(0);
+
+        var content = responseList.stream().skip(1)
+                .map(DataReadResponse::getContent)
+                .reduce(ByteString.EMPTY, ByteString::concat);
+
+        var responseData = DataApiTestHelpers.decodeCsv(response0.getSchema(), List.of(content));
+
+        for (var col : responseData)
+            Assertions.assertEquals(0, col.size());
+    }
+
+    @Test
+    void readDataset_ok_fields() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        // Request a subset of fields, in a different order and case to the original schema
+
+        var request = readRequest(dataId).toBuilder()
+                .addFields("STRING_FIELD")
+                .addFields("boolean_field")
+                .addFields("decimal_field")
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreaming(dataClient::readDataset, request, execContext);
+        waitFor(TEST_TIMEOUT, readDataset);
+        var responseList = resultOf(readDataset);
+
+        var response0 = responseList.get(0);
+        var responseFields = response0.getSchema().getTable().getFieldsList();
+
+        Assertions.assertEquals(3, responseFields.size());
+        Assertions.assertEquals("string_field", responseFields.get(0).getFieldName());
+        Assertions.assertEquals("boolean_field", responseFields.get(1).getFieldName());
+        Assertions.assertEquals("decimal_field", responseFields.get(2).getFieldName());
+
+        var content = responseList.stream().skip(1)
+                .map(DataReadResponse::getContent)
+                .reduce(ByteString.EMPTY, ByteString::concat);
+
+        var originalData = DataApiTestHelpers.decodeCsv(BASIC_SCHEMA, List.of(BASIC_CSV_CONTENT));
+        var responseData = DataApiTestHelpers.decodeCsv(response0.getSchema(), List.of(content));
+
+        var expectedData = List.of(originalData.get(4), originalData.get(0), originalData.get(3));
+
+        assertDataEqual(expectedData, responseData);
+    }
+
     private void assertDataEqual(List<Vector<Object>> originalData, List<Vector<Object>> responseData) {
 
         Assertions.assertEquals(originalData.size(), responseData.size());
@@ -2368,6 +2502,47 @@ abstract class DataOperationsTest {
         assertEquals(Status.Code.UNIMPLEMENTED, error.getStatus().getCode());
     }
 
+    @Test
+    void readDataset_limitInvalid() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var v1Id = resultOf(createDataset);
+
+        var basicRequest = readRequest(v1Id);
+
+        var readRequest = basicRequest.toBuilder()
+                .setLimit(0)
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreamingDiscard(dataClient::readDataset, readRequest, execContext);
+
+        waitFor(TEST_TIMEOUT, readDataset);
+        var error = assertThrows(StatusRuntimeException.class, () -> resultOf(readDataset));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    void readDataset_fieldNotFound() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var v1Id = resultOf(createDataset);
+
+        var basicRequest = readRequest(v1Id);
+
+        var readRequest = basicRequest.toBuilder()
+                .addFields("string_field")
+                .addFields("no_such_field")
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreamingDiscard(dataClient::readDataset, readRequest, execContext);
+
+        waitFor(TEST_TIMEOUT, readDataset);
+        var error = assertThrows(StatusRuntimeException.class, () -> resultOf(readDataset));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
     static DataReadRequest readRequest(TagHeader dataId) {
 
         var dataSelector = selectorFor(dataId);
@@ -18,6 +18,7 @@ package org.finos.tracdap.svc.meta;
 
 import org.finos.tracdap.common.auth.AuthSetup;
 import org.finos.tracdap.common.auth.GrpcServerAuth;
+import org.finos.tracdap.common.concurrent.ConcurrencyLimiter;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.grpc.ErrorMappingInterceptor;
@@ -27,6 +28,8 @@ import org.finos.tracdap.common.service.CommonServiceBase;
 import org.finos.tracdap.common.util.InterfaceLogging;
 import org.finos.tracdap.config.PlatformConfig;
 import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.svc.meta.services.MetadataCache;
+import org.finos.tracdap.svc.meta.services.MetadataGroupCommit;
 import org.finos.tracdap.svc.meta.services.MetadataReadService;
 import org.finos.tracdap.svc.meta.services.MetadataSearchService;
 import org.finos.tracdap.svc.meta.services.MetadataWriteService;
@@ -40,7 +43,10 @@ import org.finos.tracdap.svc.meta.api.TrustedMetadataApi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.util.Properties;
 import java.util.concurrent.*;
@@ -61,11 +67,33 @@ public class TracMetadataService extends CommonServiceBase {
     // It would be good to tie this into health reporting and load balancing
     // That is not for this first quick implementation!
 
+    // In ASYNC mode, the gRPC executor only handles transport callbacks and hands off each call
+    // JDBC calls go through a concurrency limiter sized to the JDBC pool, excess calls wait in its queue
+    // Waiting calls do not hold a thread, so the queue can be much larger than the overflow queue above
+    // Queue depth and wait times are published over JMX
+
+    // Hit and miss counts for the metadata cache are also published over JMX, when the cache is enabled
+
+    // Group commit is optional, it is turned on by setting a window for grouping writes
+
     private static final String POOL_SIZE_KEY = "pool.size";
     private static final String POOL_OVERFLOW_KEY = "pool.overflow";
+    private static final String POOL_MODE_KEY = "pool.mode";
+    private static final String POOL_QUEUE_KEY = "pool.queue";
+    private static final String GROUP_COMMIT_WINDOW_KEY = "groupCommit.window";
+    private static final String GROUP_COMMIT_SIZE_KEY = "groupCommit.size";
 
     private static final int DEFAULT_POOL_SIZE = 20;
     private static final int DEFAULT_OVERFLOW_SIZE = 10;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_GROUP_COMMIT_WINDOW = 0;
+    private static final int DEFAULT_GROUP_COMMIT_SIZE = 100;
+
+    private static final String POOL_MODE_BLOCKING = "BLOCKING";
+    private static final String POOL_MODE_ASYNC = "ASYNC";
+
+    private static final String LIMITER_MBEAN_NAME = "org.finos.tracdap:type=ConcurrencyLimiter,name=metadata";
+    private static final String CACHE_MBEAN_NAME = "org.finos.tracdap:type=MetadataCache,name=metadata";
 
     private final Logger log;
 
@@ -73,7 +101,11 @@ public class TracMetadataService extends CommonServiceBase {
     private final ConfigManager configManager;
 
     private ExecutorService executor;
+    private ExecutorService workerExecutor;
+    private ConcurrencyLimiter limiter;
     private IMetadataDal dal;
+    private MetadataCache cache;
+    private MetadataGroupCommit groupCommit;
     private Server server;
 
     public TracMetadataService(PluginManager pluginManager, ConfigManager configManager) {
@@ -102,17 +134,38 @@ public class TracMetadataService extends CommonServiceBase {
             var dalProps = new Properties();
             dalProps.putAll(metaDbConfig.getPropertiesMap());
 
-            executor = createPrimaryExecutor(dalProps);
+            var poolMode = readPoolMode(dalProps);
+
+            if (POOL_MODE_ASYNC.equals(poolMode)) {
+                executor = createGrpcExecutor();
+                workerExecutor = createWorkerExecutor(dalProps);
+                limiter = createLimiter(dalProps, workerExecutor);
+            }
+            else {
+                executor = createPrimaryExecutor(dalProps);
+            }
 
             // Set up services and APIs
             var dalWithLogging = InterfaceLogging.wrap(dal, IMetadataDal.class);
 
-            var readService = new MetadataReadService(dalWithLogging, platformConfig);
-            var writeService = new MetadataWriteService(dalWithLogging);
+            // The metadata cache is optional, it is only used if there is config for it
+            cache = platformConfig.getMetadata().hasCache()
+                    ? new MetadataCache(platformConfig.getMetadata().getCache())
+                    : null;
+
+            if (cache != null)
+                registerMetrics(cache, CACHE_MBEAN_NAME, "Metadata cache");
+
+            var readService = new MetadataReadService(dalWithLogging, platformConfig, cache);
+            // Group commit is null unless a window is configured, writes then use one transaction per request
+            groupCommit = createGroupCommit(dalProps, dalWithLogging);
+
+            var writeService = new MetadataWriteService(dalWithLogging, readService, groupCommit);
             var searchService = new MetadataSearchService(dalWithLogging);
 
-            var publicApi = new TracMetadataApi(readService, writeService, searchService);
-            var trustedApi = new TrustedMetadataApi(readService, writeService, searchService);
+            // The limiter is null in blocking mode, API calls then run directly on the primary executor
+            var publicApi = new TracMetadataApi(readService, writeService, searchService, limiter);
+            var trustedApi = new TrustedMetadataApi(readService, writeService, searchService, limiter);
 
             var jwtValidator = AuthSetup.createValidator(platformConfig, configManager);
 
@@ -155,12 +208,156 @@ public class TracMetadataService extends CommonServiceBase {
         if (!server.isTerminated())
             server.shutdownNow();
 
+        if (cache != null) {
+
+            log.info("Metadata cache: {} entries, {} hits, {} misses, hit ratio = {}",
+                    cache.getSize(), cache.getHitCount(), cache.getMissCount(),
+                    String.format("%.3f", cache.getHitRatio()));
+
+            unregisterMetrics(CACHE_MBEAN_NAME, "Metadata cache");
+        }
+
+        if (groupCommit != null) {
+
+            log.info("Metadata group commit: {} requests in {} groups, {} groups written individually",
+                    groupCommit.requestCount(), groupCommit.groupCount(), groupCommit.retryCount());
+        }
+
+        if (limiter != null) {
+
+            log.info("Metadata request limiter: {} completed, {} rejected, peak queue depth = {}, mean wait = {} ms",
+                    limiter.getCompletedCount(), limiter.getRejectedCount(), limiter.getPeakQueueDepth(),
+                    String.format("%.3f", limiter.getMeanWaitMillis()));
+
+            unregisterMetrics(LIMITER_MBEAN_NAME, "Request limiter");
+        }
+
         dal.stop();
         executor.shutdown();
 
+        if (workerExecutor != null)
+            workerExecutor.shutdown();
+
         return 0;
     }
 
+    private String readPoolMode(Properties properties) {
+
+        var poolMode = properties.getProperty(POOL_MODE_KEY);
+
+        if (poolMode == null || poolMode.isBlank())
+            return POOL_MODE_BLOCKING;
+
+        poolMode = poolMode.trim().toUpperCase();
+
+        if (POOL_MODE_BLOCKING.equals(poolMode) || POOL_MODE_ASYNC.equals(poolMode))
+            return poolMode;
+
+        var message = String.format("Invalid value for config property %s: '%s'", POOL_MODE_KEY, poolMode);
+        log.error(message);
+        throw new EStartup(message);
+    }
+
+    ExecutorService createGrpcExecutor() {
+
+        // gRPC threads only handle transport callbacks and hand off to the limiter, so they never block on JDBC
+
+        var grpcThreads = Runtime.getRuntime().availableProcessors();
+
+        var threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("grpc-%d")
+                .setPriority(Thread.NORM_PRIORITY)
+                .build();
+
+        return Executors.newFixedThreadPool(grpcThreads, threadFactory);
+    }
+
+    ExecutorService createWorkerExecutor(Properties properties) {
+
+        // The limiter never runs more than pool.size tasks at once, so the worker pool does not need a queue limit
+
+        var poolSize = readConfigInt(properties, POOL_SIZE_KEY, DEFAULT_POOL_SIZE);
+
+        var threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("worker-%d")
+                .setPriority(Thread.NORM_PRIORITY)
+                .build();
+
+        return Executors.newFixedThreadPool(poolSize, threadFactory);
+    }
+
+    ConcurrencyLimiter createLimiter(Properties properties, Executor workerExecutor) {
+
+        var poolSize = readConfigInt(properties, POOL_SIZE_KEY, DEFAULT_POOL_SIZE);
+        var queueSize = readConfigInt(properties, POOL_QUEUE_KEY, DEFAULT_QUEUE_SIZE);
+
+        if (poolSize <= 0 || queueSize < 0) {
+
+            var message = String.format("Invalid pool settings: %s = %d, %s = %d",
+                    POOL_SIZE_KEY, poolSize, POOL_QUEUE_KEY, queueSize);
+
+            log.error(message);
+            throw new EStartup(message);
+        }
+
+        var limiter = new ConcurrencyLimiter(workerExecutor, poolSize, queueSize);
+
+        log.info("Metadata requests will run in async mode, concurrency limit = {}, queue size = {}", poolSize, queueSize);
+
+        registerMetrics(limiter, LIMITER_MBEAN_NAME, "Request limiter");
+
+        return limiter;
+    }
+
+    private void registerMetrics(Object mbean, String mbeanName, String metricsLabel) {
+
+        try {
+            var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            mbeanServer.registerMBean(mbean, new ObjectName(mbeanName));
+        }
+        catch (JMException e) {
+
+            // Metrics are not critical, carry on without them
+            log.warn("{} metrics will not be available: {}", metricsLabel, e.getMessage());
+        }
+    }
+
+    private void unregisterMetrics(String mbeanName, String metricsLabel) {
+
+        try {
+            var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            var objectName = new ObjectName(mbeanName);
+
+            if (mbeanServer.isRegistered(objectName))
+                mbeanServer.unregisterMBean(objectName);
+        }
+        catch (JMException e) {
+            log.warn("{} metrics could not be cleaned up: {}", metricsLabel, e.getMessage());
+        }
+    }
+
+    MetadataGroupCommit createGroupCommit(Properties properties, IMetadataDal dal) {
+
+        var window = readConfigInt(properties, GROUP_COMMIT_WINDOW_KEY, DEFAULT_GROUP_COMMIT_WINDOW);
+        var groupSize = readConfigInt(properties, GROUP_COMMIT_SIZE_KEY, DEFAULT_GROUP_COMMIT_SIZE);
+
+        if (window == 0)
+            return null;
+
+        if (window < 0 || groupSize <= 0) {
+
+            var message = String.format("Invalid group commit settings: %s = %d, %s = %d",
+                    GROUP_COMMIT_WINDOW_KEY, window, GROUP_COMMIT_SIZE_KEY, groupSize);
+
+            log.error(message);
+            throw new EStartup(message);
+        }
+
+        log.info("Metadata writes will use group commit, window = {} ms, max group size = {}", window, groupSize);
+
+        return new MetadataGroupCommit(dal, Duration.ofMillis(window), groupSize);
+    }
+
     ExecutorService createPrimaryExecutor(Properties properties) {
 
         // Headroom threads - these threads get used after the core pool and the overflow queue is full
@@ -17,8 +17,10 @@
 package org.finos.tracdap.svc.meta.api;
 
 import org.finos.tracdap.api.*;
+import org.finos.tracdap.common.concurrent.Flows;
 import org.finos.tracdap.common.validation.Validator;
 import org.finos.tracdap.metadata.*;
+import org.finos.tracdap.svc.meta.dal.SearchResultPage;
 import org.finos.tracdap.svc.meta.services.MetadataReadService;
 import org.finos.tracdap.svc.meta.services.MetadataSearchService;
 import org.finos.tracdap.svc.meta.services.MetadataWriteService;
@@ -30,6 +32,7 @@ import io.grpc.Status;
 
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 import static org.finos.tracdap.common.metadata.MetadataConstants.PUBLIC_WRITABLE_OBJECT_TYPES;
@@ -253,11 +256,37 @@ public class MetadataApiImpl {
         var tenant = request.getTenant();
         var searchParams = request.getSearchParams();
 
-        var searchResult = searchService.search(tenant, searchParams);
+        var pageSize = request.getPageSize();
+        var pageToken = request.hasPageToken() ? request.getPageToken() : null;
 
-        return MetadataSearchResponse.newBuilder()
-                .addAllSearchResult(searchResult)
-                .build();
+        var searchResult = searchService.search(tenant, searchParams, pageSize, pageToken);
+
+        return searchResponse(searchResult);
+    }
+
+    Flow.Publisher<MetadataSearchResponse> searchStream(MetadataSearchRequest request) {
+
+        validateRequest(SEARCH_STREAM_METHOD, request);
+
+        var tenant = request.getTenant();
+        var searchParams = request.getSearchParams();
+        var pageSize = request.getPageSize();
+        var pageToken = request.hasPageToken() ? request.getPageToken() : null;
+
+        var searchResult = searchService.searchStream(tenant, searchParams, pageSize, pageToken);
+
+        return Flows.map(searchResult, this::searchResponse);
+    }
+
+    private MetadataSearchResponse searchResponse(SearchResultPage page) {
+
+        var response = MetadataSearchResponse.newBuilder()
+                .addAllSearchResult(page.getResults());
+
+        if (page.hasNextPage())
+            response.setNextPageToken(page.getNextPageToken());
+
+        return response.build();
     }
 
     Tag getObject(MetadataGetRequest request) {
@@ -29,6 +29,8 @@ import io.grpc.MethodDescriptor;
 import io.grpc.stub.StreamObserver;
 import org.finos.tracdap.svc.meta.services.MetadataConstants;
 
+import java.util.concurrent.Executor;
+
 
 public class TracMetadataApi extends TracMetadataApiGrpc.TracMetadataApiImplBase {
 
@@ -46,6 +48,7 @@ public class TracMetadataApi extends TracMetadataApiGrpc.TracMetadataApiImplBase
     static final MethodDescriptor<MetadataReadRequest, Tag> READ_OBJECT_METHOD = TracMetadataApiGrpc.getReadObjectMethod();
     static final MethodDescriptor<MetadataBatchRequest, MetadataBatchResponse> READ_BATCH_METHOD = TracMetadataApiGrpc.getReadBatchMethod();
     static final MethodDescriptor<MetadataSearchRequest, MetadataSearchResponse> SEARCH_METHOD = TracMetadataApiGrpc.getSearchMethod();
+    static final MethodDescriptor<MetadataSearchRequest, MetadataSearchResponse> SEARCH_STREAM_METHOD = TracMetadataApiGrpc.getSearchStreamMethod();
 
     static final MethodDescriptor<MetadataGetRequest, Tag> GET_OBJECT_METHOD = TracMetadataApiGrpc.getGetObjectMethod();
     static final MethodDescriptor<MetadataGetRequest, Tag> GET_LATEST_OBJECT_METHOD = TracMetadataApiGrpc.getGetObjectMethod();
@@ -59,11 +62,20 @@ public class TracMetadataApi extends TracMetadataApiGrpc.TracMetadataApiImplBase
             MetadataWriteService writeService,
             MetadataSearchService searchService) {
 
+        this(readService, writeService, searchService, null);
+    }
+
+    public TracMetadataApi(
+            MetadataReadService readService,
+            MetadataWriteService writeService,
+            MetadataSearchService searchService,
+            Executor methodExecutor) {
+
         if (TRAC_METADATA_SERVICE == null)
             throw new EUnexpected();
 
         apiImpl = new MetadataApiImpl(TRAC_METADATA_SERVICE, readService, writeService, searchService, MetadataConstants.PUBLIC_API);
-        grpcWrap = new GrpcServerWrap();
+        grpcWrap = new GrpcServerWrap(methodExecutor);
     }
 
     @Override
@@ -138,6 +150,12 @@ public class TracMetadataApi extends TracMetadataApiGrpc.TracMetadataApiImplBase
         grpcWrap.unaryCall(request, response, apiImpl::search);
     }
 
+    @Override
+    public void searchStream(MetadataSearchRequest request, StreamObserver<MetadataSearchResponse> response) {
+
+        grpcWrap.serverStreaming(request, response, apiImpl::searchStream);
+    }
+
     @Override
     public void getObject(MetadataGetRequest request, StreamObserver<Tag> response) {
 
@@ -29,6 +29,8 @@ import io.grpc.MethodDescriptor;
 import io.grpc.stub.StreamObserver;
 import org.finos.tracdap.svc.meta.services.MetadataConstants;
 
+import java.util.concurrent.Executor;
+
 
 public class TrustedMetadataApi extends TrustedMetadataApiGrpc.TrustedMetadataApiImplBase {
 
@@ -50,11 +52,20 @@ public class TrustedMetadataApi extends TrustedMetadataApiGrpc.TrustedMetadataAp
             MetadataWriteService writeService,
             MetadataSearchService searchService) {
 
+        this(readService, writeService, searchService, null);
+    }
+
+    public TrustedMetadataApi(
+            MetadataReadService readService,
+            MetadataWriteService writeService,
+            MetadataSearchService searchService,
+            Executor methodExecutor) {
+
         if (TRUSTED_METADATA_SERVICE == null)
             throw new EUnexpected();
 
         apiImpl = new MetadataApiImpl(TRUSTED_METADATA_SERVICE, readService, writeService, searchService, MetadataConstants.TRUSTED_API);
-        grpcWrap = new GrpcServerWrap();
+        grpcWrap = new GrpcServerWrap(methodExecutor);
     }
 
     @Override
@@ -140,4 +151,10 @@ public class TrustedMetadataApi extends TrustedMetadataApiGrpc.TrustedMetadataAp
 
         grpcWrap.unaryCall(request, response, apiImpl::search);
     }
+
+    @Override
+    public void searchStream(MetadataSearchRequest request, StreamObserver<MetadataSearchResponse> response) {
+
+        grpcWrap.serverStreaming(request, response, apiImpl::searchStream);
+    }
 }
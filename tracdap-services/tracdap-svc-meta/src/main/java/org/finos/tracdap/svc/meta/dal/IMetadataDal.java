@@ -68,4 +68,15 @@ public interface IMetadataDal {
 
     List<Tag> search(String tenant, SearchParameters searchParameters);
 
+    /**
+     * Search for one page of results, most recent first.
+     *
+     * @param tenant Tenant name.
+     * @param searchParameters Search parameters.
+     * @param pageSize Maximum number of results, zero for the default page size.
+     * @param pageToken Token from the previous page, or null for the first page.
+     * @return Results for this page and a token for the next page, if there are more results.
+     */
+    SearchResultPage searchPage(String tenant, SearchParameters searchParameters, int pageSize, String pageToken);
+
 }
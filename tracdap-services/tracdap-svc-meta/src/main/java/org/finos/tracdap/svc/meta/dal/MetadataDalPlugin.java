@@ -19,11 +19,15 @@ package org.finos.tracdap.svc.meta.dal;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.db.JdbcSetup;
 import org.finos.tracdap.common.exception.EPluginNotAvailable;
+import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.plugin.PluginServiceInfo;
 import org.finos.tracdap.common.plugin.TracPlugin;
+import org.finos.tracdap.metadata.BasicType;
 import org.finos.tracdap.svc.meta.dal.jdbc.JdbcMetadataDal;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 
@@ -32,6 +36,9 @@ public class MetadataDalPlugin extends TracPlugin {
     private static final String PLUGIN_NAME = "CORE_METADATA";
 
     private static final String JDBC_METADATA_DAL = "JDBC_METADATA_DAL";
+    private static final String INLINE_KEYS_PROPERTY = "dal.inlineKeys";
+    private static final String HOT_ATTRS_PROPERTY = "dal.hotAttrs";
+    private static final String BULK_INSERT_PROPERTY = "dal.bulkInsert";
 
     private static final List<PluginServiceInfo> serviceInfo = List.of(
             new PluginServiceInfo(IMetadataDal.class, JDBC_METADATA_DAL, List.of("JDBC", "SQL")));
@@ -53,13 +60,63 @@ public class MetadataDalPlugin extends TracPlugin {
         if (JDBC_METADATA_DAL.equals(serviceName)) {
 
             var dialect = JdbcSetup.getSqlDialect(properties);
+            var inlineKeys = getBooleanProperty(properties, INLINE_KEYS_PROPERTY);
+            var bulkInsert = getBooleanProperty(properties, BULK_INSERT_PROPERTY);
+            var hotAttrs = getHotAttrs(properties);
             var datasource = JdbcSetup.createDatasource(properties);
 
-            return (T) new JdbcMetadataDal(dialect, datasource);
+            return (T) new JdbcMetadataDal(dialect, datasource, inlineKeys, hotAttrs, bulkInsert);
         }
 
         // Should never happen, protected by PluginManager
         var message = String.format("Plugin [%s] does not support the service [%s]", pluginName(), serviceName);
         throw new EPluginNotAvailable(message);
     }
+
+    private boolean getBooleanProperty(Properties properties, String propertyName) {
+
+        // Inline key lookups and bulk inserts are on by default, setting these properties to false turns them off
+
+        var value = properties.getProperty(propertyName);
+
+        if (value == null || value.isBlank())
+            return true;
+
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"))
+            return Boolean.parseBoolean(value);
+
+        var message = String.format("Invalid value for property [%s]: %s", propertyName, value);
+        throw new EStartup(message);
+    }
+
+    private Map<String, BasicType> getHotAttrs(Properties properties) {
+
+        // Hot attrs are given as a comma separated list of attr_name:TYPE, which replaces the default set
+
+        var hotAttrs = properties.getProperty(HOT_ATTRS_PROPERTY);
+
+        if (hotAttrs == null || hotAttrs.isBlank())
+            return JdbcMetadataDal.defaultHotAttrs();
+
+        var attrs = new LinkedHashMap<String, BasicType>();
+
+        for (var entry : hotAttrs.split(",")) {
+
+            var parts = entry.trim().split(":");
+            var message = String.format("Invalid value for property [%s]: %s", HOT_ATTRS_PROPERTY, entry.trim());
+
+            if (parts.length != 2 || parts[0].isBlank() || attrs.containsKey(parts[0].trim()))
+                throw new EStartup(message);
+
+            try {
+                var attrType = BasicType.valueOf(parts[1].trim().toUpperCase());
+                attrs.put(parts[0].trim(), attrType);
+            }
+            catch (IllegalArgumentException e) {
+                throw new EStartup(message, e);
+            }
+        }
+
+        return attrs;
+    }
 }
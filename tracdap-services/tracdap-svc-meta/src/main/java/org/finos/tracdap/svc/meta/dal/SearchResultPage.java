@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal;
+
+import org.finos.tracdap.metadata.Tag;
+
+import java.util.List;
+
+
+public class SearchResultPage {
+
+    private final List<Tag> results;
+    private final String nextPageToken;
+
+    public SearchResultPage(List<Tag> results, String nextPageToken) {
+        this.results = results;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<Tag> getResults() {
+        return results;
+    }
+
+    // Null when there are no more results
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal.jdbc;
+
+import org.finos.tracdap.common.exception.EInputValidation;
+import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.common.metadata.MetadataConstants;
+import org.finos.tracdap.common.metadata.TypeSystem;
+import org.finos.tracdap.metadata.BasicType;
+import org.finos.tracdap.metadata.SearchTerm;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.metadata.Value;
+import org.finos.tracdap.svc.meta.dal.jdbc.dialects.IDialect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+/**
+ * Hot attrs are commonly searched attributes that are held in typed columns on the tag table.
+ *
+ * <p>Search terms on a hot attr filter the tag table directly, instead of joining to tag_attr.
+ * The tag table has a fixed number of slot columns for each supported type, attributes are
+ * assigned to slots in the order they are configured. Values are always written to tag_attr
+ * as well, so the attrs on a tag can be read back in the normal way.</p>
+ */
+class JdbcHotAttrs {
+
+    static final Map<String, BasicType> DEFAULT_HOT_ATTRS = defaultHotAttrs();
+
+    // Longer string values are not held in hot columns, searches on those values use tag_attr
+    static final int MAX_STRING_LENGTH = 256;
+
+    private static final Map<BasicType, List<String>> SLOT_COLUMNS = Map.ofEntries(
+            Map.entry(BasicType.STRING, List.of(
+                    "hot_string_1", "hot_string_2", "hot_string_3",
+                    "hot_string_4", "hot_string_5", "hot_string_6")),
+            Map.entry(BasicType.INTEGER, List.of("hot_integer_1", "hot_integer_2")),
+            Map.entry(BasicType.DATE, List.of("hot_date_1")),
+            Map.entry(BasicType.DATETIME, List.of("hot_datetime_1", "hot_datetime_2", "hot_datetime_3")));
+
+    private static final Map<BasicType, Integer> SLOT_SQL_TYPES = Map.ofEntries(
+            Map.entry(BasicType.STRING, Types.VARCHAR),
+            Map.entry(BasicType.INTEGER, Types.BIGINT),
+            Map.entry(BasicType.DATE, Types.DATE),
+            Map.entry(BasicType.DATETIME, Types.TIMESTAMP));
+
+    // Column order is fixed, it is used for the insert statement on the tag table
+    static final List<String> ALL_COLUMNS = List.of(
+            "hot_string_1", "hot_string_2", "hot_string_3",
+            "hot_string_4", "hot_string_5", "hot_string_6",
+            "hot_integer_1", "hot_integer_2",
+            "hot_date_1",
+            "hot_datetime_1", "hot_datetime_2", "hot_datetime_3");
+
+    private static final int SINGLE_VALUED_ATTR_INDEX = -1;
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IDialect dialect;
+    private final Map<String, HotAttr> attrsByName;
+    private final Map<String, HotAttr> attrsByColumn;
+
+    JdbcHotAttrs(IDialect dialect, Map<String, BasicType> hotAttrs) {
+
+        this.dialect = dialect;
+
+        attrsByName = new HashMap<>();
+        attrsByColumn = new HashMap<>();
+
+        var nextSlot = new HashMap<BasicType, Integer>();
+
+        for (var attr : hotAttrs.entrySet()) {
+
+            var attrName = attr.getKey();
+            var attrType = attr.getValue();
+            var slots = SLOT_COLUMNS.get(attrType);
+
+            if (slots == null) {
+
+                var message = String.format(
+                        "Hot attribute [%s] has type [%s], supported types are %s",
+                        attrName, attrType, supportedTypes());
+
+                throw new EStartup(message);
+            }
+
+            var slotIndex = nextSlot.getOrDefault(attrType, 0);
+
+            if (slotIndex >= slots.size()) {
+
+                var message = String.format(
+                        "Too many hot attributes of type [%s], at most %d are allowed",
+                        attrType, slots.size());
+
+                throw new EStartup(message);
+            }
+
+            var hotAttr = new HotAttr(attrName, attrType, slots.get(slotIndex));
+            attrsByName.put(attrName, hotAttr);
+            attrsByColumn.put(hotAttr.column, hotAttr);
+
+            nextSlot.put(attrType, slotIndex + 1);
+        }
+    }
+
+    static String supportedTypes() {
+
+        return SLOT_COLUMNS.keySet().stream()
+                .map(BasicType::name)
+                .sorted()
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    Collection<HotAttr> hotAttrs() {
+        return attrsByName.values();
+    }
+
+
+    // -----------------------------------------------------------------------------------------------------------------
+    // SEARCH
+    // -----------------------------------------------------------------------------------------------------------------
+
+    HotAttr searchColumn(SearchTerm searchTerm) {
+
+        var hotAttr = attrsByName.get(searchTerm.getAttrName());
+
+        if (hotAttr == null || hotAttr.attrType != searchTerm.getAttrType())
+            return null;
+
+        switch (searchTerm.getOperator()) {
+
+            case EQ:
+                return fitsColumn(hotAttr, searchTerm.getSearchValue()) ? hotAttr : null;
+
+            case IN:
+                var items = searchTerm.getSearchValue().getArrayValue().getItemsList();
+                return items.stream().allMatch(item -> fitsColumn(hotAttr, item)) ? hotAttr : null;
+
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                // Long strings are not in the hot column, so they would be missed by string comparisons
+                return hotAttr.attrType != BasicType.STRING ? hotAttr : null;
+
+            default:
+                return null;
+        }
+    }
+
+
+    // -----------------------------------------------------------------------------------------------------------------
+    // WRITE
+    // -----------------------------------------------------------------------------------------------------------------
+
+    void setHotValues(PreparedStatement stmt, int firstIndex, Tag tag) throws SQLException {
+
+        for (var i = 0; i < ALL_COLUMNS.size(); i++) {
+
+            var pIndex = firstIndex + i;
+            var column = ALL_COLUMNS.get(i);
+            var hotAttr = attrsByColumn.get(column);
+            var attrValue = hotAttr != null ? tag.getAttrsOrDefault(hotAttr.attrName, null) : null;
+
+            if (attrValue != null && !TypeSystem.isPrimitive(attrValue)) {
+
+                // A multi-valued attr would be missed by an equality search on the hot column
+
+                var message = String.format(
+                        "Attribute [%s] is held in a search column and must have a single value",
+                        hotAttr.attrName);
+
+                throw new EInputValidation(message);
+            }
+
+            if (attrValue != null && TypeSystem.basicType(attrValue) == hotAttr.attrType && fitsColumn(hotAttr, attrValue))
+                JdbcAttrHelpers.setAttrValue(stmt, pIndex, hotAttr.attrType, attrValue);
+            else
+                stmt.setNull(pIndex, columnSqlType(column));
+        }
+    }
+
+    private boolean fitsColumn(HotAttr hotAttr, Value value) {
+
+        if (hotAttr.attrType != BasicType.STRING)
+            return true;
+
+        return MetadataCodec.decodeStringValue(value).length() <= MAX_STRING_LENGTH;
+    }
+
+    private int columnSqlType(String column) {
+
+        return SLOT_COLUMNS.entrySet().stream()
+                .filter(slots -> slots.getValue().contains(column))
+                .map(slots -> SLOT_SQL_TYPES.get(slots.getKey()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+
+    // -----------------------------------------------------------------------------------------------------------------
+    // SLOT ASSIGNMENT
+    // -----------------------------------------------------------------------------------------------------------------
+
+    void syncSlots(Connection conn) throws SQLException {
+
+        try {
+            assignSlots(conn);
+        }
+        catch (SQLException e) {
+
+            if (dialect.mapErrorCode(e) != JdbcErrorCode.INSERT_DUPLICATE)
+                throw e;
+
+            // Another instance starting at the same time saved the slot assignment first
+            // Roll back and re-read in a new transaction, so the other instance's changes are visible
+
+            conn.rollback();
+
+            checkSlots(conn);
+        }
+    }
+
+    private void assignSlots(Connection conn) throws SQLException {
+
+        // The slot assignment stored in the database tells us which columns hold valid data
+        // When a slot is assigned to a different attr, it is cleared and back-filled from tag_attr
+
+        var stored = loadSlots(conn);
+
+        for (var column : ALL_COLUMNS) {
+
+            var storedAttr = stored.get(column);
+            var hotAttr = attrsByColumn.get(column);
+
+            if (Objects.equals(storedAttr, hotAttr))
+                continue;
+
+            clearSlot(conn, column);
+
+            if (hotAttr != null) {
+                log.info("Back-filling hot attribute [{}] in column [{}]", hotAttr.attrName, column);
+                backfillSlot(conn, hotAttr);
+                saveSlot(conn, hotAttr);
+            }
+        }
+    }
+
+    private void checkSlots(Connection conn) throws SQLException {
+
+        var stored = loadSlots(conn);
+
+        for (var column : ALL_COLUMNS) {
+
+            var storedAttr = stored.get(column);
+            var hotAttr = attrsByColumn.get(column);
+
+            if (!Objects.equals(storedAttr, hotAttr)) {
+
+                var message = String.format(
+                        "Hot attribute column [%s] was assigned to [%s] by another instance, expected [%s]",
+                        column,
+                        storedAttr != null ? storedAttr.attrName : null,
+                        hotAttr != null ? hotAttr.attrName : null);
+
+                throw new EStartup(message);
+            }
+        }
+
+        log.info("Hot attribute columns were assigned by another instance");
+    }
+
+    private Map<String, HotAttr> loadSlots(Connection conn) throws SQLException {
+
+        var query = "select hot_column, attr_name, attr_type from tag_hot_attr";
+        var slots = new HashMap<String, HotAttr>();
+
+        try (var stmt = conn.prepareStatement(query); var rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+
+                var column = rs.getString(1);
+                var attrName = rs.getString(2);
+                var attrType = BasicType.valueOf(rs.getString(3));
+
+                slots.put(column, new HotAttr(attrName, attrType, column));
+            }
+        }
+
+        return slots;
+    }
+
+    private void clearSlot(Connection conn, String column) throws SQLException {
+
+        var clearColumn = String.format("update tag set %s = null", column);
+        var deleteSlot = "delete from tag_hot_attr where hot_column = ?";
+
+        try (var stmt = conn.prepareStatement(clearColumn)) {
+            stmt.executeUpdate();
+        }
+
+        try (var stmt = conn.prepareStatement(deleteSlot)) {
+            stmt.setString(1, column);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void backfillSlot(Connection conn, HotAttr hotAttr) throws SQLException {
+
+        // Values are read and written from Java so long strings are handled the same way as for new tags
+        // Multi-valued attrs are not back-filled
+
+        var query =
+                "select ta.tag_fk, ta.attr_value_%s\n" +
+                "from tag_attr ta\n" +
+                "where ta.attr_name = ?\n" +
+                "  and ta.attr_type = ?\n" +
+                "  and ta.attr_index = ?";
+
+        var update = String.format("update tag set %s = ? where tag_pk = ?", hotAttr.column);
+
+        var suffix = JdbcSearchQueryBuilder.ATTR_TYPE_COLUMN_SUFFIX.get(hotAttr.attrType);
+
+        try (var readStmt = conn.prepareStatement(String.format(query, suffix));
+             var writeStmt = conn.prepareStatement(update)) {
+
+            readStmt.setString(1, hotAttr.attrName);
+            readStmt.setString(2, hotAttr.attrType.name());
+            readStmt.setInt(3, SINGLE_VALUED_ATTR_INDEX);
+
+            var batchSize = 0;
+
+            try (var rs = readStmt.executeQuery()) {
+
+                while (rs.next()) {
+
+                    var tagPk = rs.getLong(1);
+                    var value = readSlotValue(rs, hotAttr.attrType);
+
+                    if (value == null || !fitsColumn(hotAttr, value))
+                        continue;
+
+                    JdbcAttrHelpers.setAttrValue(writeStmt, 1, hotAttr.attrType, value);
+                    writeStmt.setLong(2, tagPk);
+                    writeStmt.addBatch();
+
+                    if (++batchSize == BACKFILL_BATCH_SIZE) {
+                        writeStmt.executeBatch();
+                        batchSize = 0;
+                    }
+                }
+            }
+
+            if (batchSize > 0)
+                writeStmt.executeBatch();
+        }
+    }
+
+    private Value readSlotValue(ResultSet rs, BasicType attrType) throws SQLException {
+
+        switch (attrType) {
+
+            case STRING:
+                var stringValue = rs.getString(2);
+                return stringValue != null ? MetadataCodec.encodeValue(stringValue) : null;
+
+            case INTEGER:
+                var longValue = rs.getLong(2);
+                return !rs.wasNull() ? MetadataCodec.encodeValue(longValue) : null;
+
+            case DATE:
+                var dateValue = rs.getDate(2);
+                return dateValue != null ? MetadataCodec.encodeValue(dateValue.toLocalDate()) : null;
+
+            case DATETIME:
+                var timestampValue = rs.getTimestamp(2);
+                return timestampValue != null
+                        ? MetadataCodec.encodeValue(timestampValue.toInstant().atOffset(ZoneOffset.UTC))
+                        : null;
+
+            default:
+                return null;
+        }
+    }
+
+    private void saveSlot(Connection conn, HotAttr hotAttr) throws SQLException {
+
+        var query = "insert into tag_hot_attr (hot_column, attr_name, attr_type) values (?, ?, ?)";
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            stmt.setString(1, hotAttr.column);
+            stmt.setString(2, hotAttr.attrName);
+            stmt.setString(3, hotAttr.attrType.name());
+
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Map<String, BasicType> defaultHotAttrs() {
+
+        var defaults = new LinkedHashMap<String, BasicType>();
+        defaults.put(MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING);
+        defaults.put(MetadataConstants.TRAC_UPDATE_USER_ID, BasicType.STRING);
+        defaults.put(MetadataConstants.TRAC_CREATE_TIME, BasicType.DATETIME);
+        defaults.put(MetadataConstants.TRAC_UPDATE_TIME, BasicType.DATETIME);
+
+        return Collections.unmodifiableMap(defaults);
+    }
+
+    static class HotAttr {
+
+        final String attrName;
+        final BasicType attrType;
+        final String column;
+
+        HotAttr(String attrName, BasicType attrType, String column) {
+            this.attrName = attrName;
+            this.attrType = attrType;
+            this.column = column;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherAttr = (HotAttr) other;
+
+            return attrName.equals(otherAttr.attrName) &&
+                    attrType == otherAttr.attrType &&
+                    column.equals(otherAttr.column);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attrName, attrType, column);
+        }
+    }
+}
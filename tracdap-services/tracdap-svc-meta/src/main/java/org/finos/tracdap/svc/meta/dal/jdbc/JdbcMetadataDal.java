@@ -36,7 +36,6 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -47,24 +46,56 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
 
     private final DataSource dataSource;
 
+    private final JdbcHotAttrs hotAttrs;
     private final JdbcTenantImpl tenants;
     private final JdbcReadImpl readSingle;
     private final JdbcReadBatchImpl readBatch;
     private final JdbcWriteBatchImpl writeBatch;
     private final JdbcSearchImpl search;
+    private final JdbcSearchDiagnostics searchDiagnostics;
 
 
     public JdbcMetadataDal(JdbcDialect dialect, DataSource dataSource) {
 
+        this(dialect, dataSource, true);
+    }
+
+    public JdbcMetadataDal(JdbcDialect dialect, DataSource dataSource, boolean inlineKeys) {
+
+        this(dialect, dataSource, inlineKeys, JdbcHotAttrs.DEFAULT_HOT_ATTRS);
+    }
+
+    public JdbcMetadataDal(
+            JdbcDialect dialect, DataSource dataSource,
+            boolean inlineKeys, Map<String, BasicType> hotAttrs) {
+
+        this(dialect, dataSource, inlineKeys, hotAttrs, true);
+    }
+
+    public JdbcMetadataDal(
+            JdbcDialect dialect, DataSource dataSource,
+            boolean inlineKeys, Map<String, BasicType> hotAttrs,
+            boolean bulkInsert) {
+
         super(dialect, dataSource);
 
         this.dataSource = dataSource;
+        this.hotAttrs = new JdbcHotAttrs(this.dialect, hotAttrs);
 
         tenants = new JdbcTenantImpl();
         readSingle = new JdbcReadImpl();
-        readBatch = new JdbcReadBatchImpl(this.dialect);
-        writeBatch = new JdbcWriteBatchImpl(this.dialect, readBatch);
-        search = new JdbcSearchImpl();
+        readBatch = new JdbcReadBatchImpl(this.dialect, inlineKeys);
+        writeBatch = new JdbcWriteBatchImpl(this.dialect, readBatch, this.hotAttrs, bulkInsert);
+        search = new JdbcSearchImpl(this.dialect, this.hotAttrs);
+        searchDiagnostics = new JdbcSearchDiagnostics(this.dialect, this.hotAttrs);
+    }
+
+    public static Map<String, BasicType> defaultHotAttrs() {
+        return JdbcHotAttrs.DEFAULT_HOT_ATTRS;
+    }
+
+    JdbcHotAttrs getHotAttrs() {
+        return hotAttrs;
     }
 
     @Override
@@ -81,6 +112,32 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
 
             throw new EStartup(message, e);
         }
+
+        try {
+            // Hot attr columns must match the configured attrs before any searches are run
+            executeDirect(hotAttrs::syncSlots);
+        }
+        catch (SQLException e) {
+
+            var message = "Error preparing hot attribute columns: " + e.getMessage();
+            log.error(message, e);
+
+            throw new EStartup(message, e);
+        }
+
+        checkSearchIndexes();
+    }
+
+    private void checkSearchIndexes() {
+
+        // Diagnostics only, a failed check should not stop the service from starting
+
+        try {
+            executeDirect(searchDiagnostics::checkSearchIndexes);
+        }
+        catch (SQLException | RuntimeException e) {
+            log.warn("Search index check could not be completed: {}", e.getMessage(), e);
+        }
     }
 
     @Override
@@ -118,15 +175,20 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
             return;
         }
 
-        ensureNoRepeatedOperations(operations);
+        var mergedOperations = mergeRepeatedOperations(operations);
 
-        var parts = separateParts(operations.get(0));
+        var parts = separateParts(mergedOperations.get(0));
+
+        // Key lookups during writes are the same size as the operations
+        var mappingTable = mergedOperations.stream()
+                .anyMatch(op -> readBatch.usesMappingTable(operationSize(op)));
 
         wrapTransaction(conn -> {
-                prepareMappingTable(conn);
+                if (mappingTable)
+                    prepareMappingTable(conn);
                 var tenantId = tenants.getTenantId(conn, tenant);
 
-                for (var operation : operations) {
+                for (var operation : mergedOperations) {
                     handleOperation(conn, tenantId, operation);
                 }
             },
@@ -136,16 +198,90 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
         );
     }
 
-    private void ensureNoRepeatedOperations(List<DalWriteOperation> operations) {
-        var counts = operations.stream()
-                .map(DalWriteOperation::getClass)
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    private int operationSize(DalWriteOperation operation) {
+
+        if (operation instanceof WriteOperationWithTag)
+            return ((WriteOperationWithTag) operation).getTags().size();
+
+        if (operation instanceof PreallocateObjectId)
+            return ((PreallocateObjectId) operation).getObjectIds().size();
+
+        throw new ETracInternal("invalid DalWriteOperation");
+    }
 
-        var operationRepeated = counts.values().stream().anyMatch(cnt -> cnt > 1);
+    private List<DalWriteOperation> mergeRepeatedOperations(List<DalWriteOperation> operations) {
 
-        if (operationRepeated) {
-            throw new ETracInternal("some DAL write operation was repeated");
+        // Operations of the same type are combined, so each type is written as a single batch
+        // Grouped writes can send one operation of each type per request, for several requests at once
+        // The same object must not be written by more than one of the combined operations
+
+        var grouped = operations.stream().collect(Collectors.groupingBy(
+                DalWriteOperation::getClass,
+                LinkedHashMap::new,
+                Collectors.toList()));
+
+        var merged = new ArrayList<DalWriteOperation>(grouped.size());
+
+        for (var group : grouped.values()) {
+
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+
+            var objectIds = new HashSet<UUID>();
+
+            for (var operation : group) {
+
+                var operationIds = new HashSet<>(Arrays.asList(separateParts(operation).objectId));
+
+                if (operationIds.stream().anyMatch(objectIds::contains))
+                    throw new ETracInternal("some DAL write operation was repeated for the same object");
+
+                objectIds.addAll(operationIds);
+            }
+
+            merged.add(mergeOperations(group));
         }
+
+        return merged;
+    }
+
+    private DalWriteOperation mergeOperations(List<DalWriteOperation> operations) {
+
+        var first = operations.get(0);
+
+        if (first instanceof PreallocateObjectId) {
+
+            var objectTypes = new ArrayList<ObjectType>();
+            var objectIds = new ArrayList<UUID>();
+
+            for (var operation : operations) {
+                objectTypes.addAll(((PreallocateObjectId) operation).getObjectTypes());
+                objectIds.addAll(((PreallocateObjectId) operation).getObjectIds());
+            }
+
+            return new PreallocateObjectId(objectTypes, objectIds);
+        }
+
+        var tags = new ArrayList<Tag>();
+
+        for (var operation : operations)
+            tags.addAll(((WriteOperationWithTag) operation).getTags());
+
+        if (first instanceof SaveNewObject)
+            return new SaveNewObject(tags);
+
+        if (first instanceof SaveNewVersion)
+            return new SaveNewVersion(tags);
+
+        if (first instanceof SaveNewTag)
+            return new SaveNewTag(tags);
+
+        if (first instanceof SavePreallocatedObject)
+            return new SavePreallocatedObject(tags);
+
+        throw new ETracInternal("invalid DalWriteOperation");
     }
 
     private void handleOperation(Connection conn, short tenantId, DalWriteOperation operation) throws SQLException {
@@ -264,20 +400,53 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
         return wrapTransaction(conn -> {
 
             var tenantId = tenants.getTenantId(conn, tenant);
-            var objectType = readSingle.readObjectTypeById(conn, tenantId, parts.objectId[0]);
 
-            checkObjectType(parts, objectType);
+            if (!dialect.supportsSingleObjectQuery())
+                return loadObjectSteps(conn, tenantId, parts);
+
+            var object = readSingle.readObject(conn, tenantId, parts.objectId[0], parts.selector[0]);
+
+            // If the selector did not match, read step by step to report which part is missing
+            if (object == null)
+                return loadObjectSteps(conn, tenantId, parts);
+
+            checkObjectType(parts, object.objectType);
+
+            return buildTag(object.objectType.item, parts.objectId[0], object.definition, object.tagRecord, object.tagAttrs);
+        },
+        (error, code) -> JdbcError.loadOne_missingItem(error, code, selector),
+        (error, code) -> JdbcError.loadOne_WrongObjectType(error, code, selector));
+    }
+
+    // Step by step read of a single object, one query each for the object, definition, tag and attrs
+    // Used to report errors for selectors that do not match, also used for benchmarking the single query read
+
+    Tag loadObjectSteps(String tenant, TagSelector selector) {
+
+        var parts = selectorParts(selector);
 
-            var definition = readSingle.readDefinition(conn, tenantId, objectType.key, parts.selector[0]);
-            var tagRecord = readSingle.readTagRecord(conn, tenantId, definition.key, parts.selector[0]);
-            var tagAttrs = readSingle.readTagAttrs(conn, tenantId, tagRecord.key);
+        return wrapTransaction(conn -> {
 
-            return buildTag(objectType.item, parts.objectId[0], definition, tagRecord, tagAttrs);
+            var tenantId = tenants.getTenantId(conn, tenant);
+            return loadObjectSteps(conn, tenantId, parts);
         },
         (error, code) -> JdbcError.loadOne_missingItem(error, code, selector),
         (error, code) -> JdbcError.loadOne_WrongObjectType(error, code, selector));
     }
 
+    private Tag loadObjectSteps(Connection conn, short tenantId, ObjectParts parts) throws SQLException {
+
+        var objectType = readSingle.readObjectTypeById(conn, tenantId, parts.objectId[0]);
+
+        checkObjectType(parts, objectType);
+
+        var definition = readSingle.readDefinition(conn, tenantId, objectType.key, parts.selector[0]);
+        var tagRecord = readSingle.readTagRecord(conn, tenantId, definition.key, parts.selector[0]);
+        var tagAttrs = readSingle.readTagAttrs(conn, tenantId, tagRecord.key);
+
+        return buildTag(objectType.item, parts.objectId[0], definition, tagRecord, tagAttrs);
+    }
+
 
     // Batch loading may be used e.g. to query all items related to a job in a single query
     // This can be used both by the platform (e.g. to set up a job) and applications / UI (e.g. to display a job)
@@ -290,7 +459,8 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
 
         return wrapTransaction(conn -> {
 
-            prepareMappingTable(conn);
+            if (readBatch.usesMappingTable(selectors.size()))
+                prepareMappingTable(conn);
 
             var tenantId = tenants.getTenantId(conn, tenant);
             var objectType = readBatch.readObjectTypeById(conn, tenantId, parts.objectId);
@@ -418,18 +588,39 @@ public class JdbcMetadataDal extends JdbcBaseDal implements IMetadataDal {
     @Override public List<Tag>
     search(String tenant, SearchParameters searchParameters) {
 
-        return wrapTransaction(conn -> {
+        return searchPage(tenant, searchParameters, JdbcSearchImpl.DEFAULT_PAGE_SIZE, null).getResults();
+    }
 
-            prepareMappingTable(conn);
+    @Override public SearchResultPage
+    searchPage(String tenant, SearchParameters searchParameters, int pageSize, String pageToken) {
+
+        // Zero or unset page size means the default, large pages are capped at the maximum
+        var effectivePageSize = pageSize > 0
+                ? Math.min(pageSize, JdbcSearchImpl.MAX_PAGE_SIZE)
+                : JdbcSearchImpl.DEFAULT_PAGE_SIZE;
+
+        // Decode outside the transaction, a bad token is a validation error and not a database error
+        var pageKey = JdbcSearchImpl.decodePageToken(pageToken);
+
+        return wrapTransaction(conn -> {
 
             var tenantId = tenants.getTenantId(conn, tenant);
-            long[] tagPk = search.search(conn, tenantId, searchParameters);
+            var page = search.search(conn, tenantId, searchParameters, effectivePageSize, pageKey);
+            var tagPk = page.tagPk;
+
+            // Search results are only known after the search, set up the mapping table if it is needed
+            if (readBatch.usesMappingTable(tagPk.length))
+                prepareMappingTable(conn);
 
             var tag = readBatch.readTagWithHeader(conn, tenantId, tagPk);
 
-            return Arrays.stream(tag.items)
+            var results = Arrays.stream(tag.items)
                     .map(Tag.Builder::build)
                     .collect(Collectors.toList());
+
+            var nextPageToken = JdbcSearchImpl.encodePageToken(page.nextPageKey);
+
+            return new SearchResultPage(results, nextPageToken);
         });
     }
 
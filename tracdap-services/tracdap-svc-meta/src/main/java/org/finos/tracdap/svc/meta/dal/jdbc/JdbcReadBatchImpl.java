@@ -24,7 +24,10 @@ import org.finos.tracdap.svc.meta.dal.jdbc.dialects.IDialect;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -36,21 +39,35 @@ import java.util.concurrent.atomic.AtomicInteger;
 class JdbcReadBatchImpl {
 
     private final IDialect dialect;
+    private final boolean inlineKeys;
     private final AtomicInteger mappingStage;
 
-    JdbcReadBatchImpl(IDialect dialect) {
+    JdbcReadBatchImpl(IDialect dialect, boolean inlineKeys) {
         this.dialect = dialect;
+        this.inlineKeys = inlineKeys;
         this.mappingStage = new AtomicInteger();
     }
 
+    boolean usesMappingTable(int nKeys) {
+
+        // Inline key lists cannot be empty, the mapping table path already handles empty batches
+        if (!inlineKeys || nKeys == 0)
+            return true;
+
+        return !dialect.supportsArrayKeys() && nKeys > dialect.maxInlineKeys();
+    }
+
     JdbcBaseDal.KeyedItems<ObjectType>
     readObjectTypeById(Connection conn, short tenantId, UUID[] objectId) throws SQLException {
 
+        if (!usesMappingTable(objectId.length))
+            return readObjectTypeByIdInline(conn, tenantId, objectId);
+
         var mappingStage = insertIdForMapping(conn, objectId);
         mapObjectById(conn, tenantId, mappingStage);
 
         var query =
-                "select object_pk, object_type\n" +
+                "select object_pk, object_type, km.ordering\n" +
                 "from object_id oid\n" +
                 "join key_mapping km\n" +
                 "  on oid.object_pk = km.pk\n" +
@@ -66,34 +83,69 @@ class JdbcReadBatchImpl {
             stmt.setInt(2, mappingStage);
 
             try (var rs = stmt.executeQuery()) {
+                return readObjectTypeRows(rs, objectId.length);
+            }
+        }
+    }
 
-                var keys = new long[objectId.length];
-                var types = new ObjectType[objectId.length];
-
-                for (int i = 0; i < objectId.length; i++) {
+    private JdbcBaseDal.KeyedItems<ObjectType>
+    readObjectTypeByIdInline(Connection conn, short tenantId, UUID[] objectId) throws SQLException {
 
-                    if (!rs.next())
-                        throw new JdbcException(JdbcErrorCode.NO_DATA);
+        var keys = idKeys(objectId);
 
-                    var pk = rs.getLong(1);
-                    var objectTypeCode = rs.getString(2);
-                    var objectType = ObjectType.valueOf(objectTypeCode);
+        var query =
+                "select oid.object_pk, oid.object_type, km.ordering\n" +
+                "from " + inlineKeyTable(keys) + "\n" +
+                "join object_id oid\n" +
+                "  on oid.object_id_hi = km.id_hi\n" +
+                "  and oid.object_id_lo = km.id_lo\n" +
+                "where oid.tenant_id = ?\n" +
+                "order by km.ordering";
 
-                    keys[i] = pk;
-                    types[i] = objectType;
-                }
+        try (var stmt = conn.prepareStatement(query)) {
 
-                if (rs.next())
-                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
 
-                return new JdbcBaseDal.KeyedItems<>(keys, types);
+            try (var rs = stmt.executeQuery()) {
+                return readObjectTypeRows(rs, objectId.length);
             }
         }
     }
 
+    private JdbcBaseDal.KeyedItems<ObjectType>
+    readObjectTypeRows(ResultSet rs, int length) throws SQLException {
+
+        var keys = new long[length];
+        var types = new ObjectType[length];
+
+        for (int i = 0; i < length; i++) {
+
+            if (!rs.next())
+                throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+            checkOrdering(rs, 3, i);
+
+            var pk = rs.getLong(1);
+            var objectTypeCode = rs.getString(2);
+            var objectType = ObjectType.valueOf(objectTypeCode);
+
+            keys[i] = pk;
+            types[i] = objectType;
+        }
+
+        if (rs.next())
+            throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+
+        return new JdbcBaseDal.KeyedItems<>(keys, types);
+    }
+
     JdbcBaseDal.KeyedItems<ObjectDefinition>
     readDefinition(Connection conn, short tenantId, long[] objectFk, TagSelector[] selector) throws SQLException {
 
+        if (!usesMappingTable(objectFk.length))
+            return readDefinitionInline(conn, tenantId, objectFk, selector);
+
         var mappingStage = insertObjectSelectors(conn, objectFk, selector);
         mapObjectSelectors(conn, tenantId, mappingStage);
 
@@ -107,7 +159,7 @@ class JdbcReadBatchImpl {
             throws SQLException {
 
         var query =
-                "select definition_pk, object_version, object_timestamp, definition\n" +
+                "select definition_pk, object_version, object_timestamp, definition, km.ordering\n" +
                 "from object_definition def\n" +
                 "join key_mapping km\n" +
                 "  on def.definition_pk = km.pk\n" +
@@ -123,47 +175,88 @@ class JdbcReadBatchImpl {
             stmt.setInt(2, mappingStage);
 
             try (var rs = stmt.executeQuery()) {
+                return readDefinitionRows(rs, length);
+            }
+        }
+    }
 
-                long[] pks = new long[length];
-                int[] versions = new int[length];
-                Instant[] timestamps = new Instant[length];
-                ObjectDefinition[] defs = new ObjectDefinition[length];
+    private JdbcBaseDal.KeyedItems<ObjectDefinition>
+    readDefinitionInline(Connection conn, short tenantId, long[] objectFk, TagSelector[] selector) throws SQLException {
 
-                for (var i = 0; i < length; i++) {
+        var keys = objectSelectorKeys(objectFk, selector);
 
-                    if (!rs.next())
-                        throw new JdbcException(JdbcErrorCode.NO_DATA);
+        var query =
+                "select def.definition_pk, def.object_version, def.object_timestamp, def.definition, km.ordering\n" +
+                "from " + inlineKeyTable(keys) + "\n" +
+                "join object_definition def\n" +
+                "  on def.object_fk = km.fk\n" +
+                "  and (" +
+                "    (km.ver is not null and def.object_version = km.ver) or\n" +
+                "    (km.as_of is not null and def.object_timestamp <= km.as_of and\n" +
+                "    (def.object_superseded is null or def.object_superseded > km.as_of)) or\n" +
+                "    (km.is_latest is not null and def.object_is_latest = km.is_latest))\n" +
+                "where def.tenant_id = ?\n" +
+                "order by km.ordering";
 
-                    var defPk = rs.getLong(1);
-                    var defVersion = rs.getInt(2);
-                    var sqlTimestamp = rs.getTimestamp(3);
-                    var defTimestamp = sqlTimestamp.toInstant();
-                    var defEncoded = rs.getBytes(4);
-                    var defDecoded = ObjectDefinition.parseFrom(defEncoded);
+        try (var stmt = conn.prepareStatement(query)) {
 
-                    // TODO: Encode / decode helper, type = protobuf | json ?
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
 
-                    pks[i] = defPk;
-                    versions[i] = defVersion;
-                    timestamps[i] = defTimestamp;
-                    defs[i] = defDecoded;
-                }
+            try (var rs = stmt.executeQuery()) {
+                return readDefinitionRows(rs, objectFk.length);
+            }
+        }
+    }
 
-                if (rs.next())
-                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+    private JdbcBaseDal.KeyedItems<ObjectDefinition>
+    readDefinitionRows(ResultSet rs, int length) throws SQLException {
 
-                return new JdbcBaseDal.KeyedItems<>(pks, versions, timestamps, defs);
-            }
-            catch (InvalidProtocolBufferException e) {
-                throw new JdbcException(JdbcErrorCode.INVALID_OBJECT_DEFINITION);
+        try {
+
+            long[] pks = new long[length];
+            int[] versions = new int[length];
+            Instant[] timestamps = new Instant[length];
+            ObjectDefinition[] defs = new ObjectDefinition[length];
+
+            for (var i = 0; i < length; i++) {
+
+                if (!rs.next())
+                    throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+                checkOrdering(rs, 5, i);
+
+                var defPk = rs.getLong(1);
+                var defVersion = rs.getInt(2);
+                var sqlTimestamp = rs.getTimestamp(3);
+                var defTimestamp = sqlTimestamp.toInstant();
+                var defEncoded = rs.getBytes(4);
+                var defDecoded = ObjectDefinition.parseFrom(defEncoded);
+
+                // TODO: Encode / decode helper, type = protobuf | json ?
+
+                pks[i] = defPk;
+                versions[i] = defVersion;
+                timestamps[i] = defTimestamp;
+                defs[i] = defDecoded;
             }
 
+            if (rs.next())
+                throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+
+            return new JdbcBaseDal.KeyedItems<>(pks, versions, timestamps, defs);
+        }
+        catch (InvalidProtocolBufferException e) {
+            throw new JdbcException(JdbcErrorCode.INVALID_OBJECT_DEFINITION);
         }
     }
 
     JdbcBaseDal.KeyedItems<Tag.Builder>
     readTag(Connection conn, short tenantId, long[] definitionFk, TagSelector[] selector) throws SQLException {
 
+        if (!usesMappingTable(definitionFk.length))
+            return readTagInline(conn, tenantId, definitionFk, selector);
+
         var mappingStage = insertTagSelectors(conn, definitionFk, selector);
         mapTagSelectors(conn, tenantId, mappingStage);
 
@@ -173,9 +266,47 @@ class JdbcReadBatchImpl {
         return applyTagAttrs(tagRecords, attrs);
     }
 
+    private JdbcBaseDal.KeyedItems<Tag.Builder>
+    readTagInline(Connection conn, short tenantId, long[] definitionFk, TagSelector[] selector) throws SQLException {
+
+        var keys = tagSelectorKeys(definitionFk, selector);
+
+        var query =
+                "select tag.tag_pk, tag.tag_version, tag.tag_timestamp, km.ordering\n" +
+                "from " + inlineKeyTable(keys) + "\n" +
+                "join tag\n" +
+                "  on tag.definition_fk = km.fk\n" +
+                "  and (" +
+                "    (km.ver is not null and tag.tag_version = km.ver) or\n" +
+                "    (km.as_of is not null and tag.tag_timestamp <= km.as_of and\n" +
+                "    (tag.tag_superseded is null or tag.tag_superseded > km.as_of)) or\n" +
+                "    (km.is_latest is not null and tag.tag_is_latest = km.is_latest))\n" +
+                "where tag.tenant_id = ?\n" +
+                "order by km.ordering";
+
+        JdbcBaseDal.KeyedItems<Void> tagRecords;
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
+
+            try (var rs = stmt.executeQuery()) {
+                tagRecords = readTagRecordRows(rs, definitionFk.length);
+            }
+        }
+
+        var attrs = fetchTagAttrsInline(conn, tenantId, tagRecords.keys);
+
+        return applyTagAttrs(tagRecords, attrs);
+    }
+
     JdbcBaseDal.KeyedItems<Tag.Builder>
     readTagWithHeader(Connection conn, short tenantId, long[] tagPk) throws SQLException {
 
+        if (!usesMappingTable(tagPk.length))
+            return readTagWithHeaderInline(conn, tenantId, tagPk);
+
         var mappingStage = insertPk(conn, tagPk);
         mapDefinitionByTagPk(conn, tenantId, mappingStage);
 
@@ -186,14 +317,86 @@ class JdbcReadBatchImpl {
         return applyTagAttrs(tagRecords, partialHeaders, attrs);
     }
 
+    private JdbcBaseDal.KeyedItems<Tag.Builder>
+    readTagWithHeaderInline(Connection conn, short tenantId, long[] tagPk) throws SQLException {
+
+        // Tag records and partial headers come from a single query, joining tag to definition and object ID
+
+        var keys = pkKeys(tagPk);
+
+        var query =
+                "select\n" +
+                "  tag.tag_pk,\n" +
+                "  tag.tag_version,\n" +
+                "  tag.tag_timestamp,\n" +
+                "  def.definition_pk,\n" +
+                "  obj.object_type,\n" +
+                "  obj.object_id_hi,\n" +
+                "  obj.object_id_lo,\n" +
+                "  def.object_version,\n" +
+                "  def.object_timestamp,\n" +
+                "  km.ordering\n" +
+                "from " + inlineKeyTable(keys) + "\n" +
+                "join tag\n" +
+                "  on tag.tag_pk = km.pk\n" +
+                "join object_definition def\n" +
+                "  on def.tenant_id = tag.tenant_id\n" +
+                "  and def.definition_pk = tag.definition_fk\n" +
+                "join object_id obj\n" +
+                "  on obj.tenant_id = def.tenant_id\n" +
+                "  and obj.object_pk = def.object_fk\n" +
+                "where tag.tenant_id = ?\n" +
+                "order by km.ordering";
+
+        var length = tagPk.length;
+
+        var tagPks = new long[length];
+        var tagVersions = new int[length];
+        var tagTimestamps = new Instant[length];
+        var defPks = new long[length];
+        var headers = new TagHeader[length];
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
+
+            try (var rs = stmt.executeQuery()) {
+
+                for (var i = 0; i < length; i++) {
+
+                    if (!rs.next())
+                        throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+                    checkOrdering(rs, 10, i);
+
+                    tagPks[i] = rs.getLong(1);
+                    tagVersions[i] = rs.getInt(2);
+                    tagTimestamps[i] = rs.getTimestamp(3).toInstant();
+                    defPks[i] = rs.getLong(4);
+                    headers[i] = readHeaderColumns(rs, 5);
+                }
+
+                if (rs.next())
+                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+            }
+        }
+
+        var tagRecords = new JdbcBaseDal.KeyedItems<Void>(tagPks, tagVersions, tagTimestamps, null);
+        var partialHeaders = new JdbcBaseDal.KeyedItems<>(defPks, headers);
+        var attrs = fetchTagAttrsInline(conn, tenantId, tagPk);
+
+        return applyTagAttrs(tagRecords, partialHeaders, attrs);
+    }
+
     private JdbcBaseDal.KeyedItems<Void>
     fetchTagRecord(Connection conn, short tenantId, int length, int mappingStage) throws SQLException {
 
         // Tag records contain no attributes, we only need pks and versions
-        // Note: Common attributes may be added to the tag table as search optimisations, but do not need to be read
+        // Note: Hot attrs are also held on the tag table as a search optimisation, but do not need to be read
 
         var query =
-                "select tag.tag_pk, tag.tag_version, tag.tag_timestamp\n" +
+                "select tag.tag_pk, tag.tag_version, tag.tag_timestamp, km.ordering\n" +
                 "from tag\n" +
                 "join key_mapping km\n" +
                 "  on tag.tag_pk = km.pk\n" +
@@ -209,33 +412,40 @@ class JdbcReadBatchImpl {
             stmt.setInt(2, mappingStage);
 
             try (var rs = stmt.executeQuery()) {
+                return readTagRecordRows(rs, length);
+            }
+        }
+    }
 
-                long[] pks = new long[length];
-                int[] versions = new int[length];
-                Instant[] timestamps = new Instant[length];
+    private JdbcBaseDal.KeyedItems<Void>
+    readTagRecordRows(ResultSet rs, int length) throws SQLException {
 
-                for (var i = 0; i < length; i++) {
+        long[] pks = new long[length];
+        int[] versions = new int[length];
+        Instant[] timestamps = new Instant[length];
 
-                    if (!rs.next())
-                        throw new JdbcException(JdbcErrorCode.NO_DATA);
+        for (var i = 0; i < length; i++) {
 
-                    var tagPk = rs.getLong(1);
-                    var tagVersion = rs.getInt(2);
-                    var sqlTimestamp = rs.getTimestamp(3);
-                    var tagTimestamp = sqlTimestamp.toInstant();
+            if (!rs.next())
+                throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-                    pks[i] = tagPk;
-                    versions[i] = tagVersion;
-                    timestamps[i] = tagTimestamp;
-                }
+            checkOrdering(rs, 4, i);
 
-                if (rs.next())
-                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+            var tagPk = rs.getLong(1);
+            var tagVersion = rs.getInt(2);
+            var sqlTimestamp = rs.getTimestamp(3);
+            var tagTimestamp = sqlTimestamp.toInstant();
 
-                // Tag record requires only PK and version info
-                return new JdbcBaseDal.KeyedItems<>(pks, versions, timestamps, null);
-            }
+            pks[i] = tagPk;
+            versions[i] = tagVersion;
+            timestamps[i] = tagTimestamp;
         }
+
+        if (rs.next())
+            throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+
+        // Tag record requires only PK and version info
+        return new JdbcBaseDal.KeyedItems<>(pks, versions, timestamps, null);
     }
 
     private JdbcBaseDal.KeyedItems<TagHeader>
@@ -255,7 +465,8 @@ class JdbcReadBatchImpl {
                 "  obj.object_id_hi,\n" +
                 "  obj.object_id_lo,\n" +
                 "  def.object_version,\n" +
-                "  def.object_timestamp\n" +
+                "  def.object_timestamp,\n" +
+                "  km.ordering\n" +
                 "from key_mapping km\n" +
                 "join object_definition def\n" +
                 "  on def.definition_pk = km.fk\n" +
@@ -283,26 +494,10 @@ class JdbcReadBatchImpl {
                     if (!rs.next())
                         throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-                    var definitionPk = rs.getLong(1);
-                    var objectTypeCode = rs.getString(2);
-                    var objectIdHi = rs.getLong(3);
-                    var objectIdLo = rs.getLong(4);
-                    var objectVersion = rs.getInt(5);
-                    var sqlTimestamp = rs.getTimestamp(6);
-                    var objectTimestamp = sqlTimestamp.toInstant();
-
-                    var objectId = new UUID(objectIdHi, objectIdLo);
-                    var objectType = ObjectType.valueOf(objectTypeCode);
-
-                    var header = TagHeader.newBuilder()
-                            .setObjectType(objectType)
-                            .setObjectId(objectId.toString())
-                            .setObjectVersion(objectVersion)
-                            .setObjectTimestamp(MetadataCodec.encodeDatetime(objectTimestamp.atOffset(ZoneOffset.UTC)))
-                            .build();
-
-                    pks[i] = definitionPk;
-                    headers[i] = header;
+                    checkOrdering(rs, 7, i);
+
+                    pks[i] = rs.getLong(1);
+                    headers[i] = readHeaderColumns(rs, 2);
                 }
 
                 if (rs.next())
@@ -313,6 +508,28 @@ class JdbcReadBatchImpl {
         }
     }
 
+    private TagHeader readHeaderColumns(ResultSet rs, int firstColumn) throws SQLException {
+
+        // Expected columns: object type, object ID (hi, lo), object version and object timestamp
+
+        var objectTypeCode = rs.getString(firstColumn);
+        var objectIdHi = rs.getLong(firstColumn + 1);
+        var objectIdLo = rs.getLong(firstColumn + 2);
+        var objectVersion = rs.getInt(firstColumn + 3);
+        var sqlTimestamp = rs.getTimestamp(firstColumn + 4);
+        var objectTimestamp = sqlTimestamp.toInstant();
+
+        var objectId = new UUID(objectIdHi, objectIdLo);
+        var objectType = ObjectType.valueOf(objectTypeCode);
+
+        return TagHeader.newBuilder()
+                .setObjectType(objectType)
+                .setObjectId(objectId.toString())
+                .setObjectVersion(objectVersion)
+                .setObjectTimestamp(MetadataCodec.encodeDatetime(objectTimestamp.atOffset(ZoneOffset.UTC)))
+                .build();
+    }
+
     private Map<String, Value>[]
     fetchTagAttrs(Connection conn, short tenantId, int nTags, int mappingStage) throws SQLException {
 
@@ -338,83 +555,112 @@ class JdbcReadBatchImpl {
             stmt.setInt(2, mappingStage);
 
             try (var rs = stmt.executeQuery()) {
+                return readTagAttrRows(rs, nTags);
+            }
+        }
+    }
 
-                @SuppressWarnings("unchecked")
-                var result = (Map<String, Value>[]) new HashMap[nTags];
-
-                // Start by storing attrs for tag index = 0
-                var currentTagAttrs = new HashMap<String, Value>();
-                var currentTagIndex = 0;
+    private Map<String, Value>[]
+    fetchTagAttrsInline(Connection conn, short tenantId, long[] tagPk) throws SQLException {
 
-                var currentAttrArray = new ArrayList<Value>();
-                var currentAttrName = "";
+        var keys = pkKeys(tagPk);
 
-                while (rs.next()) {
+        var query =
+                "select ta.*, km.ordering as tag_index\n" +
+                "from " + inlineKeyTable(keys) + "\n" +
+                "join tag_attr ta\n" +
+                "  on ta.tag_fk = km.pk\n" +
+                "where ta.tenant_id = ?\n" +
+                "order by km.ordering, ta.attr_name, ta.attr_index";
 
-                    var tagIndex = rs.getInt("tag_index");
-                    var attrName = rs.getString("attr_name");
-                    var attrIndex = rs.getInt("attr_index");
-                    var attrValue = JdbcAttrHelpers.readAttrValue(rs);
+        try (var stmt = conn.prepareStatement(query)) {
 
-                    // Check to see if we have finished processing a multi-valued attr
-                    // If so, record it against the last tag and attr name before moving on
-                    if (!currentAttrArray.isEmpty()) {
-                        if (tagIndex != currentTagIndex || !attrName.equals(currentAttrName)) {
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
 
-                            var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
-                            currentTagAttrs.put(currentAttrName, arrayValue);
+            try (var rs = stmt.executeQuery()) {
+                return readTagAttrRows(rs, tagPk.length);
+            }
+        }
+    }
 
-                            currentAttrArray = new ArrayList<>();
-                        }
-                    }
+    private Map<String, Value>[]
+    readTagAttrRows(ResultSet rs, int nTags) throws SQLException {
 
-                    // Check if the current tag index has moved on
-                    // If so store accumulated attrs for the previous index
-                    while (currentTagIndex != tagIndex) {
+        @SuppressWarnings("unchecked")
+        var result = (Map<String, Value>[]) new HashMap[nTags];
 
-                        result[currentTagIndex] = currentTagAttrs;
+        // Start by storing attrs for tag index = 0
+        var currentTagAttrs = new HashMap<String, Value>();
+        var currentTagIndex = 0;
 
-                        currentTagAttrs = new HashMap<>();
-                        currentTagIndex++;
-                    }
+        var currentAttrArray = new ArrayList<Value>();
+        var currentAttrName = "";
 
-                    // Sanity check - should never happen
-                    if (currentTagIndex >= nTags)
-                        throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+        while (rs.next()) {
 
-                    // Update current attr name
-                    currentAttrName = attrName;
+            var tagIndex = rs.getInt("tag_index");
+            var attrName = rs.getString("attr_name");
+            var attrIndex = rs.getInt("attr_index");
+            var attrValue = JdbcAttrHelpers.readAttrValue(rs);
 
-                    // Accumulate attr against the current tag index
-                    if (attrIndex < 0)
-                        currentTagAttrs.put(attrName, attrValue);
-                    else
-                        currentAttrArray.add(attrValue);
-                }
+            // Check to see if we have finished processing a multi-valued attr
+            // If so, record it against the last tag and attr name before moving on
+            if (!currentAttrArray.isEmpty()) {
+                if (tagIndex != currentTagIndex || !attrName.equals(currentAttrName)) {
 
-                // Check in case the last attr record was part of a multi-valued attr
-                if (!currentAttrArray.isEmpty()) {
                     var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
                     currentTagAttrs.put(currentAttrName, arrayValue);
-                }
 
-                // Store accumulated attrs for the final tag index
-                if (nTags > 0) {
-                    result[currentTagIndex] = currentTagAttrs;
-                    currentTagIndex++;
+                    currentAttrArray = new ArrayList<>();
                 }
+            }
 
-                // In the case where some tags have no attrs
-                // Ensure an empty map is created for those tags
-                while (currentTagIndex < nTags) {
+            // Check if the current tag index has moved on
+            // If so store accumulated attrs for the previous index
+            while (currentTagIndex != tagIndex) {
 
-                    result[currentTagIndex] = new HashMap<>();
-                    currentTagIndex++;
-                }
+                result[currentTagIndex] = currentTagAttrs;
 
-                return result;
+                currentTagAttrs = new HashMap<>();
+                currentTagIndex++;
             }
+
+            // Sanity check - should never happen
+            if (currentTagIndex >= nTags)
+                throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+
+            // Update current attr name
+            currentAttrName = attrName;
+
+            // Accumulate attr against the current tag index
+            if (attrIndex < 0)
+                currentTagAttrs.put(attrName, attrValue);
+            else
+                currentAttrArray.add(attrValue);
+        }
+
+        // Check in case the last attr record was part of a multi-valued attr
+        if (!currentAttrArray.isEmpty()) {
+            var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
+            currentTagAttrs.put(currentAttrName, arrayValue);
+        }
+
+        // Store accumulated attrs for the final tag index
+        if (nTags > 0) {
+            result[currentTagIndex] = currentTagAttrs;
+            currentTagIndex++;
+        }
+
+        // In the case where some tags have no attrs
+        // Ensure an empty map is created for those tags
+        while (currentTagIndex < nTags) {
+
+            result[currentTagIndex] = new HashMap<>();
+            currentTagIndex++;
         }
+
+        return result;
     }
 
     private JdbcBaseDal.KeyedItems<Tag.Builder>
@@ -462,6 +708,9 @@ class JdbcReadBatchImpl {
 
     long[] lookupObjectPks(Connection conn, short tenantId, UUID[] objectIds) throws SQLException {
 
+        if (!usesMappingTable(objectIds.length))
+            return readObjectTypeByIdInline(conn, tenantId, objectIds).keys;
+
         var mappingStage = insertIdForMapping(conn, objectIds);
         mapObjectById(conn, tenantId, mappingStage);
 
@@ -470,6 +719,22 @@ class JdbcReadBatchImpl {
 
     long[] lookupDefinitionPk(Connection conn, short tenantId, long[] objectPk, int[] version) throws SQLException {
 
+        if (!usesMappingTable(objectPk.length)) {
+
+            var keys = fkAndVersionKeys(objectPk, version);
+
+            var query =
+                    "select def.definition_pk, km.ordering\n" +
+                    "from " + inlineKeyTable(keys) + "\n" +
+                    "join object_definition def\n" +
+                    "  on def.object_fk = km.fk\n" +
+                    "  and def.object_version = km.ver\n" +
+                    "where def.tenant_id = ?\n" +
+                    "order by km.ordering";
+
+            return lookupPkInline(conn, tenantId, query, keys);
+        }
+
         var mappingStage = insertFkAndVersionForMapping(conn, objectPk, version);
         mapDefinitionByVersion(conn, tenantId, mappingStage);
 
@@ -478,6 +743,22 @@ class JdbcReadBatchImpl {
 
     long[] lookupTagPk(Connection conn, short tenantId, long[] definitionPk, int[] tagVersion) throws SQLException {
 
+        if (!usesMappingTable(definitionPk.length)) {
+
+            var keys = fkAndVersionKeys(definitionPk, tagVersion);
+
+            var query =
+                    "select tag.tag_pk, km.ordering\n" +
+                    "from " + inlineKeyTable(keys) + "\n" +
+                    "join tag\n" +
+                    "  on tag.definition_fk = km.fk\n" +
+                    "  and tag.tag_version = km.ver\n" +
+                    "where tag.tenant_id = ?\n" +
+                    "order by km.ordering";
+
+            return lookupPkInline(conn, tenantId, query, keys);
+        }
+
         var mappingStage = insertFkAndVersionForMapping(conn, definitionPk, tagVersion);
         mapTagByVersion(conn, tenantId, mappingStage);
 
@@ -487,7 +768,7 @@ class JdbcReadBatchImpl {
     private long[] fetchMappedPk(Connection conn, int mappingStage, int length) throws SQLException {
 
         var query =
-                "select pk from key_mapping\n" +
+                "select pk, ordering from key_mapping\n" +
                 "where mapping_stage = ?\n" +
                 "order by ordering";
 
@@ -498,28 +779,289 @@ class JdbcReadBatchImpl {
             stmt.setInt(1, mappingStage);
 
             try (var rs = stmt.executeQuery()) {
+                return readPkRows(rs, length);
+            }
+        }
+    }
 
-                long[] keys = new long[length];
+    private long[] lookupPkInline(Connection conn, short tenantId, String query, InlineKeys keys) throws SQLException {
 
-                for (int i = 0; i < length; i++) {
+        try (var stmt = conn.prepareStatement(query)) {
 
-                    if (!rs.next())
-                        throw new JdbcException(JdbcErrorCode.NO_DATA);
+            var pIndex = bindInlineKeys(conn, stmt, keys);
+            stmt.setShort(pIndex, tenantId);
 
-                    keys[i] = rs.getLong(1);
+            try (var rs = stmt.executeQuery()) {
+                return readPkRows(rs, keys.length);
+            }
+        }
+    }
 
-                    if (rs.wasNull())
-                        throw new JdbcException(JdbcErrorCode.NO_DATA);
-                }
+    private long[] readPkRows(ResultSet rs, int length) throws SQLException {
 
-                if (rs.next())
-                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+        long[] keys = new long[length];
+
+        for (int i = 0; i < length; i++) {
+
+            if (!rs.next())
+                throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+            keys[i] = rs.getLong(1);
+
+            if (rs.wasNull())
+                throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+            checkOrdering(rs, 2, i);
+        }
+
+        if (rs.next())
+            throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+
+        return keys;
+    }
+
+
+    // -----------------------------------------------------------------------------------------------------------------
+    // INLINE KEY FUNCTIONS
+    // -----------------------------------------------------------------------------------------------------------------
+
+    // For batches up to the dialect limit, keys are sent with the query itself and joined as a derived table "km"
+    // This avoids the insert / update round trips on the mapping table, which are costly for small reads
+    // Dialects with array support bind one array per key column and unnest them, so the SQL does not depend on size
+    // Other dialects use a list of inline rows, joined with union all
+
+    // The derived table has the same column names as key_mapping, ordering is the zero-based index of each key
+    // Every query orders by km.ordering, so a missing or duplicate match shows up as a gap in the ordering
+
+    private String inlineKeyTable(InlineKeys keys) {
+
+        if (dialect.supportsArrayKeys()) {
+
+            var arrays = new StringJoiner(", ");
+
+            for (var type : keys.types)
+                arrays.add("cast(? as " + dialect.keyTypeName(type) + "[])");
+
+            var columns = String.join(", ", keys.columns);
+
+            return "(\n" +
+                    "  select ka.*, ka.key_index - 1 as ordering\n" +
+                    "  from unnest(" + arrays + ")\n" +
+                    "  with ordinality as ka (" + columns + ", key_index)\n" +
+                    ") km";
+        }
+
+        var table = new StringBuilder("(\n");
+
+        for (var row = 0; row < keys.length; row++) {
+
+            table.append(row == 0 ? "  select " : "  union all select ");
+
+            for (var col = 0; col < keys.columns.length; col++) {
+
+                table.append("cast(? as ").append(dialect.keyTypeName(keys.types[col])).append(")");
+
+                if (row == 0)
+                    table.append(" as ").append(keys.columns[col]);
+
+                table.append(", ");
+            }
 
-                return keys;
+            table.append(row);
+
+            if (row == 0)
+                table.append(" as ordering");
+
+            table.append("\n");
+        }
+
+        table.append(") km");
+
+        return table.toString();
+    }
+
+    private int bindInlineKeys(Connection conn, PreparedStatement stmt, InlineKeys keys) throws SQLException {
+
+        var pIndex = 1;
+
+        if (dialect.supportsArrayKeys()) {
+
+            for (var col = 0; col < keys.columns.length; col++) {
+
+                var typeName = dialect.keyTypeName(keys.types[col]);
+                var array = conn.createArrayOf(typeName, keys.values[col]);
+
+                stmt.setArray(pIndex++, array);
+            }
+
+            return pIndex;
+        }
+
+        for (var row = 0; row < keys.length; row++) {
+            for (var col = 0; col < keys.columns.length; col++) {
+
+                var value = keys.values[col][row];
+
+                if (value != null)
+                    stmt.setObject(pIndex++, value, keys.types[col]);
+                else
+                    stmt.setNull(pIndex++, keys.types[col]);
             }
         }
+
+        return pIndex;
     }
 
+    private void checkOrdering(ResultSet rs, int column, int index) throws SQLException {
+
+        var ordering = rs.getLong(column);
+
+        // Ordering ahead of the row index means a key was not matched
+        // Ordering behind the row index means a key was matched more than once
+
+        if (ordering > index)
+            throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+        if (ordering < index)
+            throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+    }
+
+    private InlineKeys pkKeys(long[] pks) {
+
+        var pk = new Long[pks.length];
+
+        for (var i = 0; i < pks.length; i++)
+            pk[i] = pks[i];
+
+        return new InlineKeys(
+                new String[] {"pk"},
+                new int[] {Types.BIGINT},
+                new Object[][] {pk});
+    }
+
+    private InlineKeys idKeys(UUID[] ids) {
+
+        var idHi = new Long[ids.length];
+        var idLo = new Long[ids.length];
+
+        for (var i = 0; i < ids.length; i++) {
+            idHi[i] = ids[i].getMostSignificantBits();
+            idLo[i] = ids[i].getLeastSignificantBits();
+        }
+
+        return new InlineKeys(
+                new String[] {"id_hi", "id_lo"},
+                new int[] {Types.BIGINT, Types.BIGINT},
+                new Object[][] {idHi, idLo});
+    }
+
+    private InlineKeys fkAndVersionKeys(long[] fks, int[] versions) {
+
+        var fk = new Long[fks.length];
+        var ver = new Integer[fks.length];
+
+        for (var i = 0; i < fks.length; i++) {
+            fk[i] = fks[i];
+            ver[i] = versions[i];
+        }
+
+        return new InlineKeys(
+                new String[] {"fk", "ver"},
+                new int[] {Types.BIGINT, Types.INTEGER},
+                new Object[][] {fk, ver});
+    }
+
+    private InlineKeys objectSelectorKeys(long[] objectFk, TagSelector[] selector) {
+
+        var ver = new Integer[objectFk.length];
+        var asOf = new Timestamp[objectFk.length];
+        var isLatest = new Boolean[objectFk.length];
+
+        for (var i = 0; i < objectFk.length; i++) {
+
+            switch (selector[i].getObjectCriteriaCase()) {
+
+                case OBJECTVERSION:
+                    ver[i] = selector[i].getObjectVersion();
+                    break;
+
+                case OBJECTASOF:
+                    var objectAsOf = MetadataCodec.decodeDatetime(selector[i].getObjectAsOf()).toInstant();
+                    asOf[i] = Timestamp.from(objectAsOf);
+                    break;
+
+                case LATESTOBJECT:
+                    isLatest[i] = true;
+                    break;
+
+                default:
+                    throw new EValidationGap("Object criteria not set in selector");
+            }
+        }
+
+        return selectorKeys(objectFk, ver, asOf, isLatest);
+    }
+
+    private InlineKeys tagSelectorKeys(long[] definitionFk, TagSelector[] selector) {
+
+        var ver = new Integer[definitionFk.length];
+        var asOf = new Timestamp[definitionFk.length];
+        var isLatest = new Boolean[definitionFk.length];
+
+        for (var i = 0; i < definitionFk.length; i++) {
+
+            switch (selector[i].getTagCriteriaCase()) {
+
+                case TAGVERSION:
+                    ver[i] = selector[i].getTagVersion();
+                    break;
+
+                case TAGASOF:
+                    var tagAsOf = MetadataCodec.decodeDatetime(selector[i].getTagAsOf()).toInstant();
+                    asOf[i] = Timestamp.from(tagAsOf);
+                    break;
+
+                case LATESTTAG:
+                    isLatest[i] = true;
+                    break;
+
+                default:
+                    throw new EValidationGap("Tag criteria not set in selector");
+            }
+        }
+
+        return selectorKeys(definitionFk, ver, asOf, isLatest);
+    }
+
+    private InlineKeys selectorKeys(long[] fks, Integer[] ver, Timestamp[] asOf, Boolean[] isLatest) {
+
+        var fk = new Long[fks.length];
+
+        for (var i = 0; i < fks.length; i++)
+            fk[i] = fks[i];
+
+        return new InlineKeys(
+                new String[] {"fk", "ver", "as_of", "is_latest"},
+                new int[] {Types.BIGINT, Types.INTEGER, Types.TIMESTAMP, Types.BOOLEAN},
+                new Object[][] {fk, ver, asOf, isLatest});
+    }
+
+    private static class InlineKeys {
+
+        final String[] columns;
+        final int[] types;
+        final Object[][] values;  // values[column][row]
+        final int length;
+
+        InlineKeys(String[] columns, int[] types, Object[][] values) {
+            this.columns = columns;
+            this.types = types;
+            this.values = values;
+            this.length = values[0].length;
+        }
+    }
+
+
 
     // -----------------------------------------------------------------------------------------------------------------
     // KEY MAPPING FUNCTIONS
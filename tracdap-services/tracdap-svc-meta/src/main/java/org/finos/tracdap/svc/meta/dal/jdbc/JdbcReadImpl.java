@@ -24,6 +24,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.*;
@@ -31,6 +32,242 @@ import java.util.*;
 
 class JdbcReadImpl {
 
+    private static final int RECORD_ROW = 0;
+    private static final int ATTR_ROW = 1;
+
+    // Columns for the object, definition and tag records, shared by both parts of the single object query
+    private static final String OBJECT_RECORD_COLUMNS =
+            "  oid.object_pk,\n" +
+            "  oid.object_type,\n" +
+            "  def.definition_pk,\n" +
+            "  def.object_version,\n" +
+            "  def.object_timestamp,\n" +
+            "  tag.tag_pk,\n" +
+            "  tag.tag_version,\n" +
+            "  tag.tag_timestamp,\n";
+
+    private static final String OBJECT_RECORD_JOINS =
+            "from object_id oid\n" +
+            "join object_definition def\n" +
+            "  on def.tenant_id = oid.tenant_id\n" +
+            "  and def.object_fk = oid.object_pk\n" +
+            "  and ${OBJECT_CRITERIA}\n" +
+            "join tag\n" +
+            "  on tag.tenant_id = def.tenant_id\n" +
+            "  and tag.definition_fk = def.definition_pk\n" +
+            "  and ${TAG_CRITERIA}\n";
+
+    private static final String OBJECT_ID_FILTER =
+            "where oid.tenant_id = ?\n" +
+            "  and oid.object_id_hi = ?\n" +
+            "  and oid.object_id_lo = ?\n";
+
+    private static final String SINGLE_OBJECT_QUERY =
+            "select\n" +
+            "  " + RECORD_ROW + " as row_kind,\n" +
+            OBJECT_RECORD_COLUMNS +
+            "  def.definition,\n" +
+            "  null as attr_name,\n" +
+            "  null as attr_index,\n" +
+            "  null as attr_type,\n" +
+            "  null as attr_value_boolean,\n" +
+            "  null as attr_value_integer,\n" +
+            "  null as attr_value_float,\n" +
+            "  null as attr_value_string,\n" +
+            "  null as attr_value_decimal,\n" +
+            "  null as attr_value_date,\n" +
+            "  null as attr_value_datetime\n" +
+            OBJECT_RECORD_JOINS +
+            OBJECT_ID_FILTER +
+            "union all\n" +
+            "select\n" +
+            "  " + ATTR_ROW + " as row_kind,\n" +
+            OBJECT_RECORD_COLUMNS +
+            "  null,\n" +
+            "  ta.attr_name,\n" +
+            "  ta.attr_index,\n" +
+            "  ta.attr_type,\n" +
+            "  ta.attr_value_boolean,\n" +
+            "  ta.attr_value_integer,\n" +
+            "  ta.attr_value_float,\n" +
+            "  ta.attr_value_string,\n" +
+            "  ta.attr_value_decimal,\n" +
+            "  ta.attr_value_date,\n" +
+            "  ta.attr_value_datetime\n" +
+            OBJECT_RECORD_JOINS +
+            "join tag_attr ta\n" +
+            "  on ta.tenant_id = tag.tenant_id\n" +
+            "  and ta.tag_fk = tag.tag_pk\n" +
+            OBJECT_ID_FILTER +
+            "order by row_kind, attr_name, attr_index";
+
+    static class SingleObject {
+
+        final KeyedItem<ObjectType> objectType;
+        final KeyedItem<ObjectDefinition> definition;
+        final KeyedItem<Void> tagRecord;
+        final Map<String, Value> tagAttrs;
+
+        SingleObject(
+                KeyedItem<ObjectType> objectType,
+                KeyedItem<ObjectDefinition> definition,
+                KeyedItem<Void> tagRecord,
+                Map<String, Value> tagAttrs) {
+
+            this.objectType = objectType;
+            this.definition = definition;
+            this.tagRecord = tagRecord;
+            this.tagAttrs = tagAttrs;
+        }
+    }
+
+    SingleObject
+    readObject(Connection conn, short tenantId, UUID objectId, TagSelector selector) throws SQLException {
+
+        // Resolve the selector and read the object, definition, tag and attrs in a single round trip
+        // The first row holds the object, definition and tag records, the remaining rows hold the attrs
+        // The definition is only sent once, in the first row
+
+        // If the selector does not match, null is returned
+        // Callers can use the step by step read functions to find which part of the selector is missing
+
+        var objectCriteria = objectCriteria(selector);
+        var tagCriteria = tagCriteria(selector);
+
+        var query = SINGLE_OBJECT_QUERY
+                .replace("${OBJECT_CRITERIA}", objectCriteria)
+                .replace("${TAG_CRITERIA}", tagCriteria);
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            // Parameters for both parts of the union are the same
+            var pIndex = bindSingleObjectParams(stmt, 1, tenantId, objectId, selector);
+            bindSingleObjectParams(stmt, pIndex, tenantId, objectId, selector);
+
+            try (var rs = stmt.executeQuery()) {
+
+                if (!rs.next())
+                    return null;
+
+                // Sanity check - attr rows cannot be returned without the record row
+                if (rs.getInt(1) != RECORD_ROW)
+                    throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+                var objectPk = rs.getLong(2);
+                var objectType = ObjectType.valueOf(rs.getString(3));
+                var defPk = rs.getLong(4);
+                var objectVersion = rs.getInt(5);
+                var objectTimestamp = rs.getTimestamp(6).toInstant();
+                var tagPk = rs.getLong(7);
+                var tagVersion = rs.getInt(8);
+                var tagTimestamp = rs.getTimestamp(9).toInstant();
+                var defDecoded = ObjectDefinition.parseFrom(rs.getBytes(10));
+
+                // Any further record rows mean the selector matched more than one definition or tag
+                var tagAttrs = readTagAttrs(rs, 1);
+
+                return new SingleObject(
+                        new KeyedItem<>(objectPk, objectType),
+                        new KeyedItem<>(defPk, objectVersion, objectTimestamp, defDecoded),
+                        new KeyedItem<>(tagPk, tagVersion, tagTimestamp, null),
+                        tagAttrs);
+            }
+            catch (InvalidProtocolBufferException e) {
+                throw new JdbcException(JdbcErrorCode.INVALID_OBJECT_DEFINITION);
+            }
+        }
+    }
+
+    private String objectCriteria(TagSelector selector) {
+
+        switch (selector.getObjectCriteriaCase()) {
+
+            case OBJECTVERSION:
+                return "def.object_version = ?";
+
+            case OBJECTASOF:
+                return "def.object_timestamp <= ? and (def.object_superseded is null or def.object_superseded > ?)";
+
+            case LATESTOBJECT:
+                return "def.object_is_latest = ?";
+
+            default:
+                throw new EValidationGap("Object version criteria not set in selector");
+        }
+    }
+
+    private String tagCriteria(TagSelector selector) {
+
+        switch (selector.getTagCriteriaCase()) {
+
+            case TAGVERSION:
+                return "tag.tag_version = ?";
+
+            case TAGASOF:
+                return "tag.tag_timestamp <= ? and (tag.tag_superseded is null or tag.tag_superseded > ?)";
+
+            case LATESTTAG:
+                return "tag.tag_is_latest = ?";
+
+            default:
+                throw new EValidationGap("Tag version criteria not set in selector");
+        }
+    }
+
+    private int bindSingleObjectParams(
+            PreparedStatement stmt, int pIndex,
+            short tenantId, UUID objectId, TagSelector selector)
+            throws SQLException {
+
+        switch (selector.getObjectCriteriaCase()) {
+
+            case OBJECTVERSION:
+                stmt.setInt(pIndex++, selector.getObjectVersion());
+                break;
+
+            case OBJECTASOF:
+                var objectAsOf = MetadataCodec.decodeDatetime(selector.getObjectAsOf()).toInstant();
+                var sqlObjectAsOf = java.sql.Timestamp.from(objectAsOf);
+                stmt.setTimestamp(pIndex++, sqlObjectAsOf);
+                stmt.setTimestamp(pIndex++, sqlObjectAsOf);
+                break;
+
+            case LATESTOBJECT:
+                stmt.setBoolean(pIndex++, true);
+                break;
+
+            default:
+                throw new EValidationGap("Object version criteria not set in selector");
+        }
+
+        switch (selector.getTagCriteriaCase()) {
+
+            case TAGVERSION:
+                stmt.setInt(pIndex++, selector.getTagVersion());
+                break;
+
+            case TAGASOF:
+                var tagAsOf = MetadataCodec.decodeDatetime(selector.getTagAsOf()).toInstant();
+                var sqlTagAsOf = java.sql.Timestamp.from(tagAsOf);
+                stmt.setTimestamp(pIndex++, sqlTagAsOf);
+                stmt.setTimestamp(pIndex++, sqlTagAsOf);
+                break;
+
+            case LATESTTAG:
+                stmt.setBoolean(pIndex++, true);
+                break;
+
+            default:
+                throw new EValidationGap("Tag version criteria not set in selector");
+        }
+
+        stmt.setShort(pIndex++, tenantId);
+        stmt.setLong(pIndex++, objectId.getMostSignificantBits());
+        stmt.setLong(pIndex++, objectId.getLeastSignificantBits());
+
+        return pIndex;
+    }
+
     KeyedItem<ObjectType>
     readObjectTypeById(Connection conn, short tenantId, UUID objectId) throws SQLException {
 
@@ -305,46 +542,56 @@ class JdbcReadImpl {
             stmt.setLong(2, tagPk);
 
             try (var rs = stmt.executeQuery()) {
+                return readTagAttrs(rs, 0);
+            }
+        }
+    }
 
-                var attrs = new HashMap<String, Value>();
-
-                var currentAttrArray = new ArrayList<Value>();
-                var currentAttrName = "";
+    private Map<String, Value>
+    readTagAttrs(ResultSet rs, int rowKindColumn) throws SQLException {
 
-                while (rs.next()) {
+        // If a row kind column is given, every remaining row must be an attr row
 
-                    var attrName = rs.getString("attr_name");
-                    var attrIndex = rs.getInt("attr_index");
-                    var attrValue = JdbcAttrHelpers.readAttrValue(rs);
+        var attrs = new HashMap<String, Value>();
 
-                    // Check to see if we have finished processing a multi-valued attr
-                    // If so, record it against the last attr name before moving on
-                    if (!currentAttrArray.isEmpty() && !attrName.equals(currentAttrName)) {
+        var currentAttrArray = new ArrayList<Value>();
+        var currentAttrName = "";
 
-                        var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
-                        attrs.put(currentAttrName, arrayValue);
+        while (rs.next()) {
 
-                        currentAttrArray = new ArrayList<>();
-                    }
+            if (rowKindColumn > 0 && rs.getInt(rowKindColumn) != ATTR_ROW)
+                throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
 
-                    // Update current attr name
-                    currentAttrName = attrName;
+            var attrName = rs.getString("attr_name");
+            var attrIndex = rs.getInt("attr_index");
+            var attrValue = JdbcAttrHelpers.readAttrValue(rs);
 
-                    // Accumulate the current attr record
-                    if (attrIndex < 0)
-                        attrs.put(attrName, attrValue);
-                    else
-                        currentAttrArray.add(attrValue);
-                }
+            // Check to see if we have finished processing a multi-valued attr
+            // If so, record it against the last attr name before moving on
+            if (!currentAttrArray.isEmpty() && !attrName.equals(currentAttrName)) {
 
-                // Check in case the last attr record was part of a multi-valued attr
-                if (!currentAttrArray.isEmpty()) {
-                    var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
-                    attrs.put(currentAttrName, arrayValue);
-                }
+                var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
+                attrs.put(currentAttrName, arrayValue);
 
-                return attrs;
+                currentAttrArray = new ArrayList<>();
             }
+
+            // Update current attr name
+            currentAttrName = attrName;
+
+            // Accumulate the current attr record
+            if (attrIndex < 0)
+                attrs.put(attrName, attrValue);
+            else
+                currentAttrArray.add(attrValue);
+        }
+
+        // Check in case the last attr record was part of a multi-valued attr
+        if (!currentAttrArray.isEmpty()) {
+            var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
+            attrs.put(currentAttrName, arrayValue);
         }
+
+        return attrs;
     }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal.jdbc;
+
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.common.metadata.TypeSystem;
+import org.finos.tracdap.metadata.*;
+import org.finos.tracdap.svc.meta.dal.jdbc.dialects.IDialect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+class JdbcSearchDiagnostics {
+
+    static final String SEARCH_INDEX_PREFIX = "idx_attr_search_";
+
+    private static final String ATTR_TABLE = "tag_attr";
+    private static final String SAMPLE_ATTR_NAME = "search_diagnostics";
+    private static final int SAMPLE_PAGE_LIMIT = 101;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IDialect dialect;
+    private final JdbcHotAttrs hotAttrs;
+    private final JdbcSearchQueryBuilder queryBuilder;
+
+    JdbcSearchDiagnostics(IDialect dialect, JdbcHotAttrs hotAttrs) {
+        this.dialect = dialect;
+        this.hotAttrs = hotAttrs;
+        this.queryBuilder = new JdbcSearchQueryBuilder(dialect, hotAttrs);
+    }
+
+    void checkSearchIndexes(Connection conn) throws SQLException {
+
+        var missing = missingIndexes(conn);
+
+        if (missing.isEmpty())
+            log.info("Search indexes are in place for all attribute types");
+        else
+            log.warn("Search indexes are missing, attribute searches may be slow: {}", String.join(", ", missing));
+
+        var plans = explainSearches(conn);
+
+        for (var plan : plans.entrySet())
+            log.debug("Search plan for [{}]:\n{}", plan.getKey(), plan.getValue());
+    }
+
+    List<String> missingIndexes(Connection conn) throws SQLException {
+
+        var metadata = conn.getMetaData();
+
+        // Unquoted identifiers are stored in upper case by some databases (H2, Oracle)
+        var tableName = metadata.storesUpperCaseIdentifiers()
+                ? ATTR_TABLE.toUpperCase()
+                : ATTR_TABLE;
+
+        var existing = new HashSet<String>();
+
+        try (var rs = metadata.getIndexInfo(conn.getCatalog(), conn.getSchema(), tableName, false, true)) {
+
+            while (rs.next()) {
+
+                var indexName = rs.getString("INDEX_NAME");
+
+                if (indexName != null)
+                    existing.add(indexName.toLowerCase());
+            }
+        }
+
+        return JdbcSearchQueryBuilder.ATTR_TYPE_COLUMN_SUFFIX.values().stream()
+                .map(suffix -> SEARCH_INDEX_PREFIX + suffix)
+                .filter(index -> !existing.contains(index))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    Map<String, String> explainSearches(Connection conn) throws SQLException {
+
+        var plans = new LinkedHashMap<String, String>();
+        var explainPrefix = dialect.explainPrefix();
+
+        if (explainPrefix == null) {
+            log.info("Search plans are not available for SQL dialect [{}]", dialect.dialectCode());
+            return plans;
+        }
+
+        // Tenant ID and attr name do not need to exist, the plans are all that is needed
+
+        for (var search : sampleSearches().entrySet()) {
+
+            var query = queryBuilder.buildSearchQuery((short) 0, search.getValue(), null, SAMPLE_PAGE_LIMIT);
+
+            try (var stmt = conn.prepareStatement(explainPrefix + query.getQuery())) {
+
+                for (int pIndex = 0; pIndex < query.getParams().size(); pIndex++)
+                    query.getParams().get(pIndex).accept(stmt, pIndex + 1);
+
+                var plan = new StringBuilder();
+
+                try (var rs = stmt.executeQuery()) {
+
+                    var nColumns = rs.getMetaData().getColumnCount();
+
+                    while (rs.next()) {
+
+                        for (var col = 1; col <= nColumns; col++) {
+                            if (col > 1) plan.append(" | ");
+                            plan.append(rs.getString(col));
+                        }
+
+                        plan.append("\n");
+                    }
+                }
+
+                plans.put(search.getKey(), plan.toString());
+            }
+        }
+
+        return plans;
+    }
+
+    private Map<String, SearchParameters> sampleSearches() {
+
+        // One equality search per attr type, plus the other operators and a compound search
+
+        var samples = new LinkedHashMap<String, SearchParameters>();
+
+        var attrTypes = JdbcSearchQueryBuilder.ATTR_TYPE_COLUMN_SUFFIX.keySet().stream()
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (var attrType : attrTypes) {
+
+            var term = searchTerm(attrType, SearchOperator.EQ, sampleValue(attrType));
+            samples.put(attrType.name() + " EQ", searchParams(term));
+        }
+
+        var inequality = searchTerm(BasicType.INTEGER, SearchOperator.GT, sampleValue(BasicType.INTEGER));
+        samples.put("INTEGER GT", searchParams(inequality));
+
+        var inValues = MetadataCodec.encodeArrayValue(List.of("value_1", "value_2"), TypeSystem.descriptor(BasicType.STRING));
+        var in = searchTerm(BasicType.STRING, SearchOperator.IN, inValues);
+        samples.put("STRING IN", searchParams(in));
+
+        var and = SearchExpression.newBuilder()
+                .setLogical(LogicalExpression.newBuilder()
+                .setOperator(LogicalOperator.AND)
+                .addExpr(searchTerm(BasicType.STRING, SearchOperator.EQ, sampleValue(BasicType.STRING)))
+                .addExpr(searchTerm(BasicType.DATETIME, SearchOperator.LT, sampleValue(BasicType.DATETIME))))
+                .build();
+
+        samples.put("STRING EQ and DATETIME LT", searchParams(and));
+
+        // Hot attrs are searched on the tag table, include one search for each configured attr
+
+        for (var hotAttr : hotAttrs.hotAttrs()) {
+
+            var hotTerm = searchTerm(hotAttr.attrName, hotAttr.attrType, SearchOperator.EQ, sampleValue(hotAttr.attrType));
+            samples.put(hotAttr.attrName + " EQ (hot attr)", searchParams(hotTerm));
+        }
+
+        return samples;
+    }
+
+    private SearchParameters searchParams(SearchExpression searchExpr) {
+
+        return SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchExpr)
+                .build();
+    }
+
+    private SearchExpression searchTerm(BasicType attrType, SearchOperator operator, Value searchValue) {
+
+        return searchTerm(SAMPLE_ATTR_NAME, attrType, operator, searchValue);
+    }
+
+    private SearchExpression searchTerm(String attrName, BasicType attrType, SearchOperator operator, Value searchValue) {
+
+        return SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                .setAttrName(attrName)
+                .setAttrType(attrType)
+                .setOperator(operator)
+                .setSearchValue(searchValue))
+                .build();
+    }
+
+    private Value sampleValue(BasicType attrType) {
+
+        switch (attrType) {
+
+            case BOOLEAN: return MetadataCodec.encodeValue(true);
+            case INTEGER: return MetadataCodec.encodeValue(42L);
+            case FLOAT: return MetadataCodec.encodeValue(Math.PI);
+            case STRING: return MetadataCodec.encodeValue("sample_value");
+            case DECIMAL: return MetadataCodec.encodeValue(new BigDecimal("1234.567"));
+            case DATE: return MetadataCodec.encodeValue(LocalDate.of(2000, 1, 1));
+            case DATETIME: return MetadataCodec.encodeValue(OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+            default: throw new ETracInternal("No sample value for search diagnostics, attr type " + attrType);
+        }
+    }
+}
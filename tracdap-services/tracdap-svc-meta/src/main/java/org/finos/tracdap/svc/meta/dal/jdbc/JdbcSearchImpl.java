@@ -17,32 +17,53 @@
 package org.finos.tracdap.svc.meta.dal.jdbc;
 
 
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.metadata.SearchParameters;
+import org.finos.tracdap.svc.meta.dal.jdbc.dialects.IDialect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Base64;
 
 class JdbcSearchImpl {
 
-    private static final int MAX_SEARCH_RESULT = 100;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String PAGE_TOKEN_VERSION = "1";
+    private static final String PAGE_TOKEN_SEPARATOR = ":";
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final JdbcSearchQueryBuilder queryBuilder = new JdbcSearchQueryBuilder();
+    private final JdbcSearchQueryBuilder queryBuilder;
+
+    JdbcSearchImpl(IDialect dialect, JdbcHotAttrs hotAttrs) {
+        queryBuilder = new JdbcSearchQueryBuilder(dialect, hotAttrs);
+    }
 
-    long[] search(Connection conn, short tenantId, SearchParameters searchParameters) throws SQLException {
+    SearchPage search(
+            Connection conn, short tenantId, SearchParameters searchParameters,
+            int pageSize, PageKey pageKey) throws SQLException {
+
+        // Ask for one extra row, to find out if there is another page without running a second query
+        var pageLimit = pageSize + 1;
 
         var query = (searchParameters.getPriorVersions() || searchParameters.getPriorTags())
-                ? queryBuilder.buildPriorSearchQuery(tenantId, searchParameters)
-                : queryBuilder.buildSearchQuery(tenantId, searchParameters);
+                ? queryBuilder.buildPriorSearchQuery(tenantId, searchParameters, pageKey, pageLimit)
+                : queryBuilder.buildSearchQuery(tenantId, searchParameters, pageKey, pageLimit);
 
         if (log.isDebugEnabled())
             log.debug("Running search query: \n{}", query.getQuery());
 
-        var pks = new long[MAX_SEARCH_RESULT];
+        var pks = new long[pageSize];
+        var timestamps = new Timestamp[pageSize];
 
         try (var stmt = conn.prepareStatement(query.getQuery())) {
 
@@ -50,19 +71,97 @@ class JdbcSearchImpl {
                 query.getParams().get(pIndex).accept(stmt, pIndex + 1);
 
             int i = 0;
+            boolean morePages = false;
 
             try (var rs = stmt.executeQuery()) {
 
-                while (rs.next() && i < MAX_SEARCH_RESULT) {
+                while (rs.next()) {
+
+                    if (i == pageSize) {
+                        morePages = true;
+                        break;
+                    }
+
                     pks[i] = rs.getLong("tag_pk");
+                    timestamps[i] = rs.getTimestamp("page_timestamp");
                     i++;
                 }
-
-                if (i < MAX_SEARCH_RESULT)
-                    return Arrays.copyOfRange(pks, 0, i);
-                else
-                    return pks;
             }
+
+            var nextPageKey = morePages
+                    ? new PageKey(timestamps[i - 1], pks[i - 1])
+                    : null;
+
+            if (i < pageSize)
+                return new SearchPage(Arrays.copyOfRange(pks, 0, i), nextPageKey);
+            else
+                return new SearchPage(pks, nextPageKey);
+        }
+    }
+
+    static class SearchPage {
+
+        final long[] tagPk;
+        final PageKey nextPageKey;
+
+        SearchPage(long[] tagPk, PageKey nextPageKey) {
+            this.tagPk = tagPk;
+            this.nextPageKey = nextPageKey;
+        }
+    }
+
+    static class PageKey {
+
+        final Timestamp timestamp;
+        final long tagPk;
+
+        PageKey(Timestamp timestamp, long tagPk) {
+            this.timestamp = timestamp;
+            this.tagPk = tagPk;
+        }
+    }
+
+    // Page tokens are opaque to clients, they hold the sort key of the last result in the previous page
+
+    static String encodePageToken(PageKey pageKey) {
+
+        if (pageKey == null)
+            return null;
+
+        var instant = pageKey.timestamp.toInstant();
+
+        var token = String.join(PAGE_TOKEN_SEPARATOR,
+                PAGE_TOKEN_VERSION,
+                Long.toString(instant.getEpochSecond()),
+                Integer.toString(instant.getNano()),
+                Long.toString(pageKey.tagPk));
+
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageKey decodePageToken(String pageToken) {
+
+        if (pageToken == null || pageToken.isEmpty())
+            return null;
+
+        try {
+
+            var token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            var parts = token.split(PAGE_TOKEN_SEPARATOR);
+
+            if (parts.length != 4 || !PAGE_TOKEN_VERSION.equals(parts[0]))
+                throw new EInputValidation("Invalid search page token");
+
+            var instant = Instant.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            var tagPk = Long.parseLong(parts[3]);
+
+            return new PageKey(Timestamp.from(instant), tagPk);
+        }
+        catch (IllegalArgumentException | DateTimeException e) {
+            // Covers bad base64 encoding and bad numbers (NumberFormatException is an IllegalArgumentException)
+            throw new EInputValidation("Invalid search page token", e);
         }
     }
 }
@@ -20,6 +20,7 @@ import org.finos.tracdap.common.exception.ETracInternal;
 import org.finos.tracdap.common.exception.EValidationGap;
 import org.finos.tracdap.metadata.*;
 import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.svc.meta.dal.jdbc.dialects.IDialect;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,12 +38,18 @@ import java.util.stream.Stream;
 class JdbcSearchQueryBuilder {
 
     private final Logger log;
+    private final IDialect dialect;
+    private final JdbcHotAttrs hotAttrs;
 
-    JdbcSearchQueryBuilder() {
-        log = LoggerFactory.getLogger(getClass());
+    JdbcSearchQueryBuilder(IDialect dialect, JdbcHotAttrs hotAttrs) {
+        this.log = LoggerFactory.getLogger(getClass());
+        this.dialect = dialect;
+        this.hotAttrs = hotAttrs;
     }
 
-    JdbcSearchQuery buildSearchQuery(short tenantId, SearchParameters searchParameters) {
+    JdbcSearchQuery buildSearchQuery(
+            short tenantId, SearchParameters searchParameters,
+            JdbcSearchImpl.PageKey pageKey, int pageLimit) {
 
         // For latest of as-of searches with no prior versions/tags considered,
         // there will only be a single result per object. So it is fine to group
@@ -51,10 +58,12 @@ class JdbcSearchQueryBuilder {
         var selectFields = "t%1$d.tag_pk";
         var groupByFields = "t%1$d.tag_pk";
 
-        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields);
+        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields, pageKey, pageLimit);
     }
 
-    JdbcSearchQuery buildPriorSearchQuery(short tenantId, SearchParameters searchParameters) {
+    JdbcSearchQuery buildPriorSearchQuery(
+            short tenantId, SearchParameters searchParameters,
+            JdbcSearchImpl.PageKey pageKey, int pageLimit) {
 
         // When prior versions/tags are considered, there can be multiple hits per object.
         // In this case we group by object FK to limit results to a single entry per object.
@@ -70,16 +79,21 @@ class JdbcSearchQueryBuilder {
         var selectFields = "max(t%1$d.tag_pk) as tag_pk";
         var groupByFields = "od%1$d.object_fk";
 
-        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields);
+        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields, pageKey, pageLimit);
     }
 
     JdbcSearchQuery buildCommonSearchQuery(
             short tenantId, SearchParameters searchParameters,
-            String selectFields, String groupByFields) {
+            String selectFields, String groupByFields,
+            JdbcSearchImpl.PageKey pageKey, int pageLimit) {
 
         // Base query template selects for tenant and object type
 
-        var baseQueryTemplate = "select SELECT_FIELDS\n" +
+        // Results are paged using the sort key (timestamp, tag PK) of the last row in the previous page
+        // Tag PK breaks ties between results with the same timestamp, so the sort order is always stable
+        // Both sort fields are aggregates, so the page condition goes in the having clause
+
+        var baseQueryTemplate = "select SELECT_FIELDS, max(t%1$d.tag_timestamp) as page_timestamp\n" +
                 "from tag t%1$d\n" +
                 // Join clause
                 "%3$s" +
@@ -87,10 +101,18 @@ class JdbcSearchQueryBuilder {
                 "  and t%1$d.object_type = ?\n" +
                 "  and %4$s\n" +
                 "group by GROUP_BY_FIELDS\n" +
-                "order by max(t%1$d.tag_timestamp) desc";
+                "HAVING_CLAUSE" +
+                "order by max(t%1$d.tag_timestamp) desc, max(t%1$d.tag_pk) desc\n" +
+                "LIMIT_CLAUSE";
+
+        var havingClause = pageKey != null
+                ? "having (max(t%1$d.tag_timestamp) < ? or (max(t%1$d.tag_timestamp) = ? and max(t%1$d.tag_pk) < ?))\n"
+                : "";
 
         baseQueryTemplate = baseQueryTemplate.replace("SELECT_FIELDS", selectFields);
         baseQueryTemplate = baseQueryTemplate.replace("GROUP_BY_FIELDS", groupByFields);
+        baseQueryTemplate = baseQueryTemplate.replace("HAVING_CLAUSE", havingClause);
+        baseQueryTemplate = baseQueryTemplate.replace("LIMIT_CLAUSE", dialect.limitClause());
 
         // Stream of params for the base query
 
@@ -111,9 +133,21 @@ class JdbcSearchQueryBuilder {
         var partsParams =  queryParts.getFragments().stream().flatMap(
                 frag -> frag.getParams().stream());
 
+        // Params for paging come after the search params, in the having and limit clauses
+
+        var pageParams = pageKey != null
+                ? Stream.of(
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pageKey.timestamp)),
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pageKey.timestamp)),
+                    wrapErrors((stmt, pIndex) -> stmt.setLong(pIndex, pageKey.tagPk)))
+                : Stream.<JdbcSearchQuery.ParamSetter>empty();
+
+        var limitParam = Stream.of(
+                wrapErrors((stmt, pIndex) -> stmt.setInt(pIndex, pageLimit)));
+
         // Combine base and sub parts to make the final query
 
-        var allParams = Stream.concat(baseParams, partsParams);
+        var allParams = Stream.of(baseParams, partsParams, pageParams, limitParam).flatMap(p -> p);
 
         return buildSearchQueryFromTemplate(baseQueryTemplate, 0, queryParts, allParams);
     }
@@ -198,6 +232,12 @@ class JdbcSearchQueryBuilder {
 
     JdbcSearchQuery buildSearchTerm(JdbcSearchQuery baseQuery, SearchTerm searchTerm) {
 
+        // Terms on hot attrs filter the tag table directly, with no join to tag_attr
+        var hotAttr = hotAttrs.searchColumn(searchTerm);
+
+        if (hotAttr != null)
+            return buildHotAttrTerm(baseQuery, searchTerm, hotAttr);
+
         switch (searchTerm.getOperator()) {
 
             case EQ:
@@ -429,6 +469,56 @@ class JdbcSearchQueryBuilder {
                 Stream.concat(Stream.of(paramNameSetter), paramValueSetters));
     }
 
+    JdbcSearchQuery buildHotAttrTerm(JdbcSearchQuery baseQuery, SearchTerm searchTerm, JdbcHotAttrs.HotAttr hotAttr) {
+
+        var queryNumber = baseQuery.getSubQueryNumber();
+        var searchOperator = SQL_INEQUALITY_OPERATORS.getOrDefault(searchTerm.getOperator(), null);
+
+        // Internal error - hot attrs are only used for operators that have a single column condition
+        if (searchOperator == null || searchTerm.getOperator() == SearchOperator.NE) {
+
+            var message = "Invalid search term (search operator not recognised for hot attrs)";
+            log.error(message);
+
+            throw new EValidationGap(message);
+        }
+
+        String whereClause;
+        List<JdbcSearchQuery.ParamSetter> params;
+
+        if (searchTerm.getOperator() == SearchOperator.IN) {
+
+            var items = searchTerm.getSearchValue().getArrayValue().getItemsList();
+            var itemPlaceholders = String.join(", ", Collections.nCopies(items.size(), "?"));
+
+            whereClause = String.format("(t%1$d.%2$s in (%3$s))", queryNumber, hotAttr.column, itemPlaceholders);
+            params = items.stream().map(item -> wrapErrors((stmt, pIndex) ->
+                    JdbcAttrHelpers.setAttrValue(stmt, pIndex, searchTerm.getAttrType(), item)))
+                    .collect(Collectors.toList());
+        }
+        else {
+
+            whereClause = String.format("(t%1$d.%2$s %3$s ?)", queryNumber, hotAttr.column, searchOperator);
+            params = List.of(wrapErrors((stmt, pIndex) ->
+                    JdbcAttrHelpers.setAttrValue(
+                    stmt, pIndex, searchTerm.getAttrType(), searchTerm.getSearchValue())));
+        }
+
+        var fragment = new JdbcSearchQuery.Fragment("", whereClause, params);
+
+        var fragments = Stream.concat(
+                baseQuery.getFragments().stream(),
+                Stream.of(fragment))
+                .collect(Collectors.toList());
+
+        // No attr join is used, but nextAttrNumber is still incremented to match regular search terms
+
+        return new JdbcSearchQuery(
+                baseQuery.getSubQueryNumber(),
+                baseQuery.getNextAttrNumber() + 1,
+                fragments);
+    }
+
     JdbcSearchQuery buildSearchTermFromTemplates(
             JdbcSearchQuery baseQuery, SearchTerm searchTerm,
             String joinTemplate, String whereTemplate,
@@ -630,7 +720,7 @@ class JdbcSearchQueryBuilder {
         };
     }
 
-    private final Map<BasicType, String> ATTR_TYPE_COLUMN_SUFFIX = Map.ofEntries(
+    static final Map<BasicType, String> ATTR_TYPE_COLUMN_SUFFIX = Map.ofEntries(
             Map.entry(BasicType.BOOLEAN, "boolean"),
             Map.entry(BasicType.INTEGER, "integer"),
             Map.entry(BasicType.FLOAT, "float"),
@@ -29,24 +29,65 @@ import java.util.*;
 
 class JdbcWriteBatchImpl {
 
+    // Large batches are written with multi-row inserts, many drivers send JDBC batches one row at a time
+    // Generated keys are not reliable for multi-row inserts across drivers, so keys are read back with a batch lookup
+    // The extra lookup costs more than it saves for small batches, which still use JDBC batches
+
+    private static final int BULK_INSERT_MIN_ROWS = 20;
+
+    // Definitions can be large, keep statements with definitions well under packet size limits (e.g. MySQL)
+    private static final int BULK_INSERT_MAX_DEFINITIONS = 100;
+
+    private static final Map<BasicType, Integer> ATTR_TYPE_PARAM = Map.ofEntries(
+            Map.entry(BasicType.BOOLEAN, 6),
+            Map.entry(BasicType.INTEGER, 7),
+            Map.entry(BasicType.FLOAT, 8),
+            Map.entry(BasicType.STRING, 9),
+            Map.entry(BasicType.DECIMAL, 10),
+            Map.entry(BasicType.DATE, 11),
+            Map.entry(BasicType.DATETIME, 12));
+
+    private static final int ATTR_COLUMNS = 12;
+
     private final IDialect dialect;
     private final JdbcReadBatchImpl readBatch;
+    private final JdbcHotAttrs hotAttrs;
+    private final boolean bulkInsert;
 
-    JdbcWriteBatchImpl(IDialect dialect, JdbcReadBatchImpl readBatch) {
+    JdbcWriteBatchImpl(IDialect dialect, JdbcReadBatchImpl readBatch, JdbcHotAttrs hotAttrs, boolean bulkInsert) {
         this.dialect = dialect;
         this.readBatch = readBatch;
+        this.hotAttrs = hotAttrs;
+        this.bulkInsert = bulkInsert;
     }
 
     long[] writeObjectId(Connection conn, short tenantId, JdbcMetadataDal.ObjectParts parts) throws SQLException {
 
-        var query =
+        var insert =
                 "insert into object_id (\n" +
                 "  tenant_id,\n" +
                 "  object_type,\n" +
                 "  object_id_hi,\n" +
                 "  object_id_lo\n" +
-                ")\n" +
-                "values (?, ?, ?, ?)";
+                ")\n";
+
+        var nColumns = 4;
+        var nRows = parts.objectId.length;
+
+        RowParams rowParams = (stmt, p, i) -> {
+
+            stmt.setShort(p + 1, tenantId);
+            stmt.setString(p + 2, parts.objectType[i].name());
+            stmt.setLong(p + 3, parts.objectId[i].getMostSignificantBits());
+            stmt.setLong(p + 4, parts.objectId[i].getLeastSignificantBits());
+        };
+
+        if (useBulkInsert(nRows, nColumns, true)) {
+            bulkInsert(conn, insert, nColumns, nRows, nRows, rowParams);
+            return readBatch.lookupObjectPks(conn, tenantId, parts.objectId);
+        }
+
+        var query = insert + "values " + rowValues(nColumns);
 
         // Only request generated key columns if the driver supports it
         var keySupport = dialect.supportsGeneratedKeys();
@@ -54,13 +95,8 @@ class JdbcWriteBatchImpl {
 
         try (var stmt = keySupport ? conn.prepareStatement(query, keyColumns) : conn.prepareStatement(query)) {
 
-            for (var i = 0; i < parts.objectId.length; i++) {
-
-                stmt.setShort(1, tenantId);
-                stmt.setString(2, parts.objectType[i].name());
-                stmt.setLong(3, parts.objectId[i].getMostSignificantBits());
-                stmt.setLong(4, parts.objectId[i].getLeastSignificantBits());
-
+            for (var i = 0; i < nRows; i++) {
+                rowParams.setRow(stmt, 0, i);
                 stmt.addBatch();
             }
 
@@ -75,7 +111,7 @@ class JdbcWriteBatchImpl {
 
     long[] writeObjectDefinition(Connection conn, short tenantId, long[] objectPk, JdbcMetadataDal.ObjectParts parts) throws SQLException {
 
-        var query =
+        var insert =
                 "insert into object_definition (\n" +
                 "  tenant_id,\n" +
                 "  object_fk,\n" +
@@ -85,32 +121,44 @@ class JdbcWriteBatchImpl {
                 "  meta_format,\n" +
                 "  meta_version,\n" +
                 "  definition" +
-                ")\n" +
-                "values (?, ?, ?, ?, ?, ?, ?, ?)";
+                ")\n";
 
-        // Only request generated key columns if the driver supports it
-        var keySupport = dialect.supportsGeneratedKeys();
-        var keyColumns = new String[] { "definition_pk" };
+        var nColumns = 8;
+        var nRows = objectPk.length;
 
-        try (var stmt = keySupport ? conn.prepareStatement(query, keyColumns) : conn.prepareStatement(query)) {
+        RowParams rowParams = (stmt, p, i) -> {
+
+            var sqlTimestamp = java.sql.Timestamp.from(parts.objectTimestamp[i]);
+
+            // Metadata format can be used to support alternate encoding, e.g. JSON
+            // Metadata version tracks breaking changes to the metadata model
+            // Currently there is no support for reading back other formats or old versions
+
+            stmt.setShort(p + 1, tenantId);
+            stmt.setLong(p + 2, objectPk[i]);
+            stmt.setInt(p + 3, parts.objectVersion[i]);
+            stmt.setTimestamp(p + 4, sqlTimestamp);
+            stmt.setBoolean(p + 5, true);
+            stmt.setInt(p + 6, MetadataFormat.PROTO.getNumber());
+            stmt.setInt(p + 7, MetadataVersion.CURRENT.getNumber());
+            stmt.setBytes(p + 8, parts.definition[i].toByteArray());
+        };
 
-            for (var i = 0; i < objectPk.length; i++) {
+        if (useBulkInsert(nRows, nColumns, true)) {
+            bulkInsert(conn, insert, nColumns, nRows, BULK_INSERT_MAX_DEFINITIONS, rowParams);
+            return readBatch.lookupDefinitionPk(conn, tenantId, objectPk, parts.objectVersion);
+        }
 
-                var sqlTimestamp = java.sql.Timestamp.from(parts.objectTimestamp[i]);
+        var query = insert + "values " + rowValues(nColumns);
 
-                // Metadata format can be used to support alternate encoding, e.g. JSON
-                // Metadata version tracks breaking changes to the metadata model
-                // Currently there is no support for reading back other formats or old versions
+        // Only request generated key columns if the driver supports it
+        var keySupport = dialect.supportsGeneratedKeys();
+        var keyColumns = new String[] { "definition_pk" };
 
-                stmt.setShort(1, tenantId);
-                stmt.setLong(2, objectPk[i]);
-                stmt.setInt(3, parts.objectVersion[i]);
-                stmt.setTimestamp(4, sqlTimestamp);
-                stmt.setBoolean(5, true);
-                stmt.setInt(6, MetadataFormat.PROTO.getNumber());
-                stmt.setInt(7, MetadataVersion.CURRENT.getNumber());
-                stmt.setBytes(8, parts.definition[i].toByteArray());
+        try (var stmt = keySupport ? conn.prepareStatement(query, keyColumns) : conn.prepareStatement(query)) {
 
+            for (var i = 0; i < nRows; i++) {
+                rowParams.setRow(stmt, 0, i);
                 stmt.addBatch();
             }
 
@@ -125,16 +173,44 @@ class JdbcWriteBatchImpl {
 
     long[] writeTagRecord(Connection conn, short tenantId, long[] definitionPk, JdbcMetadataDal.ObjectParts parts) throws SQLException {
 
-        var query =
+        // Hot attrs are written to typed columns on the tag table, as well as to tag_attr
+
+        var hotColumns = String.join(",\n  ", JdbcHotAttrs.ALL_COLUMNS);
+
+        var insert =
                 "insert into tag (\n" +
                 "  tenant_id,\n" +
                 "  definition_fk,\n" +
                 "  tag_version,\n" +
                 "  tag_timestamp,\n" +
                 "  tag_is_latest,\n" +
-                "  object_type" +
-                ")\n" +
-                "values (?, ?, ?, ?, ?, ?)";
+                "  object_type,\n" +
+                "  " + hotColumns +
+                ")\n";
+
+        var nColumns = 6 + JdbcHotAttrs.ALL_COLUMNS.size();
+        var nRows = definitionPk.length;
+
+        RowParams rowParams = (stmt, p, i) -> {
+
+            var sqlTimestamp = java.sql.Timestamp.from(parts.tagTimestamp[i]);
+
+            stmt.setShort(p + 1, tenantId);
+            stmt.setLong(p + 2, definitionPk[i]);
+            stmt.setInt(p + 3, parts.tagVersion[i]);
+            stmt.setTimestamp(p + 4, sqlTimestamp);
+            stmt.setBoolean(p + 5, true);
+            stmt.setString(p + 6, parts.objectType[i].name());
+
+            hotAttrs.setHotValues(stmt, p + 7, parts.tag[i]);
+        };
+
+        if (useBulkInsert(nRows, nColumns, true)) {
+            bulkInsert(conn, insert, nColumns, nRows, nRows, rowParams);
+            return readBatch.lookupTagPk(conn, tenantId, definitionPk, parts.tagVersion);
+        }
+
+        var query = insert + "values " + rowValues(nColumns);
 
         // Only request generated key columns if the driver supports it
         var keySupport = dialect.supportsGeneratedKeys();
@@ -142,17 +218,8 @@ class JdbcWriteBatchImpl {
 
         try (var stmt = keySupport ? conn.prepareStatement(query, keyColumns) : conn.prepareStatement(query)) {
 
-            for (var i = 0; i < definitionPk.length; i++) {
-
-                var sqlTimestamp = java.sql.Timestamp.from(parts.tagTimestamp[i]);
-
-                stmt.setShort(1, tenantId);
-                stmt.setLong(2, definitionPk[i]);
-                stmt.setInt(3, parts.tagVersion[i]);
-                stmt.setTimestamp(4, sqlTimestamp);
-                stmt.setBoolean(5, true);
-                stmt.setString(6, parts.objectType[i].name());
-
+            for (var i = 0; i < nRows; i++) {
+                rowParams.setRow(stmt, 0, i);
                 stmt.addBatch();
             }
 
@@ -167,7 +234,7 @@ class JdbcWriteBatchImpl {
 
     void writeTagAttrs(Connection conn, short tenantId, long[] tagPk, JdbcMetadataDal.ObjectParts parts) throws SQLException {
 
-        var query =
+        var insert =
                 "insert into tag_attr (\n" +
                 "  tenant_id,\n" +
                 "  tag_fk,\n" +
@@ -181,54 +248,63 @@ class JdbcWriteBatchImpl {
                 "  attr_value_decimal,\n" +
                 "  attr_value_date,\n" +
                 "  attr_value_datetime\n" +
-                ")\n" +
-                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                ")\n";
+
+        // One row per attr value, multi-valued attrs have one row for each item
 
-        try (var stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        var attrRows = new ArrayList<AttrRow>();
 
-            for (var i = 0; i < tagPk.length; i++) {
-                for (var attr : parts.tag[i].getAttrsMap().entrySet()) {
+        for (var i = 0; i < tagPk.length; i++) {
+            for (var attr : parts.tag[i].getAttrsMap().entrySet()) {
 
-                    var attrRootValue = attr.getValue();
-                    var attrType = attrBasicType(attrRootValue);
+                var attrRootValue = attr.getValue();
+                var attrType = attrBasicType(attrRootValue);
 
-                    // TODO: Constants for single / multi valued base index
-                    var attrIndex = TypeSystem.isPrimitive(attrRootValue) ? -1 : 0;
+                // TODO: Constants for single / multi valued base index
+                var attrIndex = TypeSystem.isPrimitive(attrRootValue) ? -1 : 0;
 
-                    for (var attrValue : attrValues(attrRootValue)) {
+                for (var attrValue : attrValues(attrRootValue)) {
+                    attrRows.add(new AttrRow(tagPk[i], attr.getKey(), attrType, attrIndex, attrValue));
+                    attrIndex++;
+                }
+            }
+        }
 
-                        stmt.setShort(1, tenantId);
-                        stmt.setLong(2, tagPk[i]);
-                        stmt.setString(3, attr.getKey());
-                        stmt.setString(4, attrType.name());
-                        stmt.setInt(5, attrIndex);
+        RowParams rowParams = (stmt, p, i) -> {
 
-                        stmt.setNull(6, dialect.booleanType());
-                        stmt.setNull(7, Types.BIGINT);
-                        stmt.setNull(8, Types.DOUBLE);
-                        stmt.setNull(9, Types.VARCHAR);
-                        stmt.setNull(10, Types.DECIMAL);
-                        stmt.setNull(11, Types.DATE);
-                        stmt.setNull(12, Types.TIMESTAMP);
+            var row = attrRows.get(i);
 
-                        var attrTypeToIndex = Map.ofEntries(
-                                Map.entry(BasicType.BOOLEAN, 6),
-                                Map.entry(BasicType.INTEGER, 7),
-                                Map.entry(BasicType.FLOAT, 8),
-                                Map.entry(BasicType.STRING, 9),
-                                Map.entry(BasicType.DECIMAL, 10),
-                                Map.entry(BasicType.DATE, 11),
-                                Map.entry(BasicType.DATETIME, 12)
-                        );
+            stmt.setShort(p + 1, tenantId);
+            stmt.setLong(p + 2, row.tagPk);
+            stmt.setString(p + 3, row.attrName);
+            stmt.setString(p + 4, row.attrType.name());
+            stmt.setInt(p + 5, row.attrIndex);
 
-                        var paramIndex = attrTypeToIndex.get(attrType);
-                        JdbcAttrHelpers.setAttrValue(stmt, paramIndex, attrType, attrValue);
+            stmt.setNull(p + 6, dialect.booleanType());
+            stmt.setNull(p + 7, Types.BIGINT);
+            stmt.setNull(p + 8, Types.DOUBLE);
+            stmt.setNull(p + 9, Types.VARCHAR);
+            stmt.setNull(p + 10, Types.DECIMAL);
+            stmt.setNull(p + 11, Types.DATE);
+            stmt.setNull(p + 12, Types.TIMESTAMP);
 
-                        stmt.addBatch();
+            var paramIndex = p + ATTR_TYPE_PARAM.get(row.attrType);
+            JdbcAttrHelpers.setAttrValue(stmt, paramIndex, row.attrType, row.attrValue);
+        };
 
-                        attrIndex++;
-                    }
-                }
+        // No keys are needed for tag_attr, so multi-row inserts are always used when they are available
+        if (useBulkInsert(attrRows.size(), ATTR_COLUMNS, false)) {
+            bulkInsert(conn, insert, ATTR_COLUMNS, attrRows.size(), attrRows.size(), rowParams);
+            return;
+        }
+
+        var query = insert + "values " + rowValues(ATTR_COLUMNS);
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            for (var i = 0; i < attrRows.size(); i++) {
+                rowParams.setRow(stmt, 0, i);
+                stmt.addBatch();
             }
 
             stmt.executeBatch();
@@ -319,6 +395,64 @@ class JdbcWriteBatchImpl {
         stmt.executeBatch();
     }
 
+    private boolean useBulkInsert(int nRows, int nColumns, boolean readKeys) {
+
+        if (!bulkInsert || nRows < 2)
+            return false;
+
+        if (readKeys && nRows < BULK_INSERT_MIN_ROWS)
+            return false;
+
+        // Dialects that do not support multi-row inserts report a parameter limit of zero
+        return dialect.maxInsertParams() >= nColumns * 2;
+    }
+
+    private void bulkInsert(
+            Connection conn, String insert, int nColumns, int nRows, int maxRows,
+            RowParams rowParams) throws SQLException {
+
+        // Rows are split into statements that stay under the parameter limit for the dialect
+        // Full size statements share one prepared statement, only the last statement can be smaller
+
+        var rowsPerStatement = Math.min(maxRows, dialect.maxInsertParams() / nColumns);
+        var statementRows = 0;
+
+        PreparedStatement stmt = null;
+
+        try {
+
+            for (var firstRow = 0; firstRow < nRows; firstRow += rowsPerStatement) {
+
+                var nextRows = Math.min(rowsPerStatement, nRows - firstRow);
+
+                if (nextRows != statementRows) {
+
+                    if (stmt != null)
+                        stmt.close();
+
+                    var values = String.join(",\n  ", Collections.nCopies(nextRows, rowValues(nColumns)));
+                    stmt = conn.prepareStatement(insert + "values\n  " + values);
+                    statementRows = nextRows;
+                }
+
+                for (var row = 0; row < nextRows; row++)
+                    rowParams.setRow(stmt, row * nColumns, firstRow + row);
+
+                stmt.executeUpdate();
+            }
+        }
+        finally {
+
+            if (stmt != null)
+                stmt.close();
+        }
+    }
+
+    private String rowValues(int nColumns) {
+
+        return "(" + String.join(", ", Collections.nCopies(nColumns, "?")) + ")";
+    }
+
     private long[] generatedKeys(Statement stmt, int rowCount) throws SQLException {
 
         try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -336,4 +470,28 @@ class JdbcWriteBatchImpl {
             return keys;
         }
     }
+
+    @FunctionalInterface
+    private interface RowParams {
+
+        // Set the parameters for one row, starting after the given parameter offset
+        void setRow(PreparedStatement stmt, int paramOffset, int row) throws SQLException;
+    }
+
+    private static class AttrRow {
+
+        final long tagPk;
+        final String attrName;
+        final BasicType attrType;
+        final int attrIndex;
+        final Value attrValue;
+
+        AttrRow(long tagPk, String attrName, BasicType attrType, int attrIndex, Value attrValue) {
+            this.tagPk = tagPk;
+            this.attrName = attrName;
+            this.attrType = attrType;
+            this.attrIndex = attrIndex;
+            this.attrValue = attrValue;
+        }
+    }
 }
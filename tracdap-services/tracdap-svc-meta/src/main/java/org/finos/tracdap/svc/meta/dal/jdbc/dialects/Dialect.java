@@ -26,6 +26,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,6 +34,11 @@ import java.util.stream.Stream;
 
 public abstract class Dialect implements IDialect {
 
+    private static final int DEFAULT_MAX_INLINE_KEYS = 1000;
+    private static final int DEFAULT_MAX_INSERT_PARAMS = 10000;
+    private static final String DEFAULT_LIMIT_CLAUSE = "limit ?";
+    private static final String DEFAULT_EXPLAIN_PREFIX = "explain ";
+
     public static IDialect dialectFor(JdbcDialect dialect) {
 
         switch (dialect) {
@@ -67,6 +73,51 @@ public abstract class Dialect implements IDialect {
     protected abstract JdbcErrorCode mapDialectErrorCode(SQLException error);
 
 
+    @Override
+    public int maxInlineKeys() {
+        return DEFAULT_MAX_INLINE_KEYS;
+    }
+
+    @Override
+    public int maxInsertParams() {
+        return DEFAULT_MAX_INSERT_PARAMS;
+    }
+
+    @Override
+    public boolean supportsSingleObjectQuery() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsArrayKeys() {
+        return false;
+    }
+
+    @Override
+    public String keyTypeName(int sqlType) {
+
+        switch (sqlType) {
+
+            case Types.BIGINT: return "bigint";
+            case Types.INTEGER: return "int";
+            case Types.TIMESTAMP: return "timestamp(6)";
+            case Types.BOOLEAN: return "boolean";
+
+            default: throw new ETracInternal("Unsupported key type for JDBC dialect: " + sqlType);
+        }
+    }
+
+    @Override
+    public String limitClause() {
+        return DEFAULT_LIMIT_CLAUSE;
+    }
+
+    @Override
+    public String explainPrefix() {
+        return DEFAULT_EXPLAIN_PREFIX;
+    }
+
+
     protected String loadKeyMappingDdl(String keyMappingDdl) {
 
         var classLoader = getClass().getClassLoader();
@@ -36,4 +36,25 @@ public interface IDialect {
     boolean supportsGeneratedKeys();
 
     int booleanType();
+
+    // Batch lookups up to this size send their keys inline with the query instead of using the mapping table
+    int maxInlineKeys();
+
+    // Multi-row inserts are split so each statement has at most this many parameters, zero if not supported
+    int maxInsertParams();
+
+    // Single object reads send the definition and attrs together using union all, which needs set operations on LOBs
+    boolean supportsSingleObjectQuery();
+
+    // Dialects with array support send keys as one array parameter per key column, with no size limit
+    boolean supportsArrayKeys();
+
+    // SQL type name used to cast inline key parameters, for the JDBC type codes used in key lookups
+    String keyTypeName(int sqlType);
+
+    // Clause appended after "order by" to limit the rows returned, with a single parameter for the row count
+    String limitClause();
+
+    // Prefix that turns a query into a query for its plan, or null if plans cannot be read with a plain query
+    String explainPrefix();
 }
@@ -80,4 +80,23 @@ public class MySqlDialect extends Dialect {
     public int booleanType() {
         return Types.BOOLEAN;
     }
+
+    @Override
+    public String keyTypeName(int sqlType) {
+
+        // MySQL casts use a restricted set of type names
+        switch (sqlType) {
+
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.BOOLEAN:
+                return "signed";
+
+            case Types.TIMESTAMP:
+                return "datetime(6)";
+
+            default:
+                return super.keyTypeName(sqlType);
+        }
+    }
 }
@@ -31,6 +31,7 @@ public class OracleDialect extends Dialect {
             Map.entry(2291, JdbcErrorCode.INSERT_MISSING_FK));  // ORA-02291: integrity constraint violated - parent key not found
 
     private static final String MAPPING_TABLE_NAME = "key_mapping";
+    private static final String LIMIT_CLAUSE = "offset 0 rows fetch next ? rows only";
 
     @Override
     public JdbcDialect dialectCode() {
@@ -62,4 +63,34 @@ public class OracleDialect extends Dialect {
         // Oracle does not have a BOOLEAN type, we use NUMBER(1) with true = 1, false = 0
         return Types.NUMERIC;
     }
+
+    @Override
+    public int maxInlineKeys() {
+        // Global temporary table needs no setup per transaction, so always use the mapping table
+        return 0;
+    }
+
+    @Override
+    public int maxInsertParams() {
+        // Multi-row VALUES lists are not available on the Oracle versions we support
+        return 0;
+    }
+
+    @Override
+    public boolean supportsSingleObjectQuery() {
+        // Definitions are stored as BLOBs, Oracle does not allow LOB columns in set operations
+        return false;
+    }
+
+    @Override
+    public String limitClause() {
+        // No "limit" keyword, use the ANSI row limiting clause
+        return LIMIT_CLAUSE;
+    }
+
+    @Override
+    public String explainPrefix() {
+        // Plans are written to a plan table by "explain plan for", not returned by the query
+        return null;
+    }
 }
@@ -87,4 +87,24 @@ public class PostgreSqlDialect extends Dialect {
         return Types.BOOLEAN;
     }
 
+    @Override
+    public int maxInlineKeys() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean supportsArrayKeys() {
+        return true;
+    }
+
+    @Override
+    public String keyTypeName(int sqlType) {
+
+        // Type names for arrays must be known to the driver, precision is not allowed
+        if (sqlType == Types.TIMESTAMP)
+            return "timestamp";
+
+        return super.keyTypeName(sqlType);
+    }
+
 }
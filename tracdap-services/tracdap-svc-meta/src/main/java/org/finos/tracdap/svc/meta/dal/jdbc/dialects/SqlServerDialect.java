@@ -35,6 +35,9 @@ public class SqlServerDialect extends Dialect {
     private static final String DROP_KEY_MAPPING_DDL = "drop table if exists #key_mapping;";
     private static final String CREATE_KEY_MAPPING_FILE = "jdbc/sqlserver/key_mapping.ddl";
     private static final String MAPPING_TABLE_NAME = "#key_mapping";
+    private static final int MAX_INLINE_KEYS = 500;
+    private static final int MAX_INSERT_PARAMS = 2000;
+    private static final String LIMIT_CLAUSE = "offset 0 rows fetch next ? rows only";
 
     private final String createKeyMapping;
 
@@ -76,4 +79,40 @@ public class SqlServerDialect extends Dialect {
     public int booleanType() {
         return Types.BOOLEAN;
     }
+
+    @Override
+    public int maxInlineKeys() {
+        // SQL Server allows 2100 parameters per statement, selectors use 4 parameters per key
+        return MAX_INLINE_KEYS;
+    }
+
+    @Override
+    public int maxInsertParams() {
+        // Stay under the limit of 2100 parameters per statement
+        return MAX_INSERT_PARAMS;
+    }
+
+    @Override
+    public String keyTypeName(int sqlType) {
+
+        switch (sqlType) {
+
+            case Types.TIMESTAMP: return "datetime2";
+            case Types.BOOLEAN: return "bit";
+
+            default: return super.keyTypeName(sqlType);
+        }
+    }
+
+    @Override
+    public String limitClause() {
+        // No "limit" keyword, use the ANSI row limiting clause
+        return LIMIT_CLAUSE;
+    }
+
+    @Override
+    public String explainPrefix() {
+        // Plans are only available through session settings (showplan), not with a query prefix
+        return null;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.config.MetadataCacheConfig;
+import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.metadata.TagSelector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded LRU cache of decoded tags, keyed by tenant, object and explicit versions.
+ *
+ * <p>Object versions and tag versions are immutable once they are written, so an entry never
+ * goes stale and nothing needs to be invalidated. Only selectors with an explicit object version
+ * and tag version can be answered from the cache, selectors for latest versions or as-of times
+ * still have to be resolved by the DAL. Any tag loaded by the DAL can be added to the cache
+ * under its explicit versions, whatever selector was used to load it.</p>
+ *
+ * <p>Only tags loaded from the database should be added, so cached tags are exactly what
+ * the DAL would return. Request handlers run on many threads, so access is synchronized.</p>
+ *
+ * <p>The cache counts hits and misses, it can be registered as an MBean to publish them over JMX.</p>
+ */
+public class MetadataCache implements MetadataCacheMXBean {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final int maxEntries;
+    private final Map<CacheKey, Tag> entries;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public MetadataCache(MetadataCacheConfig config) {
+
+        this.maxEntries = config.getMaxEntries() > 0 ? config.getMaxEntries() : DEFAULT_MAX_ENTRIES;
+
+        // Access order with eviction of the eldest entry gives LRU behaviour
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Tag> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+
+        log.info("Metadata cache enabled: max entries = {}", maxEntries);
+    }
+
+    public static boolean isExplicit(TagSelector selector) {
+
+        return selector.hasObjectVersion() && selector.hasTagVersion();
+    }
+
+    public Tag get(String tenant, TagSelector selector) {
+
+        if (!isExplicit(selector))
+            return null;
+
+        var key = new CacheKey(
+                tenant, selector.getObjectType(), selector.getObjectId(),
+                selector.getObjectVersion(), selector.getTagVersion());
+
+        Tag tag;
+
+        synchronized (this) {
+            tag = entries.get(key);
+        }
+
+        if (tag != null)
+            hits.incrementAndGet();
+        else
+            misses.incrementAndGet();
+
+        return tag;
+    }
+
+    public synchronized void put(String tenant, Tag tag) {
+
+        var header = tag.getHeader();
+
+        var key = new CacheKey(
+                tenant, header.getObjectType(), header.getObjectId(),
+                header.getObjectVersion(), header.getTagVersion());
+
+        entries.put(key, tag);
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+
+        var hitCount = hits.get();
+        var total = hitCount + misses.get();
+
+        return total > 0 ? (double) hitCount / total : 0.0;
+    }
+
+    private static final class CacheKey {
+
+        final String tenant;
+        final ObjectType objectType;
+        final String objectId;
+        final int objectVersion;
+        final int tagVersion;
+
+        CacheKey(String tenant, ObjectType objectType, String objectId, int objectVersion, int tagVersion) {
+            this.tenant = tenant;
+            this.objectType = objectType;
+            this.objectId = objectId;
+            this.objectVersion = objectVersion;
+            this.tagVersion = tagVersion;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (CacheKey) other;
+
+            return objectVersion == otherKey.objectVersion &&
+                    tagVersion == otherKey.tagVersion &&
+                    objectType == otherKey.objectType &&
+                    tenant.equals(otherKey.tenant) &&
+                    objectId.equals(otherKey.objectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, objectType, objectId, objectVersion, tagVersion);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.svc.meta.dal.operations.DalWriteOperation;
+import org.finos.tracdap.svc.meta.dal.operations.PreallocateObjectId;
+import org.finos.tracdap.svc.meta.dal.operations.WriteOperationWithTag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class MetadataGroupCommit {
+
+    // Write requests for the same tenant that arrive within a short window are written in one transaction
+    // The first request in a group waits for the window to close (or the group to fill), then runs the write
+    // Other requests in the group wait for the result, so the write always runs on a request thread
+
+    // If a grouped write fails, the whole transaction is rolled back
+    // Each request is then written on its own, so errors are reported to the request that caused them
+
+    // Requests that write an object already in the open group start a new group
+    // The DAL does not allow the same object in more than one operation of a single write
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IMetadataDal dal;
+    private final long windowNanos;
+    private final int maxRequests;
+
+    private final Map<String, WriteGroup> openGroups;
+
+    private final AtomicLong groupCount;
+    private final AtomicLong requestCount;
+    private final AtomicLong retryCount;
+
+    public MetadataGroupCommit(IMetadataDal dal, Duration window, int maxRequests) {
+
+        if (window.isNegative() || window.isZero() || maxRequests < 1)
+            throw new ETracInternal("Invalid settings for group commit");
+
+        this.dal = dal;
+        this.windowNanos = window.toNanos();
+        this.maxRequests = maxRequests;
+
+        this.openGroups = new HashMap<>();
+
+        this.groupCount = new AtomicLong();
+        this.requestCount = new AtomicLong();
+        this.retryCount = new AtomicLong();
+    }
+
+    public void runWriteOperations(String tenant, List<DalWriteOperation> operations) {
+
+        var request = new WriteRequest(operations);
+        WriteGroup group;
+        boolean leader;
+
+        synchronized (this) {
+
+            group = openGroups.get(tenant);
+
+            if (group != null && group.overlaps(request)) {
+                closeGroup(group);
+                group = null;
+            }
+
+            leader = (group == null);
+
+            if (leader) {
+                group = new WriteGroup(tenant);
+                openGroups.put(tenant, group);
+            }
+
+            group.add(request);
+
+            if (group.requests.size() >= maxRequests)
+                closeGroup(group);
+        }
+
+        if (leader) {
+            awaitGroup(group);
+            commitGroup(group);
+        }
+
+        awaitResult(request);
+    }
+
+    public long groupCount() {
+        return groupCount.get();
+    }
+
+    public long requestCount() {
+        return requestCount.get();
+    }
+
+    public long retryCount() {
+        return retryCount.get();
+    }
+
+    private void closeGroup(WriteGroup group) {
+
+        // Always called holding the lock
+
+        openGroups.remove(group.tenant, group);
+        group.closed.countDown();
+    }
+
+    private void awaitGroup(WriteGroup group) {
+
+        try {
+            group.closed.await(windowNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            if (group.closed.getCount() > 0)
+                closeGroup(group);
+        }
+    }
+
+    private void commitGroup(WriteGroup group) {
+
+        groupCount.incrementAndGet();
+        requestCount.addAndGet(group.requests.size());
+
+        try {
+
+            if (group.requests.size() == 1) {
+                commitSingle(group.tenant, group.requests.get(0));
+                return;
+            }
+
+            var operations = new ArrayList<DalWriteOperation>();
+
+            for (var request : group.requests)
+                operations.addAll(request.operations);
+
+            try {
+
+                dal.runWriteOperations(group.tenant, operations);
+
+                for (var request : group.requests)
+                    request.result.complete(null);
+            }
+            catch (RuntimeException e) {
+
+                log.debug("Grouped write failed for {} requests, writing requests individually: {}",
+                        group.requests.size(), e.getMessage());
+
+                retryCount.incrementAndGet();
+
+                for (var request : group.requests)
+                    commitSingle(group.tenant, request);
+            }
+        }
+        finally {
+
+            // Do not leave any request waiting, even if the write failed unexpectedly
+
+            for (var request : group.requests)
+                if (!request.result.isDone())
+                    request.result.completeExceptionally(new ETracInternal("Grouped write did not complete"));
+        }
+    }
+
+    private void commitSingle(String tenant, WriteRequest request) {
+
+        try {
+            dal.runWriteOperations(tenant, request.operations);
+            request.result.complete(null);
+        }
+        catch (RuntimeException e) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private void awaitResult(WriteRequest request) {
+
+        try {
+            request.result.join();
+        }
+        catch (CompletionException e) {
+
+            var cause = e.getCause();
+
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+
+            throw new ETracInternal(cause.getMessage(), cause);
+        }
+    }
+
+    private static Set<String> objectIds(List<DalWriteOperation> operations) {
+
+        var objectIds = new HashSet<String>();
+
+        for (var operation : operations) {
+
+            if (operation instanceof WriteOperationWithTag) {
+                for (var tag : ((WriteOperationWithTag) operation).getTags())
+                    objectIds.add(tag.getHeader().getObjectId());
+            }
+            else if (operation instanceof PreallocateObjectId) {
+                for (var objectId : ((PreallocateObjectId) operation).getObjectIds())
+                    objectIds.add(objectId.toString());
+            }
+            else {
+                throw new ETracInternal("invalid DalWriteOperation");
+            }
+        }
+
+        return objectIds;
+    }
+
+    private static class WriteRequest {
+
+        final List<DalWriteOperation> operations;
+        final Set<String> objectIds;
+        final CompletableFuture<Void> result;
+
+        WriteRequest(List<DalWriteOperation> operations) {
+            this.operations = operations;
+            this.objectIds = objectIds(operations);
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    private static class WriteGroup {
+
+        final String tenant;
+        final List<WriteRequest> requests;
+        final Set<String> objectIds;
+        final CountDownLatch closed;
+
+        WriteGroup(String tenant) {
+            this.tenant = tenant;
+            this.requests = new ArrayList<>();
+            this.objectIds = new HashSet<>();
+            this.closed = new CountDownLatch(1);
+        }
+
+        void add(WriteRequest request) {
+            requests.add(request);
+            objectIds.addAll(request.objectIds);
+        }
+
+        boolean overlaps(WriteRequest request) {
+            return request.objectIds.stream().anyMatch(objectIds::contains);
+        }
+    }
+}
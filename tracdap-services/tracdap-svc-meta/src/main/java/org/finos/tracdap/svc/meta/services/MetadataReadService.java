@@ -26,6 +26,7 @@ import org.finos.tracdap.metadata.Tag;
 import org.finos.tracdap.svc.meta.TracMetadataService;
 import org.finos.tracdap.svc.meta.dal.IMetadataDal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,14 +37,20 @@ public class MetadataReadService {
 
     private final IMetadataDal dal;
     private final PlatformConfig config;
+    private final MetadataCache cache;
 
     public MetadataReadService(IMetadataDal dal, PlatformConfig platformConfig) {
+        this(dal, platformConfig, null);
+    }
+
+    public MetadataReadService(IMetadataDal dal, PlatformConfig platformConfig, MetadataCache cache) {
         this.dal = dal;
         this.config = platformConfig;
+        this.cache = cache;
     }
 
-    // Literally all the read logic is in the DAL at present!
-    // Which is fine, keep a thin logic class here anyway to have a consistent pattern
+    // Almost all the read logic is in the DAL
+    // This layer adds a read-through cache for explicitly versioned selectors, if it is enabled
 
     public PlatformInfoResponse platformInfo() {
 
@@ -76,12 +83,55 @@ public class MetadataReadService {
 
     public Tag readObject(String tenant, TagSelector selector) {
 
-        return dal.loadObject(tenant, selector);
+        if (cache == null)
+            return dal.loadObject(tenant, selector);
+
+        var cachedTag = cache.get(tenant, selector);
+
+        if (cachedTag != null)
+            return cachedTag;
+
+        var tag = dal.loadObject(tenant, selector);
+        cache.put(tenant, tag);
+
+        return tag;
     }
 
     public List<Tag> readObjects(String tenant, List<TagSelector> selectors) {
 
-        return dal.loadObjects(tenant, selectors);
+        if (cache == null)
+            return dal.loadObjects(tenant, selectors);
+
+        // Send all the cache misses to the DAL in a single batch, then merge back in the original order
+
+        var tags = new ArrayList<Tag>(selectors.size());
+        var missSelectors = new ArrayList<TagSelector>();
+        var missIndices = new ArrayList<Integer>();
+
+        for (var i = 0; i < selectors.size(); i++) {
+
+            var cachedTag = cache.get(tenant, selectors.get(i));
+            tags.add(cachedTag);
+
+            if (cachedTag == null) {
+                missSelectors.add(selectors.get(i));
+                missIndices.add(i);
+            }
+        }
+
+        if (missSelectors.isEmpty())
+            return tags;
+
+        var loadedTags = dal.loadObjects(tenant, missSelectors);
+
+        for (var i = 0; i < loadedTags.size(); i++) {
+
+            var tag = loadedTags.get(i);
+            cache.put(tenant, tag);
+            tags.set(missIndices.get(i), tag);
+        }
+
+        return tags;
     }
 
     public Tag loadTag(
@@ -95,7 +145,7 @@ public class MetadataReadService {
                 .setTagVersion(tagVersion)
                 .build();
 
-        return dal.loadObject(tenant, selector);
+        return readObject(tenant, selector);
     }
 
     public Tag loadLatestTag(
@@ -109,7 +159,7 @@ public class MetadataReadService {
                 .setLatestTag(true)
                 .build();
 
-        return dal.loadObject(tenant, selector);
+        return readObject(tenant, selector);
     }
 
     public Tag loadLatestObject(
@@ -123,6 +173,6 @@ public class MetadataReadService {
                 .setLatestTag(true)
                 .build();
 
-        return dal.loadObject(tenant, selector);
+        return readObject(tenant, selector);
     }
 }
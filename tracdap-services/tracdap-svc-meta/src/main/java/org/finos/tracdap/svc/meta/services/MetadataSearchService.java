@@ -19,8 +19,10 @@ package org.finos.tracdap.svc.meta.services;
 import org.finos.tracdap.metadata.Tag;
 import org.finos.tracdap.metadata.SearchParameters;
 import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.svc.meta.dal.SearchResultPage;
 
 import java.util.List;
+import java.util.concurrent.Flow;
 
 
 public class MetadataSearchService {
@@ -38,4 +40,20 @@ public class MetadataSearchService {
 
         return dal.search(tenant, searchParameters);
     }
+
+    public SearchResultPage
+    search(String tenant, SearchParameters searchParameters, int pageSize, String pageToken) {
+
+        return dal.searchPage(tenant, searchParameters, pageSize, pageToken);
+    }
+
+    public Flow.Publisher<SearchResultPage>
+    searchStream(String tenant, SearchParameters searchParameters, int pageSize, String pageToken) {
+
+        // Pages are fetched as the stream is consumed, each page is a separate DAL call
+
+        return new SearchPagePublisher(
+                nextPageToken -> dal.searchPage(tenant, searchParameters, pageSize, nextPageToken),
+                pageToken);
+    }
 }
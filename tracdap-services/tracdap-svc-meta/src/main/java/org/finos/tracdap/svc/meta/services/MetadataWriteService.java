@@ -45,9 +45,17 @@ public class MetadataWriteService {
 
     private final Validator validator = new Validator();
     private final IMetadataDal dal;
+    private final MetadataReadService readService;
+    private final MetadataGroupCommit groupCommit;
 
-    public MetadataWriteService(IMetadataDal dal) {
+    public MetadataWriteService(IMetadataDal dal, MetadataReadService readService) {
+        this(dal, readService, null);
+    }
+
+    public MetadataWriteService(IMetadataDal dal, MetadataReadService readService, MetadataGroupCommit groupCommit) {
         this.dal = dal;
+        this.readService = readService;
+        this.groupCommit = groupCommit;
     }
 
     private static class WriteOperation {
@@ -101,7 +109,7 @@ public class MetadataWriteService {
             writeOperations.add(opers);
         }
 
-        dal.runWriteOperations(
+        runWriteOperations(
                 tenant,
                 writeOperations.stream().map(w -> w.writeOperation).collect(Collectors.toList())
         );
@@ -110,10 +118,19 @@ public class MetadataWriteService {
     }
 
     private List<TagHeader> executeWriteOperation(String tenant, WriteOperation oper) {
-        dal.runWriteOperations(tenant, Collections.singletonList(oper.writeOperation));
+        runWriteOperations(tenant, Collections.singletonList(oper.writeOperation));
         return oper.tagHeaders;
     }
 
+    private void runWriteOperations(String tenant, List<DalWriteOperation> operations) {
+
+        // Group commit is optional, without it each request is written in its own transaction
+        if (groupCommit != null)
+            groupCommit.runWriteOperations(tenant, operations);
+        else
+            dal.runWriteOperations(tenant, operations);
+    }
+
     public List<TagHeader> createObjects(
             String tenant,
             List<MetadataWriteRequest> requests,
@@ -204,7 +221,8 @@ public class MetadataWriteService {
         var priorVersions = requests.stream()
                 .map(MetadataWriteRequest::getPriorVersion)
                 .collect(Collectors.toList());
-        var priorTags = dal.loadObjects(tenant, priorVersions);
+        // Prior versions go through the read service, so they can be served from the metadata cache
+        var priorTags = readService.readObjects(tenant, priorVersions);
 
         var newTags = new ArrayList<Tag>();
         for (int i = 0; i < requests.size(); i++) {
@@ -279,7 +297,7 @@ public class MetadataWriteService {
         var priorVersions = requests.stream()
                 .map(MetadataWriteRequest::getPriorVersion)
                 .collect(Collectors.toList());
-        var priorTags = dal.loadObjects(tenant, priorVersions);
+        var priorTags = readService.readObjects(tenant, priorVersions);
 
         var newTags = new ArrayList<Tag>();
         for (int i = 0; i < requests.size(); i++) {
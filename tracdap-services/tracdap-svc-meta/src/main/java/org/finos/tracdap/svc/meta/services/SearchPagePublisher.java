@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.svc.meta.dal.SearchResultPage;
+
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+
+class SearchPagePublisher implements Flow.Publisher<SearchResultPage> {
+
+    // Each page is fetched only when the subscriber has requested it, so a slow consumer never pulls
+    // pages ahead of what it can receive. Pages are fetched on the thread that makes the request.
+
+    private final Function<String, SearchResultPage> pageSource;
+    private final String firstPageToken;
+
+    private boolean subscribed;
+
+    SearchPagePublisher(Function<String, SearchResultPage> pageSource, String firstPageToken) {
+
+        this.pageSource = pageSource;
+        this.firstPageToken = firstPageToken;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SearchResultPage> subscriber) {
+
+        synchronized (this) {
+
+            if (subscribed)
+                throw new ETracInternal("Multiple subscriptions on search page publisher");
+
+            subscribed = true;
+        }
+
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    private class Subscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super SearchResultPage> subscriber;
+
+        private String nextPageToken;
+        private long demand;
+        private boolean draining;
+        private boolean done;
+
+        Subscription(Flow.Subscriber<? super SearchResultPage> subscriber) {
+
+            this.subscriber = subscriber;
+            this.nextPageToken = firstPageToken;
+        }
+
+        @Override
+        public void request(long n) {
+
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Subscription request must be positive"));
+                return;
+            }
+
+            synchronized (this) {
+
+                demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n;
+
+                // Requests made from inside onNext are picked up by the drain loop already running
+                if (draining)
+                    return;
+
+                draining = true;
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+
+            synchronized (this) {
+                done = true;
+            }
+        }
+
+        private void drain() {
+
+            while (true) {
+
+                String pageToken;
+
+                synchronized (this) {
+
+                    if (done || demand == 0) {
+                        draining = false;
+                        return;
+                    }
+
+                    demand--;
+                    pageToken = nextPageToken;
+                }
+
+                SearchResultPage page;
+
+                try {
+                    page = pageSource.apply(pageToken);
+                }
+                catch (Exception e) {
+
+                    synchronized (this) {
+                        done = true;
+                        draining = false;
+                    }
+
+                    subscriber.onError(e);
+                    return;
+                }
+
+                synchronized (this) {
+
+                    nextPageToken = page.getNextPageToken();
+
+                    if (!page.hasNextPage()) {
+                        done = true;
+                        draining = false;
+                    }
+                }
+
+                subscriber.onNext(page);
+
+                if (!page.hasNextPage()) {
+                    subscriber.onComplete();
+                    return;
+                }
+            }
+        }
+    }
+}
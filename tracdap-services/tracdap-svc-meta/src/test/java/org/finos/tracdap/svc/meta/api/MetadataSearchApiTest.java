@@ -27,13 +27,15 @@ import io.grpc.StatusRuntimeException;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.ArrayList;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.finos.tracdap.common.metadata.MetadataCodec.encodeNativeObject;
@@ -596,9 +598,87 @@ abstract class MetadataSearchApiTest {
     }
 
     @Test
-    @Disabled("Search result limit not implemented yet")
     void maxResultsLimit() {
-        Assertions.fail();
+
+        var searchAttr = "maxResultsLimit_WHICH_DROIDS";
+        var objectIds = createObjectsForPaging(searchAttr, 5);
+
+        var searchRequest = pagingSearchRequest(searchAttr).toBuilder()
+                .setPageSize(2)
+                .build();
+
+        var page1 = searchApi.search(searchRequest);
+        var page2 = searchApi.search(searchRequest.toBuilder().setPageToken(page1.getNextPageToken()).build());
+        var page3 = searchApi.search(searchRequest.toBuilder().setPageToken(page2.getNextPageToken()).build());
+
+        assertEquals(2, page1.getSearchResultCount());
+        assertEquals(2, page2.getSearchResultCount());
+        assertEquals(1, page3.getSearchResultCount());
+        assertTrue(page1.hasNextPageToken());
+        assertTrue(page2.hasNextPageToken());
+        assertFalse(page3.hasNextPageToken());
+
+        var foundIds = Stream.of(page1, page2, page3)
+                .flatMap(page -> page.getSearchResultList().stream())
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toList());
+
+        assertEquals(5, foundIds.size());
+        assertEquals(objectIds, Set.copyOf(foundIds));
+    }
+
+    @Test
+    void searchStream() {
+
+        var searchAttr = "searchStream_WHICH_DROIDS";
+        var objectIds = createObjectsForPaging(searchAttr, 5);
+
+        var searchRequest = pagingSearchRequest(searchAttr).toBuilder()
+                .setPageSize(2)
+                .build();
+
+        var pages = new ArrayList<MetadataSearchResponse>();
+        searchApi.searchStream(searchRequest).forEachRemaining(pages::add);
+
+        assertEquals(3, pages.size());
+        assertFalse(pages.get(2).hasNextPageToken());
+
+        // Streamed pages should match the pages from the unary call
+
+        var unaryPage1 = searchApi.search(searchRequest);
+
+        assertEquals(unaryPage1, pages.get(0));
+
+        var foundIds = pages.stream()
+                .flatMap(page -> page.getSearchResultList().stream())
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        assertEquals(objectIds, foundIds);
+    }
+
+    @Test
+    void invalidSearch_badPageSize() {
+
+        var searchRequest = pagingSearchRequest("invalidSearch_badPageSize_WHICH_DROIDS").toBuilder()
+                .setPageSize(-1)
+                .build();
+
+        // noinspection ResultOfMethodCallIgnored
+        var error = assertThrows(StatusRuntimeException.class, () -> searchApi.search(searchRequest));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    void invalidSearch_badPageToken() {
+
+        var searchRequest = pagingSearchRequest("invalidSearch_badPageToken_WHICH_DROIDS").toBuilder()
+                .setPageToken("not_a_page_token")
+                .build();
+
+        // noinspection ResultOfMethodCallIgnored
+        var error = assertThrows(StatusRuntimeException.class, () -> searchApi.search(searchRequest));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
     }
 
     @Test
@@ -668,4 +748,34 @@ abstract class MetadataSearchApiTest {
         var error = assertThrows(StatusRuntimeException.class, () -> searchApi.search(searchRequest));
         assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
     }
+
+    private Set<String> createObjectsForPaging(String searchAttr, int nObjects) {
+
+        return IntStream.range(0, nObjects)
+                .mapToObj(i -> MetadataWriteRequest.newBuilder()
+                        .setTenant(TEST_TENANT)
+                        .setObjectType(ObjectType.DATA)
+                        .setDefinition(TestData.dummyDataDef())
+                        .addTagUpdates(TagUpdate.newBuilder()
+                        .setAttrName(searchAttr)
+                        .setValue(encodeValue("paging")))
+                        .build())
+                .map(request -> writeApi.createObject(request).getObjectId())
+                .collect(Collectors.toSet());
+    }
+
+    private MetadataSearchRequest pagingSearchRequest(String searchAttr) {
+
+        return MetadataSearchRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .setSearchParams(SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                        .setAttrName(searchAttr)
+                        .setAttrType(BasicType.STRING)
+                        .setOperator(SearchOperator.EQ)
+                        .setSearchValue(encodeValue("paging")))))
+                .build();
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.finos.tracdap.svc.meta.dal;
+
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.test.meta.IDalTestable;
+import org.finos.tracdap.test.meta.JdbcIntegration;
+import org.finos.tracdap.test.meta.JdbcUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.finos.tracdap.test.meta.TestData.*;
+
+
+// Compare write throughput for multi-row inserts and JDBC batches
+// Run the nested classes and compare the logged objects per second for each batch size
+// The integration classes give more useful numbers, since driver behaviour is what differs between the two
+// They have their own tag so they do not run with the regular metadb tests, use -DintegrationTags="int-metadb-benchmark"
+// Only the unit classes are tagged slow, so slow test runs do not pick up the integration classes
+
+abstract class MetadataDalBulkInsertBenchmark implements IDalTestable {
+
+    private static final List<Integer> BATCH_SIZES = List.of(1, 10, 100, 1000, 10000);
+    private static final int OBJECTS_PER_ROUND = 20000;
+    private static final int WARM_UP_OBJECTS = 2000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private IMetadataDal dal;
+
+    public void setDal(IMetadataDal dal) {
+        this.dal = dal;
+    }
+
+    @org.junit.jupiter.api.Tag("slow")
+    @ExtendWith(JdbcUnit.class)
+    static class BulkInsert extends MetadataDalBulkInsertBenchmark {}
+
+    @org.junit.jupiter.api.Tag("slow")
+    @ExtendWith(JdbcUnit.RowByRowInsert.class)
+    static class RowByRowInsert extends MetadataDalBulkInsertBenchmark {}
+
+    @org.junit.jupiter.api.Tag("integration")
+    @org.junit.jupiter.api.Tag("int-metadb-benchmark")
+    @ExtendWith(JdbcIntegration.class)
+    static class BulkInsertIntegration extends MetadataDalBulkInsertBenchmark {}
+
+    @org.junit.jupiter.api.Tag("integration")
+    @org.junit.jupiter.api.Tag("int-metadb-benchmark")
+    @ExtendWith(JdbcIntegration.RowByRowInsert.class)
+    static class RowByRowInsertIntegration extends MetadataDalBulkInsertBenchmark {}
+
+    @Test
+    void saveNewObjects_throughput() {
+
+        saveInBatches(newTags(WARM_UP_OBJECTS), 100);
+
+        for (var batchSize : BATCH_SIZES) {
+
+            // Small batches write fewer objects, to keep the run time reasonable
+            var nObjects = Math.min(OBJECTS_PER_ROUND, batchSize * 1000);
+            var tags = newTags(nObjects);
+
+            var elapsed = saveInBatches(tags, batchSize);
+            var objectsPerSecond = nObjects * 1_000_000_000L / Math.max(elapsed, 1);
+
+            log.info("Bulk insert benchmark ({}): batch size = {}, objects = {}, objects per second = {}",
+                    getClass().getSimpleName(), batchSize, nObjects, objectsPerSecond);
+        }
+    }
+
+    private List<Tag> newTags(int nObjects) {
+
+        return IntStream.range(0, nObjects)
+                .mapToObj(i -> dummyTag(dummyDataDef(), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+    }
+
+    private long saveInBatches(List<Tag> tags, int batchSize) {
+
+        var start = System.nanoTime();
+
+        for (var i = 0; i < tags.size(); i += batchSize) {
+            var batch = tags.subList(i, Math.min(i + batchSize, tags.size()));
+            dal.saveNewObjects(TEST_TENANT, batch);
+        }
+
+        return System.nanoTime() - start;
+    }
+}
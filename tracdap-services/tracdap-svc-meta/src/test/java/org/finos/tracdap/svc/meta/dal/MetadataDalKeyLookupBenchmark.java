@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal;
+
+import org.finos.tracdap.metadata.TagSelector;
+import org.finos.tracdap.test.meta.IDalTestable;
+import org.finos.tracdap.test.meta.JdbcUnit;
+import org.finos.tracdap.test.meta.TestData;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.finos.tracdap.test.meta.TestData.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+// Compare batch read latency for inline key lookups and the key mapping table
+// Run the two nested classes and compare the logged timings for each batch size
+
+@Tag("slow")
+abstract class MetadataDalKeyLookupBenchmark implements IDalTestable {
+
+    private static final int N_OBJECTS = 1000;
+    private static final int WARM_UP_ROUNDS = 20;
+    private static final int TIMED_ROUNDS = 100;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private IMetadataDal dal;
+
+    public void setDal(IMetadataDal dal) {
+        this.dal = dal;
+    }
+
+    @ExtendWith(JdbcUnit.class)
+    static class InlineKeys extends MetadataDalKeyLookupBenchmark {}
+
+    @ExtendWith(JdbcUnit.KeyMappingTable.class)
+    static class KeyMappingTable extends MetadataDalKeyLookupBenchmark {}
+
+    @Test
+    void loadObjects_latency() {
+
+        var tags = IntStream.range(0, N_OBJECTS)
+                .mapToObj(i -> dummyTag(dummyDataDef(), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, tags);
+
+        for (var batchSize : List.of(1, 10, 1000)) {
+
+            var batch = tags.subList(0, batchSize);
+            var selectors = batch.stream()
+                    .map(TestData::selectorForTag)
+                    .collect(Collectors.toList());
+
+            // Rounds are scaled down for large batches, to keep the run time reasonable
+            var rounds = batchSize < 1000 ? TIMED_ROUNDS : TIMED_ROUNDS / 10;
+
+            for (var i = 0; i < WARM_UP_ROUNDS; i++)
+                assertEquals(batch, dal.loadObjects(TEST_TENANT, selectors));
+
+            var elapsed = timeLoadObjects(selectors, rounds);
+            var meanMicros = elapsed / rounds / 1000;
+
+            log.info("Key lookup benchmark ({}): batch size = {}, mean latency = {} us",
+                    getClass().getSimpleName(), batchSize, meanMicros);
+        }
+    }
+
+    private long timeLoadObjects(List<TagSelector> selectors, int rounds) {
+
+        var start = System.nanoTime();
+
+        for (var i = 0; i < rounds; i++)
+            dal.loadObjects(TEST_TENANT, selectors);
+
+        return System.nanoTime() - start;
+    }
+}
@@ -49,6 +49,9 @@ abstract class MetadataDalReadTest implements IDalTestable {
     @ExtendWith(JdbcUnit.class)
     static class UnitTest extends MetadataDalReadTest {}
 
+    @ExtendWith(JdbcUnit.KeyMappingTable.class)
+    static class KeyMappingTableTest extends MetadataDalReadTest {}
+
     @Tag("integration")
     @Tag("int-metadb")
     @ExtendWith(JdbcIntegration.class)
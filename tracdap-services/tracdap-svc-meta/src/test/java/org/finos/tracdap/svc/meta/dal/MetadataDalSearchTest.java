@@ -16,6 +16,7 @@
 
 package org.finos.tracdap.svc.meta.dal;
 
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.metadata.*;
 import org.finos.tracdap.common.metadata.TypeSystem;
 import org.finos.tracdap.common.metadata.MetadataCodec;
@@ -38,6 +39,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.finos.tracdap.common.metadata.MetadataCodec.encodeArrayValue;
@@ -57,6 +59,9 @@ abstract class MetadataDalSearchTest implements IDalTestable {
     @ExtendWith(JdbcUnit.class)
     static class UnitTest extends MetadataDalSearchTest {}
 
+    @ExtendWith(JdbcUnit.KeyMappingTable.class)
+    static class KeyMappingTableTest extends MetadataDalSearchTest {}
+
     @org.junit.jupiter.api.Tag("integration")
     @org.junit.jupiter.api.Tag("int-metadb")
     @ExtendWith(JdbcIntegration.class)
@@ -1793,6 +1798,121 @@ abstract class MetadataDalSearchTest implements IDalTestable {
     }
 
 
+    // -----------------------------------------------------------------------------------------------------------------
+    // PAGED SEARCH
+    // -----------------------------------------------------------------------------------------------------------------
+
+    @Test
+    void pagedSearch_allResults() {
+
+        var tags = IntStream.range(0, 5)
+                .mapToObj(i -> TestData.dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs("dal_search_paging_test", encodeValue("all_results"))
+                .build())
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, tags);
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_test", BasicType.STRING, SearchOperator.EQ, encodeValue("all_results")))
+                .build();
+
+        var unpaged = dal.search(TEST_TENANT, searchParams);
+
+        var page1 = dal.searchPage(TEST_TENANT, searchParams, 2, null);
+        var page2 = dal.searchPage(TEST_TENANT, searchParams, 2, page1.getNextPageToken());
+        var page3 = dal.searchPage(TEST_TENANT, searchParams, 2, page2.getNextPageToken());
+
+        assertEquals(2, page1.getResults().size());
+        assertEquals(2, page2.getResults().size());
+        assertEquals(1, page3.getResults().size());
+        assertTrue(page1.hasNextPage());
+        assertTrue(page2.hasNextPage());
+        assertFalse(page3.hasNextPage());
+
+        // Pages together should give the same results in the same order as a single search
+
+        var paged = Stream.of(page1, page2, page3)
+                .flatMap(page -> page.getResults().stream())
+                .collect(Collectors.toList());
+
+        assertEquals(5, unpaged.size());
+        assertEquals(unpaged, paged);
+    }
+
+    @Test
+    void pagedSearch_exactPageSize() {
+
+        var tags = IntStream.range(0, 2)
+                .mapToObj(i -> TestData.dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs("dal_search_paging_test", encodeValue("exact_page_size"))
+                .build())
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, tags);
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_test", BasicType.STRING, SearchOperator.EQ, encodeValue("exact_page_size")))
+                .build();
+
+        // A full page with nothing after it should not give a token for an empty next page
+
+        var page = dal.searchPage(TEST_TENANT, searchParams, 2, null);
+
+        assertEquals(2, page.getResults().size());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    void pagedSearch_priorVersions() {
+
+        var v1Tags = IntStream.range(0, 3)
+                .mapToObj(i -> TestData.dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs("dal_search_paging_test", encodeValue("prior_versions"))
+                .build())
+                .collect(Collectors.toList());
+
+        var v2Tags = v1Tags.stream()
+                .map(tag -> tagForNextObject(tag, nextDataDef(tag.getDefinition()), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, v1Tags);
+        dal.saveNewVersions(TEST_TENANT, v2Tags);
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_test", BasicType.STRING, SearchOperator.EQ, encodeValue("prior_versions")))
+                .setPriorVersions(true)
+                .build();
+
+        var page1 = dal.searchPage(TEST_TENANT, searchParams, 2, null);
+        var page2 = dal.searchPage(TEST_TENANT, searchParams, 2, page1.getNextPageToken());
+
+        // Prior version searches give one result per object, so three objects in two pages
+
+        var objectIds = Stream.of(page1, page2)
+                .flatMap(page -> page.getResults().stream())
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toList());
+
+        assertEquals(3, objectIds.size());
+        assertEquals(3, Set.copyOf(objectIds).size());
+        assertFalse(page2.hasNextPage());
+    }
+
+    @Test
+    void pagedSearch_invalidToken() {
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .build();
+
+        assertThrows(EInputValidation.class, () -> dal.searchPage(TEST_TENANT, searchParams, 2, "not_a_page_token"));
+    }
+
+
     // -----------------------------------------------------------------------------------------------------------------
     // HELPERS
     // -----------------------------------------------------------------------------------------------------------------
@@ -20,12 +20,18 @@ import org.finos.tracdap.metadata.ObjectType;
 import org.finos.tracdap.common.exception.EMetadataDuplicate;
 import org.finos.tracdap.common.exception.EMetadataNotFound;
 import org.finos.tracdap.common.exception.EMetadataWrongType;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.svc.meta.dal.operations.SaveNewObject;
+import org.finos.tracdap.svc.meta.dal.operations.SaveNewTag;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.finos.tracdap.test.meta.IDalTestable;
+import org.finos.tracdap.test.meta.TestData;
 import org.finos.tracdap.test.meta.JdbcUnit;
 import org.finos.tracdap.test.meta.JdbcIntegration;
 
@@ -122,6 +128,36 @@ abstract class MetadataDalWriteTest implements IDalTestable {
         assertThrows(EMetadataDuplicate.class, () -> dal.saveNewObjects(TEST_TENANT, Collections.singletonList(origTag)));
     }
 
+    @Test
+    void testSaveNewObject_largeBatch() {
+
+        // Large enough to split the multi-row inserts into several statements, for tag and tag_attr
+
+        var tags = IntStream.range(0, 1200)
+                .mapToObj(i -> dummyTag(dummyDataDef(), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, tags);
+
+        var selectors = tags.stream().map(TestData::selectorForTag).collect(Collectors.toList());
+        assertEquals(tags, dal.loadObjects(TEST_TENANT, selectors));
+
+        var nextVersions = tags.stream()
+                .map(tag -> tagForNextObject(tag, nextDataDef(tag.getDefinition()), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+
+        dal.saveNewVersions(TEST_TENANT, nextVersions);
+
+        var nextTags = nextVersions.stream()
+                .map(tag -> nextTag(tag, UPDATE_TAG_VERSION))
+                .collect(Collectors.toList());
+
+        dal.saveNewTags(TEST_TENANT, nextTags);
+
+        var nextSelectors = nextTags.stream().map(TestData::selectorForTag).collect(Collectors.toList());
+        assertEquals(nextTags, dal.loadObjects(TEST_TENANT, nextSelectors));
+    }
+
     @Test
     void testSaveNewVersion_ok() {
 
@@ -546,4 +582,49 @@ abstract class MetadataDalWriteTest implements IDalTestable {
         assertThrows(EMetadataWrongType.class,
                 () -> dal.savePreallocatedObjects(TEST_TENANT, List.of(obj1, obj2)));
     }
+
+    @Test
+    void testRunWriteOperations_repeatedOperationsMerged() {
+
+        var obj1 = dummyTagForObjectType(ObjectType.DATA);
+        var obj2 = dummyTagForObjectType(ObjectType.MODEL);
+        var id1 = UUID.fromString(obj1.getHeader().getObjectId());
+        var id2 = UUID.fromString(obj2.getHeader().getObjectId());
+
+        dal.runWriteOperations(TEST_TENANT, List.of(
+                new SaveNewObject(List.of(obj1)),
+                new SaveNewObject(List.of(obj2))));
+
+        assertEquals(obj1, dal.loadTag(TEST_TENANT, ObjectType.DATA, id1, 1, 1));
+        assertEquals(obj2, dal.loadTag(TEST_TENANT, ObjectType.MODEL, id2, 1, 1));
+
+        var obj1t2 = nextTag(obj1, UPDATE_TAG_VERSION);
+        var obj2t2 = nextTag(obj2, UPDATE_TAG_VERSION);
+
+        dal.runWriteOperations(TEST_TENANT, List.of(
+                new SaveNewTag(List.of(obj1t2)),
+                new SaveNewTag(List.of(obj2t2))));
+
+        assertEquals(obj1t2, dal.loadTag(TEST_TENANT, ObjectType.DATA, id1, 1, 2));
+        assertEquals(obj2t2, dal.loadTag(TEST_TENANT, ObjectType.MODEL, id2, 1, 2));
+    }
+
+    @Test
+    void testRunWriteOperations_repeatedObject() {
+
+        var obj1 = dummyTagForObjectType(ObjectType.DATA);
+        var id1 = UUID.fromString(obj1.getHeader().getObjectId());
+
+        dal.saveNewObjects(TEST_TENANT, Collections.singletonList(obj1));
+
+        var obj1t2 = nextTag(obj1, UPDATE_TAG_VERSION);
+        var obj1t2Alt = nextTag(obj1, UPDATE_TAG_VERSION);
+
+        // The same object cannot be written by two operations of the same type in one batch
+        assertThrows(ETracInternal.class, () -> dal.runWriteOperations(TEST_TENANT, List.of(
+                new SaveNewTag(List.of(obj1t2)),
+                new SaveNewTag(List.of(obj1t2Alt)))));
+
+        assertThrows(EMetadataNotFound.class, () -> dal.loadTag(TEST_TENANT, ObjectType.DATA, id1, 1, 2));
+    }
 }
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal.jdbc;
+
+import org.finos.tracdap.common.exception.EInputValidation;
+import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.common.metadata.MetadataConstants;
+import org.finos.tracdap.common.metadata.TypeSystem;
+import org.finos.tracdap.metadata.*;
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.test.meta.IJdbcDalTestable;
+import org.finos.tracdap.test.meta.JdbcIntegration;
+import org.finos.tracdap.test.meta.JdbcUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.finos.tracdap.common.metadata.MetadataCodec.encodeArrayValue;
+import static org.finos.tracdap.common.metadata.MetadataCodec.encodeValue;
+import static org.finos.tracdap.test.meta.TestData.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+abstract class JdbcHotAttrsTest implements IJdbcDalTestable {
+
+    private JdbcMetadataDal dal;
+
+    public void setDal(IMetadataDal dal) {
+        // Not used, tests need access to the JDBC DAL internals
+    }
+
+    public void setJdbcDal(JdbcMetadataDal dal) {
+        this.dal = dal;
+    }
+
+    @ExtendWith(JdbcUnit.class)
+    static class UnitTest extends JdbcHotAttrsTest {}
+
+    @org.junit.jupiter.api.Tag("integration")
+    @org.junit.jupiter.api.Tag("int-metadb")
+    @ExtendWith(JdbcIntegration.class)
+    static class IntegrationTest extends JdbcHotAttrsTest {}
+
+    @Test
+    void hotAttrSearch_noAttrJoin() {
+
+        var queryBuilder = new JdbcSearchQueryBuilder(dal.getDialect(), dal.getHotAttrs());
+
+        var hotSearch = searchParams(searchTerm(
+                MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING,
+                SearchOperator.EQ, encodeValue("jane.doe")));
+
+        var plainSearch = searchParams(searchTerm(
+                "some_other_attr", BasicType.STRING,
+                SearchOperator.EQ, encodeValue("jane.doe")));
+
+        var hotQuery = queryBuilder.buildSearchQuery((short) 0, hotSearch, null, 10);
+        var plainQuery = queryBuilder.buildSearchQuery((short) 0, plainSearch, null, 10);
+
+        assertFalse(hotQuery.getQuery().contains("tag_attr"));
+        assertTrue(hotQuery.getQuery().contains("hot_string_1"));
+        assertTrue(plainQuery.getQuery().contains("tag_attr"));
+    }
+
+    @Test
+    void hotAttrSearch_operators() {
+
+        // Values are unique to this test, so results are not affected by other data in the database
+
+        var userPrefix = UUID.randomUUID().toString();
+        var t0 = OffsetDateTime.now(ZoneOffset.UTC).plusYears(100);
+
+        var tag1 = hotTag(userPrefix + "_a", t0);
+        var tag2 = hotTag(userPrefix + "_b", t0.plusHours(1));
+        var tag3 = hotTag(userPrefix + "_c", t0.plusHours(2));
+
+        dal.saveNewObjects(TEST_TENANT, List.of(tag1, tag2, tag3));
+
+        var eq = searchTerm(
+                MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING,
+                SearchOperator.EQ, encodeValue(userPrefix + "_b"));
+
+        var ne = searchTerm(
+                MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING,
+                SearchOperator.NE, encodeValue(userPrefix + "_b"));
+
+        var in = searchTerm(
+                MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING,
+                SearchOperator.IN, encodeArrayValue(
+                        List.of(userPrefix + "_a", userPrefix + "_c"),
+                        TypeSystem.descriptor(BasicType.STRING)));
+
+        var gt = searchTerm(
+                MetadataConstants.TRAC_UPDATE_TIME, BasicType.DATETIME,
+                SearchOperator.GT, encodeValue(t0));
+
+        var neResults = searchHeaders(ne);
+
+        assertEquals(Set.of(tag2.getHeader()), searchHeaders(eq));
+        assertTrue(neResults.contains(tag1.getHeader()) && neResults.contains(tag3.getHeader()));
+        assertFalse(neResults.contains(tag2.getHeader()));
+        assertEquals(Set.of(tag1.getHeader(), tag3.getHeader()), searchHeaders(in));
+        assertEquals(Set.of(tag2.getHeader(), tag3.getHeader()), searchHeaders(gt));
+    }
+
+    @Test
+    void hotAttrSearch_longString() {
+
+        // Values too long for the hot column are still found, searches on them use tag_attr
+
+        var longValue = UUID.randomUUID() + "x".repeat(JdbcHotAttrs.MAX_STRING_LENGTH);
+        var tag = hotTag(longValue, OffsetDateTime.now(ZoneOffset.UTC));
+
+        dal.saveNewObjects(TEST_TENANT, List.of(tag));
+
+        var eq = searchTerm(
+                MetadataConstants.TRAC_CREATE_USER_ID, BasicType.STRING,
+                SearchOperator.EQ, encodeValue(longValue));
+
+        assertEquals(Set.of(tag.getHeader()), searchHeaders(eq));
+    }
+
+    @Test
+    void hotAttrWrite_multiValueRejected() {
+
+        var tag = dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs(MetadataConstants.TRAC_CREATE_USER_ID,
+                        encodeArrayValue(List.of("user_a", "user_b"), TypeSystem.descriptor(BasicType.STRING)))
+                .build();
+
+        assertThrows(EInputValidation.class, () -> dal.saveNewObjects(TEST_TENANT, List.of(tag)));
+    }
+
+    @Test
+    void hotAttrSlots_backfill() {
+
+        var key1 = UUID.randomUUID().toString();
+        var key2 = UUID.randomUUID().toString();
+
+        var tag1 = dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs("business_key", encodeValue(key1))
+                .build();
+
+        var tag2 = dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs("business_key", encodeValue(key2))
+                .build();
+
+        dal.saveNewObjects(TEST_TENANT, List.of(tag1, tag2));
+
+        // Assigning a new attr to the first string slot back-fills it from tag_attr
+
+        var businessKeys = new JdbcHotAttrs(dal.getDialect(), Map.of("business_key", BasicType.STRING));
+
+        try {
+
+            dal.wrapTransaction(businessKeys::syncSlots);
+
+            var values = dal.wrapTransaction(conn -> {
+
+                var query = "select hot_string_1 from tag where hot_string_1 in (?, ?)";
+
+                try (var stmt = conn.prepareStatement(query)) {
+
+                    stmt.setString(1, key1);
+                    stmt.setString(2, key2);
+
+                    try (var rs = stmt.executeQuery()) {
+
+                        var result = new HashSet<String>();
+
+                        while (rs.next())
+                            result.add(rs.getString(1));
+
+                        return result;
+                    }
+                }
+            });
+
+            assertEquals(Set.of(key1, key2), values);
+        }
+        finally {
+
+            // Put the original slot assignment back
+            dal.wrapTransaction(dal.getHotAttrs()::syncSlots);
+        }
+    }
+
+    @Test
+    void hotAttrSlots_concurrentStartup() {
+
+        var hotAttrs = dal.getHotAttrs();
+        var hotAttr = hotAttrs.hotAttrs().iterator().next();
+
+        try {
+
+            // Another instance saves the same assignment after this one has seen the slot as missing
+
+            deleteSlot(hotAttr.column);
+
+            Runnable otherInstance = () -> insertSlot(hotAttr.column, hotAttr.attrName, hotAttr.attrType);
+
+            dal.wrapTransaction(conn -> {
+                hotAttrs.syncSlots(beforeSlotInsert(conn, otherInstance));
+            });
+
+            var stored = dal.wrapTransaction(conn -> {
+                return readSlot(conn, hotAttr.column);
+            });
+
+            assertEquals(hotAttr.attrName, stored);
+        }
+        finally {
+            dal.wrapTransaction(hotAttrs::syncSlots);
+        }
+    }
+
+    @Test
+    void hotAttrSlots_concurrentStartupMismatch() {
+
+        var hotAttrs = dal.getHotAttrs();
+        var hotAttr = hotAttrs.hotAttrs().iterator().next();
+
+        try {
+
+            // Another instance with a different config assigns the slot first, startup must fail
+
+            deleteSlot(hotAttr.column);
+
+            Runnable otherInstance = () -> insertSlot(hotAttr.column, "other_attr", hotAttr.attrType);
+
+            assertThrows(EStartup.class, () -> dal.wrapTransaction(conn -> {
+                hotAttrs.syncSlots(beforeSlotInsert(conn, otherInstance));
+            }));
+        }
+        finally {
+            deleteSlot(hotAttr.column);
+            dal.wrapTransaction(hotAttrs::syncSlots);
+        }
+    }
+
+    @Test
+    void hotAttrConfig_invalid() {
+
+        assertThrows(EStartup.class, () -> new JdbcHotAttrs(dal.getDialect(), Map.of("float_attr", BasicType.FLOAT)));
+
+        assertThrows(EStartup.class, () -> new JdbcHotAttrs(dal.getDialect(), Map.of(
+                "date_1", BasicType.DATE,
+                "date_2", BasicType.DATE)));
+    }
+
+    private void deleteSlot(String column) {
+
+        dal.wrapTransaction(conn -> {
+            try (var stmt = conn.prepareStatement("delete from tag_hot_attr where hot_column = ?")) {
+                stmt.setString(1, column);
+                stmt.executeUpdate();
+            }
+        });
+    }
+
+    private void insertSlot(String column, String attrName, BasicType attrType) {
+
+        var query = "insert into tag_hot_attr (hot_column, attr_name, attr_type) values (?, ?, ?)";
+
+        dal.wrapTransaction(conn -> {
+            try (var stmt = conn.prepareStatement(query)) {
+                stmt.setString(1, column);
+                stmt.setString(2, attrName);
+                stmt.setString(3, attrType.name());
+                stmt.executeUpdate();
+            }
+        });
+    }
+
+    private String readSlot(Connection conn, String column) throws SQLException {
+
+        try (var stmt = conn.prepareStatement("select attr_name from tag_hot_attr where hot_column = ?")) {
+
+            stmt.setString(1, column);
+
+            try (var rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private Connection beforeSlotInsert(Connection conn, Runnable action) {
+
+        // Run the action once, just before the first insert into tag_hot_attr is prepared
+
+        var done = new boolean[] { false };
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+
+                    if (!done[0] && method.getName().equals("prepareStatement") &&
+                            args[0].toString().startsWith("insert into tag_hot_attr")) {
+
+                        done[0] = true;
+                        action.run();
+                    }
+
+                    try {
+                        return method.invoke(conn, args);
+                    }
+                    catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private Tag hotTag(String userId, OffsetDateTime updateTime) {
+
+        return dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                .putAttrs(MetadataConstants.TRAC_CREATE_USER_ID, encodeValue(userId))
+                .putAttrs(MetadataConstants.TRAC_UPDATE_TIME, encodeValue(updateTime))
+                .build();
+    }
+
+    private Set<TagHeader> searchHeaders(SearchExpression searchExpr) {
+
+        return dal.search(TEST_TENANT, searchParams(searchExpr)).stream()
+                .map(Tag::getHeader)
+                .collect(Collectors.toSet());
+    }
+
+    private SearchParameters searchParams(SearchExpression searchExpr) {
+
+        return SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchExpr)
+                .build();
+    }
+
+    private SearchExpression searchTerm(String attrName, BasicType attrType, SearchOperator operator, Value searchValue) {
+
+        return SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                .setAttrName(attrName)
+                .setAttrType(attrType)
+                .setOperator(operator)
+                .setSearchValue(searchValue))
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal.jdbc;
+
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.test.meta.IJdbcDalTestable;
+import org.finos.tracdap.test.meta.JdbcIntegration;
+import org.finos.tracdap.test.meta.JdbcUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+abstract class JdbcSearchDiagnosticsTest implements IJdbcDalTestable {
+
+    private JdbcMetadataDal dal;
+
+    public void setDal(IMetadataDal dal) {
+        // Not used, diagnostics need a connection from the JDBC DAL
+    }
+
+    public void setJdbcDal(JdbcMetadataDal dal) {
+        this.dal = dal;
+    }
+
+    @ExtendWith(JdbcUnit.class)
+    static class UnitTest extends JdbcSearchDiagnosticsTest {}
+
+    @Tag("integration")
+    @Tag("int-metadb")
+    @ExtendWith(JdbcIntegration.class)
+    static class IntegrationTest extends JdbcSearchDiagnosticsTest {}
+
+    @Test
+    void searchIndexesDeployed() {
+
+        var diagnostics = new JdbcSearchDiagnostics(dal.getDialect(), dal.getHotAttrs());
+        var missing = dal.wrapTransaction(diagnostics::missingIndexes);
+
+        assertEquals(0, missing.size(), "Missing search indexes: " + missing);
+    }
+
+    @Test
+    void searchPlansAvailable() {
+
+        var diagnostics = new JdbcSearchDiagnostics(dal.getDialect(), dal.getHotAttrs());
+        var plans = dal.wrapTransaction(diagnostics::explainSearches);
+
+        // Some dialects do not give plans for a plain query, in which case there is nothing to check
+
+        if (dal.getDialect().explainPrefix() == null) {
+            assertTrue(plans.isEmpty());
+            return;
+        }
+
+        assertFalse(plans.isEmpty());
+
+        for (var plan : plans.entrySet())
+            assertFalse(plan.getValue().isBlank(), "Empty search plan for " + plan.getKey());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.dal.jdbc;
+
+import org.finos.tracdap.common.metadata.MetadataUtil;
+import org.finos.tracdap.metadata.TagSelector;
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.test.meta.IJdbcDalTestable;
+import org.finos.tracdap.test.meta.JdbcIntegration;
+import org.finos.tracdap.test.meta.JdbcUnit;
+import org.finos.tracdap.test.meta.TestData;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.finos.tracdap.test.meta.TestData.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+// Compare single object read latency for the single query read and the step by step read
+// The integration variant runs against the database in TRAC_CONFIG_FILE, e.g. PostgreSQL:
+// ./gradlew trac-svc-meta:integration -DintegrationTags="int-metadb-benchmark"
+// Only the unit variant is tagged slow, so slow test runs do not pick up the integration variant
+
+abstract class JdbcSingleReadBenchmark implements IJdbcDalTestable {
+
+    private static final int N_OBJECTS = 100;
+    private static final int WARM_UP_READS = 1000;
+    private static final int TIMED_READS = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private JdbcMetadataDal dal;
+
+    public void setDal(IMetadataDal dal) {
+        // Not used, reads go directly to the JDBC DAL
+    }
+
+    public void setJdbcDal(JdbcMetadataDal dal) {
+        this.dal = dal;
+    }
+
+    @Tag("slow")
+    @ExtendWith(JdbcUnit.class)
+    static class UnitTest extends JdbcSingleReadBenchmark {}
+
+    @Tag("integration")
+    @Tag("int-metadb-benchmark")
+    @ExtendWith(JdbcIntegration.class)
+    static class IntegrationTest extends JdbcSingleReadBenchmark {}
+
+    @Test
+    void loadObject_latency() {
+
+        var tags = IntStream.range(0, N_OBJECTS)
+                .mapToObj(i -> dummyTag(dummyDataDef(), INCLUDE_HEADER))
+                .collect(Collectors.toList());
+
+        dal.saveNewObjects(TEST_TENANT, tags);
+
+        // Explicit versions and latest versions are both common in real workloads
+        var selectors = tags.stream()
+                .flatMap(tag -> Stream.of(
+                        TestData.selectorForTag(tag),
+                        MetadataUtil.selectorForLatest(tag.getHeader())))
+                .collect(Collectors.toList());
+
+        for (var i = 0; i < WARM_UP_READS; i++) {
+
+            var selector = selectors.get(i % selectors.size());
+            var expected = tags.get((i % selectors.size()) / 2);
+
+            assertEquals(expected, dal.loadObject(TEST_TENANT, selector));
+            assertEquals(expected, dal.loadObjectSteps(TEST_TENANT, selector));
+        }
+
+        var singleQuery = timeReads(selectors, dal::loadObject);
+        var steps = timeReads(selectors, dal::loadObjectSteps);
+
+        log.info("Single read benchmark ({}): single query p50 = {} us, p99 = {} us",
+                getClass().getSimpleName(), percentile(singleQuery, 50), percentile(singleQuery, 99));
+
+        log.info("Single read benchmark ({}): step by step p50 = {} us, p99 = {} us",
+                getClass().getSimpleName(), percentile(steps, 50), percentile(steps, 99));
+    }
+
+    private long[] timeReads(List<TagSelector> selectors, BiFunction<String, TagSelector, ?> read) {
+
+        var timings = new long[TIMED_READS];
+
+        for (var i = 0; i < TIMED_READS; i++) {
+
+            var selector = selectors.get(i % selectors.size());
+
+            var start = System.nanoTime();
+            read.apply(TEST_TENANT, selector);
+            timings[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(timings);
+
+        return timings;
+    }
+
+    private long percentile(long[] sortedTimings, int percentile) {
+
+        var index = (sortedTimings.length * percentile) / 100;
+
+        return sortedTimings[Math.min(index, sortedTimings.length - 1)] / 1000;
+    }
+}
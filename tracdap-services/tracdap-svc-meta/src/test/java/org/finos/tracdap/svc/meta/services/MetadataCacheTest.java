@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.config.MetadataCacheConfig;
+import org.finos.tracdap.config.PlatformConfig;
+import org.finos.tracdap.metadata.*;
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+
+class MetadataCacheTest {
+
+    private static final String TEST_TENANT = "ACME_CORP";
+
+    @Test
+    void explicitSelector_hitAfterPut() {
+
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var tag = testTag(UUID.randomUUID(), 1, 1);
+
+        assertNull(cache.get(TEST_TENANT, explicitSelector(tag)));
+
+        cache.put(TEST_TENANT, tag);
+
+        assertEquals(tag, cache.get(TEST_TENANT, explicitSelector(tag)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void metrics_publishedOverJmx() throws Exception {
+
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var tag = testTag(UUID.randomUUID(), 1, 1);
+
+        var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        var mbeanName = new ObjectName("org.finos.tracdap.test:type=MetadataCache,name=" + getClass().getSimpleName());
+
+        mbeanServer.registerMBean(cache, mbeanName);
+
+        try {
+
+            cache.get(TEST_TENANT, explicitSelector(tag));
+            cache.put(TEST_TENANT, tag);
+            cache.get(TEST_TENANT, explicitSelector(tag));
+            cache.get(TEST_TENANT, explicitSelector(tag));
+
+            // Counters are live, they can be read while the cache is in use
+
+            assertEquals(2L, mbeanServer.getAttribute(mbeanName, "HitCount"));
+            assertEquals(1L, mbeanServer.getAttribute(mbeanName, "MissCount"));
+            assertEquals(1, mbeanServer.getAttribute(mbeanName, "Size"));
+            assertEquals(2.0 / 3.0, (double) mbeanServer.getAttribute(mbeanName, "HitRatio"), 1e-9);
+        }
+        finally {
+            mbeanServer.unregisterMBean(mbeanName);
+        }
+    }
+
+    @Test
+    void latestSelector_neverServed() {
+
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var tag = testTag(UUID.randomUUID(), 1, 1);
+
+        cache.put(TEST_TENANT, tag);
+
+        var selector = explicitSelector(tag).toBuilder().setLatestTag(true).build();
+
+        assertFalse(MetadataCache.isExplicit(selector));
+        assertNull(cache.get(TEST_TENANT, selector));
+    }
+
+    @Test
+    void keyIncludesTenantAndType() {
+
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var tag = testTag(UUID.randomUUID(), 1, 1);
+
+        cache.put(TEST_TENANT, tag);
+
+        var wrongType = explicitSelector(tag).toBuilder().setObjectType(ObjectType.MODEL).build();
+
+        assertNull(cache.get("ANOTHER_TENANT", explicitSelector(tag)));
+        assertNull(cache.get(TEST_TENANT, wrongType));
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+
+        var config = MetadataCacheConfig.newBuilder().setMaxEntries(2).build();
+        var cache = new MetadataCache(config);
+
+        var tag1 = testTag(UUID.randomUUID(), 1, 1);
+        var tag2 = testTag(UUID.randomUUID(), 1, 1);
+        var tag3 = testTag(UUID.randomUUID(), 1, 1);
+
+        cache.put(TEST_TENANT, tag1);
+        cache.put(TEST_TENANT, tag2);
+
+        // Touch tag 1, so tag 2 is the eldest entry
+        cache.get(TEST_TENANT, explicitSelector(tag1));
+        cache.put(TEST_TENANT, tag3);
+
+        assertEquals(2, cache.getSize());
+        assertNotNull(cache.get(TEST_TENANT, explicitSelector(tag1)));
+        assertNull(cache.get(TEST_TENANT, explicitSelector(tag2)));
+        assertNotNull(cache.get(TEST_TENANT, explicitSelector(tag3)));
+    }
+
+    @Test
+    void readService_readThrough() {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var readService = new MetadataReadService(dal, PlatformConfig.getDefaultInstance(), cache);
+
+        var tag = testTag(UUID.randomUUID(), 1, 1);
+        var selector = explicitSelector(tag);
+
+        Mockito.when(dal.loadObject(TEST_TENANT, selector)).thenReturn(tag);
+
+        assertEquals(tag, readService.readObject(TEST_TENANT, selector));
+        assertEquals(tag, readService.readObject(TEST_TENANT, selector));
+
+        Mockito.verify(dal, Mockito.times(1)).loadObject(any(), any());
+    }
+
+    @Test
+    void readService_latestResultIsCached() {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var readService = new MetadataReadService(dal, PlatformConfig.getDefaultInstance(), cache);
+
+        var tag = testTag(UUID.randomUUID(), 2, 3);
+        var latestSelector = explicitSelector(tag).toBuilder().setLatestObject(true).setLatestTag(true).build();
+
+        Mockito.when(dal.loadObject(TEST_TENANT, latestSelector)).thenReturn(tag);
+
+        // Latest selectors always go to the DAL, but the result can serve explicit selectors afterwards
+
+        assertEquals(tag, readService.readObject(TEST_TENANT, latestSelector));
+        assertEquals(tag, readService.readObject(TEST_TENANT, latestSelector));
+        assertEquals(tag, readService.readObject(TEST_TENANT, explicitSelector(tag)));
+
+        Mockito.verify(dal, Mockito.times(2)).loadObject(any(), any());
+    }
+
+    @Test
+    void readService_batchLoadsOnlyMisses() {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var cache = new MetadataCache(MetadataCacheConfig.getDefaultInstance());
+        var readService = new MetadataReadService(dal, PlatformConfig.getDefaultInstance(), cache);
+
+        var tag1 = testTag(UUID.randomUUID(), 1, 1);
+        var tag2 = testTag(UUID.randomUUID(), 1, 1);
+        var tag3 = testTag(UUID.randomUUID(), 1, 1);
+
+        cache.put(TEST_TENANT, tag2);
+
+        var selectors = List.of(explicitSelector(tag1), explicitSelector(tag2), explicitSelector(tag3));
+        var missSelectors = List.of(explicitSelector(tag1), explicitSelector(tag3));
+
+        Mockito.when(dal.loadObjects(TEST_TENANT, missSelectors)).thenReturn(List.of(tag1, tag3));
+
+        var tags = readService.readObjects(TEST_TENANT, selectors);
+
+        assertEquals(List.of(tag1, tag2, tag3), tags);
+        Mockito.verify(dal, Mockito.times(1)).loadObjects(TEST_TENANT, missSelectors);
+
+        // Everything is cached now, so a second read does not reach the DAL
+
+        var tags2 = readService.readObjects(TEST_TENANT, selectors);
+
+        assertEquals(List.of(tag1, tag2, tag3), tags2);
+        Mockito.verify(dal, Mockito.times(1)).loadObjects(any(), any());
+    }
+
+    private Tag testTag(UUID objectId, int objectVersion, int tagVersion) {
+
+        var header = TagHeader.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setObjectId(objectId.toString())
+                .setObjectVersion(objectVersion)
+                .setTagVersion(tagVersion)
+                .build();
+
+        return Tag.newBuilder()
+                .setHeader(header)
+                .build();
+    }
+
+    private TagSelector explicitSelector(Tag tag) {
+
+        var header = tag.getHeader();
+
+        return TagSelector.newBuilder()
+                .setObjectType(header.getObjectType())
+                .setObjectId(header.getObjectId())
+                .setObjectVersion(header.getObjectVersion())
+                .setTagVersion(header.getTagVersion())
+                .build();
+    }
+}
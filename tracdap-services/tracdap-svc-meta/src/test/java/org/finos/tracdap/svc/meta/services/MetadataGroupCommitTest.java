@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.common.exception.EMetadataDuplicate;
+import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.svc.meta.dal.IMetadataDal;
+import org.finos.tracdap.svc.meta.dal.operations.DalWriteOperation;
+import org.finos.tracdap.svc.meta.dal.operations.SaveNewTag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.finos.tracdap.test.meta.TestData.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+
+class MetadataGroupCommitTest {
+
+    private static final Duration LONG_WINDOW = Duration.ofSeconds(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void requestsGrouped() throws Exception {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var groupCommit = new MetadataGroupCommit(dal, LONG_WINDOW, 3);
+
+        // Group size is reached before the window closes, so all three requests go in one write
+
+        var results = runConcurrent(groupCommit, List.of(
+                tagUpdate(ObjectType.DATA),
+                tagUpdate(ObjectType.MODEL),
+                tagUpdate(ObjectType.FLOW)));
+
+        for (var result : results)
+            assertDoesNotThrow(() -> result.get(5, TimeUnit.SECONDS));
+
+        Mockito.verify(dal, Mockito.times(1)).runWriteOperations(eq(TEST_TENANT), argThat(ops -> ops.size() == 3));
+        assertEquals(1, groupCommit.groupCount());
+        assertEquals(3, groupCommit.requestCount());
+    }
+
+    @Test
+    void singleRequestAfterWindow() {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var groupCommit = new MetadataGroupCommit(dal, Duration.ofMillis(2), 100);
+
+        var request = tagUpdate(ObjectType.DATA);
+
+        groupCommit.runWriteOperations(TEST_TENANT, request);
+
+        Mockito.verify(dal, Mockito.times(1)).runWriteOperations(TEST_TENANT, request);
+    }
+
+    @Test
+    void failedGroupRetriedIndividually() throws Exception {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var groupCommit = new MetadataGroupCommit(dal, LONG_WINDOW, 3);
+
+        var good1 = tagUpdate(ObjectType.DATA);
+        var bad = tagUpdate(ObjectType.MODEL);
+        var good2 = tagUpdate(ObjectType.FLOW);
+
+        // The grouped write fails, because it includes the bad request
+        // Then the bad request fails again when it is written on its own
+
+        Mockito.doThrow(new EMetadataDuplicate("duplicate"))
+                .when(dal).runWriteOperations(eq(TEST_TENANT), argThat(ops -> ops.size() > 1 || ops.equals(bad)));
+
+        var results = runConcurrent(groupCommit, List.of(good1, bad, good2));
+
+        assertDoesNotThrow(() -> results.get(0).get(5, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> results.get(2).get(5, TimeUnit.SECONDS));
+
+        var error = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof EMetadataDuplicate);
+
+        Mockito.verify(dal).runWriteOperations(TEST_TENANT, good1);
+        Mockito.verify(dal).runWriteOperations(TEST_TENANT, bad);
+        Mockito.verify(dal).runWriteOperations(TEST_TENANT, good2);
+        assertEquals(1, groupCommit.retryCount());
+    }
+
+    @Test
+    void sameObjectNotGrouped() throws Exception {
+
+        var dal = Mockito.mock(IMetadataDal.class);
+        var groupCommit = new MetadataGroupCommit(dal, Duration.ofMillis(200), 2);
+
+        var tag = dummyTagForObjectType(ObjectType.DATA);
+        var update1 = List.<DalWriteOperation>of(new SaveNewTag(List.of(nextTag(tag, UPDATE_TAG_VERSION))));
+        var update2 = List.<DalWriteOperation>of(new SaveNewTag(List.of(nextTag(tag, UPDATE_TAG_VERSION))));
+
+        // Both requests write the same object, so they must not share a transaction
+
+        var results = runConcurrent(groupCommit, List.of(update1, update2));
+
+        for (var result : results)
+            assertDoesNotThrow(() -> result.get(5, TimeUnit.SECONDS));
+
+        Mockito.verify(dal, Mockito.times(2)).runWriteOperations(eq(TEST_TENANT), argThat(ops -> ops.size() == 1));
+        assertEquals(2, groupCommit.groupCount());
+    }
+
+    private List<Future<?>> runConcurrent(MetadataGroupCommit groupCommit, List<List<DalWriteOperation>> requests) throws Exception {
+
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<?>>();
+
+        for (var request : requests) {
+
+            var result = executor.submit(() -> {
+                start.await();
+                groupCommit.runWriteOperations(TEST_TENANT, request);
+                return null;
+            });
+
+            results.add(result);
+        }
+
+        start.countDown();
+
+        return results;
+    }
+
+    private List<DalWriteOperation> tagUpdate(ObjectType objectType) {
+
+        var tag = dummyTagForObjectType(objectType);
+        return List.of(new SaveNewTag(List.of(nextTag(tag, UPDATE_TAG_VERSION))));
+    }
+}
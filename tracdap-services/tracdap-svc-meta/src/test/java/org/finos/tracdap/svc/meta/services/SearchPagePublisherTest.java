@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.meta.services;
+
+import org.finos.tracdap.common.grpc.GrpcServerResponseStream;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.svc.meta.dal.SearchResultPage;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+
+class SearchPagePublisherTest {
+
+    private static final int N_PAGES = 5;
+
+    @Test
+    void pagesFetchedOnDemand() {
+
+        var fetchCount = new AtomicInteger();
+        var publisher = new SearchPagePublisher(token -> fetchPage(token, fetchCount), null);
+
+        var received = new ArrayList<SearchResultPage>();
+        var completed = new AtomicInteger();
+        var subscription = new Flow.Subscription[1];
+
+        publisher.subscribe(new Flow.Subscriber<>() {
+
+            @Override public void onSubscribe(Flow.Subscription s) { subscription[0] = s; }
+            @Override public void onNext(SearchResultPage page) { received.add(page); }
+            @Override public void onError(Throwable error) { fail(error); }
+            @Override public void onComplete() { completed.incrementAndGet(); }
+        });
+
+        // Nothing is fetched until the subscriber asks for it
+
+        assertEquals(0, fetchCount.get());
+
+        subscription[0].request(1);
+        assertEquals(1, fetchCount.get());
+        assertEquals(1, received.size());
+
+        subscription[0].request(2);
+        assertEquals(3, fetchCount.get());
+        assertEquals(3, received.size());
+        assertEquals(0, completed.get());
+
+        subscription[0].request(10);
+        assertEquals(N_PAGES, fetchCount.get());
+        assertEquals(N_PAGES, received.size());
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    void pagesFetchedOnDemand_requestInsideOnNext() {
+
+        var fetchCount = new AtomicInteger();
+        var publisher = new SearchPagePublisher(token -> fetchPage(token, fetchCount), null);
+
+        var received = new ArrayList<SearchResultPage>();
+        var completed = new AtomicInteger();
+
+        publisher.subscribe(new Flow.Subscriber<>() {
+
+            Flow.Subscription subscription;
+
+            @Override public void onSubscribe(Flow.Subscription s) { subscription = s; s.request(1); }
+            @Override public void onNext(SearchResultPage page) { received.add(page); subscription.request(1); }
+            @Override public void onError(Throwable error) { fail(error); }
+            @Override public void onComplete() { completed.incrementAndGet(); }
+        });
+
+        assertEquals(N_PAGES, fetchCount.get());
+        assertEquals(N_PAGES, received.size());
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void slowGrpcClient_doesNotPullEveryPage() {
+
+        var fetchCount = new AtomicInteger();
+        var publisher = new SearchPagePublisher(token -> fetchPage(token, fetchCount), null);
+
+        var grpcObserver = (ServerCallStreamObserver<SearchResultPage>) Mockito.mock(ServerCallStreamObserver.class);
+        var onReady = ArgumentCaptor.forClass(Runnable.class);
+
+        // The client is not reading, so the transport is not ready after the first message
+
+        Mockito.when(grpcObserver.isReady()).thenReturn(false);
+
+        var responseStream = new GrpcServerResponseStream<>(grpcObserver);
+        Mockito.verify(grpcObserver).setOnReadyHandler(onReady.capture());
+
+        publisher.subscribe(responseStream);
+
+        assertEquals(0, fetchCount.get());
+        Mockito.verify(grpcObserver, Mockito.never()).onNext(any());
+
+        // The client catches up, one page is sent each time the transport becomes ready
+
+        onReady.getValue().run();
+
+        assertEquals(1, fetchCount.get());
+        Mockito.verify(grpcObserver, Mockito.times(1)).onNext(any());
+
+        onReady.getValue().run();
+
+        assertEquals(2, fetchCount.get());
+        Mockito.verify(grpcObserver, Mockito.times(2)).onNext(any());
+
+        // Once the client keeps up, the remaining pages are streamed without waiting
+
+        Mockito.when(grpcObserver.isReady()).thenReturn(true);
+        onReady.getValue().run();
+
+        assertEquals(N_PAGES, fetchCount.get());
+        Mockito.verify(grpcObserver, Mockito.times(N_PAGES)).onNext(any());
+        Mockito.verify(grpcObserver).onCompleted();
+    }
+
+    private SearchResultPage fetchPage(String pageToken, AtomicInteger fetchCount) {
+
+        var pageNumber = pageToken == null ? 0 : Integer.parseInt(pageToken);
+        var nextPageToken = pageNumber + 1 < N_PAGES ? Integer.toString(pageNumber + 1) : null;
+
+        fetchCount.incrementAndGet();
+
+        return new SearchResultPage(List.of(Tag.getDefaultInstance()), nextPageToken);
+    }
+}
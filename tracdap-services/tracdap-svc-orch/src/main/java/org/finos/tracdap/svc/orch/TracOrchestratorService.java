@@ -20,17 +20,23 @@ import org.finos.tracdap.api.TrustedMetadataApiGrpc;
 import org.finos.tracdap.common.auth.AuthSetup;
 import org.finos.tracdap.common.auth.GrpcServerAuth;
 import org.finos.tracdap.common.config.ConfigManager;
+import org.finos.tracdap.common.db.JdbcSetup;
 import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.grpc.ErrorMappingInterceptor;
 import org.finos.tracdap.common.grpc.LoggingClientInterceptor;
 import org.finos.tracdap.common.grpc.LoggingServerInterceptor;
+import org.finos.tracdap.common.metadata.MetadataClientCache;
 import org.finos.tracdap.common.plugin.PluginManager;
 import org.finos.tracdap.common.service.CommonServiceBase;
 import org.finos.tracdap.config.PlatformConfig;
+import org.finos.tracdap.config.PluginConfig;
 import org.finos.tracdap.config.ServiceConfig;
 import org.finos.tracdap.svc.orch.api.TracOrchestratorApi;
+import org.finos.tracdap.svc.orch.cache.IJobCache;
+import org.finos.tracdap.svc.orch.cache.jdbc.JdbcJobCache;
 import org.finos.tracdap.svc.orch.cache.local.LocalJobCache;
 import org.finos.tracdap.common.exec.IBatchExecutor;
+import org.finos.tracdap.svc.orch.service.JobFollowers;
 import org.finos.tracdap.svc.orch.service.JobManager;
 import org.finos.tracdap.svc.orch.service.JobProcessor;
 import org.finos.tracdap.svc.orch.service.JobState;
@@ -49,6 +55,7 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -59,6 +66,10 @@ public class TracOrchestratorService extends CommonServiceBase {
 
     private static final int CONCURRENT_REQUESTS = 30;
 
+    private static final String LOCAL_JOB_CACHE = "LOCAL";
+    private static final String JDBC_JOB_CACHE = "JDBC";
+    private static final String CHANGE_POLL_INTERVAL_CONFIG_KEY = "changePollInterval";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final PluginManager pluginManager;
@@ -70,9 +81,13 @@ public class TracOrchestratorService extends CommonServiceBase {
 
     private Server server;
     private ManagedChannel clientChannel;
+    private MetadataClientCache metadataCache;
 
     private IBatchExecutor<?> jobExecutor;
+    private DataSource jobCacheSource;
+    private JdbcJobCache<JobState> jdbcJobCache;
     private JobManager jobManager;
+    private JobFollowers jobFollowers;
 
     public TracOrchestratorService(PluginManager pluginManager, ConfigManager configManager) {
 
@@ -118,21 +133,29 @@ public class TracOrchestratorService extends CommonServiceBase {
                     .newBlockingStub(clientChannel)
                     .withInterceptors(new LoggingClientInterceptor(JobLifecycle.class));
 
+            // Immutable metadata versions can be cached on the client side, if the cache is configured
+            if (platformConfig.getMetadata().hasClientCache()) {
+                metadataCache = new MetadataClientCache(platformConfig.getMetadata().getClientCache());
+                metaClient = metaClient.withInterceptors(metadataCache);
+            }
+
             jobExecutor = pluginManager.createService(
                     IBatchExecutor.class,
                     platformConfig.getExecutor(),
                     configManager);
 
-            var jobCache = new LocalJobCache<JobState>();
+            var jobCache = createJobCache(platformConfig);
 
             var jobLifecycle = new JobLifecycle(platformConfig, metaClient);
             var jobProcessor = new JobProcessor(metaClient, jobExecutor, jobLifecycle);
             jobManager = new JobManager(platformConfig, jobProcessor, jobCache, serviceGroup);
+            jobFollowers = new JobFollowers(jobCache);
 
             jobExecutor.start();
             jobManager.start();
+            jobFollowers.start();
 
-            var orchestrator = new JobApiService(jobManager, jobProcessor);
+            var orchestrator = new JobApiService(jobManager, jobProcessor, jobFollowers);
             var orchestratorApi = new TracOrchestratorApi(orchestrator);
 
             var jwtValidator = AuthSetup.createValidator(platformConfig, configManager);
@@ -165,6 +188,11 @@ public class TracOrchestratorService extends CommonServiceBase {
 
         var deadline = Instant.now().plus(shutdownTimeout);
 
+        // Follow streams stay open until their jobs complete, close them so the server can shut down
+
+        if (jobFollowers != null)
+            jobFollowers.stop();
+
         var serverDown = shutdownResource("Orchestrator service server", deadline, remaining -> {
 
             server.shutdown();
@@ -177,6 +205,9 @@ public class TracOrchestratorService extends CommonServiceBase {
             return clientChannel.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
+        if (metadataCache != null)
+            metadataCache.logStatistics();
+
         var executorDown = shutdownResource("Executor service", deadline, remainingTime -> {
 
             jobExecutor.stop();
@@ -189,6 +220,17 @@ public class TracOrchestratorService extends CommonServiceBase {
             return true;
         });
 
+        var jobCacheDown = shutdownResource("Job cache database pool", deadline, remaining -> {
+
+            if (jdbcJobCache != null)
+                jdbcJobCache.stop();
+
+            if (jobCacheSource != null)
+                JdbcSetup.destroyDatasource(jobCacheSource);
+
+            return true;
+        });
+
         var serviceThreadsDown = shutdownResource("Service thread pool", deadline, remaining -> {
 
             serviceGroup.shutdownGracefully(0, remaining.toMillis(), TimeUnit.MILLISECONDS);
@@ -207,7 +249,7 @@ public class TracOrchestratorService extends CommonServiceBase {
             return bossGroup.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
-        if (serverDown && clientDown && executorDown && jobMonitorDown &&
+        if (serverDown && clientDown && executorDown && jobMonitorDown && jobCacheDown &&
             serviceThreadsDown && nettyDown && bossDown)
             return 0;
 
@@ -220,6 +262,65 @@ public class TracOrchestratorService extends CommonServiceBase {
         return -1;
     }
 
+    private IJobCache<JobState> createJobCache(PlatformConfig platformConfig) {
+
+        var cacheConfig = platformConfig.getJobCache();
+        var protocol = cacheConfig.getProtocol();
+
+        if (protocol.isBlank() || protocol.equalsIgnoreCase(LOCAL_JOB_CACHE)) {
+
+            log.info("Using local job cache");
+            return new LocalJobCache<>();
+        }
+
+        if (protocol.equalsIgnoreCase(JDBC_JOB_CACHE)) {
+
+            var dialect = JdbcSetup.getSqlDialect(cacheConfig);
+
+            log.info("Using JDBC job cache, SQL dialect [{}]", dialect);
+
+            jobCacheSource = JdbcSetup.createDatasource(configManager, cacheConfig);
+
+            // Changes made by other orchestrator instances are found by polling
+            var changePollInterval = readChangePollInterval(cacheConfig);
+
+            jdbcJobCache = new JdbcJobCache<>(jobCacheSource, dialect);
+            jdbcJobCache.start();
+            jdbcJobCache.startChangePoll(serviceGroup, changePollInterval);
+
+            return jdbcJobCache;
+        }
+
+        var err = String.format("Unsupported job cache protocol: [%s]", protocol);
+        log.error(err);
+        throw new EStartup(err);
+    }
+
+    private Duration readChangePollInterval(PluginConfig cacheConfig) {
+
+        if (!cacheConfig.containsProperties(CHANGE_POLL_INTERVAL_CONFIG_KEY))
+            return JdbcJobCache.DEFAULT_CHANGE_POLL_INTERVAL;
+
+        var configValue = cacheConfig.getPropertiesOrThrow(CHANGE_POLL_INTERVAL_CONFIG_KEY);
+
+        try {
+            var pollInterval = Integer.parseInt(configValue.trim());
+
+            if (pollInterval > 0)
+                return Duration.ofSeconds(pollInterval);
+        }
+        catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        var message = String.format(
+                "Invalid config property [%s]: Expected a positive integer, got [%s]",
+                CHANGE_POLL_INTERVAL_CONFIG_KEY, configValue);
+
+        log.error(message);
+        throw new EStartup(message);
+    }
+
     private void prepareMetadataClientChannel(
             PlatformConfig platformConfig,
             Class<? extends io.netty.channel.Channel> channelType) {
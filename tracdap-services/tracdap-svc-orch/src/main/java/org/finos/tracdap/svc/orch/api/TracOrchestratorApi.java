@@ -36,6 +36,7 @@ public class TracOrchestratorApi extends TracOrchestratorApiGrpc.TracOrchestrato
     private static final MethodDescriptor<JobRequest, JobStatus> VALIDATE_JOB_METHOD = TracOrchestratorApiGrpc.getValidateJobMethod();
     private static final MethodDescriptor<JobRequest, JobStatus> SUBMIT_JOB_METHOD = TracOrchestratorApiGrpc.getSubmitJobMethod();
     private static final MethodDescriptor<JobStatusRequest, JobStatus> CHECK_JOB_METHOD = TracOrchestratorApiGrpc.getCheckJobMethod();
+    private static final MethodDescriptor<JobStatusRequest, JobStatus> FOLLOW_JOB_METHOD = TracOrchestratorApiGrpc.getFollowJobMethod();
 
     private final Validator validator;
     private final JobApiService orchestrator;
@@ -74,7 +75,10 @@ public class TracOrchestratorApi extends TracOrchestratorApiGrpc.TracOrchestrato
 
     @Override
     public void followJob(JobStatusRequest request, StreamObserver<JobStatus> responseObserver) {
-        super.followJob(request, responseObserver);
+
+        grpcWrap.serverStreaming(
+                request, responseObserver,
+                apiFunc(FOLLOW_JOB_METHOD, orchestrator::followJob));
     }
 
     @Override
@@ -82,9 +86,9 @@ public class TracOrchestratorApi extends TracOrchestratorApiGrpc.TracOrchestrato
         super.cancelJob(request, responseObserver);
     }
 
-    private <TReq extends Message, TResp extends Message>
-    Function<TReq, TResp>
-    apiFunc(MethodDescriptor<TReq, TResp> method, Function<TReq, TResp> func) {
+    private <TReq extends Message, TResp extends Message, TResult>
+    Function<TReq, TResult>
+    apiFunc(MethodDescriptor<TReq, TResp> method, Function<TReq, TResult> func) {
 
         var protoMethod = TRAC_ORCHESTRATOR_SERVICE.findMethodByName(method.getBareMethodName());
 
@@ -17,6 +17,7 @@
 package org.finos.tracdap.svc.orch.cache;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -36,6 +37,9 @@ public interface IJobCache<TValue> {
     CacheQueryResult<TValue> getEntry(String key, int revision);
     CacheQueryResult<TValue> getLatestEntry(String key);
 
-    List<CacheQueryResult<TValue>> queryState(List<String> states);
-    List<CacheQueryResult<TValue>> queryState(List<String> states, boolean includeOpenTickets);
+    List<CacheQueryResult<TValue>> queryState(Collection<String> states);
+    List<CacheQueryResult<TValue>> queryState(Collection<String> states, boolean includeOpenTickets);
+
+    void addListener(IJobCacheListener<TValue> listener);
+    void removeListener(IJobCacheListener<TValue> listener);
 }
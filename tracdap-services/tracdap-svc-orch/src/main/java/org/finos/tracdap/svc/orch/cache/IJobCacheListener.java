@@ -0,0 +1,35 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.finos.tracdap.svc.orch.cache;
+
+
+public interface IJobCacheListener<TValue> {
+
+    // Listeners are called on the thread that changed the cache, so they should not block
+    // For caches shared between instances, changes from other instances arrive on the thread that found them
+    // Anything more than a quick check should be handed off to another thread
+
+    // An entry was added or updated, the ticket used to make the change is still open
+    default void entryUpdated(CacheQueryResult<TValue> entry) {}
+
+    // The ticket on an entry was closed, so the entry is available for the next operation
+    default void entryReleased(CacheQueryResult<TValue> entry) {}
+
+    // An entry was removed from the cache
+    default void entryRemoved(String key) {}
+}
@@ -0,0 +1,818 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.cache.jdbc;
+
+import org.finos.tracdap.common.db.JdbcDialect;
+import org.finos.tracdap.common.exception.ECache;
+import org.finos.tracdap.common.exception.ECacheNotFound;
+import org.finos.tracdap.common.exception.ECacheTicket;
+import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.svc.orch.cache.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+
+/**
+ * Job cache backed by a SQL database, so the cache can be shared by several orchestrator instances.
+ *
+ * <p>Each cache entry is one row in the job_cache table. Tickets are leases on the row, a ticket is only
+ * granted if the row is at the expected revision and no other unexpired lease is held. Updates and removals
+ * are only applied while the lease is still held by the same ticket.</p>
+ *
+ * <p>Listeners are notified straight away of changes made through this instance of the cache. Changes made
+ * by other instances are found by a change poll, which reads rows by their last activity time and notifies
+ * listeners of new revisions and removed entries. Revisions that have already been notified are not sent again.</p>
+ */
+public class JdbcJobCache<TValue extends Serializable> implements IJobCache<TValue> {
+
+    public static final Duration DEFAULT_TICKET_DURATION = Duration.of(30, ChronoUnit.SECONDS);
+    public static final Duration MAX_TICKET_DURATION = Duration.of(5, ChronoUnit.MINUTES);
+    public static final Duration DEFAULT_CHANGE_POLL_INTERVAL = Duration.of(2, ChronoUnit.SECONDS);
+
+    // The change poll reads back a little before the previous poll, so clock differences between instances
+    // and transactions that commit after the poll has started do not hide any changes
+    private static final Duration CHANGE_POLL_MARGIN = Duration.of(10, ChronoUnit.SECONDS);
+
+    private static final int FIRST_REVISION = 0;
+
+    private static final String CACHE_TABLE = "job_cache";
+    private static final String CACHE_TABLE_DDL = "jdbc/%s/job_cache.ddl";
+
+    // SQL state class for integrity constraint violations, including duplicate keys
+    private static final String INTEGRITY_VIOLATION = "23";
+
+    private static final String SELECT_ENTRY =
+            "select job_key, revision, status, value_data, ticket_id\n" +
+            "from job_cache\n" +
+            "where job_key = ?";
+
+    private static final String SELECT_STATE =
+            "select job_key, revision, status, value_data, ticket_id\n" +
+            "from job_cache\n" +
+            "where status in (%s)";
+
+    private static final String SELECT_CHANGES =
+            "select job_key, revision, status, value_data, ticket_id\n" +
+            "from job_cache\n" +
+            "where last_activity >= ?";
+
+    private static final String SELECT_KEYS =
+            "select job_key from job_cache";
+
+    private static final String INSERT_ENTRY =
+            "insert into job_cache (\n" +
+            "  job_key, revision, status, value_data,\n" +
+            "  ticket_id, ticket_expiry, last_activity)\n" +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ENTRY =
+            "update job_cache set\n" +
+            "  revision = revision + 1, status = ?, value_data = ?, last_activity = ?\n" +
+            "where job_key = ? and ticket_id = ?";
+
+    private static final String DELETE_ENTRY =
+            "delete from job_cache\n" +
+            "where job_key = ? and ticket_id = ?";
+
+    private static final String GRANT_TICKET =
+            "update job_cache set\n" +
+            "  ticket_id = ?, ticket_expiry = ?\n" +
+            "where job_key = ? and revision = ?\n" +
+            "and (ticket_id is null or ticket_expiry <= ?)";
+
+    private static final String RELEASE_TICKET =
+            "update job_cache set\n" +
+            "  ticket_id = null, ticket_expiry = null\n" +
+            "where job_key = ? and ticket_id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final DataSource source;
+    private final JdbcDialect dialect;
+
+    private final List<IJobCacheListener<TValue>> listeners;
+
+    // Latest revision of each entry that listeners have been notified about, from this instance or the change poll
+    private final ConcurrentMap<String, Integer> notifiedRevisions;
+
+    private Instant lastChangePoll;
+    private ScheduledFuture<?> changePollTask;
+
+    public JdbcJobCache(DataSource source, JdbcDialect dialect) {
+
+        this.source = source;
+        this.dialect = dialect;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.notifiedRevisions = new ConcurrentHashMap<>();
+    }
+
+    public void start() {
+
+        try (var conn = source.getConnection()) {
+
+            if (cacheTableExists(conn)) {
+                log.info("Job cache table is already in place");
+                return;
+            }
+
+            log.info("Creating job cache table for SQL dialect [{}]", dialect);
+
+            try {
+                createCacheTable(conn);
+            }
+            catch (SQLException e) {
+
+                // Another orchestrator instance may have created the table at the same time
+                if (!cacheTableExists(conn))
+                    throw e;
+            }
+        }
+        catch (SQLException e) {
+
+            var message = String.format("Job cache table could not be prepared: %s", e.getMessage());
+            log.error(message, e);
+            throw new EStartup(message, e);
+        }
+    }
+
+    public synchronized void startChangePoll(ScheduledExecutorService executor, Duration pollInterval) {
+
+        if (changePollTask != null)
+            return;
+
+        log.info("Polling the job cache for changes from other instances, interval = [{}] ms", pollInterval.toMillis());
+
+        changePollTask = executor.scheduleWithFixedDelay(
+                this::changePollTask, pollInterval.toMillis(),
+                pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+
+        if (changePollTask != null) {
+            changePollTask.cancel(false);
+            changePollTask = null;
+        }
+    }
+
+    public void pollChanges() {
+
+        // Only one poll runs at a time, polls are also run directly in tests
+
+        synchronized (notifiedRevisions) {
+
+            var pollTime = Instant.now();
+            var since = lastChangePoll != null ? lastChangePoll.minus(CHANGE_POLL_MARGIN) : Instant.EPOCH;
+
+            // Only entries known before the query can be reported as removed,
+            // otherwise an entry added by this instance during the poll could be reported as removed
+
+            var knownKeys = new HashSet<>(notifiedRevisions.keySet());
+
+            var changes = new ArrayList<JdbcCacheEntry>();
+            var currentKeys = new HashSet<String>();
+
+            wrapTransaction(conn -> {
+                readChanges(conn, since, changes);
+                readKeys(conn, currentKeys);
+                return null;
+            });
+
+            for (var entry : changes) {
+                if (markNotified(entry.key, entry.revision))
+                    notifyListeners(l -> l.entryUpdated(entry.queryResult()));
+            }
+
+            for (var key : knownKeys) {
+                if (!currentKeys.contains(key) && notifiedRevisions.remove(key) != null)
+                    notifyListeners(l -> l.entryRemoved(key));
+            }
+
+            lastChangePoll = pollTime;
+        }
+    }
+
+    private boolean markNotified(String key, int revision) {
+
+        var isNewRevision = new AtomicBoolean(false);
+
+        notifiedRevisions.compute(key, (_key, notified) -> {
+
+            if (notified != null && notified >= revision)
+                return notified;
+
+            isNewRevision.set(true);
+            return revision;
+        });
+
+        return isNewRevision.get();
+    }
+
+    private void changePollTask() {
+
+        try {
+            pollChanges();
+        }
+        catch (Exception e) {
+            // Keep polling, the next poll reads back far enough to pick up anything missed
+            log.warn("Job cache change poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void addListener(IJobCacheListener<TValue> listener) {
+
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(IJobCacheListener<TValue> listener) {
+
+        listeners.remove(listener);
+    }
+
+    @Override
+    public Ticket openNewTicket(String key) {
+
+        return openNewTicket(key, DEFAULT_TICKET_DURATION);
+    }
+
+    @Override
+    public Ticket openNewTicket(String key, Duration duration) {
+
+        var grantTime = Instant.now();
+        var grantDuration = duration.compareTo(MAX_TICKET_DURATION) < 0 ? duration : MAX_TICKET_DURATION;
+
+        // New entries are not locked until they are added, adding a duplicate key fails on the primary key
+
+        var entry = wrapTransaction(conn -> readEntry(conn, key));
+
+        if (entry != null)
+            return Ticket.supersededTicket(key, FIRST_REVISION, grantTime);
+        else
+            return JdbcTicket.grantLease(this, key, FIRST_REVISION, grantTime, grantDuration);
+    }
+
+    @Override
+    public Ticket openTicket(String key, int revision) {
+
+        return openTicket(key, revision, DEFAULT_TICKET_DURATION);
+    }
+
+    @Override
+    public Ticket openTicket(String key, int revision, Duration duration) {
+
+        var grantTime = Instant.now();
+        var grantDuration = duration.compareTo(MAX_TICKET_DURATION) < 0 ? duration : MAX_TICKET_DURATION;
+
+        var ticket = JdbcTicket.grantLease(this, key, revision, grantTime, grantDuration);
+
+        var granted = wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(GRANT_TICKET)) {
+
+                stmt.setString(1, ticket.ticketId());
+                stmt.setLong(2, ticket.expiry().toEpochMilli());
+                stmt.setString(3, key);
+                stmt.setInt(4, revision);
+                stmt.setLong(5, grantTime.toEpochMilli());
+
+                if (stmt.executeUpdate() == 1)
+                    return true;
+            }
+
+            if (readEntry(conn, key) == null)
+                return null;
+
+            return false;
+        });
+
+        if (granted == null)
+            return Ticket.missingEntryTicket(key, revision, grantTime);
+
+        if (!granted)
+            return Ticket.supersededTicket(key, revision, grantTime);
+
+        return ticket;
+    }
+
+    @Override
+    public void closeTicket(Ticket ticket) {
+
+        if (ticket.superseded())
+            return;
+
+        var jdbcTicket = jdbcTicket(ticket, "release");
+
+        var entry = wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(RELEASE_TICKET)) {
+
+                stmt.setString(1, ticket.key());
+                stmt.setString(2, jdbcTicket.ticketId());
+
+                if (stmt.executeUpdate() != 1)
+                    return null;
+            }
+
+            return readEntry(conn, ticket.key());
+        });
+
+        if (entry != null)
+            notifyListeners(l -> l.entryReleased(entry.queryResult()));
+    }
+
+    @Override
+    public int addEntry(Ticket ticket, String status, TValue value) {
+
+        var commitTime = Instant.now();
+
+        checkValidTicket(ticket, "create", commitTime);
+
+        var jdbcTicket = jdbcTicket(ticket, "create");
+        var revision = ticket.revision() + 1;
+        var valueData = encodeValue(value);
+
+        wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(INSERT_ENTRY)) {
+
+                stmt.setString(1, ticket.key());
+                stmt.setInt(2, revision);
+                stmt.setString(3, status);
+                stmt.setBytes(4, valueData);
+                stmt.setString(5, jdbcTicket.ticketId());
+                stmt.setLong(6, ticket.expiry().toEpochMilli());
+                stmt.setLong(7, commitTime.toEpochMilli());
+
+                return stmt.executeUpdate();
+            }
+            catch (SQLException e) {
+
+                if (e.getSQLState() == null || !e.getSQLState().startsWith(INTEGRITY_VIOLATION))
+                    throw e;
+
+                var message = String.format("Cannot create [%s], item is already in the cache", ticket.key());
+                log.error(message);
+                throw new ECacheTicket(message);
+            }
+        });
+
+        // The change poll may already have seen this revision, do not notify it twice
+        if (markNotified(ticket.key(), revision))
+            notifyListeners(l -> l.entryUpdated(new CacheQueryResult<>(ticket.key(), revision, status, value)));
+
+        return revision;
+    }
+
+    @Override
+    public int updateEntry(Ticket ticket, String status, TValue value) {
+
+        var commitTime = Instant.now();
+
+        checkValidTicket(ticket, "update", commitTime);
+
+        var jdbcTicket = jdbcTicket(ticket, "update");
+        var valueData = encodeValue(value);
+
+        var revision = wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(UPDATE_ENTRY)) {
+
+                stmt.setString(1, status);
+                stmt.setBytes(2, valueData);
+                stmt.setLong(3, commitTime.toEpochMilli());
+                stmt.setString(4, ticket.key());
+                stmt.setString(5, jdbcTicket.ticketId());
+
+                if (stmt.executeUpdate() != 1)
+                    throw ticketMismatch(readEntry(conn, ticket.key()), jdbcTicket, "update");
+            }
+
+            return readEntry(conn, ticket.key()).revision;
+        });
+
+        // The change poll may already have seen this revision, do not notify it twice
+        if (markNotified(ticket.key(), revision))
+            notifyListeners(l -> l.entryUpdated(new CacheQueryResult<>(ticket.key(), revision, status, value)));
+
+        return revision;
+    }
+
+    @Override
+    public void removeEntry(Ticket ticket) {
+
+        var commitTime = Instant.now();
+
+        checkValidTicket(ticket, "remove", commitTime);
+
+        var jdbcTicket = jdbcTicket(ticket, "remove");
+
+        wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(DELETE_ENTRY)) {
+
+                stmt.setString(1, ticket.key());
+                stmt.setString(2, jdbcTicket.ticketId());
+
+                if (stmt.executeUpdate() != 1)
+                    throw ticketMismatch(readEntry(conn, ticket.key()), jdbcTicket, "remove");
+
+                return null;
+            }
+        });
+
+        notifiedRevisions.remove(ticket.key());
+        notifyListeners(l -> l.entryRemoved(ticket.key()));
+    }
+
+    @Override
+    public CacheQueryResult<TValue> getEntry(Ticket ticket) {
+
+        var entry = wrapTransaction(conn -> readEntry(conn, ticket.key()));
+
+        if (entry == null) {
+            var message = String.format("Entry for [%s] is not in the cache", ticket.key());
+            log.error(message);
+            throw new ECacheNotFound(message);
+        }
+
+        if (!(ticket instanceof JdbcTicket) || !((JdbcTicket) ticket).ticketId().equals(entry.ticketId)) {
+            var message = String.format("Entry for [%s] does not match the expected ticket", ticket.key());
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+
+        return entry.queryResult();
+    }
+
+    @Override
+    public CacheQueryResult<TValue> getEntry(String key, int revision) {
+
+        var entry = wrapTransaction(conn -> readEntry(conn, key));
+
+        if (entry == null) {
+            var message = String.format("Entry for [%s] is not in the cache", key);
+            log.error(message);
+            throw new ECacheNotFound(message);
+        }
+
+        if (entry.revision != revision) {
+            var message = String.format("Entry for [%s] does not match the expected revision", key);
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+
+        return entry.queryResult();
+    }
+
+    @Override
+    public CacheQueryResult<TValue> getLatestEntry(String key) {
+
+        var entry = wrapTransaction(conn -> readEntry(conn, key));
+
+        if (entry == null) {
+            var message = String.format("Entry for [%s] is not in the cache", key);
+            log.error(message);
+            throw new ECacheNotFound(message);
+        }
+
+        return entry.queryResult();
+    }
+
+    @Override
+    public List<CacheQueryResult<TValue>> queryState(Collection<String> states) {
+
+        return queryState(states, false);
+    }
+
+    @Override
+    public List<CacheQueryResult<TValue>> queryState(Collection<String> states, boolean includeOpenTickets) {
+
+        var queryTime = Instant.now();
+        var queryStates = new ArrayList<>(new HashSet<>(states));
+
+        if (queryStates.isEmpty())
+            return List.of();
+
+        // The status column is indexed, so state queries do not need to scan the whole table
+
+        var placeholders = queryStates.stream().map(s -> "?").collect(Collectors.joining(", "));
+        var query = String.format(SELECT_STATE, placeholders);
+
+        if (!includeOpenTickets)
+            query += "\nand (ticket_id is null or ticket_expiry <= ?)";
+
+        var stateQuery = query;
+
+        return wrapTransaction(conn -> {
+
+            try (var stmt = conn.prepareStatement(stateQuery)) {
+
+                var pIndex = 1;
+
+                for (var state : queryStates)
+                    stmt.setString(pIndex++, state);
+
+                if (!includeOpenTickets)
+                    stmt.setLong(pIndex, queryTime.toEpochMilli());
+
+                try (var rs = stmt.executeQuery()) {
+
+                    var results = new ArrayList<CacheQueryResult<TValue>>();
+
+                    while (rs.next())
+                        results.add(readEntry(rs).queryResult());
+
+                    return results;
+                }
+            }
+        });
+    }
+
+    private JdbcCacheEntry readEntry(Connection conn, String key) throws SQLException {
+
+        try (var stmt = conn.prepareStatement(SELECT_ENTRY)) {
+
+            stmt.setString(1, key);
+
+            try (var rs = stmt.executeQuery()) {
+
+                if (!rs.next())
+                    return null;
+
+                return readEntry(rs);
+            }
+        }
+    }
+
+    private void readChanges(Connection conn, Instant since, List<JdbcCacheEntry> changes) throws SQLException {
+
+        try (var stmt = conn.prepareStatement(SELECT_CHANGES)) {
+
+            stmt.setLong(1, since.toEpochMilli());
+
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next())
+                    changes.add(readEntry(rs));
+            }
+        }
+    }
+
+    private void readKeys(Connection conn, Set<String> keys) throws SQLException {
+
+        try (var stmt = conn.prepareStatement(SELECT_KEYS); var rs = stmt.executeQuery()) {
+            while (rs.next())
+                keys.add(rs.getString(1));
+        }
+    }
+
+    private JdbcCacheEntry readEntry(ResultSet rs) throws SQLException {
+
+        var entry = new JdbcCacheEntry();
+        entry.key = rs.getString(1);
+        entry.revision = rs.getInt(2);
+        entry.status = rs.getString(3);
+        entry.value = decodeValue(rs.getBytes(4));
+        entry.ticketId = rs.getString(5);
+
+        return entry;
+    }
+
+    private byte[] encodeValue(TValue value) {
+
+        if (value == null)
+            return null;
+
+        try (var bytes = new ByteArrayOutputStream(); var stream = new ObjectOutputStream(bytes)) {
+
+            stream.writeObject(value);
+            stream.flush();
+
+            return bytes.toByteArray();
+        }
+        catch (IOException e) {
+            var message = String.format("Job cache value could not be encoded: %s", e.getMessage());
+            log.error(message, e);
+            throw new ECache(message, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TValue decodeValue(byte[] valueData) {
+
+        if (valueData == null)
+            return null;
+
+        try (var bytes = new ByteArrayInputStream(valueData); var stream = new ObjectInputStream(bytes)) {
+
+            return (TValue) stream.readObject();
+        }
+        catch (IOException | ClassNotFoundException e) {
+            var message = String.format("Job cache value could not be decoded: %s", e.getMessage());
+            log.error(message, e);
+            throw new ECache(message, e);
+        }
+    }
+
+    private boolean cacheTableExists(Connection conn) throws SQLException {
+
+        var metadata = conn.getMetaData();
+
+        // Unquoted identifiers are stored in upper case by some databases (H2, Oracle)
+        var tableName = metadata.storesUpperCaseIdentifiers()
+                ? CACHE_TABLE.toUpperCase()
+                : CACHE_TABLE;
+
+        try (var rs = metadata.getTables(conn.getCatalog(), conn.getSchema(), tableName, new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private void createCacheTable(Connection conn) throws SQLException {
+
+        var ddlResource = String.format(CACHE_TABLE_DDL, dialect.name().toLowerCase());
+        var ddl = loadCacheTableDdl(ddlResource);
+
+        // Not all drivers accept several statements at once, so run them one at a time
+
+        var statements = Arrays.stream(ddl.split(";"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+
+        try (var stmt = conn.createStatement()) {
+            for (var statement : statements)
+                stmt.execute(statement);
+        }
+
+        if (!conn.getAutoCommit())
+            conn.commit();
+    }
+
+    private String loadCacheTableDdl(String ddlResource) {
+
+        var classLoader = getClass().getClassLoader();
+
+        try (var stream = classLoader.getResourceAsStream(ddlResource)) {
+
+            if (stream == null) {
+                var message = String.format("Internal startup error (job cache, JDBC, %s) - missing DDL resource", dialect);
+                throw new ETracInternal(message);
+            }
+
+            try (var rawReader = new InputStreamReader(stream); var reader = new BufferedReader(rawReader)) {
+                return reader.lines()
+                        .filter(line -> !line.trim().startsWith("--"))
+                        .collect(Collectors.joining(System.lineSeparator()));
+            }
+        }
+        catch (IOException e) {
+            var message = String.format("Internal startup error (job cache, JDBC, %s) - error preparing DDL resource", dialect);
+            throw new ETracInternal(message);
+        }
+    }
+
+    private <TResult> TResult wrapTransaction(JdbcFunction<TResult> func) {
+
+        try (var conn = source.getConnection()) {
+
+            conn.setAutoCommit(false);
+
+            try {
+                var result = func.apply(conn);
+                conn.commit();
+
+                return result;
+            }
+            catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        catch (SQLException e) {
+            var message = String.format("Job cache database error: %s", e.getMessage());
+            log.error(message, e);
+            throw new ECache(message, e);
+        }
+    }
+
+    private void notifyListeners(Consumer<IJobCacheListener<TValue>> notification) {
+
+        for (var listener : listeners) {
+            try {
+                notification.accept(listener);
+            }
+            catch (Exception e) {
+                // A failed listener must not break the cache operation that triggered it
+                log.warn("Job cache listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private JdbcTicket jdbcTicket(Ticket ticket, String operation) {
+
+        if (!(ticket instanceof JdbcTicket)) {
+            var message = String.format("Ticket to %s [%s] was not issued by this cache", operation, ticket.key());
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+
+        return (JdbcTicket) ticket;
+    }
+
+    private void checkValidTicket(Ticket ticket, String operation, Instant operationTime) {
+
+        if (ticket.missing()) {
+            var message = String.format("Cannot %s [%s], item is not in the cache", operation, ticket.key());
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+
+        if (ticket.superseded()) {
+            var message = String.format("Ticket to %s [%s] has been superseded", operation, ticket.key());
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+
+        if (operationTime.isAfter(ticket.expiry())) {
+            var message = String.format("Ticket to %s [%s] has expired", operation, ticket.key());
+            log.error(message);
+            throw new ECacheTicket(message);
+        }
+    }
+
+    private RuntimeException ticketMismatch(JdbcCacheEntry entry, JdbcTicket ticket, String operation) {
+
+        String message;
+
+        if (entry == null) {
+            message = String.format("Cannot %s [%s], item is not in the cache", operation, ticket.key());
+            log.error(message);
+            return new ECacheNotFound(message);
+        }
+
+        if (entry.ticketId == null)
+            message = String.format("Cannot %s [%s], ticket is no longer valid", operation, ticket.key());
+        else
+            message = String.format("Cannot %s [%s], another operation is in progress", operation, ticket.key());
+
+        log.error(message);
+        return new ECacheTicket(message);
+    }
+
+    private class JdbcCacheEntry {
+
+        String key;
+        int revision;
+        String status;
+        TValue value;
+        String ticketId;
+
+        CacheQueryResult<TValue> queryResult() {
+            return new CacheQueryResult<>(key, revision, status, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JdbcFunction<TResult> {
+
+        TResult apply(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.cache.jdbc;
+
+import org.finos.tracdap.svc.orch.cache.IJobCache;
+import org.finos.tracdap.svc.orch.cache.Ticket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+
+class JdbcTicket extends Ticket {
+
+    private final String ticketId;
+
+    static JdbcTicket grantLease(
+            IJobCache<?> cache,
+            String key, int revision,
+            Instant grantTime, Duration grantDuration) {
+
+        var ticketId = UUID.randomUUID().toString();
+
+        return new JdbcTicket(cache, ticketId, key, revision, grantTime, grantTime.plus(grantDuration));
+    }
+
+    private JdbcTicket(
+            IJobCache<?> cache, String ticketId,
+            String key, int revision,
+            Instant grantTime, Instant expiry) {
+
+        super(cache, key, revision, grantTime, expiry, false, false);
+
+        this.ticketId = ticketId;
+    }
+
+    String ticketId() {
+        return ticketId;
+    }
+}
@@ -25,10 +25,12 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 
 public class LocalJobCache<TValue> implements IJobCache<TValue> {
@@ -42,9 +44,29 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
 
     private final ConcurrentMap<String, LocalJobCacheEntry<TValue>> _cache;
 
+    // Secondary index of keys for each state, so state queries do not need to scan the whole cache
+    // The index is updated inside the compute operation for each key, the entry itself is always checked on read
+    private final ConcurrentMap<String, Set<String>> _stateIndex;
+
+    private final List<IJobCacheListener<TValue>> listeners;
+
     public LocalJobCache() {
 
         this._cache = new ConcurrentHashMap<>();
+        this._stateIndex = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public void addListener(IJobCacheListener<TValue> listener) {
+
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(IJobCacheListener<TValue> listener) {
+
+        listeners.remove(listener);
     }
 
     @Override
@@ -108,7 +130,9 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
         if (ticket.superseded())
             return;
 
-        _cache.computeIfPresent(ticket.key(), (_key, priorEntry) -> {
+        var released = new AtomicBoolean(false);
+
+        var entry = _cache.computeIfPresent(ticket.key(), (_key, priorEntry) -> {
 
             if (priorEntry.ticket != ticket)
                 return priorEntry;
@@ -116,8 +140,13 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
             var newEntry = priorEntry.clone();
             newEntry.ticket = null;
 
+            released.set(true);
+
             return newEntry;
         });
+
+        if (released.get())
+            notifyListeners(l -> l.entryReleased(queryResult(ticket.key(), entry)));
     }
 
     @Override
@@ -142,9 +171,13 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
             newEntry.stateKey = status;
             newEntry.value = value;
 
+            updateIndex(_key, null, status);
+
             return newEntry;
         });
 
+        notifyListeners(l -> l.entryUpdated(queryResult(ticket.key(), added)));
+
         return added.revision;
     }
 
@@ -171,9 +204,13 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
             newEntry.stateKey = stateKey;
             newEntry.value = value;
 
+            updateIndex(_key, _entry.stateKey, stateKey);
+
             return newEntry;
         });
 
+        notifyListeners(l -> l.entryUpdated(queryResult(ticket.key(), updated)));
+
         return updated.revision;
     }
 
@@ -194,8 +231,12 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
 
             checkEntryMatchesTicket(_entry, ticket, "remove");
 
+            updateIndex(_key, _entry.stateKey, null);
+
             return null;
         });
+
+        notifyListeners(l -> l.entryRemoved(ticket.key()));
     }
 
     @Override
@@ -253,34 +294,81 @@ public class LocalJobCache<TValue> implements IJobCache<TValue> {
     }
 
     @Override
-    public List<CacheQueryResult<TValue>> queryState(List<String> states) {
+    public List<CacheQueryResult<TValue>> queryState(Collection<String> states) {
 
         return queryState(states, false);
     }
 
     @Override
-    public List<CacheQueryResult<TValue>> queryState(List<String> states, boolean includeOpenTickets) {
+    public List<CacheQueryResult<TValue>> queryState(Collection<String> states, boolean includeOpenTickets) {
 
         var queryTime = Instant.now();
 
         var results = new ArrayList<CacheQueryResult<TValue>>();
+        var resultKeys = new HashSet<String>();
 
-        _cache.forEach((_key, _entry) -> {
+        for (var state : new HashSet<>(states)) {
 
-            if (!states.contains(_entry.stateKey))
-                return;
+            var stateKeys = _stateIndex.get(state);
 
-            if (_entry.ticket != null && _entry.ticket.expiry().isAfter(queryTime))
-                if (!includeOpenTickets)
-                    return;
+            if (stateKeys == null)
+                continue;
 
-            var result = new CacheQueryResult<>(_key, _entry.revision, _entry.stateKey, _entry.value);
-            results.add(result);
-        });
+            for (var key : stateKeys) {
+
+                var entry = _cache.get(key);
+
+                // Entries can change state after the index is read, only include entries still in the state
+                // An entry that moves between two states in the query is only included once
+
+                if (entry == null || !state.equals(entry.stateKey) || resultKeys.contains(key))
+                    continue;
+
+                if (entry.ticket != null && entry.ticket.expiry().isAfter(queryTime))
+                    if (!includeOpenTickets)
+                        continue;
+
+                results.add(queryResult(key, entry));
+                resultKeys.add(key);
+            }
+        }
 
         return results;
     }
 
+    private void updateIndex(String key, String priorState, String newState) {
+
+        if (Objects.equals(priorState, newState))
+            return;
+
+        if (priorState != null) {
+            var priorKeys = _stateIndex.get(priorState);
+            if (priorKeys != null)
+                priorKeys.remove(key);
+        }
+
+        if (newState != null)
+            _stateIndex.computeIfAbsent(newState, _state -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private CacheQueryResult<TValue> queryResult(String key, LocalJobCacheEntry<TValue> entry) {
+
+        return new CacheQueryResult<>(key, entry.revision, entry.stateKey, entry.value);
+    }
+
+    private void notifyListeners(Consumer<IJobCacheListener<TValue>> notification) {
+
+        for (var listener : listeners) {
+            try {
+                notification.accept(listener);
+            }
+            catch (Exception e) {
+                // A failed listener must not break the cache operation that triggered it
+                log.warn("Job cache listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
     private void checkValidTicket(Ticket ticket, String operation, Instant operationTime) {
 
         if (ticket.missing()) {
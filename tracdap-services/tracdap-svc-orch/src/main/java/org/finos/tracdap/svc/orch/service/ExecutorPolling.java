@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+
+class ExecutorPolling {
+
+    // Decides which running jobs are due for an executor poll
+    // Jobs are polled often just after launch, so short jobs are picked up quickly
+    // The interval backs off as a job keeps running, up to the max interval for long-running jobs
+
+    static final int BACKOFF_RATIO = 4;
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Map<String, PollState> pollStates;
+
+    ExecutorPolling(Duration minInterval, Duration maxInterval) {
+
+        if (minInterval.isNegative() || minInterval.isZero() || maxInterval.isNegative() || maxInterval.isZero())
+            throw new EStartup("Executor poll intervals must be greater than zero");
+
+        this.minInterval = minInterval.compareTo(maxInterval) < 0 ? minInterval : maxInterval;
+        this.maxInterval = maxInterval;
+        this.pollStates = new HashMap<>();
+    }
+
+    Duration tickInterval() {
+
+        return minInterval;
+    }
+
+    Duration pollInterval(Duration runTime) {
+
+        var interval = runTime.dividedBy(BACKOFF_RATIO);
+
+        if (interval.compareTo(minInterval) < 0)
+            return minInterval;
+
+        if (interval.compareTo(maxInterval) > 0)
+            return maxInterval;
+
+        return interval;
+    }
+
+    synchronized void jobLaunched(String jobKey, Instant launchTime) {
+
+        pollStates.put(jobKey, new PollState(launchTime));
+    }
+
+    synchronized List<CacheQueryResult<JobState>> duePolls(List<CacheQueryResult<JobState>> runningJobs, Instant pollTime) {
+
+        // Polls run on a fixed tick of the min interval, allow half a tick so jobs are not pushed back by timer jitter
+
+        var tolerance = minInterval.dividedBy(2);
+        var liveJobs = new HashSet<String>();
+        var dueJobs = new ArrayList<CacheQueryResult<JobState>>();
+
+        for (var job : runningJobs) {
+
+            liveJobs.add(job.key());
+
+            // Jobs launched by another instance (or before a restart) are timed from when they are first seen
+            var state = pollStates.computeIfAbsent(job.key(), key -> new PollState(pollTime));
+
+            var interval = pollInterval(Duration.between(state.launchTime, pollTime));
+            var nextPoll = state.lastPoll.plus(interval).minus(tolerance);
+
+            if (!pollTime.isBefore(nextPoll)) {
+                state.lastPoll = pollTime;
+                dueJobs.add(job);
+            }
+        }
+
+        pollStates.keySet().retainAll(liveJobs);
+
+        return dueJobs;
+    }
+
+    private static class PollState {
+
+        final Instant launchTime;
+        Instant lastPoll;
+
+        PollState(Instant launchTime) {
+            this.launchTime = launchTime;
+            this.lastPoll = launchTime;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import org.finos.tracdap.metadata.JobStatusCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Flow;
+
 
 public class JobApiService {
 
@@ -33,11 +35,13 @@ public class JobApiService {
 
     private final JobManager jobManager;
     private final JobProcessor jobProcessor;
+    private final JobFollowers jobFollowers;
 
-    public JobApiService(JobManager jobManager, JobProcessor jobProcessor) {
+    public JobApiService(JobManager jobManager, JobProcessor jobProcessor, JobFollowers jobFollowers) {
 
         this.jobManager = jobManager;
         this.jobProcessor = jobProcessor;
+        this.jobFollowers = jobFollowers;
     }
 
     public JobStatus validateJob(JobRequest request) {
@@ -61,21 +65,56 @@ public class JobApiService {
 
     public JobStatus checkJob(JobStatusRequest request) {
 
+        var jobKey = liveJobKey(request);
+        var jobState = jobManager.queryJob(jobKey);
+
+        // TODO: Should there be a different error for jobs not found in the cache? EJobNotLive?
+        if (jobState == null)
+            throw jobNotFound(jobKey);
+
+        var status = reportStatus(jobState);
+
+        // Jobs waiting for the executor report their place in the launch queue
+
+        var queuePosition = jobManager.queuePosition(jobKey);
+
+        if (status.getStatusCode() == JobStatusCode.QUEUED && status.getStatusMessage().isEmpty() && queuePosition > 0) {
+            return status.toBuilder()
+                    .setStatusMessage(String.format("Queue position: %d", queuePosition))
+                    .build();
+        }
+
+        return status;
+    }
+
+    public Flow.Publisher<JobStatus> followJob(JobStatusRequest request) {
+
+        // Followers get the current status straight away, then each status change as it happens
+        // The stream completes when the job reaches a final state or leaves the cache
+
+        var jobKey = liveJobKey(request);
+
+        if (jobManager.queryJob(jobKey) == null)
+            throw jobNotFound(jobKey);
+
+        return jobFollowers.followJob(jobKey);
+    }
+
+    private String liveJobKey(JobStatusRequest request) {
+
         // TODO: Keys for other selector types
         if (!request.getSelector().hasObjectVersion())
             throw new EUnexpected();
 
-        var jobKey = MetadataUtil.objectKey(request.getSelector());
-        var jobState = jobManager.queryJob(jobKey);
+        return MetadataUtil.objectKey(request.getSelector());
+    }
 
-        // TODO: Should there be a different error for jobs not found in the cache? EJobNotLive?
-        if (jobState == null) {
-            var message = String.format("Job not found (it may have completed): [%s]", jobKey);
-            log.error(message);
-            throw new EMetadataNotFound(message);
-        }
+    private EMetadataNotFound jobNotFound(String jobKey) {
 
-        return reportStatus(jobState);
+        var message = String.format("Job not found (it may have completed): [%s]", jobKey);
+        log.error(message);
+
+        return new EMetadataNotFound(message);
     }
 
     private JobState newJob(JobRequest request) {
@@ -94,7 +133,7 @@ public class JobApiService {
         return jobState;
     }
 
-    private JobStatus reportStatus(JobState jobState) {
+    static JobStatus reportStatus(JobState jobState) {
 
         var status = JobStatus.newBuilder();
 
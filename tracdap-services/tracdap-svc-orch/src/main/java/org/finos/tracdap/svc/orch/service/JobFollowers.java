@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.api.JobStatus;
+import org.finos.tracdap.common.exception.ECacheNotFound;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.metadata.JobStatusCode;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+import org.finos.tracdap.svc.orch.cache.IJobCache;
+import org.finos.tracdap.svc.orch.cache.IJobCacheListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+
+
+public class JobFollowers implements IJobCacheListener<JobState> {
+
+    // Followers receive a JobStatus each time the status of a job changes, until the job reaches a final state
+    // There is one cache listener for all followers, cache events are matched to followers by job key
+    // The status for each event is built once and shared by all the followers of that job
+
+    private static final Set<JobStatusCode> FINAL_STATUS = Set.of(
+            JobStatusCode.SUCCEEDED,
+            JobStatusCode.FAILED,
+            JobStatusCode.CANCELLED);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IJobCache<JobState> cache;
+    private final ConcurrentMap<String, Set<Follower>> followers;
+
+    public JobFollowers(IJobCache<JobState> cache) {
+
+        this.cache = cache;
+        this.followers = new ConcurrentHashMap<>();
+    }
+
+    public void start() {
+
+        cache.addListener(this);
+    }
+
+    public void stop() {
+
+        cache.removeListener(this);
+
+        // Let open streams finish cleanly, clients can follow the job again on another instance
+
+        var nFollowers = followers.values().stream().mapToInt(Set::size).sum();
+
+        if (nFollowers > 0)
+            log.info("Closing [{}] job follower stream(s)", nFollowers);
+
+        for (var jobKey : followers.keySet())
+            entryRemoved(jobKey);
+    }
+
+    public Flow.Publisher<JobStatus> followJob(String jobKey) {
+
+        return new Follower(jobKey);
+    }
+
+    public int followerCount(String jobKey) {
+
+        var jobFollowers = followers.get(jobKey);
+
+        return jobFollowers != null ? jobFollowers.size() : 0;
+    }
+
+    @Override
+    public void entryUpdated(CacheQueryResult<JobState> entry) {
+
+        var jobFollowers = followers.get(entry.key());
+
+        if (jobFollowers == null || jobFollowers.isEmpty())
+            return;
+
+        var status = JobApiService.reportStatus(entry.value());
+
+        for (var follower : jobFollowers)
+            follower.offer(entry.revision(), status);
+    }
+
+    @Override
+    public void entryRemoved(String key) {
+
+        var jobFollowers = followers.remove(key);
+
+        if (jobFollowers == null)
+            return;
+
+        for (var follower : jobFollowers)
+            follower.finish();
+    }
+
+    private void addFollower(Follower follower) {
+
+        followers.computeIfAbsent(follower.jobKey, key -> ConcurrentHashMap.newKeySet()).add(follower);
+    }
+
+    private void removeFollower(Follower follower) {
+
+        followers.computeIfPresent(follower.jobKey, (key, jobFollowers) -> {
+            jobFollowers.remove(follower);
+            return jobFollowers.isEmpty() ? null : jobFollowers;
+        });
+    }
+
+    private class Follower implements Flow.Publisher<JobStatus>, Flow.Subscription {
+
+        // Updates can arrive on any thread, state is guarded by the follower's own lock
+        // Sending to the subscriber does not block (gRPC buffers outbound messages)
+        // The revision check stops the initial status overwriting a newer update that arrived first
+
+        private final String jobKey;
+        private final ArrayDeque<JobStatus> pending;
+
+        private Flow.Subscriber<? super JobStatus> subscriber;
+        private JobStatus lastStatus;
+        private int lastRevision;
+        private long demand;
+        private boolean draining;
+        private boolean finished;
+        private boolean done;
+
+        Follower(String jobKey) {
+
+            this.jobKey = jobKey;
+            this.pending = new ArrayDeque<>();
+            this.lastRevision = -1;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super JobStatus> subscriber) {
+
+            synchronized (this) {
+
+                if (this.subscriber != null)
+                    throw new ETracInternal("Multiple subscriptions on job follower");
+
+                this.subscriber = subscriber;
+            }
+
+            subscriber.onSubscribe(this);
+
+            // Register before reading the current state, so no updates are missed
+
+            synchronized (this) {
+
+                if (done)
+                    return;
+
+                addFollower(this);
+            }
+
+            try {
+
+                var entry = cache.getLatestEntry(jobKey);
+                offer(entry.revision(), JobApiService.reportStatus(entry.value()));
+            }
+            catch (ECacheNotFound e) {
+
+                // Job has already left the cache
+                finish();
+            }
+        }
+
+        @Override
+        public synchronized void request(long n) {
+
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Job follower requested " + n + " items"));
+                return;
+            }
+
+            demand = (Long.MAX_VALUE - demand > n) ? demand + n : Long.MAX_VALUE;
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel() {
+
+            done = true;
+            pending.clear();
+
+            removeFollower(this);
+        }
+
+        synchronized void offer(int revision, JobStatus status) {
+
+            if (finished || revision <= lastRevision)
+                return;
+
+            lastRevision = revision;
+
+            // Many cache transitions do not change the status seen by the client
+            if (status.equals(lastStatus))
+                return;
+
+            lastStatus = status;
+            pending.add(status);
+
+            if (FINAL_STATUS.contains(status.getStatusCode())) {
+                finished = true;
+                removeFollower(this);
+            }
+
+            drain();
+        }
+
+        synchronized void finish() {
+
+            finished = true;
+            removeFollower(this);
+
+            drain();
+        }
+
+        private void drain() {
+
+            // Subscribers usually call request() from inside onNext(), the outer loop picks up the new demand
+
+            if (draining || done)
+                return;
+
+            draining = true;
+
+            try {
+
+                while (demand > 0 && !pending.isEmpty() && !done) {
+                    demand--;
+                    subscriber.onNext(pending.poll());
+                }
+
+                if (finished && pending.isEmpty() && !done) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            }
+            finally {
+                draining = false;
+            }
+        }
+    }
+}
@@ -22,35 +22,49 @@ import org.finos.tracdap.common.metadata.MetadataUtil;
 import org.finos.tracdap.config.PlatformConfig;
 import org.finos.tracdap.config.PluginConfig;
 import org.finos.tracdap.metadata.JobStatusCode;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
 import org.finos.tracdap.svc.orch.cache.IJobCache;
+import org.finos.tracdap.svc.orch.cache.IJobCacheListener;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
-public class JobManager {
+public class JobManager implements IJobCacheListener<JobState> {
+
+    // Jobs move through their lifecycle in response to job cache events
+    // When a ticket on a job is released, the next step for that job is started straight away
+    // Cache polling is kept as a safety net, e.g. for tickets that expire without being closed
 
     public static final Duration STARTUP_DELAY = Duration.of(10, ChronoUnit.SECONDS);
     public static final Duration SCHEDULED_REMOVAL_DURATION = Duration.of(2, ChronoUnit.MINUTES);
 
     public static final String POLL_INTERVAL_CONFIG_KEY = "pollInterval";
+    public static final String MIN_POLL_INTERVAL_CONFIG_KEY = "minPollInterval";
     public static final String TICKET_DURATION_CONFI_KEY = "ticketDuration";
     public static final String MAX_JOBS_CONFIG_KEY = "maxJobs";
+    public static final String MAX_JOBS_PER_TENANT_CONFIG_KEY = "maxJobsPerTenant";
+    public static final String TENANT_WEIGHTS_CONFIG_KEY = "tenantWeights";
 
-    public static final int DEFAULT_CACHE_POLL_INTERVAL = 2;
+    public static final int DEFAULT_CACHE_POLL_INTERVAL = 30;
     public static final int DEFAULT_CACHE_TICKET_DURATION = 10;
     public static final int DEFAULT_EXECUTOR_POLL_INTERVAL = 30;
+    public static final int DEFAULT_EXECUTOR_MIN_POLL_INTERVAL = 2;
     public static final int DEFAULT_EXECUTOR_TICKET_DURATION = 120;
     public static final int DEFAULT_EXECUTOR_JOB_LIMIT = 6;
 
@@ -62,9 +76,14 @@ public class JobManager {
 
     private final Duration cachePollInterval;
     private final Duration cacheTicketDuration;
-    private final Duration executorPollInterval;
     private final Duration executorTicketDuration;
-    private final int executorJobLimit;
+    private final JobScheduler scheduler;
+    private final ExecutorPolling executorPolling;
+
+    private final Set<String> launchesInProgress;
+    private final Map<String, Integer> handledRevisions;
+    private final AtomicBoolean launchCheckScheduled;
+    private volatile Map<String, Integer> queuePositions;
 
     private ScheduledFuture<?> cachePollingTask = null;
     private ScheduledFuture<?> executorPollingTask = null;
@@ -81,9 +100,26 @@ public class JobManager {
 
         cachePollInterval = Duration.ofSeconds(readIntegerProperty(config.getJobCache(), POLL_INTERVAL_CONFIG_KEY, DEFAULT_CACHE_POLL_INTERVAL));
         cacheTicketDuration = Duration.ofSeconds(readIntegerProperty(config.getJobCache(), TICKET_DURATION_CONFI_KEY, DEFAULT_CACHE_TICKET_DURATION));
-        executorPollInterval = Duration.ofSeconds(readIntegerProperty(config.getExecutor(), POLL_INTERVAL_CONFIG_KEY, DEFAULT_EXECUTOR_POLL_INTERVAL));
         executorTicketDuration = Duration.ofSeconds(readIntegerProperty(config.getExecutor(), TICKET_DURATION_CONFI_KEY, DEFAULT_EXECUTOR_TICKET_DURATION));
-        executorJobLimit = readIntegerProperty(config.getExecutor(), MAX_JOBS_CONFIG_KEY, DEFAULT_EXECUTOR_JOB_LIMIT);
+
+        var executorJobLimit = readIntegerProperty(config.getExecutor(), MAX_JOBS_CONFIG_KEY, DEFAULT_EXECUTOR_JOB_LIMIT);
+        var tenantJobLimit = readIntegerProperty(config.getExecutor(), MAX_JOBS_PER_TENANT_CONFIG_KEY, executorJobLimit);
+        var tenantWeights = readTenantWeights(config.getExecutor());
+
+        scheduler = new JobScheduler(executorJobLimit, tenantJobLimit, tenantWeights);
+
+        // The poll interval is the longest gap between polls, jobs that have just launched are polled more often
+        var executorPollInterval = readIntegerProperty(config.getExecutor(), POLL_INTERVAL_CONFIG_KEY, DEFAULT_EXECUTOR_POLL_INTERVAL);
+        var executorMinPollInterval = readIntegerProperty(config.getExecutor(), MIN_POLL_INTERVAL_CONFIG_KEY, DEFAULT_EXECUTOR_MIN_POLL_INTERVAL);
+
+        executorPolling = new ExecutorPolling(
+                Duration.ofSeconds(executorMinPollInterval),
+                Duration.ofSeconds(executorPollInterval));
+
+        launchesInProgress = ConcurrentHashMap.newKeySet();
+        handledRevisions = new ConcurrentHashMap<>();
+        launchCheckScheduled = new AtomicBoolean(false);
+        queuePositions = Map.of();
     }
 
     private int readIntegerProperty(PluginConfig config, String propertyKey, int defaultValue) {
@@ -107,12 +143,59 @@ public class JobManager {
         }
     }
 
+    private Map<String, Integer> readTenantWeights(PluginConfig config) {
+
+        // Tenant weights are a list of tenant:weight pairs, e.g. "ACME_CORP:3, TEST_TENANT:1"
+
+        var tenantWeights = new HashMap<String, Integer>();
+
+        if (!config.containsProperties(TENANT_WEIGHTS_CONFIG_KEY))
+            return tenantWeights;
+
+        var configValue = config.getPropertiesOrThrow(TENANT_WEIGHTS_CONFIG_KEY);
+
+        for (var entry : configValue.split(",")) {
+
+            if (entry.isBlank())
+                continue;
+
+            var sep = entry.indexOf(':');
+
+            try {
+
+                if (sep < 0)
+                    throw new NumberFormatException();
+
+                var tenant = entry.substring(0, sep).trim();
+                var weight = Integer.parseInt(entry.substring(sep + 1).trim());
+
+                if (tenant.isEmpty() || weight <= 0)
+                    throw new NumberFormatException();
+
+                tenantWeights.put(tenant, weight);
+            }
+            catch (NumberFormatException e) {
+
+                var message = String.format(
+                        "Invalid config property [%s]: Expected tenant:weight with a positive weight, got [%s]",
+                        TENANT_WEIGHTS_CONFIG_KEY, entry.trim());
+
+                log.error(message);
+                throw new EStartup(message);
+            }
+        }
+
+        return tenantWeights;
+    }
+
     public void start() {
 
         try {
 
             log.info("Starting job manager service...");
 
+            cache.addListener(this);
+
             // Delay initial polls by the polling interval
             // This is to prevent polling while the service is still starting
 
@@ -124,9 +207,9 @@ public class JobManager {
 
             executorPollingTask = javaExecutor.scheduleAtFixedRate(
                     this::pollExecutor,
-                    STARTUP_DELAY.getSeconds(),
-                    executorPollInterval.getSeconds(),
-                    TimeUnit.SECONDS);
+                    STARTUP_DELAY.toMillis(),
+                    executorPolling.tickInterval().toMillis(),
+                    TimeUnit.MILLISECONDS);
 
             log.info("Job manager service started OK");
         }
@@ -141,6 +224,8 @@ public class JobManager {
 
         log.info("Stopping job manager service...");
 
+        cache.removeListener(this);
+
         if (cachePollingTask != null) {
             cachePollingTask.cancel(false);
         }
@@ -150,32 +235,130 @@ public class JobManager {
         }
     }
 
+    @Override
+    public void entryReleased(CacheQueryResult<JobState> entry) {
+
+        // Called on the thread that released the ticket, so hand off all the work
+        // Any updates that get scheduled twice will be ignored as superseded
+
+        // A release without a new revision means the last step on the job did not complete, e.g. it failed
+        // Leave those jobs for the cache poll, retrying straight away would spin while a dependency is down
+
+        if (!markHandled(entry.key(), entry.revision()))
+            return;
+
+        try {
+
+            var status = entry.getStatus();
+
+            if (STATUS_FOR_FETCH_RESULTS.contains(status))
+                javaExecutor.submit(() -> fetchJobResult(entry.key(), entry.revision()));
+
+            else if (STATUS_FOR_UPDATE.contains(status))
+                javaExecutor.submit(() -> processJobUpdate(entry.key(), entry.revision()));
+
+            // New jobs may be ready to launch, and jobs leaving the running states free up capacity
+            if (!STATUS_FOR_RUNNING_JOBS.contains(status))
+                scheduleLaunchCheck();
+        }
+        catch (RejectedExecutionException e) {
+
+            log.warn("Job update for [{}] could not be scheduled: {}", entry.key(), e.getMessage());
+            log.warn("The update will be picked up by the next cache poll");
+        }
+    }
+
+    @Override
+    public void entryRemoved(String key) {
+
+        handledRevisions.remove(key);
+
+        try {
+            scheduleLaunchCheck();
+        }
+        catch (RejectedExecutionException e) {
+            log.warn("Launch check could not be scheduled: {}", e.getMessage());
+        }
+    }
+
+    private boolean markHandled(String key, int revision) {
+
+        var isNewRevision = new AtomicBoolean(false);
+
+        handledRevisions.compute(key, (_key, handled) -> {
+
+            if (handled != null && handled >= revision)
+                return handled;
+
+            isNewRevision.set(true);
+            return revision;
+        });
+
+        return isNewRevision.get();
+    }
+
+    private void scheduleLaunchCheck() {
+
+        // Many events can arrive together, only one launch check needs to be waiting at a time
+
+        if (launchCheckScheduled.compareAndSet(false, true))
+            javaExecutor.submit(this::launchQueuedJobs);
+    }
+
+    private void launchQueuedJobs() {
+
+        launchCheckScheduled.set(false);
+
+        try {
+
+            var launchableJobs = cache.queryState(STATUS_FOR_LAUNCH);
+            var runningJobs = cache.queryState(STATUS_FOR_RUNNING_JOBS, true);  // Include jobs with launch in progress
+
+            // Launches that have been submitted but not started yet count towards the running total
+            // Active jobs are job key -> tenant, for applying the executor and tenant limits
+
+            var activeJobs = new HashMap<String, String>();
+            runningJobs.forEach(job -> activeJobs.put(job.key(), job.value().tenant));
+
+            for (var jobKey : launchesInProgress) {
+                var queuedJob = launchableJobs.stream().filter(job -> job.key().equals(jobKey)).findFirst();
+                activeJobs.putIfAbsent(jobKey, queuedJob.map(job -> job.value().tenant).orElse(null));
+            }
+
+            var schedule = scheduler.schedule(launchableJobs, activeJobs);
+
+            queuePositions = schedule.queuePositions();
+
+            for (var job : schedule.launches()) {
+
+                if (!launchesInProgress.add(job.key()))
+                    continue;
+
+                javaExecutor.submit(() -> launchJob(job.key(), job.revision()));
+            }
+        }
+        catch (Exception e) {
+
+            log.warn("There was an error launching queued jobs: " + e.getMessage(), e);
+            log.warn("Launch will be retried on the next job update or cache poll");
+        }
+    }
+
     public void pollCache() {
 
         try {
 
-            // Process all available job updates
+            // Safety net for any job updates that did not trigger a cache event
             // Any updates that get scheduled twice will be ignored as superseded
 
             // We could put some more intelligent logic here, e.g. an update queue / capacity
             // Or filter down the query so not all nodes attempt all updates
             // But the ticket.superseded() mechanism should be sufficient unless the load is extreme
 
-            var launchableJobs = cache.queryState(STATUS_FOR_LAUNCH);
-            var runningJobs = cache.queryState(STATUS_FOR_RUNNING_JOBS, true);  // Include jobs with launch in progress
             var fetchResultJobs = cache.queryState(STATUS_FOR_FETCH_RESULTS);
             var updatedJobs = cache.queryState(STATUS_FOR_UPDATE);
 
-            // A simple capacity cap to prevent spamming the executor with too many jobs
-            // No queuing or prioritisation yet!!
-
-            var launchCapacity = Math.max(executorJobLimit - runningJobs.size(), 0);
-            var launchJobs = launchableJobs.size() > launchCapacity
-                    ? launchableJobs.subList(0, launchCapacity)
-                    : launchableJobs;
-
-            for (var job : launchJobs)
-                javaExecutor.submit(() -> launchJob(job.key(), job.revision()));
+            launchQueuedJobs();
 
             for (var job : fetchResultJobs)
                 javaExecutor.submit(() -> fetchJobResult(job.key(), job.revision()));
@@ -196,11 +379,17 @@ public class JobManager {
 
         try {
 
-            var runningJobs = cache.queryState(STATUS_FOR_RUNNING_JOBS)
+            var activeJobs = cache.queryState(STATUS_FOR_RUNNING_JOBS)
                     // Only poll jobs that have an executor state
                     .stream().filter(j -> j.value().batchState != null)
                     .collect(Collectors.toList());
 
+            // Polling runs on a short tick, only jobs that are due for a poll are sent to the executor
+            var runningJobs = executorPolling.duePolls(activeJobs, Instant.now());
+
+            if (runningJobs.isEmpty())
+                return;
+
             var pollRequests = runningJobs.stream()
                     .map(j -> Map.entry(j.key(), j.value()))
                     .collect(Collectors.toList());
@@ -247,10 +436,7 @@ public class JobManager {
                 cache.addEntry(ticket, newState.cacheStatus, newState);
             }
 
-            // Avoid polling delay if multiple updates are processed in succession
-            // This will also tend to make all the updates in a sequence run on one orchestrator node
-
-            javaExecutor.submit(this::pollCache);
+            // The new job is picked up by the job cache event when its ticket is closed
 
             return newState;
         }
@@ -273,6 +459,13 @@ public class JobManager {
         return cacheEntry != null ? cacheEntry.value() : null;
     }
 
+    public int queuePosition(String jobKey) {
+
+        // Position in the launch queue as of the last launch check, 0 if the job is not waiting to launch
+
+        return queuePositions.getOrDefault(jobKey, 0);
+    }
+
     public void launchJob(String jobKey, int revision) {
 
         // Launching a job means talking to the executor, so use the executor ticket duration
@@ -293,19 +486,22 @@ public class JobManager {
             // Perform the launch
             var newState = processor.launchJob(launchState);
             cache.updateEntry(ticket, newState.cacheStatus, newState);
+
+            executorPolling.jobLaunched(jobKey, Instant.now());
         }
         catch (Exception e) {
 
             log.warn("There was a problem launching the job: " + e.getMessage(), e);
             log.warn("Launch operation will be retried");
         }
+        finally {
+
+            launchesInProgress.remove(jobKey);
+        }
     }
 
     public void recordPollResult(String jobKey, int revision, ExecutorJobInfo executorJobInfo) {
 
-        int newRevision = revision;
-        String newCacheStatus = null;
-
         try (var ticket = cache.openTicket(jobKey, revision, cacheTicketDuration)) {
 
             if (ticket.superseded())
@@ -315,29 +511,17 @@ public class JobManager {
             var jobState = cacheEntry.value();
             var newState = processor.recordPollStatus(jobState, executorJobInfo);
 
-            newRevision = cache.updateEntry(ticket, newState.cacheStatus, newState);
-            newCacheStatus = newState.cacheStatus;
+            cache.updateEntry(ticket, newState.cacheStatus, newState);
         }
         catch (Exception e) {
 
             log.warn("There was a problem polling the job: " + e.getMessage(), e);
             log.warn("Poll operation will be retried");
         }
-
-        // Avoid polling delay if multiple updates are processed in succession
-        // This will also tend to make all the updates in a sequence run on one orchestrator node
-
-        if (newRevision > revision && STATUS_FOR_UPDATE.contains(newCacheStatus)) {
-            var newRevision_ = newRevision;
-            javaExecutor.submit(() -> processJobUpdate(jobKey, newRevision_));
-        }
     }
 
     public void fetchJobResult(String jobKey, int revision) {
 
-        int newRevision = revision;
-        String newCacheStatus = null;
-
         // Fetching a result means talking to the executor, so use the executor ticket duration
 
         try (var ticket = cache.openTicket(jobKey, revision, executorTicketDuration)) {
@@ -349,29 +533,17 @@ public class JobManager {
             var jobState = cacheEntry.value();
             var newState = processor.fetchJobResult(jobState);
 
-            newRevision = cache.updateEntry(ticket, newState.cacheStatus, newState);
-            newCacheStatus = newState.cacheStatus;
+            cache.updateEntry(ticket, newState.cacheStatus, newState);
         }
         catch (Exception e) {
 
             log.warn("There was a problem launching the job: " + e.getMessage(), e);
             log.warn("Launch operation will be retried");
         }
-
-        // Avoid polling delay if multiple updates are processed in succession
-        // This will also tend to make all the updates in a sequence run on one orchestrator node
-
-        if (newRevision > revision && STATUS_FOR_UPDATE.contains(newCacheStatus)) {
-            var newRevision_ = newRevision;
-            javaExecutor.submit(() -> processJobUpdate(jobKey, newRevision_));
-        }
     }
 
     public void processJobUpdate(String jobKey, int revision) {
 
-        int newRevision = revision;
-        String newCacheStatus = null;
-
         try (var ticket = cache.openTicket(jobKey, revision, cacheTicketDuration)) {
 
             if (ticket.superseded())
@@ -383,8 +555,7 @@ public class JobManager {
             var updateFunc = getUpdateFunc(jobState.cacheStatus);
             var newState = updateFunc.apply(jobState);
 
-            newRevision = cache.updateEntry(ticket, newState.cacheStatus, newState);
-            newCacheStatus = newState.cacheStatus;
+            cache.updateEntry(ticket, newState.cacheStatus, newState);
 
             // If the job is scheduled for removal, create a remove task
             if (newState.cacheStatus.equals(CacheStatus.SCHEDULED_TO_REMOVE)) {
@@ -398,14 +569,6 @@ public class JobManager {
             log.warn("There was a problem processing the job: " + e.getMessage(), e);
             log.warn("The operation will be retried");
         }
-
-        // Avoid polling delay if multiple updates are processed in succession
-        // This will also tend to make all the updates in a sequence run on one orchestrator node
-
-        if (newRevision > revision && STATUS_FOR_UPDATE.contains(newCacheStatus)) {
-            var newRevision_ = newRevision;
-            javaExecutor.submit(() -> processJobUpdate(jobKey, newRevision_));
-        }
     }
 
     public void removeFromCache(String jobKey, int revision) {
@@ -450,20 +613,20 @@ public class JobManager {
         throw new EUnexpected();
     }
 
-    private static final List<String> STATUS_FOR_LAUNCH = List.of(
+    private static final Set<String> STATUS_FOR_LAUNCH = Set.of(
             CacheStatus.QUEUED_IN_TRAC);
 
-    private static final List<String> STATUS_FOR_RUNNING_JOBS = List.of(
+    private static final Set<String> STATUS_FOR_RUNNING_JOBS = Set.of(
             CacheStatus.LAUNCH_IN_PROGRESS,
             CacheStatus.SENT_TO_EXECUTOR,
             CacheStatus.QUEUED_IN_EXECUTOR,
             CacheStatus.RUNNING_IN_EXECUTOR);
 
-    private static final List<String> STATUS_FOR_FETCH_RESULTS = List.of(
+    private static final Set<String> STATUS_FOR_FETCH_RESULTS = Set.of(
             CacheStatus.EXECUTOR_COMPLETE,
             CacheStatus.EXECUTOR_SUCCEEDED);
 
-    private static final List<String> STATUS_FOR_UPDATE = List.of(
+    private static final Set<String> STATUS_FOR_UPDATE = Set.of(
             CacheStatus.EXECUTOR_FAILED,
             CacheStatus.RESULTS_RECEIVED,
             CacheStatus.RESULTS_INVALID,
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.metadata.Value;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+
+import java.time.Instant;
+import java.util.*;
+
+
+class JobScheduler {
+
+    // Decides which queued jobs to launch when the executor has capacity
+    // Capacity is shared between tenants in proportion to their weights (weighted fair share)
+    // Within a tenant, jobs are ordered by priority and then by submit time (FIFO)
+    // Priority does not let one tenant's jobs jump ahead of another tenant's fair share
+
+    public static final String JOB_PRIORITY_ATTR = "job_priority";
+
+    public static final long DEFAULT_JOB_PRIORITY = 0;
+    public static final int DEFAULT_TENANT_WEIGHT = 1;
+
+    private static final Comparator<QueuedJob> JOB_ORDER = Comparator
+            .comparingLong((QueuedJob job) -> job.priority).reversed()
+            .thenComparing(job -> job.submitTime)
+            .thenComparing(job -> job.key);
+
+    private final int jobLimit;
+    private final int tenantJobLimit;
+    private final Map<String, Integer> tenantWeights;
+
+    JobScheduler(int jobLimit, int tenantJobLimit, Map<String, Integer> tenantWeights) {
+
+        this.jobLimit = jobLimit;
+        this.tenantJobLimit = tenantJobLimit;
+        this.tenantWeights = tenantWeights;
+    }
+
+    Schedule schedule(List<CacheQueryResult<JobState>> queuedJobs, Map<String, String> activeJobs) {
+
+        // Active jobs are job key -> tenant, tenant can be null if it is not known
+        // All active jobs count towards the executor limit, jobs with a known tenant count towards the tenant limit
+
+        var tenantQueues = new HashMap<String, PriorityQueue<QueuedJob>>();
+        var tenantLoad = new HashMap<String, Integer>();
+        var tenantActive = new HashMap<String, Integer>();
+
+        for (var tenant : activeJobs.values()) {
+            if (tenant != null)
+                tenantActive.merge(tenant, 1, Integer::sum);
+        }
+
+        for (var job : queuedJobs) {
+
+            if (activeJobs.containsKey(job.key()))
+                continue;
+
+            var queuedJob = new QueuedJob(job);
+
+            tenantQueues
+                    .computeIfAbsent(queuedJob.tenant, t -> new PriorityQueue<>(JOB_ORDER))
+                    .add(queuedJob);
+        }
+
+        for (var tenant : tenantQueues.keySet())
+            tenantLoad.put(tenant, tenantActive.getOrDefault(tenant, 0));
+
+        var launches = new ArrayList<CacheQueryResult<JobState>>();
+        var queuePositions = new HashMap<String, Integer>();
+        var capacity = Math.max(jobLimit - activeJobs.size(), 0);
+
+        // Take one job at a time from the tenant that is furthest below its fair share
+        // This gives the full queue order, jobs at the front are launched while there is capacity
+
+        while (!tenantQueues.isEmpty()) {
+
+            var tenant = nextTenant(tenantQueues, tenantLoad);
+            var tenantQueue = tenantQueues.get(tenant);
+            var job = tenantQueue.poll();
+
+            if (tenantQueue.isEmpty())
+                tenantQueues.remove(tenant);
+
+            tenantLoad.merge(tenant, 1, Integer::sum);
+
+            var tenantRunning = tenantActive.getOrDefault(tenant, 0);
+
+            if (capacity > 0 && tenantRunning < tenantJobLimit) {
+
+                launches.add(job.cacheEntry);
+                tenantActive.put(tenant, tenantRunning + 1);
+                capacity--;
+            }
+            else {
+
+                queuePositions.put(job.key, queuePositions.size() + 1);
+            }
+        }
+
+        return new Schedule(launches, queuePositions);
+    }
+
+    private String nextTenant(Map<String, PriorityQueue<QueuedJob>> tenantQueues, Map<String, Integer> tenantLoad) {
+
+        String nextTenant = null;
+        QueuedJob nextJob = null;
+        long nextLoad = 0;
+        long nextWeight = 1;
+
+        for (var queue : tenantQueues.entrySet()) {
+
+            var tenant = queue.getKey();
+            var job = queue.getValue().peek();
+            var load = (long) tenantLoad.get(tenant);
+            var weight = (long) tenantWeight(tenant);
+
+            // Compare load / weight without dividing, ties go to the job that would be first in a single queue
+
+            var compareShare = Long.compare(load * nextWeight, nextLoad * weight);
+
+            if (nextTenant == null || compareShare < 0 || (compareShare == 0 && JOB_ORDER.compare(job, nextJob) < 0)) {
+                nextTenant = tenant;
+                nextJob = job;
+                nextLoad = load;
+                nextWeight = weight;
+            }
+        }
+
+        return nextTenant;
+    }
+
+    private int tenantWeight(String tenant) {
+
+        return tenantWeights.getOrDefault(tenant, DEFAULT_TENANT_WEIGHT);
+    }
+
+    static long jobPriority(JobState jobState) {
+
+        if (jobState.jobRequest == null)
+            return DEFAULT_JOB_PRIORITY;
+
+        var priority = DEFAULT_JOB_PRIORITY;
+
+        // If the attr is set more than once, the last update wins (same as when the tag is saved)
+
+        for (var attr : jobState.jobRequest.getJobAttrsList()) {
+            if (attr.getAttrName().equals(JOB_PRIORITY_ATTR) && attr.getValue().getValueCase() == Value.ValueCase.INTEGERVALUE)
+                priority = attr.getValue().getIntegerValue();
+        }
+
+        return priority;
+    }
+
+    static Instant submitTime(JobState jobState) {
+
+        // The job ID is assigned when the job is first saved, which is the time it was submitted
+
+        if (jobState.jobId == null || !jobState.jobId.hasObjectTimestamp())
+            return Instant.MAX;
+
+        return MetadataCodec.decodeDatetime(jobState.jobId.getObjectTimestamp()).toInstant();
+    }
+
+    static class Schedule {
+
+        private final List<CacheQueryResult<JobState>> launches;
+        private final Map<String, Integer> queuePositions;
+
+        Schedule(List<CacheQueryResult<JobState>> launches, Map<String, Integer> queuePositions) {
+            this.launches = launches;
+            this.queuePositions = queuePositions;
+        }
+
+        List<CacheQueryResult<JobState>> launches() {
+            return launches;
+        }
+
+        Map<String, Integer> queuePositions() {
+            return queuePositions;
+        }
+    }
+
+    private static class QueuedJob {
+
+        final CacheQueryResult<JobState> cacheEntry;
+        final String key;
+        final String tenant;
+        final long priority;
+        final Instant submitTime;
+
+        QueuedJob(CacheQueryResult<JobState> cacheEntry) {
+            this.cacheEntry = cacheEntry;
+            this.key = cacheEntry.key();
+            this.tenant = cacheEntry.value().tenant;
+            this.priority = jobPriority(cacheEntry.value());
+            this.submitTime = submitTime(cacheEntry.value());
+        }
+    }
+}
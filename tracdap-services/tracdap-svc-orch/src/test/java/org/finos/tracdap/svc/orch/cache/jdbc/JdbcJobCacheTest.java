@@ -0,0 +1,396 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.cache.jdbc;
+
+import org.finos.tracdap.common.db.JdbcDialect;
+import org.finos.tracdap.common.db.JdbcSetup;
+import org.finos.tracdap.common.exception.ECacheNotFound;
+import org.finos.tracdap.common.exception.ECacheTicket;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+import org.finos.tracdap.svc.orch.cache.IJobCacheListener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class JdbcJobCacheTest {
+
+    private DataSource source;
+    private JdbcJobCache<String> cache;
+
+    @BeforeEach
+    void setupCache() {
+
+        var properties = new Properties();
+        properties.setProperty("dialect", "H2");
+        properties.setProperty("jdbcUrl", String.format("mem:%s;DB_CLOSE_DELAY=-1", UUID.randomUUID()));
+        properties.setProperty("h2.user", "trac");
+        properties.setProperty("h2.pass", "trac");
+
+        source = JdbcSetup.createDatasource(properties);
+
+        cache = new JdbcJobCache<>(source, JdbcDialect.H2);
+        cache.start();
+    }
+
+    @AfterEach
+    void cleanupCache() {
+
+        JdbcSetup.destroyDatasource(source);
+    }
+
+    @Test
+    void start_tableAlreadyExists() {
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        var secondNode = new JdbcJobCache<String>(source, JdbcDialect.H2);
+        assertDoesNotThrow(secondNode::start);
+
+        assertEquals("value_1", secondNode.getLatestEntry("job_1").value());
+    }
+
+    @Test
+    void entry_addUpdateRemove() {
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            assertEquals(1, cache.addEntry(ticket, "STATE_A", "value_1"));
+        }
+
+        var added = cache.getLatestEntry("job_1");
+        assertEquals(1, added.revision());
+        assertEquals("STATE_A", added.getStatus());
+        assertEquals("value_1", added.value());
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            assertEquals(2, cache.updateEntry(ticket, "STATE_B", "value_2"));
+            assertEquals("value_2", cache.getEntry(ticket).value());
+        }
+
+        assertEquals("value_2", cache.getEntry("job_1", 2).value());
+        assertThrows(ECacheTicket.class, () -> cache.getEntry("job_1", 1));
+
+        try (var ticket = cache.openTicket("job_1", 2)) {
+            cache.removeEntry(ticket);
+        }
+
+        assertThrows(ECacheNotFound.class, () -> cache.getLatestEntry("job_1"));
+    }
+
+    @Test
+    void entry_addDuplicate() {
+
+        var ticket1 = cache.openNewTicket("job_1");
+        var ticket2 = cache.openNewTicket("job_1");
+
+        cache.addEntry(ticket1, "STATE_A", "value_1");
+
+        assertThrows(ECacheTicket.class, () -> cache.addEntry(ticket2, "STATE_A", "value_2"));
+        assertTrue(cache.openNewTicket("job_1").superseded());
+
+        ticket1.close();
+        ticket2.close();
+
+        assertEquals("value_1", cache.getLatestEntry("job_1").value());
+    }
+
+    @Test
+    void ticket_revisionCheck() {
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 2)) {
+            assertTrue(ticket.superseded());
+            assertFalse(ticket.missing());
+        }
+
+        try (var ticket = cache.openTicket("job_2", 1)) {
+            assertTrue(ticket.missing());
+        }
+    }
+
+    @Test
+    void ticket_sharedBetweenNodes() {
+
+        var secondNode = new JdbcJobCache<String>(source, JdbcDialect.H2);
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        var ticket1 = cache.openTicket("job_1", 1);
+        var ticket2 = secondNode.openTicket("job_1", 1);
+
+        assertFalse(ticket1.superseded());
+        assertTrue(ticket2.superseded());
+        assertThrows(ECacheTicket.class, () -> secondNode.updateEntry(ticket2, "STATE_B", "value_2"));
+
+        cache.updateEntry(ticket1, "STATE_B", "value_2");
+        ticket1.close();
+
+        // The entry has moved on, so the old revision cannot be used to open a ticket
+
+        assertTrue(secondNode.openTicket("job_1", 1).superseded());
+
+        try (var ticket = secondNode.openTicket("job_1", 2)) {
+            assertFalse(ticket.superseded());
+            assertEquals("value_2", secondNode.getEntry(ticket).value());
+        }
+    }
+
+    @Test
+    void ticket_expiredLeaseIsTakenOver() throws Exception {
+
+        var secondNode = new JdbcJobCache<String>(source, JdbcDialect.H2);
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        var ticket1 = cache.openTicket("job_1", 1, Duration.ofMillis(50));
+
+        Thread.sleep(100);
+
+        try (var ticket2 = secondNode.openTicket("job_1", 1)) {
+
+            assertFalse(ticket2.superseded());
+            secondNode.updateEntry(ticket2, "STATE_B", "value_2");
+        }
+
+        assertThrows(ECacheTicket.class, () -> cache.updateEntry(ticket1, "STATE_C", "value_3"));
+
+        // Closing the expired ticket must not release the lease held by the other node
+        ticket1.close();
+
+        assertEquals("STATE_B", cache.getLatestEntry("job_1").getStatus());
+    }
+
+    @Test
+    void queryState_followsTransitions() {
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openNewTicket("job_2")) {
+            cache.addEntry(ticket, "STATE_A", "value_2");
+        }
+
+        assertEquals(Set.of("job_1", "job_2"), queryKeys(List.of("STATE_A")));
+        assertEquals(Set.of(), queryKeys(List.of("STATE_B")));
+        assertEquals(Set.of(), queryKeys(List.of()));
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_1");
+        }
+
+        assertEquals(Set.of("job_2"), queryKeys(List.of("STATE_A")));
+        assertEquals(Set.of("job_1"), queryKeys(List.of("STATE_B")));
+        assertEquals(Set.of("job_1", "job_2"), queryKeys(List.of("STATE_A", "STATE_B")));
+
+        try (var ticket = cache.openTicket("job_2", 1)) {
+            cache.removeEntry(ticket);
+        }
+
+        assertEquals(Set.of(), queryKeys(List.of("STATE_A")));
+    }
+
+    @Test
+    void queryState_openTickets() {
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+
+            assertEquals(Set.of(), queryKeys(List.of("STATE_A")));
+
+            var withOpenTickets = cache.queryState(List.of("STATE_A"), true);
+            assertEquals(1, withOpenTickets.size());
+            assertEquals("job_1", withOpenTickets.get(0).key());
+            assertEquals("value_1", withOpenTickets.get(0).value());
+        }
+
+        assertEquals(Set.of("job_1"), queryKeys(List.of("STATE_A")));
+    }
+
+    @Test
+    void listener_events() {
+
+        var events = new ArrayList<String>();
+
+        cache.addListener(new IJobCacheListener<>() {
+
+            @Override
+            public void entryUpdated(CacheQueryResult<String> entry) {
+                events.add("updated " + entry.key() + " " + entry.getStatus() + " " + entry.revision());
+            }
+
+            @Override
+            public void entryReleased(CacheQueryResult<String> entry) {
+                events.add("released " + entry.key() + " " + entry.getStatus() + " " + entry.revision());
+            }
+
+            @Override
+            public void entryRemoved(String key) {
+                events.add("removed " + key);
+            }
+        });
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_1");
+            cache.updateEntry(ticket, "STATE_C", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 3)) {
+            cache.removeEntry(ticket);
+        }
+
+        var expected = List.of(
+                "updated job_1 STATE_A 1",
+                "released job_1 STATE_A 1",
+                "updated job_1 STATE_B 2",
+                "updated job_1 STATE_C 3",
+                "released job_1 STATE_C 3",
+                "removed job_1");
+
+        assertEquals(expected, events);
+    }
+
+    @Test
+    void changePoll_remoteChanges() {
+
+        var secondNode = new JdbcJobCache<String>(source, JdbcDialect.H2);
+        var events = recordEvents(secondNode);
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        // Changes made on the first node are not seen by the second node until it polls
+
+        assertEquals(List.of(), events);
+
+        secondNode.pollChanges();
+
+        assertEquals(List.of("updated job_1 STATE_A 1 value_1"), events);
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_2");
+            cache.updateEntry(ticket, "STATE_C", "value_3");
+        }
+
+        secondNode.pollChanges();
+        secondNode.pollChanges();
+
+        // Only the latest revision is seen, and it is only notified once
+
+        assertEquals(List.of(
+                "updated job_1 STATE_A 1 value_1",
+                "updated job_1 STATE_C 3 value_3"),
+                events);
+
+        try (var ticket = cache.openTicket("job_1", 3)) {
+            cache.removeEntry(ticket);
+        }
+
+        secondNode.pollChanges();
+
+        assertEquals("removed job_1", events.get(events.size() - 1));
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void changePoll_localChangesNotRepeated() {
+
+        var events = recordEvents(cache);
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_2");
+        }
+
+        cache.pollChanges();
+
+        try (var ticket = cache.openTicket("job_1", 2)) {
+            cache.removeEntry(ticket);
+        }
+
+        cache.pollChanges();
+
+        var expected = List.of(
+                "updated job_1 STATE_A 1 value_1",
+                "released job_1 STATE_A 1",
+                "updated job_1 STATE_B 2 value_2",
+                "released job_1 STATE_B 2",
+                "removed job_1");
+
+        assertEquals(expected, events);
+    }
+
+    private List<String> recordEvents(JdbcJobCache<String> cache) {
+
+        var events = new ArrayList<String>();
+
+        cache.addListener(new IJobCacheListener<>() {
+
+            @Override
+            public void entryUpdated(CacheQueryResult<String> entry) {
+                events.add("updated " + entry.key() + " " + entry.getStatus() + " " + entry.revision() + " " + entry.value());
+            }
+
+            @Override
+            public void entryReleased(CacheQueryResult<String> entry) {
+                events.add("released " + entry.key() + " " + entry.getStatus() + " " + entry.revision());
+            }
+
+            @Override
+            public void entryRemoved(String key) {
+                events.add("removed " + key);
+            }
+        });
+
+        return events;
+    }
+
+    private Set<String> queryKeys(List<String> states) {
+
+        return cache.queryState(states).stream()
+                .map(CacheQueryResult::key)
+                .collect(Collectors.toSet());
+    }
+}
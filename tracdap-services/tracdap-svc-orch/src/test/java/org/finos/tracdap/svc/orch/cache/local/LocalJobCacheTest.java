@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.finos.tracdap.svc.orch.cache.local;
+
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+import org.finos.tracdap.svc.orch.cache.IJobCacheListener;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class LocalJobCacheTest {
+
+    @Test
+    void queryState_followsTransitions() {
+
+        var cache = new LocalJobCache<String>();
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openNewTicket("job_2")) {
+            cache.addEntry(ticket, "STATE_A", "value_2");
+        }
+
+        assertEquals(Set.of("job_1", "job_2"), queryKeys(cache, List.of("STATE_A")));
+        assertEquals(Set.of(), queryKeys(cache, List.of("STATE_B")));
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_1");
+        }
+
+        assertEquals(Set.of("job_2"), queryKeys(cache, List.of("STATE_A")));
+        assertEquals(Set.of("job_1"), queryKeys(cache, List.of("STATE_B")));
+        assertEquals(Set.of("job_1", "job_2"), queryKeys(cache, List.of("STATE_A", "STATE_B")));
+
+        try (var ticket = cache.openTicket("job_2", 1)) {
+            cache.removeEntry(ticket);
+        }
+
+        assertEquals(Set.of(), queryKeys(cache, List.of("STATE_A")));
+    }
+
+    @Test
+    void queryState_openTickets() {
+
+        var cache = new LocalJobCache<String>();
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+
+            assertEquals(Set.of(), queryKeys(cache, List.of("STATE_A")));
+
+            var withOpenTickets = cache.queryState(List.of("STATE_A"), true);
+            assertEquals(1, withOpenTickets.size());
+            assertEquals("job_1", withOpenTickets.get(0).key());
+        }
+
+        assertEquals(Set.of("job_1"), queryKeys(cache, List.of("STATE_A")));
+    }
+
+    @Test
+    void listener_events() {
+
+        var cache = new LocalJobCache<String>();
+        var events = new ArrayList<String>();
+
+        cache.addListener(new IJobCacheListener<>() {
+
+            @Override
+            public void entryUpdated(CacheQueryResult<String> entry) {
+                events.add("updated " + entry.key() + " " + entry.getStatus() + " " + entry.revision());
+            }
+
+            @Override
+            public void entryReleased(CacheQueryResult<String> entry) {
+                events.add("released " + entry.key() + " " + entry.getStatus() + " " + entry.revision());
+            }
+
+            @Override
+            public void entryRemoved(String key) {
+                events.add("removed " + key);
+            }
+        });
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            cache.addEntry(ticket, "STATE_A", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 1)) {
+            cache.updateEntry(ticket, "STATE_B", "value_1");
+            cache.updateEntry(ticket, "STATE_C", "value_1");
+        }
+
+        try (var ticket = cache.openTicket("job_1", 3)) {
+            cache.removeEntry(ticket);
+        }
+
+        var expected = List.of(
+                "updated job_1 STATE_A 1",
+                "released job_1 STATE_A 1",
+                "updated job_1 STATE_B 2",
+                "updated job_1 STATE_C 3",
+                "released job_1 STATE_C 3",
+                "removed job_1");
+
+        assertEquals(expected, events);
+    }
+
+    @Test
+    void listener_failureDoesNotBreakCache() {
+
+        var cache = new LocalJobCache<String>();
+
+        cache.addListener(new IJobCacheListener<>() {
+
+            @Override
+            public void entryUpdated(CacheQueryResult<String> entry) {
+                throw new RuntimeException("listener failed");
+            }
+        });
+
+        try (var ticket = cache.openNewTicket("job_1")) {
+            assertDoesNotThrow(() -> cache.addEntry(ticket, "STATE_A", "value_1"));
+        }
+
+        assertEquals("value_1", cache.getLatestEntry("job_1").value());
+    }
+
+    private Set<String> queryKeys(LocalJobCache<String> cache, List<String> states) {
+
+        return cache.queryState(states).stream()
+                .map(CacheQueryResult::key)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ExecutorPollingTest {
+
+    private static final Instant T0 = Instant.parse("2023-01-01T00:00:00Z");
+
+    @Test
+    void pollInterval_backsOff() {
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+        assertEquals(Duration.ofSeconds(2), polling.tickInterval());
+        assertEquals(Duration.ofSeconds(2), polling.pollInterval(Duration.ZERO));
+        assertEquals(Duration.ofSeconds(2), polling.pollInterval(Duration.ofSeconds(8)));
+        assertEquals(Duration.ofSeconds(15), polling.pollInterval(Duration.ofSeconds(60)));
+        assertEquals(Duration.ofSeconds(30), polling.pollInterval(Duration.ofHours(2)));
+    }
+
+    @Test
+    void pollInterval_minAboveMax() {
+
+        // Max interval wins if the min interval is set higher
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+        assertEquals(Duration.ofSeconds(1), polling.tickInterval());
+        assertEquals(Duration.ofSeconds(1), polling.pollInterval(Duration.ofHours(2)));
+    }
+
+    @Test
+    void pollInterval_invalid() {
+
+        assertThrows(EStartup.class, () -> new ExecutorPolling(Duration.ZERO, Duration.ofSeconds(30)));
+        assertThrows(EStartup.class, () -> new ExecutorPolling(Duration.ofSeconds(2), Duration.ZERO));
+    }
+
+    @Test
+    void duePolls_newJobPolledOften() {
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(30));
+        var jobs = List.of(runningJob("job_1"));
+
+        polling.jobLaunched("job_1", T0);
+
+        var pollTimes = simulate(polling, jobs, Duration.ofSeconds(20));
+
+        // Polled every tick for the first few seconds, then backing off
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L, 14L, 18L), pollTimes);
+    }
+
+    @Test
+    void duePolls_longRunningJobBacksOff() {
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(30));
+        var jobs = List.of(runningJob("job_1"));
+
+        polling.jobLaunched("job_1", T0);
+
+        var pollTimes = simulate(polling, jobs, Duration.ofMinutes(10));
+        var laterPolls = pollTimes.stream().filter(t -> t >= 300).collect(Collectors.toList());
+
+        // Polls are at most 30 seconds apart, once the max interval is reached
+        for (var i = 1; i < laterPolls.size(); i++)
+            assertEquals(30L, laterPolls.get(i) - laterPolls.get(i - 1));
+
+        assertTrue(pollTimes.size() < 40);
+    }
+
+    @Test
+    void duePolls_unknownJobTimedFromFirstSeen() {
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(30));
+        var jobs = List.of(runningJob("job_1"));
+
+        assertEquals(List.of(), polling.duePolls(jobs, T0));
+        assertEquals(List.of(), polling.duePolls(jobs, T0.plusMillis(500)));
+        assertEquals(1, polling.duePolls(jobs, T0.plusSeconds(2)).size());
+    }
+
+    @Test
+    void duePolls_finishedJobsDropped() {
+
+        var polling = new ExecutorPolling(Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+        polling.jobLaunched("job_1", T0.minus(Duration.ofHours(1)));
+
+        // Job leaves the running set, when it comes back it is treated as a new job
+        polling.duePolls(List.of(), T0);
+
+        assertEquals(List.of(), polling.duePolls(List.of(runningJob("job_1")), T0));
+        assertEquals(1, polling.duePolls(List.of(runningJob("job_1")), T0.plusSeconds(2)).size());
+    }
+
+    private List<Long> simulate(ExecutorPolling polling, List<CacheQueryResult<JobState>> jobs, Duration runTime) {
+
+        var pollTimes = new ArrayList<Long>();
+        var tick = polling.tickInterval();
+
+        // Ticks arrive a little late, as they would with a real timer
+
+        for (var t = tick; t.compareTo(runTime) <= 0; t = t.plus(tick)) {
+
+            var pollTime = T0.plus(t).plusMillis(5);
+
+            if (!polling.duePolls(jobs, pollTime).isEmpty())
+                pollTimes.add(t.getSeconds());
+        }
+
+        return pollTimes;
+    }
+
+    private CacheQueryResult<JobState> runningJob(String jobKey) {
+
+        var jobState = new JobState();
+        jobState.jobKey = jobKey;
+        jobState.cacheStatus = CacheStatus.RUNNING_IN_EXECUTOR;
+
+        return new CacheQueryResult<>(jobKey, 1, jobState.cacheStatus, jobState);
+    }
+}
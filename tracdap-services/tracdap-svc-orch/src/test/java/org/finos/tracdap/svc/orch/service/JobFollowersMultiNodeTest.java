@@ -0,0 +1,174 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.api.JobStatus;
+import org.finos.tracdap.common.db.JdbcDialect;
+import org.finos.tracdap.common.db.JdbcSetup;
+import org.finos.tracdap.metadata.JobStatusCode;
+import org.finos.tracdap.svc.orch.cache.jdbc.JdbcJobCache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class JobFollowersMultiNodeTest {
+
+    private static final String JOB_KEY = "job_1";
+
+    private DataSource source;
+
+    private JdbcJobCache<JobState> nodeA;
+    private JdbcJobCache<JobState> nodeB;
+    private JobFollowers followersB;
+
+    private int revision;
+
+    @BeforeEach
+    void setup() {
+
+        var properties = new Properties();
+        properties.setProperty("dialect", "H2");
+        properties.setProperty("jdbcUrl", String.format("mem:%s;DB_CLOSE_DELAY=-1", UUID.randomUUID()));
+        properties.setProperty("h2.user", "trac");
+        properties.setProperty("h2.pass", "trac");
+
+        source = JdbcSetup.createDatasource(properties);
+
+        // Two orchestrator instances sharing one cache database, the job is processed on node A
+
+        nodeA = new JdbcJobCache<>(source, JdbcDialect.H2);
+        nodeA.start();
+
+        nodeB = new JdbcJobCache<>(source, JdbcDialect.H2);
+        nodeB.start();
+
+        followersB = new JobFollowers(nodeB);
+        followersB.start();
+
+        try (var ticket = nodeA.openNewTicket(JOB_KEY)) {
+            revision = nodeA.addEntry(ticket, CacheStatus.QUEUED_IN_TRAC, jobState(JobStatusCode.QUEUED, CacheStatus.QUEUED_IN_TRAC));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+
+        followersB.stop();
+        JdbcSetup.destroyDatasource(source);
+    }
+
+    @Test
+    void followJob_remoteTransitions() {
+
+        var follower = new TestSubscriber();
+        followersB.followJob(JOB_KEY).subscribe(follower);
+
+        assertEquals(List.of(JobStatusCode.QUEUED), follower.statusCodes());
+
+        updateJob(JobStatusCode.SUBMITTED, CacheStatus.SENT_TO_EXECUTOR);
+        nodeB.pollChanges();
+
+        updateJob(JobStatusCode.RUNNING, CacheStatus.RUNNING_IN_EXECUTOR);
+        nodeB.pollChanges();
+
+        assertEquals(List.of(JobStatusCode.QUEUED, JobStatusCode.SUBMITTED, JobStatusCode.RUNNING), follower.statusCodes());
+        assertFalse(follower.completed);
+
+        updateJob(JobStatusCode.SUCCEEDED, CacheStatus.READY_TO_REMOVE);
+        nodeB.pollChanges();
+
+        assertEquals(JobStatusCode.SUCCEEDED, follower.statusCodes().get(3));
+        assertTrue(follower.completed);
+        assertEquals(0, followersB.followerCount(JOB_KEY));
+    }
+
+    @Test
+    void followJob_remoteRemoval() {
+
+        var follower = new TestSubscriber();
+        followersB.followJob(JOB_KEY).subscribe(follower);
+
+        // Node B needs to have seen the job before it can report the removal
+        nodeB.pollChanges();
+
+        try (var ticket = nodeA.openTicket(JOB_KEY, revision)) {
+            nodeA.removeEntry(ticket);
+        }
+
+        nodeB.pollChanges();
+
+        assertEquals(List.of(JobStatusCode.QUEUED), follower.statusCodes());
+        assertTrue(follower.completed);
+        assertEquals(0, followersB.followerCount(JOB_KEY));
+    }
+
+    private void updateJob(JobStatusCode tracStatus, String cacheStatus) {
+
+        try (var ticket = nodeA.openTicket(JOB_KEY, revision)) {
+            revision = nodeA.updateEntry(ticket, cacheStatus, jobState(tracStatus, cacheStatus));
+        }
+    }
+
+    private JobState jobState(JobStatusCode tracStatus, String cacheStatus) {
+
+        var jobState = new JobState();
+        jobState.jobKey = JOB_KEY;
+        jobState.tracStatus = tracStatus;
+        jobState.cacheStatus = cacheStatus;
+
+        return jobState;
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<JobStatus> {
+
+        final List<JobStatus> received = new ArrayList<>();
+        boolean completed;
+
+        List<JobStatusCode> statusCodes() {
+            return received.stream().map(JobStatus::getStatusCode).collect(Collectors.toList());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(JobStatus item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
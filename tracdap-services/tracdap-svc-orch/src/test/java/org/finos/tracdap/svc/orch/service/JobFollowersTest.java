@@ -0,0 +1,222 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.api.JobStatus;
+import org.finos.tracdap.metadata.JobStatusCode;
+import org.finos.tracdap.svc.orch.cache.local.LocalJobCache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class JobFollowersTest {
+
+    private static final String JOB_KEY = "job_1";
+
+    private LocalJobCache<JobState> cache;
+    private JobFollowers followers;
+    private int revision;
+
+    @BeforeEach
+    void setup() {
+
+        cache = new LocalJobCache<>();
+        followers = new JobFollowers(cache);
+        followers.start();
+
+        try (var ticket = cache.openNewTicket(JOB_KEY)) {
+            revision = cache.addEntry(ticket, CacheStatus.QUEUED_IN_TRAC, jobState(JobStatusCode.QUEUED, CacheStatus.QUEUED_IN_TRAC));
+        }
+    }
+
+    @Test
+    void followJob_pushesTransitions() {
+
+        var follower = follow(Long.MAX_VALUE);
+
+        updateJob(JobStatusCode.SUBMITTED, CacheStatus.SENT_TO_EXECUTOR);
+        updateJob(JobStatusCode.RUNNING, CacheStatus.QUEUED_IN_EXECUTOR);
+        updateJob(JobStatusCode.RUNNING, CacheStatus.RUNNING_IN_EXECUTOR);  // No change for the client
+        updateJob(JobStatusCode.SUCCEEDED, CacheStatus.RESULTS_SAVED);     // Reported as FINISHING
+        updateJob(JobStatusCode.SUCCEEDED, CacheStatus.READY_TO_REMOVE);
+
+        var expected = List.of(
+                JobStatusCode.QUEUED,
+                JobStatusCode.SUBMITTED,
+                JobStatusCode.RUNNING,
+                JobStatusCode.FINISHING,
+                JobStatusCode.SUCCEEDED);
+
+        assertEquals(expected, follower.statusCodes());
+        assertTrue(follower.completed);
+        assertEquals(0, followers.followerCount(JOB_KEY));
+    }
+
+    @Test
+    void followJob_multipleFollowers() {
+
+        var follower1 = follow(Long.MAX_VALUE);
+        var follower2 = follow(Long.MAX_VALUE);
+        var follower3 = follow(Long.MAX_VALUE);
+
+        assertEquals(3, followers.followerCount(JOB_KEY));
+
+        updateJob(JobStatusCode.SUBMITTED, CacheStatus.SENT_TO_EXECUTOR);
+
+        follower2.subscription.cancel();
+        assertEquals(2, followers.followerCount(JOB_KEY));
+
+        updateJob(JobStatusCode.RUNNING, CacheStatus.RUNNING_IN_EXECUTOR);
+
+        var allUpdates = List.of(JobStatusCode.QUEUED, JobStatusCode.SUBMITTED, JobStatusCode.RUNNING);
+
+        assertEquals(allUpdates, follower1.statusCodes());
+        assertEquals(allUpdates.subList(0, 2), follower2.statusCodes());
+        assertEquals(allUpdates, follower3.statusCodes());
+        assertFalse(follower2.completed);
+    }
+
+    @Test
+    void followJob_backPressure() {
+
+        var follower = follow(0);
+
+        updateJob(JobStatusCode.SUBMITTED, CacheStatus.SENT_TO_EXECUTOR);
+        updateJob(JobStatusCode.FAILED, CacheStatus.READY_TO_REMOVE);
+
+        assertEquals(List.of(), follower.statusCodes());
+        assertFalse(follower.completed);
+
+        follower.subscription.request(1);
+
+        assertEquals(List.of(JobStatusCode.QUEUED), follower.statusCodes());
+        assertFalse(follower.completed);
+
+        follower.subscription.request(10);
+
+        assertEquals(List.of(JobStatusCode.QUEUED, JobStatusCode.SUBMITTED, JobStatusCode.FAILED), follower.statusCodes());
+        assertTrue(follower.completed);
+    }
+
+    @Test
+    void followJob_jobRemoved() {
+
+        var follower = follow(Long.MAX_VALUE);
+
+        try (var ticket = cache.openTicket(JOB_KEY, revision)) {
+            cache.removeEntry(ticket);
+        }
+
+        assertEquals(List.of(JobStatusCode.QUEUED), follower.statusCodes());
+        assertTrue(follower.completed);
+        assertEquals(0, followers.followerCount(JOB_KEY));
+    }
+
+    @Test
+    void followJob_jobMissing() {
+
+        var follower = new TestSubscriber(Long.MAX_VALUE);
+        followers.followJob("missing_job").subscribe(follower);
+
+        assertEquals(List.of(), follower.statusCodes());
+        assertTrue(follower.completed);
+        assertEquals(0, followers.followerCount("missing_job"));
+    }
+
+    @Test
+    void stop_completesFollowers() {
+
+        var follower = follow(Long.MAX_VALUE);
+
+        followers.stop();
+
+        assertTrue(follower.completed);
+        assertEquals(0, followers.followerCount(JOB_KEY));
+    }
+
+    private TestSubscriber follow(long initialRequest) {
+
+        var subscriber = new TestSubscriber(initialRequest);
+        followers.followJob(JOB_KEY).subscribe(subscriber);
+
+        return subscriber;
+    }
+
+    private void updateJob(JobStatusCode tracStatus, String cacheStatus) {
+
+        try (var ticket = cache.openTicket(JOB_KEY, revision)) {
+            revision = cache.updateEntry(ticket, cacheStatus, jobState(tracStatus, cacheStatus));
+        }
+    }
+
+    private JobState jobState(JobStatusCode tracStatus, String cacheStatus) {
+
+        var jobState = new JobState();
+        jobState.jobKey = JOB_KEY;
+        jobState.tracStatus = tracStatus;
+        jobState.cacheStatus = cacheStatus;
+
+        return jobState;
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<JobStatus> {
+
+        final long initialRequest;
+        final List<JobStatus> received = new ArrayList<>();
+
+        Flow.Subscription subscription;
+        boolean completed;
+
+        TestSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        List<JobStatusCode> statusCodes() {
+            return received.stream().map(JobStatus::getStatusCode).collect(Collectors.toList());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0)
+                subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(JobStatus item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.exception.EExecutorUnavailable;
+import org.finos.tracdap.config.PlatformConfig;
+import org.finos.tracdap.config.PluginConfig;
+import org.finos.tracdap.metadata.JobStatusCode;
+import org.finos.tracdap.svc.orch.cache.local.LocalJobCache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+class JobManagerTest {
+
+    // All the timeouts here are well inside the startup delay before the first cache poll
+    // So jobs can only be handled within the timeout by reacting to job cache events
+
+    private static final long EVENT_TIMEOUT = 2000;
+    private static final String TEST_TENANT = "ACME_CORP";
+
+    private LocalJobCache<JobState> cache;
+    private JobProcessor processor;
+    private ScheduledExecutorService executor;
+    private JobManager jobManager;
+
+    @BeforeEach
+    void setup() {
+
+        cache = new LocalJobCache<>();
+        processor = mockProcessor();
+        executor = Executors.newScheduledThreadPool(4);
+    }
+
+    @AfterEach
+    void cleanup() {
+
+        if (jobManager != null)
+            jobManager.stop();
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    void defaultCachePoll_isFallbackOnly() {
+
+        assertTrue(JobManager.STARTUP_DELAY.toMillis() > EVENT_TIMEOUT);
+        assertEquals(30, JobManager.DEFAULT_CACHE_POLL_INTERVAL);
+    }
+
+    @Test
+    void queuedJob_launchedOnCacheEvent() {
+
+        jobManager = startJobManager(PlatformConfig.getDefaultInstance());
+
+        addJob("job_1", CacheStatus.QUEUED_IN_TRAC);
+
+        verify(processor, timeout(EVENT_TIMEOUT)).markAsPending(any());
+        verify(processor, timeout(EVENT_TIMEOUT)).launchJob(any());
+
+        awaitStatus("job_1", CacheStatus.SENT_TO_EXECUTOR);
+    }
+
+    @Test
+    void completedJob_processedOnCacheEvent() {
+
+        jobManager = startJobManager(PlatformConfig.getDefaultInstance());
+
+        addJob("job_1", CacheStatus.RUNNING_IN_EXECUTOR);
+        updateJob("job_1", CacheStatus.EXECUTOR_SUCCEEDED);
+
+        // Each step releases the job with a new status, which triggers the next step
+
+        awaitStatus("job_1", CacheStatus.SCHEDULED_TO_REMOVE);
+
+        var steps = inOrder(processor);
+        steps.verify(processor).fetchJobResult(any());
+        steps.verify(processor).saveResultMetadata(any());
+        steps.verify(processor).cleanUpJob(any());
+        steps.verify(processor).scheduleRemoval(any());
+
+        verify(processor, never()).launchJob(any());
+    }
+
+    @Test
+    void queuedJob_launchedWhenCapacityFrees() {
+
+        var executorConfig = PluginConfig.newBuilder()
+                .setProtocol("test")
+                .putProperties(JobManager.MAX_JOBS_CONFIG_KEY, "1");
+
+        var config = PlatformConfig.newBuilder()
+                .setExecutor(executorConfig)
+                .build();
+
+        jobManager = startJobManager(config);
+
+        addJob("job_1", CacheStatus.RUNNING_IN_EXECUTOR);
+        addJob("job_2", CacheStatus.QUEUED_IN_TRAC);
+
+        verify(processor, after(200).never()).launchJob(any());
+        assertEquals(1, jobManager.queuePosition("job_2"));
+
+        // Job 1 failing frees up capacity, job 2 should launch without waiting for a poll
+
+        updateJob("job_1", CacheStatus.EXECUTOR_FAILED);
+
+        awaitStatus("job_2", CacheStatus.SENT_TO_EXECUTOR);
+        assertEquals(0, jobManager.queuePosition("job_2"));
+    }
+
+    @Test
+    void failedStep_leftForPoll() {
+
+        when(processor.fetchJobResult(any()))
+                .thenThrow(new EExecutorUnavailable("Executor not available"))
+                .thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.RESULTS_RECEIVED));
+
+        jobManager = startJobManager(PlatformConfig.getDefaultInstance());
+
+        addJob("job_1", CacheStatus.RUNNING_IN_EXECUTOR);
+        updateJob("job_1", CacheStatus.EXECUTOR_SUCCEEDED);
+
+        // The failed step releases the job with no new revision, it must not be retried straight away
+
+        verify(processor, timeout(EVENT_TIMEOUT)).fetchJobResult(any());
+        verify(processor, after(200).times(1)).fetchJobResult(any());
+
+        var entry = cache.getLatestEntry("job_1");
+        assertEquals(CacheStatus.EXECUTOR_SUCCEEDED, entry.getStatus());
+
+        // The next poll retries the step, once it succeeds events take over again
+
+        jobManager.pollCache();
+
+        awaitStatus("job_1", CacheStatus.SCHEDULED_TO_REMOVE);
+        verify(processor, times(2)).fetchJobResult(any());
+    }
+
+    @Test
+    void pollCache_picksUpMissedEvents() {
+
+        jobManager = new JobManager(PlatformConfig.getDefaultInstance(), processor, cache, executor);
+
+        // Job is added before the job manager is listening, so there is no event for it
+
+        addJob("job_1", CacheStatus.QUEUED_IN_TRAC);
+        jobManager.start();
+
+        verify(processor, after(200).never()).launchJob(any());
+
+        jobManager.pollCache();
+
+        awaitStatus("job_1", CacheStatus.SENT_TO_EXECUTOR);
+    }
+
+    private JobManager startJobManager(PlatformConfig config) {
+
+        var jobManager = new JobManager(config, processor, cache, executor);
+        jobManager.start();
+
+        return jobManager;
+    }
+
+    private JobProcessor mockProcessor() {
+
+        var processor = mock(JobProcessor.class);
+
+        when(processor.markAsPending(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.LAUNCH_IN_PROGRESS));
+        when(processor.launchJob(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.SENT_TO_EXECUTOR));
+        when(processor.fetchJobResult(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.RESULTS_RECEIVED));
+        when(processor.saveResultMetadata(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.RESULTS_SAVED));
+        when(processor.cleanUpJob(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.READY_TO_REMOVE));
+        when(processor.scheduleRemoval(any())).thenAnswer(call -> nextState(call.getArgument(0), CacheStatus.SCHEDULED_TO_REMOVE));
+
+        return processor;
+    }
+
+    private JobState nextState(JobState jobState, String cacheStatus) {
+
+        var newState = jobState.clone();
+        newState.cacheStatus = cacheStatus;
+
+        return newState;
+    }
+
+    private void addJob(String jobKey, String cacheStatus) {
+
+        var jobState = new JobState();
+        jobState.tenant = TEST_TENANT;
+        jobState.jobKey = jobKey;
+        jobState.tracStatus = JobStatusCode.QUEUED;
+        jobState.cacheStatus = cacheStatus;
+
+        try (var ticket = cache.openNewTicket(jobKey)) {
+            cache.addEntry(ticket, cacheStatus, jobState);
+        }
+    }
+
+    private void updateJob(String jobKey, String cacheStatus) {
+
+        var entry = cache.getLatestEntry(jobKey);
+
+        try (var ticket = cache.openTicket(jobKey, entry.revision())) {
+            assertFalse(ticket.superseded());
+            cache.updateEntry(ticket, cacheStatus, nextState(entry.value(), cacheStatus));
+        }
+    }
+
+    private void awaitStatus(String jobKey, String cacheStatus) {
+
+        var deadline = Instant.now().plus(Duration.ofMillis(EVENT_TIMEOUT));
+
+        while (Instant.now().isBefore(deadline)) {
+
+            var entry = cache.getLatestEntry(jobKey);
+
+            if (entry != null && cacheStatus.equals(entry.getStatus()))
+                return;
+
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted waiting for job status");
+            }
+        }
+
+        var entry = cache.getLatestEntry(jobKey);
+        assertEquals(cacheStatus, entry != null ? entry.getStatus() : null);
+    }
+}
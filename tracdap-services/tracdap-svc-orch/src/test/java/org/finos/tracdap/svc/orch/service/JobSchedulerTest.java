@@ -0,0 +1,230 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.api.JobRequest;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.metadata.TagHeader;
+import org.finos.tracdap.metadata.TagUpdate;
+import org.finos.tracdap.svc.orch.cache.CacheQueryResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class JobSchedulerTest {
+
+    private static final Instant T0 = Instant.parse("2023-01-01T00:00:00Z");
+
+    @Test
+    void fifoBySubmitTime() {
+
+        var scheduler = new JobScheduler(2, 2, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_3", "TENANT_A", 3, 0),
+                queuedJob("job_1", "TENANT_A", 1, 0),
+                queuedJob("job_2", "TENANT_A", 2, 0));
+
+        var schedule = scheduler.schedule(queued, Map.of());
+
+        assertEquals(List.of("job_1", "job_2"), launchKeys(schedule));
+        assertEquals(Map.of("job_3", 1), schedule.queuePositions());
+    }
+
+    @Test
+    void priorityWithinTenant() {
+
+        var scheduler = new JobScheduler(1, 1, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_1", "TENANT_A", 1, 0),
+                queuedJob("job_2", "TENANT_A", 2, 5),
+                queuedJob("job_3", "TENANT_A", 3, 0));
+
+        var schedule = scheduler.schedule(queued, Map.of());
+
+        assertEquals(List.of("job_2"), launchKeys(schedule));
+        assertEquals(Map.of("job_1", 1, "job_3", 2), schedule.queuePositions());
+    }
+
+    @Test
+    void priorityExtremeValues() {
+
+        var scheduler = new JobScheduler(1, 1, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_1", "TENANT_A", 1, Long.MIN_VALUE),
+                queuedJob("job_2", "TENANT_A", 2, 0),
+                queuedJob("job_3", "TENANT_A", 3, Long.MAX_VALUE));
+
+        var schedule = scheduler.schedule(queued, Map.of());
+
+        assertEquals(List.of("job_3"), launchKeys(schedule));
+        assertEquals(Map.of("job_2", 1, "job_1", 2), schedule.queuePositions());
+    }
+
+    @Test
+    void fairShareBetweenTenants() {
+
+        // One tenant submits a large batch first, the other tenant's jobs still get an equal share
+
+        var scheduler = new JobScheduler(4, 4, Map.of());
+        var queued = new ArrayList<CacheQueryResult<JobState>>();
+
+        for (var i = 0; i < 500; i++)
+            queued.add(queuedJob("job_a_" + i, "TENANT_A", i, 0));
+
+        queued.add(queuedJob("job_b_1", "TENANT_B", 1000, 0));
+        queued.add(queuedJob("job_b_2", "TENANT_B", 1001, 0));
+
+        var schedule = scheduler.schedule(queued, Map.of());
+
+        assertEquals(List.of("job_a_0", "job_b_1", "job_a_1", "job_b_2"), launchKeys(schedule));
+        assertEquals(1, schedule.queuePositions().get("job_a_2"));
+        assertEquals(498, schedule.queuePositions().size());
+    }
+
+    @Test
+    void fairShareCountsRunningJobs() {
+
+        var scheduler = new JobScheduler(4, 4, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_a_3", "TENANT_A", 3, 0),
+                queuedJob("job_b_1", "TENANT_B", 4, 0),
+                queuedJob("job_b_2", "TENANT_B", 5, 0));
+
+        var active = Map.of("job_a_1", "TENANT_A", "job_a_2", "TENANT_A");
+
+        var schedule = scheduler.schedule(queued, active);
+
+        assertEquals(List.of("job_b_1", "job_b_2"), launchKeys(schedule));
+        assertEquals(Map.of("job_a_3", 1), schedule.queuePositions());
+    }
+
+    @Test
+    void weightedFairShare() {
+
+        var scheduler = new JobScheduler(4, 4, Map.of("TENANT_A", 3));
+        var queued = new ArrayList<CacheQueryResult<JobState>>();
+
+        for (var i = 0; i < 10; i++) {
+            queued.add(queuedJob("job_a_" + i, "TENANT_A", i, 0));
+            queued.add(queuedJob("job_b_" + i, "TENANT_B", i, 0));
+        }
+
+        var schedule = scheduler.schedule(queued, Map.of());
+        var launchTenants = schedule.launches().stream()
+                .map(job -> job.value().tenant)
+                .collect(Collectors.groupingBy(tenant -> tenant, Collectors.counting()));
+
+        assertEquals(Map.of("TENANT_A", 3L, "TENANT_B", 1L), launchTenants);
+    }
+
+    @Test
+    void tenantJobLimit() {
+
+        var scheduler = new JobScheduler(4, 2, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_a_2", "TENANT_A", 1, 0),
+                queuedJob("job_a_3", "TENANT_A", 2, 0),
+                queuedJob("job_b_1", "TENANT_B", 3, 0));
+
+        var active = Map.of("job_a_1", "TENANT_A");
+
+        var schedule = scheduler.schedule(queued, active);
+
+        assertEquals(List.of("job_b_1", "job_a_2"), launchKeys(schedule));
+        assertEquals(Map.of("job_a_3", 1), schedule.queuePositions());
+    }
+
+    @Test
+    void executorJobLimit() {
+
+        // Active jobs with an unknown tenant still count towards the executor limit
+
+        var scheduler = new JobScheduler(2, 2, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_1", "TENANT_A", 1, 0),
+                queuedJob("job_2", "TENANT_A", 2, 0));
+
+        var active = new HashMap<String, String>();
+        active.put("job_0", null);
+        active.put("job_x", "TENANT_B");
+
+        var schedule = scheduler.schedule(queued, active);
+
+        assertEquals(List.of(), launchKeys(schedule));
+        assertEquals(Map.of("job_1", 1, "job_2", 2), schedule.queuePositions());
+    }
+
+    @Test
+    void activeJobsNotRelaunched() {
+
+        var scheduler = new JobScheduler(4, 4, Map.of());
+
+        var queued = List.of(
+                queuedJob("job_1", "TENANT_A", 1, 0),
+                queuedJob("job_2", "TENANT_A", 2, 0));
+
+        var schedule = scheduler.schedule(queued, Map.of("job_1", "TENANT_A"));
+
+        assertEquals(List.of("job_2"), launchKeys(schedule));
+        assertEquals(Map.of(), schedule.queuePositions());
+    }
+
+    private List<String> launchKeys(JobScheduler.Schedule schedule) {
+
+        return schedule.launches().stream()
+                .map(CacheQueryResult::key)
+                .collect(Collectors.toList());
+    }
+
+    private CacheQueryResult<JobState> queuedJob(String jobKey, String tenant, int submitSeconds, long priority) {
+
+        var jobState = new JobState();
+        jobState.tenant = tenant;
+        jobState.jobKey = jobKey;
+        jobState.jobId = TagHeader.newBuilder()
+                .setObjectTimestamp(MetadataCodec.encodeDatetime(T0.plusSeconds(submitSeconds)))
+                .build();
+
+        var request = JobRequest.newBuilder().setTenant(tenant);
+
+        if (priority != 0) {
+            request.addJobAttrs(TagUpdate.newBuilder()
+                    .setAttrName(JobScheduler.JOB_PRIORITY_ATTR)
+                    .setValue(MetadataCodec.encodeValue(priority)));
+        }
+
+        jobState.jobRequest = request.build();
+        jobState.cacheStatus = CacheStatus.QUEUED_IN_TRAC;
+
+        return new CacheQueryResult<>(jobKey, 1, jobState.cacheStatus, jobState);
+    }
+}
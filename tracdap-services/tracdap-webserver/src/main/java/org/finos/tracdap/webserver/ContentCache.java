@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.webserver;
+
+import org.finos.tracdap.common.storage.FileStat;
+import org.finos.tracdap.config.WebServerCacheConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Size-bounded LRU cache of static content, keyed by storage path.
+ *
+ * <p>Each entry holds the file stat, the content and any compressed variants of the content.
+ * Entries are checked against storage after the check interval has passed, including any
+ * variants that were loaded from storage. The cache itself does not talk to storage,
+ * that is left to the content server.</p>
+ *
+ * <p>Content servers run on several event loops, so all access to the cache is synchronized.
+ * The cache counts hits and misses, it can be registered as an MBean to publish them over JMX.</p>
+ */
+public class ContentCache implements ContentCacheMXBean {
+
+    public static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_MAX_FILE_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_CHECK_INTERVAL = 10;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final long maxSize;
+    private final long maxFileSize;
+    private final Duration checkInterval;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private long currentSize;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public ContentCache(WebServerCacheConfig config) {
+
+        this.maxSize = config.getMaxSize() > 0 ? config.getMaxSize() : DEFAULT_MAX_SIZE;
+        this.maxFileSize = config.getMaxFileSize() > 0 ? config.getMaxFileSize() : DEFAULT_MAX_FILE_SIZE;
+        this.checkInterval = Duration.ofSeconds(config.getCheckInterval() > 0 ? config.getCheckInterval() : DEFAULT_CHECK_INTERVAL);
+
+        // Access order gives LRU iteration order, eldest entries first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.currentSize = 0;
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+
+        log.info("Content cache enabled: max size = {} bytes, max file size = {} bytes, check interval = {}",
+                maxSize, maxFileSize, checkInterval);
+    }
+
+    public boolean isCacheable(FileStat fileStat) {
+
+        return fileStat.size <= maxFileSize && fileStat.mtime != null;
+    }
+
+    public synchronized Entry get(String storagePath) {
+
+        return entries.get(storagePath);
+    }
+
+    public boolean needsCheck(Entry entry) {
+
+        return Instant.now().isAfter(entry.lastChecked.plus(checkInterval));
+    }
+
+    public boolean isUnchanged(Entry entry, FileStat fileStat) {
+
+        return isUnchanged(entry.fileStat, fileStat);
+    }
+
+    public boolean isUnchanged(FileStat cachedStat, FileStat fileStat) {
+
+        return cachedStat.size == fileStat.size &&
+                cachedStat.mtime.equals(fileStat.mtime);
+    }
+
+    public boolean isVariantFresh(FileStat fileStat, FileStat variantStat) {
+
+        // A compressed variant older than the original file was made from an earlier version
+
+        return variantStat.mtime != null && !variantStat.mtime.isBefore(fileStat.mtime);
+    }
+
+    public synchronized void markChecked(Entry entry) {
+
+        entry.lastChecked = Instant.now();
+    }
+
+    public synchronized void put(String storagePath, Entry entry) {
+
+        var entrySize = entry.size();
+
+        // Do not let one entry flush the whole cache
+
+        if (entrySize > maxSize)
+            return;
+
+        var prior = entries.put(storagePath, entry);
+
+        if (prior != null)
+            currentSize -= prior.size();
+
+        currentSize += entrySize;
+
+        var eldest = entries.entrySet().iterator();
+
+        while (currentSize > maxSize && eldest.hasNext()) {
+
+            var evicted = eldest.next();
+            eldest.remove();
+
+            currentSize -= evicted.getValue().size();
+
+            log.debug("Content cache eviction: [{}]", evicted.getKey());
+        }
+    }
+
+    public synchronized void remove(String storagePath) {
+
+        var prior = entries.remove(storagePath);
+
+        if (prior != null)
+            currentSize -= prior.size();
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized long getCurrentSize() {
+        return currentSize;
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+
+        var hitCount = hits.get();
+        var total = hitCount + misses.get();
+
+        return total > 0 ? (double) hitCount / total : 0.0;
+    }
+
+    public static class Entry {
+
+        final FileStat fileStat;
+        final byte[] content;
+        final byte[] gzipContent;
+        final byte[] brotliContent;
+
+        // Stats for variants loaded from storage, null if there is no variant or it was compressed in memory
+        final FileStat gzipStat;
+        final FileStat brotliStat;
+
+        Instant lastChecked;
+
+        public Entry(FileStat fileStat, byte[] content, byte[] gzipContent, byte[] brotliContent) {
+
+            this(fileStat, content, gzipContent, null, brotliContent, null);
+        }
+
+        public Entry(
+                FileStat fileStat, byte[] content,
+                byte[] gzipContent, FileStat gzipStat,
+                byte[] brotliContent, FileStat brotliStat) {
+
+            this.fileStat = fileStat;
+            this.content = content;
+            this.gzipContent = gzipContent;
+            this.gzipStat = gzipStat;
+            this.brotliContent = brotliContent;
+            this.brotliStat = brotliStat;
+
+            this.lastChecked = Instant.now();
+        }
+
+        long size() {
+
+            return content.length +
+                    (gzipContent != null ? gzipContent.length : 0) +
+                    (brotliContent != null ? brotliContent.length : 0);
+        }
+    }
+}
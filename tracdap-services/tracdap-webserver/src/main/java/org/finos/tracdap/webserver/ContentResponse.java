@@ -21,6 +21,7 @@ import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
+import java.nio.file.Path;
 import java.util.concurrent.Flow;
 
 public class ContentResponse {
@@ -30,4 +31,11 @@ public class ContentResponse {
     HttpHeaders headers = new DefaultHttpHeaders();
 
     Flow.Publisher<ByteBuf> reader;
+
+    // Set instead of reader when the full content is already held in memory
+    ByteBuf content;
+
+    // Set instead of reader when content can be sent directly from a local file
+    Path localFile;
+    long localFileSize;
 }
@@ -16,23 +16,34 @@
 
 package org.finos.tracdap.webserver;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import org.finos.tracdap.common.concurrent.Flows;
 import org.finos.tracdap.common.concurrent.IExecutionContext;
 import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.common.exception.*;
 import org.finos.tracdap.common.storage.FileStat;
 import org.finos.tracdap.common.storage.FileType;
 import org.finos.tracdap.common.storage.IFileStorage;
+import org.finos.tracdap.common.storage.local.LocalFileStorage;
 import org.finos.tracdap.config.WebServerConfig;
 import org.finos.tracdap.config.WebServerRedirect;
 import org.finos.tracdap.config.WebServerRewriteRule;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +52,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 
 public class ContentServer {
@@ -50,7 +62,12 @@ public class ContentServer {
 
     private static final long CACHE_CONTROL_MAX_AGE = 3600;
 
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String BROTLI_SUFFIX = ".br";
+    private static final int MIN_COMPRESS_SIZE = 1024;
+
     private final IFileStorage storage;
+    private final ContentCache cache;
 
     private final Map<String, String> mimeTypes;
     private final List<Map.Entry<Pattern, WebServerRedirect>> redirects;
@@ -60,6 +77,10 @@ public class ContentServer {
 
         this.storage = storage;
 
+        this.cache = config.hasContentCache()
+                ? new ContentCache(config.getContentCache())
+                : null;
+
         this.mimeTypes = MimeTypes.loadMimeTypeMap();
 
         this.redirects = new ArrayList<>();
@@ -76,7 +97,13 @@ public class ContentServer {
         }
     }
 
-    public CompletionStage<ContentResponse> headRequest(String requestUri, IExecutionContext execCtx) {
+    public ContentCache cache() {
+        return cache;
+    }
+
+    public CompletionStage<ContentResponse> headRequest(
+            String requestUri, HttpHeaders requestHeaders,
+            IExecutionContext execCtx) {
 
         var redirect = processRedirects(requestUri);
 
@@ -85,19 +112,35 @@ public class ContentServer {
 
         var storagePath = translateStoragePath(requestUri);
 
-        return headRequestForPath(storagePath, execCtx);
+        if (cache != null) {
+
+            // HEAD requests are served from the cache if possible, but do not load content on a miss
+
+            return cacheLookup(storagePath, execCtx)
+                    .thenCompose(entry -> entry != null
+                            ? CompletableFuture.completedFuture(cacheHit(entry, requestHeaders, false))
+                            : headRequestForPath(storagePath, requestHeaders, execCtx))
+                    .exceptionally(this::buildErrorResponse)
+                    .thenApplyAsync(Function.identity(), execCtx.eventLoopExecutor());
+        }
+
+        return headRequestForPath(storagePath, requestHeaders, execCtx);
     }
 
-    private CompletionStage<ContentResponse> headRequestForPath(String storagePath, IExecutionContext execCtx) {
+    private CompletionStage<ContentResponse> headRequestForPath(
+            String storagePath, HttpHeaders requestHeaders,
+            IExecutionContext execCtx) {
 
         return storage.stat(storagePath, execCtx)
                 .thenCompose(fileStat -> resolveDirectories(fileStat, execCtx))
-                .thenApply(this::buildHeadResponse)
+                .thenApply(fileStat -> buildHeadResponse(fileStat, requestHeaders))
                 .exceptionally(this::buildErrorResponse)
                 .thenApplyAsync(Function.identity(), execCtx.eventLoopExecutor());
     }
 
-    public CompletionStage<ContentResponse> getRequest(String requestUri, IDataContext dataCtx) {
+    public CompletionStage<ContentResponse> getRequest(
+            String requestUri, HttpHeaders requestHeaders,
+            IDataContext dataCtx) {
 
         var redirect = processRedirects(requestUri);
 
@@ -106,13 +149,266 @@ public class ContentServer {
 
         var storagePath = translateStoragePath(requestUri);
 
+        if (cache != null) {
+
+            return cacheLookup(storagePath, dataCtx)
+                    .thenCompose(entry -> entry != null
+                            ? CompletableFuture.completedFuture(cacheHit(entry, requestHeaders, true))
+                            : cacheMiss(storagePath, requestHeaders, dataCtx))
+                    .exceptionally(this::buildErrorResponse)
+                    .thenApplyAsync(Function.identity(), dataCtx.eventLoopExecutor());
+        }
+
         return storage.stat(storagePath, dataCtx)
                 .thenCompose(fileStat -> resolveDirectories(fileStat, dataCtx))
-                .thenApply(fileStat -> buildContentResponse(fileStat, dataCtx))
+                .thenApply(fileStat -> buildContentResponse(fileStat, requestHeaders, dataCtx))
                 .exceptionally(this::buildErrorResponse)
                 .thenApplyAsync(Function.identity(), dataCtx.eventLoopExecutor());
     }
 
+    private CompletionStage<ContentCache.Entry> cacheLookup(String storagePath, IExecutionContext execCtx) {
+
+        var entry = cache.get(storagePath);
+
+        if (entry == null || !cache.needsCheck(entry))
+            return CompletableFuture.completedFuture(entry);
+
+        // Entry is due a check, make sure the file and its variants have not changed in storage
+        // If anything has changed or is no longer available, drop the entry and treat this as a miss
+
+        return storage.stat(entry.fileStat.storagePath, execCtx)
+                .handle((fileStat, error) -> error == null && cache.isUnchanged(entry, fileStat))
+                .thenCompose(unchanged -> unchanged
+                        ? checkVariants(entry, execCtx)
+                        : CompletableFuture.completedFuture(false))
+                .thenApply(unchanged -> {
+
+                    if (unchanged) {
+                        cache.markChecked(entry);
+                        return entry;
+                    }
+
+                    cache.remove(storagePath);
+                    return null;
+                });
+    }
+
+    private CompletionStage<Boolean> checkVariants(ContentCache.Entry entry, IExecutionContext execCtx) {
+
+        var gzipCheck = checkVariant(entry, entry.gzipStat, execCtx);
+        var brotliCheck = checkVariant(entry, entry.brotliStat, execCtx);
+
+        return gzipCheck.thenCombine(brotliCheck, (gzipOk, brotliOk) -> gzipOk && brotliOk);
+    }
+
+    private CompletionStage<Boolean> checkVariant(ContentCache.Entry entry, FileStat variantStat, IExecutionContext execCtx) {
+
+        if (variantStat == null)
+            return CompletableFuture.completedFuture(true);
+
+        return storage.stat(variantStat.storagePath, execCtx).handle((currentStat, error) ->
+                error == null &&
+                cache.isUnchanged(variantStat, currentStat) &&
+                cache.isVariantFresh(entry.fileStat, currentStat));
+    }
+
+    private ContentResponse cacheHit(ContentCache.Entry entry, HttpHeaders requestHeaders, boolean includeContent) {
+
+        cache.recordHit();
+
+        var encoding = selectEncoding(entry, requestHeaders);
+        var content = encodedContent(entry, encoding);
+
+        var response = buildHeadResponse(entry.fileStat, requestHeaders, encoding, content.length);
+
+        if (entry.gzipContent != null || entry.brotliContent != null)
+            response.headers.set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+
+        if (includeContent && response.statusCode == HttpResponseStatus.OK)
+            response.content = Unpooled.wrappedBuffer(content);
+
+        return response;
+    }
+
+    private CompletionStage<ContentResponse> cacheMiss(String storagePath, HttpHeaders requestHeaders, IDataContext dataCtx) {
+
+        cache.recordMiss();
+
+        return storage.stat(storagePath, dataCtx)
+                .thenCompose(fileStat -> resolveDirectories(fileStat, dataCtx))
+                .thenCompose(fileStat -> cacheMissForFile(storagePath, fileStat, requestHeaders, dataCtx));
+    }
+
+    private CompletionStage<ContentResponse> cacheMissForFile(
+            String storagePath, FileStat fileStat,
+            HttpHeaders requestHeaders, IDataContext dataCtx) {
+
+        // Large files are not cached, serve them the regular way
+
+        if (!cache.isCacheable(fileStat))
+            return CompletableFuture.completedFuture(buildContentResponse(fileStat, requestHeaders, dataCtx));
+
+        return loadCacheEntry(storagePath, fileStat, dataCtx)
+                .thenApply(entry -> cacheHit(entry, requestHeaders, true));
+    }
+
+    private CompletionStage<ContentCache.Entry> loadCacheEntry(String storagePath, FileStat fileStat, IDataContext dataCtx) {
+
+        // Pre-compressed variants are picked up from storage if they exist alongside the original file
+
+        var content = readContent(fileStat.storagePath, dataCtx);
+        var gzipVariant = readVariant(fileStat, GZIP_SUFFIX, dataCtx);
+        var brotliVariant = readVariant(fileStat, BROTLI_SUFFIX, dataCtx);
+
+        return content.thenCompose(bytes -> gzipVariant.thenCompose(gzipFile -> brotliVariant.thenApply(brotliFile -> {
+
+            // If there is no gzip variant in storage, compress in memory for formats that are worth it
+
+            var gzipBytes = gzipFile != null ? gzipFile.content : null;
+            var gzipStat = gzipFile != null ? gzipFile.fileStat : null;
+            var brotliBytes = brotliFile != null ? brotliFile.content : null;
+            var brotliStat = brotliFile != null ? brotliFile.fileStat : null;
+
+            if (gzipBytes == null && isCompressible(fileStat, bytes))
+                gzipBytes = gzip(bytes);
+
+            var entry = new ContentCache.Entry(fileStat, bytes, gzipBytes, gzipStat, brotliBytes, brotliStat);
+            cache.put(storagePath, entry);
+
+            return entry;
+        })));
+    }
+
+    private CompletionStage<Variant> readVariant(FileStat fileStat, String suffix, IDataContext dataCtx) {
+
+        var variantPath = fileStat.storagePath + suffix;
+
+        // Variants that are missing, too large or older than the original file are ignored
+        // Without a variant, clients get the original file with identity encoding
+
+        return storage.stat(variantPath, dataCtx)
+                .handle((variantStat, error) -> error == null ? variantStat : null)
+                .thenCompose(variantStat -> {
+
+                    if (variantStat == null || variantStat.fileType != FileType.FILE ||
+                        !cache.isCacheable(variantStat) || !cache.isVariantFresh(fileStat, variantStat))
+
+                        return CompletableFuture.completedFuture(null);
+
+                    return readContent(variantPath, dataCtx)
+                            .thenApply(bytes -> new Variant(variantStat, bytes));
+                });
+    }
+
+    private CompletionStage<byte[]> readContent(String storagePath, IDataContext dataCtx) {
+
+        var reader = storage.reader(storagePath, dataCtx);
+
+        return Flows.fold(reader,
+                (CompositeByteBuf composite, ByteBuf chunk) -> composite.addComponent(true, chunk),
+                Unpooled.compositeBuffer())
+                .thenApply(buffer -> {
+                    try {
+                        var bytes = new byte[buffer.readableBytes()];
+                        buffer.readBytes(bytes);
+                        return bytes;
+                    }
+                    finally {
+                        buffer.release();
+                    }
+                });
+    }
+
+    private boolean isCompressible(FileStat fileStat, byte[] content) {
+
+        if (content.length < MIN_COMPRESS_SIZE)
+            return false;
+
+        return isCompressibleType(lookupMimeType(fileStat));
+    }
+
+    private boolean isCompressibleType(String mimeType) {
+
+        if (mimeType == null)
+            return false;
+
+        return mimeType.startsWith("text/") ||
+                mimeType.endsWith("javascript") ||
+                mimeType.endsWith("json") ||
+                mimeType.endsWith("xml");
+    }
+
+    private byte[] gzip(byte[] content) {
+
+        try {
+
+            var compressed = new ByteArrayOutputStream(content.length / 2);
+
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(content);
+            }
+
+            // Only keep the compressed version if it actually saves space
+            return compressed.size() < content.length ? compressed.toByteArray() : null;
+        }
+        catch (IOException e) {
+
+            // Compressing an in-memory buffer should never fail
+            throw new EUnexpected(e);
+        }
+    }
+
+    private String selectEncoding(ContentCache.Entry entry, HttpHeaders requestHeaders) {
+
+        var acceptEncoding = requestHeaders.get(HttpHeaderNames.ACCEPT_ENCODING);
+
+        if (acceptEncoding == null)
+            return null;
+
+        var acceptBrotli = false;
+        var acceptGzip = false;
+
+        for (var item : acceptEncoding.split(",")) {
+
+            var parts = item.split(";");
+            var coding = parts[0].trim();
+
+            // Encodings with q=0 are explicitly not acceptable
+            var rejected = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+
+            if (rejected)
+                continue;
+
+            if (coding.equalsIgnoreCase(HttpHeaderValues.BR.toString()))
+                acceptBrotli = true;
+
+            if (coding.equalsIgnoreCase(HttpHeaderValues.GZIP.toString()))
+                acceptGzip = true;
+        }
+
+        if (acceptBrotli && entry.brotliContent != null)
+            return HttpHeaderValues.BR.toString();
+
+        if (acceptGzip && entry.gzipContent != null)
+            return HttpHeaderValues.GZIP.toString();
+
+        return null;
+    }
+
+    private byte[] encodedContent(ContentCache.Entry entry, String encoding) {
+
+        if (encoding == null)
+            return entry.content;
+
+        if (encoding.equals(HttpHeaderValues.BR.toString()))
+            return entry.brotliContent;
+
+        if (encoding.equals(HttpHeaderValues.GZIP.toString()))
+            return entry.gzipContent;
+
+        throw new EUnexpected();
+    }
+
     private ContentResponse processRedirects(String requestUri) {
 
         try {
@@ -175,27 +471,50 @@ public class ContentServer {
         return storage.stat(indexPath, execCtx);
     }
 
-    private ContentResponse buildHeadResponse(FileStat fileStat) {
+    private ContentResponse buildHeadResponse(FileStat fileStat, HttpHeaders requestHeaders) {
+
+        return buildHeadResponse(fileStat, requestHeaders, null, fileStat.size);
+    }
+
+    private ContentResponse buildHeadResponse(
+            FileStat fileStat, HttpHeaders requestHeaders,
+            String encoding, long contentLength) {
 
         if (fileStat.fileType != FileType.FILE)
             throw new EUnexpected();
 
         var response = new ContentResponse();
 
-        response.statusCode = HttpResponseStatus.OK;
-        response.headers.set(HttpHeaderNames.CONTENT_LENGTH, fileStat.size);
+        // Content length is also sent for 304 responses, it must match the length a 200 response would have
+        // This lets HTTP/1 keep-alive work for 304 responses, which do not have a body
+
+        response.statusCode = isNotModified(fileStat, requestHeaders, encoding)
+                ? HttpResponseStatus.NOT_MODIFIED
+                : HttpResponseStatus.OK;
+
+        response.headers.set(HttpHeaderNames.CONTENT_LENGTH, contentLength);
+
+        if (encoding != null)
+            response.headers.set(HttpHeaderNames.CONTENT_ENCODING, encoding);
 
         // Try to match the file extension and set the content-type header
 
-        var extensionMatch = EXTENSION_PATTERN.matcher(fileStat.storagePath);
+        var mimeType = lookupMimeType(fileStat);
+
+        if (mimeType != null)
+            response.headers.set(HttpHeaderNames.CONTENT_TYPE, mimeType);
+
+        // Compressible types can be sent with a different encoding once they are in the cache
+        // Set Vary on every response for those types, hit or miss, so downstream caches key on the encoding
 
-        if (extensionMatch.matches()) {
+        if (encoding != null || isCompressibleType(mimeType))
+            response.headers.set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
 
-            var extension = extensionMatch.group(1);
-            var mimeType = mimeTypes.get(extension);
+        // Validators for conditional requests, if the storage reports a modification time
 
-            if (mimeType != null)
-                response.headers.set(HttpHeaderNames.CONTENT_TYPE, mimeType);
+        if (fileStat.mtime != null) {
+            response.headers.set(HttpHeaderNames.ETAG, entityTag(fileStat, encoding));
+            response.headers.set(HttpHeaderNames.LAST_MODIFIED, httpDate(fileStat.mtime.atZone(ZoneOffset.UTC)));
         }
 
         // Common headers that need to be set on every response
@@ -205,14 +524,105 @@ public class ContentServer {
         return response;
     }
 
-    private ContentResponse buildContentResponse(FileStat fileStat, IDataContext dataCtx) {
+    private ContentResponse buildContentResponse(FileStat fileStat, HttpHeaders requestHeaders, IDataContext dataCtx) {
 
-        var response = buildHeadResponse(fileStat);
-        response.reader = storage.reader(fileStat.storagePath, dataCtx);
+        var response = buildHeadResponse(fileStat, requestHeaders);
+
+        if (response.statusCode != HttpResponseStatus.OK)
+            return response;
+
+        // Local files can be sent straight from the file system, without copying through the storage reader
+
+        if (storage instanceof LocalFileStorage) {
+            response.localFile = ((LocalFileStorage) storage).localPath(fileStat.storagePath);
+            response.localFileSize = fileStat.size;
+        }
+        else {
+            response.reader = storage.reader(fileStat.storagePath, dataCtx);
+        }
 
         return response;
     }
 
+    private String lookupMimeType(FileStat fileStat) {
+
+        var extensionMatch = EXTENSION_PATTERN.matcher(fileStat.storagePath);
+
+        if (!extensionMatch.matches())
+            return null;
+
+        var extension = extensionMatch.group(1);
+
+        return mimeTypes.get(extension);
+    }
+
+    private boolean isNotModified(FileStat fileStat, HttpHeaders requestHeaders, String encoding) {
+
+        if (fileStat.mtime == null)
+            return false;
+
+        // If-None-Match takes precedence, If-Modified-Since is ignored when it is present (RFC 7232 section 6)
+
+        var ifNoneMatch = requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH);
+
+        if (ifNoneMatch != null) {
+
+            var etag = entityTag(fileStat, encoding);
+
+            for (var tag : ifNoneMatch.split(",")) {
+
+                // Weak comparison is used for If-None-Match
+                var candidate = tag.trim();
+
+                if (candidate.startsWith("W/"))
+                    candidate = candidate.substring(2);
+
+                if (candidate.equals("*") || candidate.equals(etag))
+                    return true;
+            }
+
+            return false;
+        }
+
+        var ifModifiedSince = requestHeaders.get(HttpHeaderNames.IF_MODIFIED_SINCE);
+
+        if (ifModifiedSince != null) {
+
+            try {
+
+                // HTTP dates only have one second precision
+
+                var since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                var mtime = fileStat.mtime.truncatedTo(ChronoUnit.SECONDS);
+
+                return !mtime.isAfter(since);
+            }
+            catch (DateTimeParseException e) {
+
+                // Invalid dates are ignored and the full content is sent
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private String entityTag(FileStat fileStat, String encoding) {
+
+        // Validator based on size and modification time, so no file content needs to be read
+        // Each content encoding is a different representation, so it needs its own tag
+
+        if (encoding != null)
+            return String.format("\"%x-%x-%s\"", fileStat.size, fileStat.mtime.toEpochMilli(), encoding);
+
+        return String.format("\"%x-%x\"", fileStat.size, fileStat.mtime.toEpochMilli());
+    }
+
+    private String httpDate(ZonedDateTime dateTime) {
+
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(dateTime);
+    }
+
     private ContentResponse buildErrorResponse(Throwable e) {
 
         var response = new ContentResponse();
@@ -246,10 +656,21 @@ public class ContentServer {
 
     private void addStandardHeaders(HttpHeaders headers) {
 
-        var date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now());
+        var date = httpDate(ZonedDateTime.now(ZoneOffset.UTC));
         headers.set(HttpHeaderNames.DATE, date);
 
         var cacheControl = String.format("max-age=%d", CACHE_CONTROL_MAX_AGE);
         headers.set(HttpHeaderNames.CACHE_CONTROL, cacheControl);
     }
+
+    private static class Variant {
+
+        final FileStat fileStat;
+        final byte[] content;
+
+        Variant(FileStat fileStat, byte[] content) {
+            this.fileStat = fileStat;
+            this.content = content;
+        }
+    }
 }
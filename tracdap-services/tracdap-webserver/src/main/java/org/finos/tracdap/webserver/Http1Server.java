@@ -22,8 +22,10 @@ import org.finos.tracdap.common.data.DataContext;
 import org.finos.tracdap.common.exception.EUnexpected;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.http.*;
 import io.netty.util.ReferenceCountUtil;
 
@@ -153,7 +155,7 @@ public class Http1Server extends ChannelInboundHandlerAdapter {
         var executor = (OrderedEventExecutor) ctx.executor();
         var dataCtx = new DataContext(executor, null);
 
-        contentServer.headRequest(request.uri(), dataCtx)
+        contentServer.headRequest(request.uri(), request.headers(), dataCtx)
                 .thenAccept(response -> serverHeadResponse(ctx, request, response))
                 .exceptionally(err -> unexpectedError(ctx, err));
     }
@@ -175,7 +177,7 @@ public class Http1Server extends ChannelInboundHandlerAdapter {
         var executor = (OrderedEventExecutor) ctx.executor();
         var dataCtx = new DataContext(executor, null);
 
-        contentServer.getRequest(request.uri(), dataCtx)
+        contentServer.getRequest(request.uri(), request.headers(), dataCtx)
                 .thenAccept(response -> serveGetResponse(ctx, request, response))
                 .exceptionally(err -> unexpectedError(ctx, err));
     }
@@ -190,7 +192,23 @@ public class Http1Server extends ChannelInboundHandlerAdapter {
 
         ctx.write(httpResponse);
 
-        if (serverResponse.statusCode == HttpResponseStatus.OK) {
+        if (serverResponse.statusCode == HttpResponseStatus.OK && serverResponse.content != null) {
+
+            ctx.write(new DefaultLastHttpContent(serverResponse.content));
+            ctx.flush();
+        }
+        else if (serverResponse.statusCode == HttpResponseStatus.OK && serverResponse.localFile != null) {
+
+            // Local files are sent with a file region, which uses sendfile / transferTo where the OS supports it
+            // Content is not copied into user space and no buffers are allocated
+
+            var fileRegion = new DefaultFileRegion(serverResponse.localFile.toFile(), 0, serverResponse.localFileSize);
+
+            ctx.write(fileRegion).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            ctx.write(new DefaultLastHttpContent());
+            ctx.flush();
+        }
+        else if (serverResponse.statusCode == HttpResponseStatus.OK) {
 
             serverResponse.reader.subscribe(new ResponseSender(ctx));
         }
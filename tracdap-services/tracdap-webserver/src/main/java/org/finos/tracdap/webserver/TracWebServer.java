@@ -35,6 +35,9 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,8 @@ import java.util.function.Supplier;
 
 public class TracWebServer extends CommonServiceBase {
 
+    private static final String CACHE_MBEAN_NAME = "org.finos.tracdap:type=ContentCache,name=webserver";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final PluginManager pluginManager;
@@ -50,6 +55,7 @@ public class TracWebServer extends CommonServiceBase {
 
     private EventLoopGroup bossGroup = null;
     private EventLoopGroup workerGroup = null;
+    private ContentServer contentServer = null;
 
     public static void main(String[] args) {
 
@@ -94,8 +100,13 @@ public class TracWebServer extends CommonServiceBase {
         var contentStorage = pluginManager.createService(IFileStorage.class, contentRootConfig, configManager);
         contentStorage.start(workerGroup);
 
+        contentServer = new ContentServer(platformConfig.getWebServer(), contentStorage);
+
+        // Cache hit and miss counts are published over JMX while the server is running
+        if (contentServer.cache() != null)
+            registerCacheMetrics(contentServer.cache());
+
         // Handlers for all support protocols
-        var contentServer = new ContentServer(platformConfig.getWebServer(), contentStorage);
         var http1Handler = (Supplier<Http1Server>) () -> new Http1Server(contentServer);
         var http2Handler = (Supplier<Http2Server>) () -> new Http2Server(contentServer);
 
@@ -164,6 +175,44 @@ public class TracWebServer extends CommonServiceBase {
         }
 
         log.info("All web server connections are closed");
+
+        if (contentServer.cache() != null) {
+
+            var cache = contentServer.cache();
+
+            log.info("Content cache: {} hits, {} misses, {} bytes cached",
+                    cache.getHitCount(), cache.getMissCount(), cache.getCurrentSize());
+
+            unregisterCacheMetrics();
+        }
+
         return 0;
     }
+
+    private void registerCacheMetrics(ContentCache cache) {
+
+        try {
+            var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            mbeanServer.registerMBean(cache, new ObjectName(CACHE_MBEAN_NAME));
+        }
+        catch (JMException e) {
+
+            // Metrics are not critical, carry on without them
+            log.warn("Content cache metrics will not be available: {}", e.getMessage());
+        }
+    }
+
+    private void unregisterCacheMetrics() {
+
+        try {
+            var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            var mbeanName = new ObjectName(CACHE_MBEAN_NAME);
+
+            if (mbeanServer.isRegistered(mbeanName))
+                mbeanServer.unregisterMBean(mbeanName);
+        }
+        catch (JMException e) {
+            log.warn("Content cache metrics could not be cleaned up: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2023 Accenture Global Solutions Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracedap.webserver;
+
+import org.finos.tracdap.common.storage.FileStat;
+import org.finos.tracdap.common.storage.FileType;
+import org.finos.tracdap.config.WebServerCacheConfig;
+import org.finos.tracdap.webserver.ContentCache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+
+public class ContentCacheTest {
+
+    @Test
+    void cache_putAndGet() {
+
+        var cache = new ContentCache(WebServerCacheConfig.newBuilder().build());
+
+        var entry = makeEntry("dir1/foo.html", 100);
+        cache.put("dir1/foo.html", entry);
+
+        Assertions.assertSame(entry, cache.get("dir1/foo.html"));
+        Assertions.assertNull(cache.get("dir1/bar.html"));
+        Assertions.assertEquals(100, cache.getCurrentSize());
+
+        cache.remove("dir1/foo.html");
+
+        Assertions.assertNull(cache.get("dir1/foo.html"));
+        Assertions.assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    void cache_evictLeastRecentlyUsed() {
+
+        var config = WebServerCacheConfig.newBuilder()
+                .setMaxSize(300)
+                .build();
+
+        var cache = new ContentCache(config);
+
+        cache.put("file1", makeEntry("file1", 100));
+        cache.put("file2", makeEntry("file2", 100));
+        cache.put("file3", makeEntry("file3", 100));
+
+        // Touch file1, so file2 is now the least recently used
+        cache.get("file1");
+
+        cache.put("file4", makeEntry("file4", 100));
+
+        Assertions.assertNotNull(cache.get("file1"));
+        Assertions.assertNull(cache.get("file2"));
+        Assertions.assertNotNull(cache.get("file3"));
+        Assertions.assertNotNull(cache.get("file4"));
+        Assertions.assertEquals(300, cache.getCurrentSize());
+    }
+
+    @Test
+    void cache_entryLargerThanCache() {
+
+        var config = WebServerCacheConfig.newBuilder()
+                .setMaxSize(300)
+                .build();
+
+        var cache = new ContentCache(config);
+
+        cache.put("file1", makeEntry("file1", 100));
+        cache.put("big_file", makeEntry("big_file", 400));
+
+        Assertions.assertNotNull(cache.get("file1"));
+        Assertions.assertNull(cache.get("big_file"));
+    }
+
+    @Test
+    void cache_isCacheable() {
+
+        var config = WebServerCacheConfig.newBuilder()
+                .setMaxFileSize(1000)
+                .build();
+
+        var cache = new ContentCache(config);
+
+        Assertions.assertTrue(cache.isCacheable(makeStat("small_file", 1000)));
+        Assertions.assertFalse(cache.isCacheable(makeStat("large_file", 1001)));
+    }
+
+    @Test
+    void cache_isUnchanged() {
+
+        var cache = new ContentCache(WebServerCacheConfig.newBuilder().build());
+
+        var stat = makeStat("file1", 100);
+        var entry = new ContentCache.Entry(stat, new byte[100], null, null);
+
+        var sameStat = new FileStat("file1", "file1", FileType.FILE, 100, stat.ctime, stat.mtime, stat.atime);
+        var resizedStat = new FileStat("file1", "file1", FileType.FILE, 101, stat.ctime, stat.mtime, stat.atime);
+        var modifiedStat = new FileStat("file1", "file1", FileType.FILE, 100, stat.ctime, stat.mtime.plusSeconds(1), stat.atime);
+
+        Assertions.assertTrue(cache.isUnchanged(entry, sameStat));
+        Assertions.assertFalse(cache.isUnchanged(entry, resizedStat));
+        Assertions.assertFalse(cache.isUnchanged(entry, modifiedStat));
+    }
+
+    @Test
+    void cache_isVariantFresh() {
+
+        var cache = new ContentCache(WebServerCacheConfig.newBuilder().build());
+
+        var stat = makeStat("file1", 100);
+
+        var newerVariant = new FileStat("file1.gz", "file1.gz", FileType.FILE, 50, stat.ctime, stat.mtime.plusSeconds(1), stat.atime);
+        var sameTimeVariant = new FileStat("file1.gz", "file1.gz", FileType.FILE, 50, stat.ctime, stat.mtime, stat.atime);
+        var olderVariant = new FileStat("file1.gz", "file1.gz", FileType.FILE, 50, stat.ctime, stat.mtime.minusSeconds(1), stat.atime);
+
+        Assertions.assertTrue(cache.isVariantFresh(stat, newerVariant));
+        Assertions.assertTrue(cache.isVariantFresh(stat, sameTimeVariant));
+        Assertions.assertFalse(cache.isVariantFresh(stat, olderVariant));
+    }
+
+    @Test
+    void cache_isUnchangedVariant() {
+
+        var cache = new ContentCache(WebServerCacheConfig.newBuilder().build());
+
+        var variantStat = makeStat("file1.gz", 50);
+
+        var sameVariant = new FileStat("file1.gz", "file1.gz", FileType.FILE, 50,
+                variantStat.ctime, variantStat.mtime, variantStat.atime);
+
+        var replacedVariant = new FileStat("file1.gz", "file1.gz", FileType.FILE, 50,
+                variantStat.ctime, variantStat.mtime.plusSeconds(1), variantStat.atime);
+
+        Assertions.assertTrue(cache.isUnchanged(variantStat, sameVariant));
+        Assertions.assertFalse(cache.isUnchanged(variantStat, replacedVariant));
+    }
+
+    @Test
+    void cache_hitMissCounters() {
+
+        var cache = new ContentCache(WebServerCacheConfig.newBuilder().build());
+
+        cache.recordMiss();
+        cache.recordHit();
+        cache.recordHit();
+
+        Assertions.assertEquals(2, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(2.0 / 3.0, cache.getHitRatio(), 1e-9);
+    }
+
+    private static ContentCache.Entry makeEntry(String storagePath, int size) {
+
+        return new ContentCache.Entry(makeStat(storagePath, size), new byte[size], null, null);
+    }
+
+    private static FileStat makeStat(String storagePath, long size) {
+
+        var now = Instant.now();
+
+        return new FileStat(storagePath, storagePath, FileType.FILE, size, now, now, now);
+    }
+}
@@ -93,6 +93,33 @@ public class TracWebServerHttp1Test {
         Assertions.assertEquals(size, getResponse.body().length());
     }
 
+    @Test
+    void testHeadGet_varyAcceptEncoding() throws Exception {
+
+        // Compressible content must always send Vary, even when it is not served from the cache
+
+        var url = SERVER_ADDRESS + "/dir1/foo.html";
+
+        var request = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3));
+
+        var client = HttpClient.newHttpClient();
+
+        var head = request.method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        var headResponse = client.send(head, HttpResponse.BodyHandlers.ofString());
+
+        var get = request.GET().build();
+        var getResponse = client.send(get, HttpResponse.BodyHandlers.ofString());
+
+        var headVary = headResponse.headers().firstValue(HttpHeaderNames.VARY.toString());
+        var getVary = getResponse.headers().firstValue(HttpHeaderNames.VARY.toString());
+
+        Assertions.assertEquals(HttpResponseStatus.OK.code(), getResponse.statusCode());
+        Assertions.assertEquals(HttpHeaderNames.ACCEPT_ENCODING.toString(), headVary.map(String::toLowerCase).orElse(null));
+        Assertions.assertEquals(HttpHeaderNames.ACCEPT_ENCODING.toString(), getVary.map(String::toLowerCase).orElse(null));
+    }
+
     @Test
     void testHeadGet_dir() throws Exception {
 
@@ -191,4 +218,79 @@ public class TracWebServerHttp1Test {
         Assertions.assertEquals(HttpResponseStatus.NOT_FOUND.code(), getResponse.statusCode());
     }
 
+    @Test
+    void testGet_ifNoneMatch() throws Exception {
+
+        var url = SERVER_ADDRESS + "/dir1/foo.html";
+
+        var client = HttpClient.newHttpClient();
+
+        var get = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3))
+                .GET().build();
+
+        var getResponse = client.send(get, HttpResponse.BodyHandlers.ofString());
+        var etag = getResponse.headers().firstValue(HttpHeaderNames.ETAG.toString());
+
+        Assertions.assertEquals(HttpResponseStatus.OK.code(), getResponse.statusCode());
+        Assertions.assertTrue(etag.isPresent());
+
+        // Repeat request with a matching ETag should get a 304 with no content
+
+        var conditionalGet = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3))
+                .header(HttpHeaderNames.IF_NONE_MATCH.toString(), etag.get())
+                .GET().build();
+
+        var conditionalResponse = client.send(conditionalGet, HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(HttpResponseStatus.NOT_MODIFIED.code(), conditionalResponse.statusCode());
+        Assertions.assertEquals("", conditionalResponse.body());
+        Assertions.assertEquals(etag, conditionalResponse.headers().firstValue(HttpHeaderNames.ETAG.toString()));
+
+        // A different ETag should get the full content
+
+        var staleGet = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3))
+                .header(HttpHeaderNames.IF_NONE_MATCH.toString(), "\"stale-etag\"")
+                .GET().build();
+
+        var staleResponse = client.send(staleGet, HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(HttpResponseStatus.OK.code(), staleResponse.statusCode());
+        Assertions.assertEquals(getResponse.body(), staleResponse.body());
+    }
+
+    @Test
+    void testGet_ifModifiedSince() throws Exception {
+
+        var url = SERVER_ADDRESS + "/dir1/foo.html";
+
+        var client = HttpClient.newHttpClient();
+
+        var head = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        var headResponse = client.send(head, HttpResponse.BodyHandlers.ofString());
+        var lastModified = headResponse.headers().firstValue(HttpHeaderNames.LAST_MODIFIED.toString());
+
+        Assertions.assertTrue(lastModified.isPresent());
+
+        var conditionalGet = HttpRequest.newBuilder(new URI(url))
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofSeconds(3))
+                .header(HttpHeaderNames.IF_MODIFIED_SINCE.toString(), lastModified.get())
+                .GET().build();
+
+        var conditionalResponse = client.send(conditionalGet, HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(HttpResponseStatus.NOT_MODIFIED.code(), conditionalResponse.statusCode());
+        Assertions.assertEquals("", conditionalResponse.body());
+    }
 }